@@ -30,6 +30,7 @@ import org.neo4j.graphalgo.impl.AllShortestPaths;
 import org.neo4j.graphalgo.impl.HugeMSBFSAllShortestPaths;
 import org.neo4j.graphalgo.impl.MSBFSASPAlgorithm;
 import org.neo4j.graphalgo.impl.MSBFSAllShortestPaths;
+import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -58,7 +59,7 @@ public class AllShortestPathsProc {
 
     @Procedure("algo.allShortestPaths.stream")
     @Description("CALL algo.allShortestPaths.stream(weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0, concurrency:4}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0, concurrency:4, omega:64}) " +
             "YIELD sourceNodeId, targetNodeId, distance - yields a stream of {sourceNodeId, targetNodeId, distance}")
     public Stream<AllShortestPaths.Result> allShortestPathsStream(
             @Name(value = "propertyName") String propertyName,
@@ -82,18 +83,21 @@ public class AllShortestPathsProc {
 
         // use MSBFS ASP if no weightProperty is set
         if (null == propertyName || propertyName.isEmpty()) {
+            final int omega = configuration.getNumber("omega", MultiSourceBFS.OMEGA).intValue();
             if (graph instanceof HugeGraph) {
                 HugeGraph hugeGraph = (HugeGraph) graph;
                 algo = new HugeMSBFSAllShortestPaths(
                         hugeGraph,
                         tracker,
                         configuration.getConcurrency(),
-                        Pools.DEFAULT);
+                        Pools.DEFAULT)
+                        .withOmega(omega);
             } else {
                 algo = new MSBFSAllShortestPaths(
                         graph,
                         configuration.getConcurrency(),
-                        Pools.DEFAULT);
+                        Pools.DEFAULT)
+                        .withOmega(omega);
             }
             algo.withProgressLogger(ProgressLogger.wrap(
                     log,
@@ -19,9 +19,12 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.*;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.betweenness.*;
@@ -106,14 +109,27 @@ public class BetweennessCentralityProc {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final AllocationTracker tracker = AllocationTracker.create();
 
         final Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
                 .withoutNodeProperties()
                 .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
+                .withAllocationTracker(tracker)
                 .load(configuration.getGraphImpl());
 
         final int concurrency = configuration.getConcurrency();
+        if (graph instanceof HugeGraph) {
+            final HugeParallelBetweennessCentrality algo =
+                    new HugeParallelBetweennessCentrality((HugeGraph) graph, tracker, Pools.DEFAULT, concurrency)
+                            .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(huge)"))
+                            .withTerminationFlag(TerminationFlag.wrap(transaction))
+                            .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
+                            .compute();
+            graph.release();
+            return algo.resultStream();
+        }
+
         if (concurrency > 1) {
             final ParallelBetweennessCentrality algo =
                     new ParallelBetweennessCentrality(graph, Pools.DEFAULT, concurrency)
@@ -224,6 +240,7 @@ public class BetweennessCentralityProc {
 
         final BetweennessCentralityProcResult.Builder builder =
                 BetweennessCentralityProcResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
 
         Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
@@ -231,11 +248,16 @@ public class BetweennessCentralityProc {
                     .init(log, label, relationship, configuration)
                     .withoutNodeProperties()
                     .withDirection(configuration.getDirection(Direction.OUTGOING))
+                    .withAllocationTracker(tracker)
                     .load(configuration.getGraphImpl());
         }
 
         builder.withNodeCount(graph.nodeCount());
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            return computeHugeBetweenness(builder, (HugeGraph) graph, tracker, configuration, terminationFlag);
+        }
+
         final BetweennessCentrality bc = new BetweennessCentrality(graph)
                 .withTerminationFlag(terminationFlag)
                 .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(sequential)"))
@@ -276,6 +298,7 @@ public class BetweennessCentralityProc {
 
         final BetweennessCentralityProcResult.Builder builder =
                 BetweennessCentralityProcResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
 
         Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
@@ -285,12 +308,17 @@ public class BetweennessCentralityProc {
                     .withOptionalRelationshipType(relationship)
                     .withoutNodeProperties()
                     .withDirection(configuration.getDirection(Direction.OUTGOING))
+                    .withAllocationTracker(tracker)
                     .load(configuration.getGraphImpl());
         }
 
         builder.withNodeCount(graph.nodeCount());
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            return computeHugeBetweenness(builder, (HugeGraph) graph, tracker, configuration, terminationFlag);
+        }
+
         final ParallelBetweennessCentrality bc =
                 new ParallelBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency())
                         .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(parallel)"))
@@ -321,6 +349,43 @@ public class BetweennessCentralityProc {
         return Stream.of(builder.build());
     }
 
+    private Stream<BetweennessCentralityProcResult> computeHugeBetweenness(
+            BetweennessCentralityProcResult.Builder builder,
+            HugeGraph graph,
+            AllocationTracker tracker,
+            ProcedureConfiguration configuration,
+            TerminationFlag terminationFlag) {
+
+        final HugeParallelBetweennessCentrality bc =
+                new HugeParallelBetweennessCentrality(graph, tracker, Pools.DEFAULT, configuration.getConcurrency())
+                        .withProgressLogger(ProgressLogger.wrap(log, "BetweennessCentrality(huge)"))
+                        .withTerminationFlag(terminationFlag)
+                        .withDirection(configuration.getDirection(Direction.OUTGOING));
+
+        builder.timeEval(() -> {
+            bc.compute();
+            if (configuration.isStatsFlag()) {
+                computeStats(builder, bc.getCentrality(), graph.nodeCount());
+            }
+        });
+
+        graph.release();
+        if (configuration.isWriteFlag()) {
+            builder.timeWrite(() -> {
+                final PagedAtomicDoubleArray centrality = bc.getCentrality();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                        .build()
+                        .write(writeProperty, centrality, PagedAtomicDoubleArray.Translator.INSTANCE);
+            });
+        }
+        bc.release();
+
+        return Stream.of(builder.build());
+    }
+
     private void computeStats(BetweennessCentralityProcResult.Builder builder, double[] centrality) {
         double min = Double.MAX_VALUE;
         double max = Double.MIN_VALUE;
@@ -359,6 +424,25 @@ public class BetweennessCentralityProc {
                 .withCentralitySum(sum);
     }
 
+    private void computeStats(BetweennessCentralityProcResult.Builder builder, PagedAtomicDoubleArray centrality, long nodeCount) {
+        double min = Double.MAX_VALUE;
+        double max = Double.MIN_VALUE;
+        double sum = 0.0;
+        for (long i = nodeCount - 1; i >= 0; i--) {
+            final double c = centrality.get(i);
+            if (c < min) {
+                min = c;
+            }
+            if (c > max) {
+                max = c;
+            }
+            sum += c;
+        }
+        builder.withCentralityMax(max)
+                .withCentralityMin(min)
+                .withCentralitySum(sum);
+    }
+
     private RABrandesBetweennessCentrality.SelectionStrategy strategy(ProcedureConfiguration configuration, Graph graph) {
 
         switch (configuration.getString("strategy", "random")) {
@@ -31,6 +31,8 @@ import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.closeness.HugeMSClosenessCentrality;
 import org.neo4j.graphalgo.impl.closeness.MSBFSCCAlgorithm;
 import org.neo4j.graphalgo.impl.closeness.MSClosenessCentrality;
+import org.neo4j.graphalgo.impl.closeness.PivotSampling;
+import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 import org.neo4j.graphalgo.results.CentralityProcResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -60,7 +62,7 @@ public class ClosenessCentralityProc {
     public KernelTransaction transaction;
 
     @Procedure(value = "algo.closeness.stream")
-    @Description("CALL algo.closeness.stream(label:String, relationship:String{concurrency:4}) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.closeness.stream(label:String, relationship:String{concurrency:4, omega:64, sampleSize:0, epsilon:0.1}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<MSClosenessCentrality.Result> closenessStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -80,7 +82,9 @@ public class ClosenessCentralityProc {
         final MSBFSCCAlgorithm<?> algo = newAlgo(tracker,
                 graph,
                 configuration.getConcurrency(),
-                configuration.get("improved", Boolean.FALSE));
+                configuration.get("improved", Boolean.FALSE))
+                .withOmega(configuration.getNumber("omega", MultiSourceBFS.OMEGA).intValue())
+                .withSampleSize(sampleSize(configuration, graph.nodeCount(), log));
         algo
                 .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
@@ -89,6 +93,23 @@ public class ClosenessCentralityProc {
         return algo.resultStream();
     }
 
+    /**
+     * number of pivots for the approximation, either given directly as
+     * {@code sampleSize} or derived from the error target {@code epsilon}.
+     * 0 if the exact centrality should be computed.
+     */
+    static int sampleSize(ProcedureConfiguration configuration, long nodeCount, Log log) {
+        int sampleSize = configuration.getNumber("sampleSize", 0).intValue();
+        Number epsilon = configuration.getNumber("epsilon", null);
+        if (sampleSize == 0 && epsilon != null) {
+            sampleSize = PivotSampling.sampleSize(nodeCount, epsilon.doubleValue());
+        }
+        if (sampleSize > 0 && sampleSize < nodeCount) {
+            log.info("Approximating centrality from %d of %d nodes", sampleSize, nodeCount);
+        }
+        return sampleSize;
+    }
+
     private MSBFSCCAlgorithm<?> newAlgo(
             final AllocationTracker tracker,
             final Graph graph,
@@ -112,7 +133,7 @@ public class ClosenessCentralityProc {
     }
 
     @Procedure(value = "algo.closeness", mode = Mode.WRITE)
-    @Description("CALL algo.closeness(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4'}) YIELD " +
+    @Description("CALL algo.closeness(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4, omega:64, sampleSize:0, epsilon:0.1'}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes] - yields evaluation details")
     public Stream<CentralityProcResult> closeness(
             @Name(value = "label", defaultValue = "") String label,
@@ -143,7 +164,9 @@ public class ClosenessCentralityProc {
         final MSBFSCCAlgorithm<?> algo = newAlgo(tracker,
                 graph,
                 concurrency,
-                configuration.get("improved", Boolean.FALSE));
+                configuration.get("improved", Boolean.FALSE))
+                .withOmega(configuration.getNumber("omega", MultiSourceBFS.OMEGA).intValue())
+                .withSampleSize(sampleSize(configuration, graph.nodeCount(), log));
         algo
                 .withProgressLogger(ProgressLogger.wrap(log, "ClosenessCentrality(MultiSource)"))
                 .withTerminationFlag(terminationFlag);
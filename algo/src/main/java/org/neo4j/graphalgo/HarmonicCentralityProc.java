@@ -56,7 +56,7 @@ public class HarmonicCentralityProc {
     public KernelTransaction transaction;
 
     @Procedure(value = "algo.closeness.harmonic.stream")
-    @Description("CALL algo.closeness.harmonic.stream(label:String, relationship:String{concurrency:4}) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.closeness.harmonic.stream(label:String, relationship:String{concurrency:4, sampleSize:0, epsilon:0.1}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<HarmonicCentrality.Result> harmonicStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -77,6 +77,7 @@ public class HarmonicCentralityProc {
                 .load(configuration.getGraphImpl());
 
         final HarmonicCentralityAlgorithm algo = HarmonicCentralityAlgorithm.instance(graph, tracker, Pools.DEFAULT, configuration.getConcurrency())
+                .withSampleSize(ClosenessCentralityProc.sampleSize(configuration, graph.nodeCount(), log))
                 .withProgressLogger(ProgressLogger.wrap(log, "HarmonicCentrality"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
                 .compute();
@@ -87,7 +88,7 @@ public class HarmonicCentralityProc {
     }
 
     @Procedure(value = "algo.closeness.harmonic", mode = Mode.WRITE)
-    @Description("CALL algo.closeness.harmonic(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4'}) YIELD " +
+    @Description("CALL algo.closeness.harmonic(label:String, relationship:String, {write:true, writeProperty:'centrality, concurrency:4, sampleSize:0, epsilon:0.1'}) YIELD " +
             "loadMillis, computeMillis, writeMillis, nodes] - yields evaluation details")
     public Stream<CentralityProcResult> harmonic(
             @Name(value = "label", defaultValue = "") String label,
@@ -118,6 +119,7 @@ public class HarmonicCentralityProc {
         builder.withNodeCount(graph.nodeCount());
 
         final HarmonicCentralityAlgorithm algo = HarmonicCentralityAlgorithm.instance(graph, tracker, Pools.DEFAULT, concurrency)
+                .withSampleSize(ClosenessCentralityProc.sampleSize(configuration, graph.nodeCount(), log))
                 .withProgressLogger(ProgressLogger.wrap(log, "HarmonicCentrality"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
 
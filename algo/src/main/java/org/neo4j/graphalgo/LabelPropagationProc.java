@@ -18,17 +18,23 @@
  */
 package org.neo4j.graphalgo;
 
+import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
+import org.neo4j.graphalgo.impl.HugeLabelPropagation;
 import org.neo4j.graphalgo.impl.LabelPropagation;
 import org.neo4j.graphalgo.results.LabelPropagationStats;
 import org.neo4j.graphdb.Direction;
@@ -44,12 +50,14 @@ import org.neo4j.procedure.Procedure;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public final class LabelPropagationProc {
 
     public static final String CONFIG_WEIGHT_KEY = "weightProperty";
     public static final String CONFIG_PARTITION_KEY = "partitionProperty";
+    public static final String CONFIG_COLORED = "colored";
     public static final Integer DEFAULT_ITERATIONS = 1;
     public static final Boolean DEFAULT_WRITE = Boolean.TRUE;
     public static final String DEFAULT_WEIGHT_KEY = "weight";
@@ -67,7 +75,7 @@ public final class LabelPropagationProc {
     @Procedure(name = "algo.labelPropagation", mode = Mode.WRITE)
     @Description("CALL algo.labelPropagation(" +
             "label:String, relationship:String, direction:String, " +
-            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4}) " +
+            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4, colored:false}) " +
             "YIELD nodes, iterations, didConverge, loadMillis, computeMillis, writeMillis, write, weightProperty, partitionProperty - " +
             "simple label propagation kernel")
     public Stream<LabelPropagationStats> labelPropagation(
@@ -94,9 +102,11 @@ public final class LabelPropagationProc {
                 .partitionProperty(partitionProperty)
                 .weightProperty(weightProperty);
 
-        HeavyGraph graph = load(configuration, direction, partitionProperty, weightProperty, batchSize, concurrency, stats);
+        final boolean colored = configuration.get(CONFIG_COLORED, false);
 
-        int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
+        Graph graph = load(configuration, direction, colored, partitionProperty, weightProperty, batchSize, concurrency, stats);
+
+        Object labels = compute(direction, iterations, batchSize, concurrency, colored, graph, stats);
         if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
             write(concurrency, partitionProperty, graph, labels, stats);
         }
@@ -123,31 +133,50 @@ public final class LabelPropagationProc {
         final String partitionProperty = configuration.getString(CONFIG_PARTITION_KEY, DEFAULT_PARTITION_KEY);
         final String weightProperty = configuration.getString(CONFIG_WEIGHT_KEY, DEFAULT_WEIGHT_KEY);
 
-        HeavyGraph graph = load(configuration, direction, partitionProperty, weightProperty);
+        final boolean colored = configuration.get(CONFIG_COLORED, false);
+
+        Graph graph = load(configuration, direction, colored, partitionProperty, weightProperty);
 
-        int[] result = compute(direction, iterations, batchSize, concurrency, graph, new LabelPropagationStats.Builder());
+        Object result = compute(direction, iterations, batchSize, concurrency, colored, graph, new LabelPropagationStats.Builder());
 
         graph.release();
 
-        return IntStream.range(0, result.length)
-                .mapToObj(i -> new LabelPropagation.StreamResult(graph.toOriginalNodeId(i), result[i]));
+        if (result instanceof HugeLongArray) {
+            HugeLongArray labels = (HugeLongArray) result;
+            HugeGraph hugeGraph = (HugeGraph) graph;
+            return LongStream.range(0, labels.size())
+                    .mapToObj(i -> new LabelPropagation.StreamResult(hugeGraph.toOriginalNodeId(i), labels.get(i)));
+        }
+        int[] labels = (int[]) result;
+        return IntStream.range(0, labels.length)
+                .mapToObj(i -> new LabelPropagation.StreamResult(graph.toOriginalNodeId(i), labels[i]));
     }
 
-    private HeavyGraph load(ProcedureConfiguration config, Direction direction, String partitionProperty, String weightKey) {
-        Class<? extends GraphFactory> graphImpl = config.getGraphImpl(
-                HeavyGraph.TYPE, HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE);
-        return (HeavyGraph) new GraphLoader(dbAPI, Pools.DEFAULT)
+    private Graph load(ProcedureConfiguration config, Direction direction, boolean colored, String partitionProperty, String weightKey) {
+        final Class<? extends GraphFactory> graphImpl;
+        if (colored) {
+            graphImpl = config.getGraphImpl(
+                    HeavyGraph.TYPE,
+                    HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE);
+        } else {
+            graphImpl = config.getGraphImpl(
+                    HeavyGraph.TYPE,
+                    HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE);
+        }
+        return new GraphLoader(dbAPI, Pools.DEFAULT)
                     .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
                     .withOptionalRelationshipWeightsFromProperty(weightKey, 1.0d)
                     .withOptionalNodeWeightsFromProperty(weightKey, 1.0d)
                     .withOptionalNodeProperty(partitionProperty, 0.0d)
-                    .withDirection(direction)
+                    // the coloring has to see the neighbors of both directions
+                    .withDirection(colored ? Direction.BOTH : direction)
                     .load(graphImpl);
     }
 
-    private HeavyGraph load(
+    private Graph load(
             ProcedureConfiguration config,
             Direction direction,
+            boolean colored,
             String partitionKey,
             String weightKey,
             int batchSize,
@@ -155,27 +184,35 @@ public final class LabelPropagationProc {
             LabelPropagationStats.Builder stats) {
 
         try (ProgressTimer timer = stats.timeLoad()) {
-            return load(config, direction, partitionKey, weightKey);
+            return load(config, direction, colored, partitionKey, weightKey);
         }
     }
 
-    private int[] compute(
+    private Object compute(
             Direction direction,
             int iterations,
             int batchSize,
             int concurrency,
-            HeavyGraph graph,
+            boolean colored,
+            Graph graph,
             LabelPropagationStats.Builder stats) {
         try (ProgressTimer timer = stats.timeEval()) {
             ExecutorService pool = batchSize > 0 ? Pools.DEFAULT : null;
             batchSize = Math.max(1, batchSize);
-            final LabelPropagation labelPropagation = new LabelPropagation(graph, batchSize, concurrency, pool);
+            if (graph instanceof HugeGraph) {
+                return computeHuge(direction, iterations, batchSize, concurrency, pool, (HugeGraph) graph, stats);
+            }
+            final LabelPropagation labelPropagation = new LabelPropagation((HeavyGraph) graph, batchSize, concurrency, pool);
             labelPropagation
                     .withProgressLogger(ProgressLogger.wrap(
                             log,
                             "LabelPropagation"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(direction, iterations);
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+            if (colored) {
+                labelPropagation.computeColored(direction, iterations);
+            } else {
+                labelPropagation.compute(direction, iterations);
+            }
             final int[] result = labelPropagation.labels();
 
             stats.iterations(labelPropagation.ranIterations());
@@ -188,23 +225,62 @@ public final class LabelPropagationProc {
         }
     }
 
+    private HugeLongArray computeHuge(
+            Direction direction,
+            int iterations,
+            int batchSize,
+            int concurrency,
+            ExecutorService pool,
+            HugeGraph graph,
+            LabelPropagationStats.Builder stats) {
+        final HugeLabelPropagation labelPropagation = new HugeLabelPropagation(
+                graph,
+                batchSize,
+                concurrency,
+                pool,
+                AllocationTracker.EMPTY);
+        labelPropagation
+                .withProgressLogger(ProgressLogger.wrap(
+                        log,
+                        "LabelPropagation(huge)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction))
+                .compute(direction, iterations);
+        final HugeLongArray result = labelPropagation.labels();
+
+        stats.iterations(labelPropagation.ranIterations());
+        stats.didConverge(labelPropagation.didConverge());
+        stats.nodes(result.size());
+
+        labelPropagation.release();
+        graph.release();
+        return result;
+    }
+
     private void write(
             int concurrency,
             String partitionKey,
-            HeavyGraph graph,
-            int[] labels,
+            Graph graph,
+            Object labels,
             LabelPropagationStats.Builder stats) {
         stats.write(true);
         try (ProgressTimer timer = stats.timeWrite()) {
-            Exporter.of(dbAPI, graph)
+            final Exporter exporter = Exporter.of(dbAPI, graph)
                     .withLog(log)
                     .parallel(Pools.DEFAULT, concurrency, TerminationFlag.wrap(transaction))
-                    .build()
-                    .write(
-                            partitionKey,
-                            labels,
-                            Translators.INT_ARRAY_TRANSLATOR
+                    .build();
+            if (labels instanceof HugeLongArray) {
+                exporter.write(
+                        partitionKey,
+                        (HugeLongArray) labels,
+                        HugeLongArray.Translator.INSTANCE
+                );
+            } else {
+                exporter.write(
+                        partitionKey,
+                        (int[]) labels,
+                        Translators.INT_ARRAY_TRANSLATOR
                 );
+            }
         }
     }
 }
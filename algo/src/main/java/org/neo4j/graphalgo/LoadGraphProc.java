@@ -23,16 +23,19 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
 import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -50,7 +53,7 @@ public final class LoadGraphProc {
     @Procedure(name = "algo.graph.load")
     @Description("CALL algo.graph.load(" +
             "name:String, label:String, relationship:String" +
-            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', graph:'heavy/huge/cypher'}) " +
+            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', graph:'heavy/huge/cypher', storage:'heap/offheap/mmap'}) " +
             "YIELD nodes, relationships, loadMillis, computeMillis, writeMillis, write, nodeProperty, nodeWeight, relationshipWeight - " +
             "load named graph")
     public Stream<LoadGraphStats> load(
@@ -146,6 +149,62 @@ public final class LoadGraphProc {
         return Stream.of(info);
     }
 
+    @Procedure(name = "algo.graph.save")
+    @Description("CALL algo.graph.save(name:String, file:String) " +
+            "YIELD name, file, nodes, bytes, millis - " +
+            "save a named graph of type 'huge' into a snapshot file within the import directory")
+    public Stream<GraphSnapshotStats> save(
+            @Name("name") String name,
+            @Name("file") String file) {
+        Graph graph = LoadGraphFactory.get(name);
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph " + name + " is not loaded");
+        }
+
+        GraphSnapshotStats stats = new GraphSnapshotStats(name, file);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            stats.bytes = HugeGraphSnapshot.save(graph, Exporter.resolveImportFile(dbAPI, file));
+            stats.nodes = graph.nodeCount();
+            stats.millis = timer.stop().getDuration();
+        }
+        return Stream.of(stats);
+    }
+
+    @Procedure(name = "algo.graph.restore")
+    @Description("CALL algo.graph.restore(name:String, file:String) " +
+            "YIELD name, file, nodes, bytes, millis, alreadyLoaded - " +
+            "restore a named graph from a snapshot file within the import directory created by algo.graph.save")
+    public Stream<GraphSnapshotStats> restore(
+            @Name("name") String name,
+            @Name("file") String file) {
+        GraphSnapshotStats stats = new GraphSnapshotStats(name, file);
+        if (LoadGraphFactory.check(name)) {
+            stats.alreadyLoaded = true;
+            return Stream.of(stats);
+        }
+
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            Path path = Exporter.resolveImportFile(dbAPI, file);
+            Graph graph = HugeGraphSnapshot.restore(path, new AllocationTracker());
+            stats.nodes = graph.nodeCount();
+            stats.bytes = path.toFile().length();
+            stats.millis = timer.stop().getDuration();
+            LoadGraphFactory.set(name, graph);
+        }
+        return Stream.of(stats);
+    }
+
+    public static class GraphSnapshotStats {
+        public final String name, file;
+        public long nodes, bytes, millis;
+        public boolean alreadyLoaded;
+
+        public GraphSnapshotStats(String name, String file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
     public static class GraphInfo {
         public final String name;
         public String type;
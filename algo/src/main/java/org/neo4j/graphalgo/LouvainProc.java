@@ -23,16 +23,19 @@ import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.louvain.*;
 import org.neo4j.graphalgo.results.LouvainResult;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
@@ -50,6 +53,9 @@ public class LouvainProc {
     public static final String CONFIG_CLUSTER_PROPERTY = "writeProperty";
     public static final String DEFAULT_CLUSTER_PROPERTY = "community";
 
+    private static final PropertyTranslator<HugeMultiLevelLouvain> INTERMEDIATE_COMMUNITIES_TRANSLATOR =
+            (propertyId, louvain, nodeId) -> DefinedProperty.longArrayProperty(propertyId, louvain.getCommunities(nodeId));
+
     @Context
     public GraphDatabaseAPI api;
 
@@ -61,8 +67,9 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain", mode = Mode.WRITE)
     @Description("CALL algo.louvain(label:String, relationship:String, " +
-            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4}) " +
-            "YIELD nodes, communityCount, iterations, loadMillis, computeMillis, writeMillis")
+            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4, levels:1, " +
+            "includeIntermediateCommunities: false, intermediateCommunitiesWriteProperty:'communities'}) " +
+            "YIELD nodes, communityCount, iterations, levels, loadMillis, computeMillis, writeMillis")
     public Stream<LouvainResult> louvain(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -72,6 +79,10 @@ public class LouvainProc {
                 .overrideNodeLabelOrQuery(label)
                 .overrideRelationshipTypeOrQuery(relationship);
 
+        if (configuration.isWriteToFile() && includeIntermediateCommunities(configuration)) {
+            throw new IllegalArgumentException("intermediate communities can not be written to a file");
+        }
+
         LouvainResult.Builder builder = LouvainResult.builder();
 
         final Graph graph;
@@ -89,13 +100,14 @@ public class LouvainProc {
         try (ProgressTimer timer = builder.timeEval()) {
             louvain.compute();
             builder.withIterations(louvain.getIterations())
+                    .withLevels(louvain.getLevels())
                     .withCommunityCount(louvain.getCommunityCount());
         }
 
-        if (configuration.isWriteFlag()) {
+        if (configuration.isWriteToFile() || configuration.isWriteFlag()) {
             // write back
             builder.timeWrite(() ->
-                    write(graph, louvain.getCommunityIds(), configuration));
+                    write(graph, louvain, configuration));
         }
 
         return Stream.of(builder.build());
@@ -103,8 +115,8 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain.stream")
     @Description("CALL algo.louvain.stream(label:String, relationship:String, " +
-            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4) " +
-            "YIELD nodeId, community - yields a setId to each node id")
+            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4, levels:1, includeIntermediateCommunities: false}) " +
+            "YIELD nodeId, community, communities - yields a setId to each node id")
     public Stream<WeightedLouvain.Result> louvainStream(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationship,
@@ -119,7 +131,7 @@ public class LouvainProc {
                 .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
                 .compute()
-                .resultStream();
+                .resultStream(includeIntermediateCommunities(configuration));
 
     }
 
@@ -127,7 +139,7 @@ public class LouvainProc {
 
         final Class<? extends GraphFactory> graphImpl =
                 config.getGraphImpl(HugeGraph.TYPE,
-                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE);
+                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE);
 
         final GraphLoader loader = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
@@ -148,18 +160,37 @@ public class LouvainProc {
                 .load(graphImpl);
     }
 
-    private void write(Graph graph, Object communities, ProcedureConfiguration configuration) {
+    private static boolean includeIntermediateCommunities(ProcedureConfiguration config) {
+        return config.get(LouvainAlgorithm.CONFIG_INCLUDE_INTERMEDIATE_COMMUNITIES, false);
+    }
+
+    private void write(Graph graph, LouvainAlgorithm louvain, ProcedureConfiguration configuration) {
+        final Object communities = louvain.getCommunityIds();
         log.debug("Writing results");
-        final Exporter exporter = Exporter.of(api, graph)
+        final Exporter.Builder builder = Exporter.of(api, graph)
                 .withLog(log)
                 .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
-                .build();
+                .withWriteBatchSize(configuration.getWriteBatchSize());
+        if (configuration.isWriteToFile()) {
+            builder.toDirectory(configuration.getWriteDirectory());
+        }
+        final Exporter exporter = builder.build();
 
         if (communities instanceof int[]) {
             exporter.write(
                     configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
                     (int[]) communities,
                     Translators.INT_ARRAY_TRANSLATOR);
+        } else if (louvain instanceof HugeMultiLevelLouvain && includeIntermediateCommunities(configuration)) {
+            exporter.write(
+                    configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
+                    (HugeLongArray) communities,
+                    HugeLongArray.Translator.INSTANCE,
+                    configuration.get(
+                            LouvainAlgorithm.CONFIG_INTERMEDIATE_COMMUNITIES_PROPERTY,
+                            LouvainAlgorithm.DEFAULT_INTERMEDIATE_COMMUNITIES_PROPERTY),
+                    (HugeMultiLevelLouvain) louvain,
+                    INTERMEDIATE_COMMUNITIES_TRANSLATOR);
         } else if (communities instanceof HugeLongArray) {
             exporter.write(
                     configuration.get(CONFIG_CLUSTER_PROPERTY, DEFAULT_CLUSTER_PROPERTY),
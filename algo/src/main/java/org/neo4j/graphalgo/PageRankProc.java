@@ -18,19 +18,25 @@
  */
 package org.neo4j.graphalgo;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.PageRankResult;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
+import org.neo4j.graphalgo.impl.HugeIncrementalPageRank;
+import org.neo4j.graphalgo.impl.PageRankScoreReader;
 import org.neo4j.graphalgo.results.PageRankScore;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -42,6 +48,7 @@ import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -50,9 +57,13 @@ import java.util.stream.Stream;
 public final class PageRankProc {
 
     public static final String CONFIG_DAMPING = "dampingFactor";
+    public static final String CONFIG_TOLERANCE = "tolerance";
+    public static final String CONFIG_PREVIOUS_PROPERTY = "previousProperty";
 
     public static final Double DEFAULT_DAMPING = 0.85;
     public static final Integer DEFAULT_ITERATIONS = 20;
+    public static final Double DEFAULT_TOLERANCE = 0.0;
+    public static final Double DEFAULT_INCREMENTAL_TOLERANCE = 1e-4;
     public static final String DEFAULT_SCORE_PROPERTY = "pagerank";
 
     @Context
@@ -66,8 +77,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4}) " +
-            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
+            "{iterations:5, dampingFactor:0.85, tolerance:0.0, write: true, writeProperty:'pagerank', concurrency:4}) " +
+            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, delta, write, writeProperty" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
             @Name(value = "label", defaultValue = "") String label,
@@ -91,7 +102,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, concurrency:4}) " +
+            "{iterations:20, dampingFactor:0.85, tolerance:0.0, concurrency:4}) " +
             "YIELD node, score - calculates page rank and streams results")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -133,6 +144,78 @@ public final class PageRankProc {
                 });
     }
 
+    @Procedure(value = "algo.pageRank.incremental", mode = Mode.WRITE)
+    @Description("CALL algo.pageRank.incremental(label:String, relationship:String, dirtyNodes:List<Long>, " +
+            "{previousProperty:'pagerank', dampingFactor:0.85, tolerance:0.0001, write: true, writeProperty:'pagerank', concurrency:4, graph:'huge'}) " +
+            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
+            " - updates the page rank of a previous run, read from previousProperty, for the end nodes of" +
+            " all relationships that changed since then, iterations are the number of push rounds")
+    public Stream<PageRankScore.Stats> pageRankIncremental(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "dirtyNodes") List<Long> dirtyNodes,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        Class<? extends GraphFactory> graphFactory = configuration.getGraphImpl(
+                HugeGraph.TYPE,
+                HugeGraph.TYPE, HugeCypherGraphFactory.TYPE);
+        double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
+        double tolerance = configuration.getNumber(CONFIG_TOLERANCE, DEFAULT_INCREMENTAL_TOLERANCE).doubleValue();
+        int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
+        String previousProperty = configuration.getString(
+                CONFIG_PREVIOUS_PROPERTY,
+                configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY));
+
+        PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
+        AllocationTracker tracker = AllocationTracker.create();
+        final HugeGraph graph;
+        final DoubleArray previous;
+        try (ProgressTimer timer = statsBuilder.timeLoad()) {
+            // incoming relationships are needed for the residuals of the dirty nodes
+            Graph loaded = new GraphLoader(api, Pools.DEFAULT)
+                    .init(log, label, relationship, configuration)
+                    .withAllocationTracker(tracker)
+                    .withDirection(Direction.BOTH)
+                    .withoutRelationshipWeights()
+                    .load(graphFactory);
+            if (!(loaded instanceof HugeGraph)) {
+                throw new IllegalArgumentException("Incremental PageRank requires a graph of type '" + HugeGraph.TYPE + "'");
+            }
+            graph = (HugeGraph) loaded;
+            statsBuilder.withNodes(graph.nodeCount());
+            previous = new PageRankScoreReader(api, graph, 1.0 - dampingFactor)
+                    .read(previousProperty, Pools.DEFAULT, concurrency, tracker);
+        }
+
+        PrimitiveLongIterator dirty = PrimitiveLongCollections.iterator(dirtyNodes
+                .stream()
+                .mapToLong(Long::longValue)
+                .filter(graph::contains)
+                .map(graph::toHugeMappedNodeId)
+                .toArray());
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        HugeIncrementalPageRank incremental = PageRankAlgorithm
+                .incremental(tracker, graph, dampingFactor, tolerance, Pools.DEFAULT, concurrency)
+                .withLog(log)
+                .withTerminationFlag(terminationFlag);
+
+        statsBuilder.timeEval(() -> incremental.compute(PageRankAlgorithm.scores(previous), dirty));
+        statsBuilder
+                .withIterations(incremental.rounds())
+                .withDampingFactor(dampingFactor);
+        log.debug("Incremental PageRank: %d affected nodes, %d pushes", incremental.affectedNodes(), incremental.pushes());
+
+        PageRankResult scores = incremental.result();
+        tracker.remove(previous.release());
+        incremental.release();
+        graph.release();
+
+        write(graph, terminationFlag, scores, configuration, statsBuilder);
+
+        return Stream.of(statsBuilder.build());
+    }
+
     private Graph load(
             String label,
             String relationship,
@@ -162,9 +245,10 @@ public final class PageRankProc {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        double tolerance = configuration.getNumber(CONFIG_TOLERANCE, DEFAULT_TOLERANCE).doubleValue();
         final int batchSize = configuration.getBatchSize();
         final int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
-        log.debug("Computing page rank with damping of " + dampingFactor + " and " + iterations + " iterations.");
+        log.debug("Computing page rank with damping of " + dampingFactor + ", at most " + iterations + " iterations and a tolerance of " + tolerance + ".");
 
         PageRankAlgorithm prAlgo = PageRankAlgorithm.of(
                 tracker,
@@ -178,10 +262,11 @@ public final class PageRankProc {
                 .withLog(log)
                 .withTerminationFlag(terminationFlag);
 
-        statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        statsBuilder.timeEval(() -> prAlgo.compute(iterations, tolerance));
 
         statsBuilder
-                .withIterations(iterations)
+                .withIterations(prAlgo.iterations())
+                .withDelta(prAlgo.delta())
                 .withDampingFactor(dampingFactor);
 
         final PageRankResult pageRank = prAlgo.result();
@@ -196,16 +281,19 @@ public final class PageRankProc {
             PageRankResult result,
             ProcedureConfiguration configuration,
             final PageRankScore.Stats.Builder statsBuilder) {
-        if (configuration.isWriteFlag(true)) {
+        if (configuration.isWriteToFile() || configuration.isWriteFlag(true)) {
             log.debug("Writing results");
             String propertyName = configuration.getWriteProperty(DEFAULT_SCORE_PROPERTY);
             try (ProgressTimer timer = statsBuilder.timeWrite()) {
-                Exporter exporter = Exporter
+                Exporter.Builder builder = Exporter
                         .of(api, graph)
                         .withLog(log)
                         .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
-                        .build();
-                result.export(propertyName, exporter);
+                        .withWriteBatchSize(configuration.getWriteBatchSize());
+                if (configuration.isWriteToFile()) {
+                    builder.toDirectory(configuration.getWriteDirectory());
+                }
+                result.export(propertyName, builder.build());
             }
             statsBuilder
                     .withWrite(true)
@@ -136,7 +136,7 @@ public class PrimProc {
                     .load(configuration.getGraphImpl(HugeGraph.TYPE));
         }
         final int root = graph.toMappedNodeId(startNode);
-        final Prim mstPrim = new Prim(graph, graph, graph)
+        final Prim mstPrim = new Prim(graph, graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "Prim(MaximumSpanningTree)"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
         builder.timeEval(() -> {
@@ -19,14 +19,18 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
+import org.neo4j.graphalgo.impl.HugeShortestPathDeltaStepping;
 import org.neo4j.graphalgo.impl.ShortestPathDeltaStepping;
 import org.neo4j.graphalgo.results.DeltaSteppingProcResult;
 import org.neo4j.graphdb.Direction;
@@ -81,6 +85,7 @@ public class ShortestPathDeltaSteppingProc {
                     Map<String, Object> config) {
 
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        final AllocationTracker tracker = AllocationTracker.create();
 
         final Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
@@ -88,8 +93,23 @@ public class ShortestPathDeltaSteppingProc {
                         propertyName,
                         configuration.getWeightPropertyDefaultValue(Double.MAX_VALUE))
                 .withDirection(Direction.OUTGOING)
+                .withAllocationTracker(tracker)
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            final HugeShortestPathDeltaStepping algo = new HugeShortestPathDeltaStepping(
+                    (HugeGraph) graph,
+                    delta,
+                    configuration.getConcurrency(),
+                    tracker)
+                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths(DeltaStepping)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .withExecutorService(Pools.DEFAULT)
+                    .compute(startNode.getId());
+            graph.release();
+            return algo.resultStream();
+        }
+
         final ShortestPathDeltaStepping algo = new ShortestPathDeltaStepping(graph, delta)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths(DeltaStepping)"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
@@ -114,6 +134,7 @@ public class ShortestPathDeltaSteppingProc {
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
         final DeltaSteppingProcResult.Builder builder = DeltaSteppingProcResult.builder();
+        final AllocationTracker tracker = AllocationTracker.create();
 
         final Graph graph;
         try (ProgressTimer timer = builder.timeLoad()) {
@@ -123,10 +144,15 @@ public class ShortestPathDeltaSteppingProc {
                             propertyName,
                             configuration.getWeightPropertyDefaultValue(Double.MAX_VALUE))
                     .withDirection(Direction.OUTGOING)
+                    .withAllocationTracker(tracker)
                     .load(configuration.getGraphImpl());
         }
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            return deltaSteppingHuge((HugeGraph) graph, tracker, startNode, delta, configuration, builder, terminationFlag);
+        }
+
         final ShortestPathDeltaStepping algorithm = new ShortestPathDeltaStepping(graph, delta)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths(DeltaStepping)"))
                 .withTerminationFlag(terminationFlag)
@@ -154,4 +180,45 @@ public class ShortestPathDeltaSteppingProc {
                 .withNodeCount(graph.nodeCount())
                 .build());
     }
+
+    private Stream<DeltaSteppingProcResult> deltaSteppingHuge(
+            HugeGraph graph,
+            AllocationTracker tracker,
+            Node startNode,
+            double delta,
+            ProcedureConfiguration configuration,
+            DeltaSteppingProcResult.Builder builder,
+            TerminationFlag terminationFlag) {
+
+        final HugeShortestPathDeltaStepping algorithm = new HugeShortestPathDeltaStepping(
+                graph,
+                delta,
+                configuration.getConcurrency(),
+                tracker)
+                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths(DeltaStepping)"))
+                .withTerminationFlag(terminationFlag)
+                .withExecutorService(Pools.DEFAULT);
+
+        builder.timeEval(() -> algorithm.compute(startNode.getId()));
+
+        if (configuration.isWriteFlag()) {
+            final PagedAtomicDoubleArray shortestPaths = algorithm.getShortestPaths();
+            graph.release();
+            builder.timeWrite(() -> Exporter
+                    .of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                    .build()
+                    .write(
+                            configuration.get(WRITE_PROPERTY, DEFAULT_TARGET_PROPERTY),
+                            shortestPaths,
+                            PagedAtomicDoubleArray.Translator.INSTANCE
+                    ));
+        }
+        algorithm.release();
+
+        return Stream.of(builder
+                .withNodeCount(graph.nodeCount())
+                .build());
+    }
 }
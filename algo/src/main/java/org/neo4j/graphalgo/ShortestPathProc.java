@@ -20,9 +20,14 @@ package org.neo4j.graphalgo;
 
 import com.carrotsearch.hppc.IntArrayDeque;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.api.NodeWeights;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
@@ -30,6 +35,8 @@ import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.impl.ShortestPathAStar;
+import org.neo4j.graphalgo.impl.ShortestPathBidirectionalAStar;
+import org.neo4j.graphalgo.impl.ShortestPathBidirectionalDijkstra;
 import org.neo4j.graphalgo.impl.ShortestPathDijkstra;
 import org.neo4j.graphalgo.results.DijkstraResult;
 import org.neo4j.graphdb.Direction;
@@ -48,6 +55,7 @@ import java.util.stream.Stream;
 public class ShortestPathProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "sssp";
+    public static final String CONFIG_BIDIRECTIONAL = "bidirectional";
 
 
     @Context
@@ -64,6 +72,7 @@ public class ShortestPathProc {
      * takes a startNode and endNode id and tries to find the best path
      * supports direction flag in configuration ( see {@link org.neo4j.graphalgo.core.utils.Directions})
      * default is: BOTH
+     * searches from both ends if the bidirectional flag is set
      *
      * @param startNode
      * @param endNode
@@ -73,7 +82,7 @@ public class ShortestPathProc {
      */
     @Procedure("algo.shortestPath.stream")
     @Description("CALL algo.shortestPath.stream(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, bidirectional:false}) " +
             "YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathDijkstra.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -85,15 +94,25 @@ public class ShortestPathProc {
         ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
 
         final Direction direction = configuration.getDirection(Direction.BOTH);
+        final boolean bidirectional = configuration.get(CONFIG_BIDIRECTIONAL, false);
 
         final Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
                 .withOptionalRelationshipWeightsFromProperty(
                         propertyName,
                         configuration.getWeightPropertyDefaultValue(1.0))
-                .withDirection(direction)
+                // the backward search follows the reverse direction
+                .withDirection(bidirectional ? Direction.BOTH : direction)
                 .load(configuration.getGraphImpl());
 
+        if (bidirectional) {
+            return new ShortestPathBidirectionalDijkstra(graph)
+                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(BidirectionalDijkstra)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute(startNode.getId(), endNode.getId(), direction)
+                    .resultStream();
+        }
+
         return new ShortestPathDijkstra(graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
@@ -103,7 +122,7 @@ public class ShortestPathProc {
 
     @Procedure(value = "algo.shortestPath", mode = Mode.WRITE)
     @Description("CALL algo.shortestPath(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, write:'true', writeProperty:'sssp'}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, bidirectional:false, write:'true', writeProperty:'sssp'}) " +
             "YIELD nodeId, cost, loadMillis, evalMillis, writeMillis - yields nodeCount, totalCost, loadMillis, evalMillis, writeMillis")
     public Stream<DijkstraResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -117,32 +136,45 @@ public class ShortestPathProc {
         DijkstraResult.Builder builder = DijkstraResult.builder();
 
         final Graph graph;
-        final ShortestPathDijkstra dijkstra;
+        final IntArrayDeque finalPath;
 
         final Direction direction = configuration.getDirection(Direction.BOTH);
+        final boolean bidirectional = configuration.get(CONFIG_BIDIRECTIONAL, false);
         try (ProgressTimer timer = builder.timeLoad()) {
             graph = new GraphLoader(api, Pools.DEFAULT)
                     .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
                     .withOptionalRelationshipWeightsFromProperty(
                             propertyName,
                             configuration.getWeightPropertyDefaultValue(1.0))
-                    .withDirection(direction)
+                    // the backward search follows the reverse direction
+                    .withDirection(bidirectional ? Direction.BOTH : direction)
                     .load(configuration.getGraphImpl());
         }
 
         try (ProgressTimer timer = builder.timeEval()) {
-            dijkstra = new ShortestPathDijkstra(graph)
-                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(startNode.getId(), endNode.getId(), direction);
-            builder.withNodeCount(dijkstra.getPathLength())
-                    .withTotalCosts(dijkstra.getTotalCost());
+            if (bidirectional) {
+                final ShortestPathBidirectionalDijkstra dijkstra = new ShortestPathBidirectionalDijkstra(graph)
+                        .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(BidirectionalDijkstra)"))
+                        .withTerminationFlag(TerminationFlag.wrap(transaction))
+                        .compute(startNode.getId(), endNode.getId(), direction);
+                builder.withNodeCount(dijkstra.getPathLength())
+                        .withTotalCosts(dijkstra.getTotalCost());
+                finalPath = dijkstra.getFinalPath();
+                dijkstra.release();
+            } else {
+                final ShortestPathDijkstra dijkstra = new ShortestPathDijkstra(graph)
+                        .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
+                        .withTerminationFlag(TerminationFlag.wrap(transaction))
+                        .compute(startNode.getId(), endNode.getId(), direction);
+                builder.withNodeCount(dijkstra.getPathLength())
+                        .withTotalCosts(dijkstra.getTotalCost());
+                finalPath = dijkstra.getFinalPath();
+                dijkstra.release();
+            }
         }
 
         if (configuration.isWriteFlag()) {
             try (ProgressTimer timer = builder.timeWrite()) {
-                final IntArrayDeque finalPath = dijkstra.getFinalPath();
-                dijkstra.release();
 
                 final DequeMapping mapping = new DequeMapping(graph, finalPath);
                 Exporter.of(mapping, api)
@@ -161,7 +193,7 @@ public class ShortestPathProc {
     
     @Procedure("algo.shortestPath.astar.stream")
     @Description("CALL algo.shortestPath.astar.stream(startNode:Node, endNode:Node, weightProperty:String, propertyKeyLat:String," +
-    		"propertyKeyLon:String, {nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
+    		"propertyKeyLon:String, {nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, bidirectional:false}) " +
     		"YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathAStar.Result> astarStream(
     			@Name("startNode") Node startNode,
@@ -174,6 +206,10 @@ public class ShortestPathProc {
     		ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
     		
     		final Direction direction = configuration.getDirection(Direction.BOTH);
+
+    		if (configuration.get(CONFIG_BIDIRECTIONAL, false)) {
+    			return bidirectionalAStar(startNode, endNode, propertyName, propertyKeyLat, propertyKeyLon, configuration, direction);
+    		}
     		
     		final Graph graph = new GraphLoader(api, Pools.DEFAULT)
     				.init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
@@ -188,6 +224,37 @@ public class ShortestPathProc {
     				.resultStream();
     }
 
+    private Stream<ShortestPathAStar.Result> bidirectionalAStar(
+            Node startNode,
+            Node endNode,
+            String propertyName,
+            String propertyKeyLat,
+            String propertyKeyLon,
+            ProcedureConfiguration configuration,
+            Direction direction) {
+
+        // the coordinates are loaded as node weights and node properties
+        final Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl(
+                HeavyGraph.TYPE,
+                HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE);
+
+        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
+                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                .withOptionalRelationshipWeightsFromProperty(propertyName, configuration.getWeightPropertyDefaultValue(1.0))
+                .withOptionalNodeWeightsFromProperty(propertyKeyLat, Double.NaN)
+                .withOptionalNodeProperty(propertyKeyLon, Double.NaN)
+                // the backward search follows the reverse direction
+                .withDirection(Direction.BOTH)
+                .load(graphImpl);
+
+        final NodeProperties longitudes = (NodeProperties) graph;
+        return new ShortestPathBidirectionalAStar(graph, (NodeWeights) graph, node -> longitudes.valueOf(node, Double.NaN))
+                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(BidirectionalAStar)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction))
+                .compute(startNode.getId(), endNode.getId(), direction)
+                .resultStream();
+    }
+
     private static final class DequeMapping implements IdMapping {
         private final IdMapping mapping;
         private final int[] data;
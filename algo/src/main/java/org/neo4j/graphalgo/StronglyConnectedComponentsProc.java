@@ -423,6 +423,16 @@ public class StronglyConnectedComponentsProc {
                 .withoutRelationshipWeights()
                 .load(configuration.getGraphImpl());
 
+        if (graph instanceof HugeGraph) {
+            final HugeGraph hugeGraph = (HugeGraph) graph;
+            return new HugeForwardBackwardScc(hugeGraph, Pools.DEFAULT,
+                    configuration.getConcurrency(), AllocationTracker.create())
+                    .withProgressLogger(ProgressLogger.wrap(log, "SCC(ForwardBackward)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute(hugeGraph.toHugeMappedNodeId(startNodeId))
+                    .resultStream();
+        }
+
         final ForwardBackwardScc algo = new ForwardBackwardScc(graph, Pools.DEFAULT,
                 configuration.getConcurrency())
                 .withProgressLogger(ProgressLogger.wrap(log, "SCC(ForwardBackward)"))
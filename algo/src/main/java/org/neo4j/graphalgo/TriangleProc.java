@@ -26,6 +26,7 @@ import org.neo4j.graphalgo.core.ProcedureConstants;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.utils.*;
 import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
@@ -51,6 +52,7 @@ public class TriangleProc {
 
     public static final String DEFAULT_WRITE_PROPERTY_VALUE = "triangles";
     public static final String COEFFICIENT_WRITE_PROPERTY_VALUE = "clusteringCoefficientProperty";
+    public static final String CONFIG_DEGREE_ORDERED = "degreeOrdered";
 
     @Context
     public GraphDatabaseAPI api;
@@ -84,7 +86,7 @@ public class TriangleProc {
                 .withDirection(TriangleCountBase.D)
                 .load(configuration.getGraphImpl(
                         HeavyGraph.TYPE,
-                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE
+                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE
                 ));
 
         final TriangleStream triangleStream = new TriangleStream(graph, Pools.DEFAULT, configuration.getConcurrency())
@@ -95,7 +97,7 @@ public class TriangleProc {
     }
 
     @Procedure("algo.triangleCount.stream")
-    @Description("CALL algo.triangleCount.stream(label, relationship, {concurrency:8}) " +
+    @Description("CALL algo.triangleCount.stream(label, relationship, {concurrency:8, degreeOrdered:false}) " +
             "YIELD nodeId, triangles - yield nodeId, number of triangles")
     public Stream<TriangleCountAlgorithm.Result> triangleCountQueueStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -117,10 +119,10 @@ public class TriangleProc {
                 .withDirection(TriangleCountBase.D)
                 .load(configuration.getGraphImpl(
                         HeavyGraph.TYPE,
-                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE
+                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE
                 ));
 
-        return TriangleCountAlgorithm.instance(graph, Pools.DEFAULT, configuration.getConcurrency())
+        return TriangleCountAlgorithm.instance(graph, Pools.DEFAULT, configuration.getConcurrency(), configuration.get(CONFIG_DEGREE_ORDERED, false))
                 .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction))
                 .compute()
@@ -151,7 +153,7 @@ public class TriangleProc {
                 .withDirection(TriangleCountBase.D)
                 .load(configuration.getGraphImpl(
                         HeavyGraph.TYPE,
-                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE
+                        HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE
                 ));
 
         return new TriangleCountForkJoin(
@@ -167,7 +169,7 @@ public class TriangleProc {
 
     @Procedure(value = "algo.triangleCount", mode = Mode.WRITE)
     @Description("CALL algo.triangleCount(label, relationship, " +
-            "{concurrency:4, write:true, writeProperty:'triangles', clusteringCoefficientProperty:'coefficient'}) " +
+            "{concurrency:4, write:true, writeProperty:'triangles', clusteringCoefficientProperty:'coefficient', degreeOrdered:false}) " +
             "YIELD loadMillis, computeMillis, writeMillis, nodeCount, triangleCount, averageClusteringCoefficient")
     public Stream<Result> triangleCountQueue(
             @Name(value = "label", defaultValue = "") String label,
@@ -195,13 +197,13 @@ public class TriangleProc {
                     .withDirection(TriangleCountBase.D)
                     .load(configuration.getGraphImpl(
                             HeavyGraph.TYPE,
-                            HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE
+                            HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE
                     ));
         }
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         try (ProgressTimer timer = builder.timeEval()) {
-            triangleCount = TriangleCountAlgorithm.instance(graph, Pools.DEFAULT, configuration.getConcurrency())
+            triangleCount = TriangleCountAlgorithm.instance(graph, Pools.DEFAULT, configuration.getConcurrency(), configuration.get(CONFIG_DEGREE_ORDERED, false))
                     .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
                     .withTerminationFlag(TerminationFlag.wrap(transaction))
                     .compute();
@@ -287,7 +289,7 @@ public class TriangleProc {
 
     @Procedure(value = "algo.triangleCount.forkJoin", mode = Mode.WRITE)
     @Description("CALL algo.triangleCount.forkJoin(label, relationship, " +
-            "{concurrency:4, write:true, writeProperty:'triangles', clusteringCoefficientProperty:'coefficient'}) " +
+            "{concurrency:4, write:true, writeProperty:'triangles', clusteringCoefficientProperty:'coefficient', degreeOrdered:false}) " +
             "YIELD loadMillis, computeMillis, writeMillis, nodeCount, triangleCount, averageClusteringCoefficient")
     public Stream<Result> triangleCountExp3(
             @Name(value = "label", defaultValue = "") String label,
@@ -315,7 +317,7 @@ public class TriangleProc {
                     .withDirection(TriangleCountBase.D)
                     .load(configuration.getGraphImpl(
                             HeavyGraph.TYPE,
-                            HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE
+                            HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE, HugeCypherGraphFactory.TYPE
                     ));
         }
 
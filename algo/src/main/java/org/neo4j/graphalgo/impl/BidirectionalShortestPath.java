@@ -0,0 +1,355 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.DoubleArrayDeque;
+import com.carrotsearch.hppc.IntArrayDeque;
+import com.carrotsearch.hppc.IntDoubleMap;
+import com.carrotsearch.hppc.IntDoubleScatterMap;
+import com.carrotsearch.hppc.IntIntMap;
+import com.carrotsearch.hppc.IntIntScatterMap;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Point to point shortest path search that runs from both ends and stops
+ * as soon as the two searches can no longer improve the best path that
+ * connects them. The backward search follows the relationships in the
+ * reverse direction, so directed graphs have to be loaded with
+ * {@link Direction#BOTH}.
+ * <p>
+ * Both searches order their nodes by {@code cost + potential} (forward)
+ * and {@code cost - potential} (backward). A potential of 0 gives plain
+ * bidirectional Dijkstra, a feasible potential gives bidirectional A*.
+ * <p>
+ * All state is kept in sparse maps, so a query only touches the nodes it
+ * actually expands.
+ */
+public abstract class BidirectionalShortestPath<ME extends BidirectionalShortestPath<ME>> extends Algorithm<ME> {
+
+    private static final int PATH_END = -1;
+    public static final double NO_PATH_FOUND = -1.0;
+
+    protected Graph graph;
+    private Search forward;
+    private Search backward;
+    // best known path length and the node where both searches meet on it
+    private double bestCost;
+    private int meetingNode;
+
+    private IntArrayDeque finalPath;
+    private DoubleArrayDeque finalPathCosts;
+    private double totalCost;
+    private int expandedNodes;
+
+    protected BidirectionalShortestPath(Graph graph) {
+        this.graph = graph;
+        forward = new Search(true);
+        backward = new Search(false);
+        finalPath = new IntArrayDeque();
+        finalPathCosts = new DoubleArrayDeque();
+    }
+
+    /**
+     * called once per query before any potential is requested
+     *
+     * @param start mapped start node
+     * @param goal  mapped goal node
+     */
+    protected void init(int start, int goal) {
+    }
+
+    /**
+     * the potential of a node. The forward search uses it as is, the
+     * backward search negated. Returning 0 for all nodes is always valid.
+     *
+     * @param node mapped node id
+     * @return the potential of the node
+     */
+    protected abstract double potential(int node);
+
+    /**
+     * compute shortest path between startNode and goalNode
+     *
+     * @param startNode original start node id
+     * @param goalNode  original goal node id
+     * @param direction direction of the path, the backward search uses the reverse
+     * @return itself
+     */
+    public ME compute(long startNode, long goalNode, Direction direction) {
+        reset();
+        final int start = graph.toMappedNodeId(startNode);
+        final int goal = graph.toMappedNodeId(goalNode);
+        if (start == -1 || goal == -1) {
+            return me();
+        }
+        init(start, goal);
+        forward.direction = direction;
+        backward.direction = reverse(direction);
+        forward.start(start);
+        backward.start(goal);
+        if (start == goal) {
+            bestCost = 0.0;
+            meetingNode = start;
+        }
+
+        while (!forward.isEmpty() && !backward.isEmpty() && running()) {
+            if (forward.minKey() + backward.minKey() >= bestCost) {
+                break;
+            }
+            if (forward.queueSize <= backward.queueSize) {
+                forward.expand(backward);
+            } else {
+                backward.expand(forward);
+            }
+        }
+
+        if (meetingNode == PATH_END) {
+            return me();
+        }
+        totalCost = bestCost;
+        // start .. meetingNode
+        int node = meetingNode;
+        while (node != PATH_END) {
+            finalPath.addFirst(node);
+            finalPathCosts.addFirst(forward.costs.get(node));
+            node = forward.path.getOrDefault(node, PATH_END);
+        }
+        // meetingNode .. goal
+        node = backward.path.getOrDefault(meetingNode, PATH_END);
+        while (node != PATH_END) {
+            finalPath.addLast(node);
+            finalPathCosts.addLast(totalCost - backward.costs.get(node));
+            node = backward.path.getOrDefault(node, PATH_END);
+        }
+        return me();
+    }
+
+    public IntArrayDeque getFinalPath() {
+        return finalPath;
+    }
+
+    /**
+     * @return costs from the start node to each node of {@link #getFinalPath()}
+     */
+    public DoubleArrayDeque getFinalPathCosts() {
+        return finalPathCosts;
+    }
+
+    /**
+     * get the distance sum of the path
+     *
+     * @return sum of distances between start and goal
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * return the number of nodes the path consists of
+     *
+     * @return number of nodes in the path
+     */
+    public int getPathLength() {
+        return finalPath.size();
+    }
+
+    /**
+     * @return number of nodes both searches expanded in the last query
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    @Override
+    public ME release() {
+        graph = null;
+        forward = null;
+        backward = null;
+        finalPath = null;
+        finalPathCosts = null;
+        return me();
+    }
+
+    private void reset() {
+        forward.reset();
+        backward.reset();
+        finalPath.clear();
+        finalPathCosts.clear();
+        bestCost = Double.POSITIVE_INFINITY;
+        meetingNode = PATH_END;
+        totalCost = NO_PATH_FOUND;
+        expandedNodes = 0;
+    }
+
+    private static Direction reverse(Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return Direction.INCOMING;
+            case INCOMING:
+                return Direction.OUTGOING;
+            default:
+                return Direction.BOTH;
+        }
+    }
+
+    /**
+     * one side of the search
+     */
+    private final class Search implements WeightedRelationshipConsumer {
+
+        private final boolean isForward;
+        private Direction direction;
+        // node to cost map
+        private final IntDoubleMap costs = new IntDoubleScatterMap();
+        // auxiliary path map
+        private final IntIntMap path = new IntIntScatterMap();
+        // settled nodes
+        private final BitSet visited = new BitSet();
+        // binary heap with lazy deletion, outdated entries are skipped on pop
+        private int[] queueNodes = new int[16];
+        private double[] queueKeys = new double[16];
+        private double[] queueCosts = new double[16];
+        private int queueSize;
+        private Search other;
+        private double sourceCost;
+
+        private Search(boolean isForward) {
+            this.isForward = isForward;
+        }
+
+        private void reset() {
+            costs.clear();
+            path.clear();
+            visited.clear();
+            queueSize = 0;
+        }
+
+        private void start(int node) {
+            costs.put(node, 0.0);
+            push(node, key(node, 0.0), 0.0);
+        }
+
+        private double key(int node, double cost) {
+            return isForward ? cost + potential(node) : cost - potential(node);
+        }
+
+        private boolean isEmpty() {
+            skipOutdated();
+            return queueSize == 0;
+        }
+
+        private double minKey() {
+            skipOutdated();
+            return queueSize == 0 ? Double.POSITIVE_INFINITY : queueKeys[0];
+        }
+
+        private void expand(Search other) {
+            final int node = queueNodes[0];
+            pop();
+            visited.set(node);
+            expandedNodes++;
+            this.other = other;
+            this.sourceCost = costs.get(node);
+            graph.forEachRelationship(node, direction, this);
+        }
+
+        @Override
+        public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+            if (visited.get(targetNodeId)) {
+                return true;
+            }
+            final double cost = sourceCost + weight;
+            if (cost < costs.getOrDefault(targetNodeId, Double.POSITIVE_INFINITY)) {
+                costs.put(targetNodeId, cost);
+                path.put(targetNodeId, sourceNodeId);
+                push(targetNodeId, key(targetNodeId, cost), cost);
+                if (other.costs.containsKey(targetNodeId)) {
+                    final double pathCost = cost + other.costs.get(targetNodeId);
+                    if (pathCost < bestCost) {
+                        bestCost = pathCost;
+                        meetingNode = targetNodeId;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void skipOutdated() {
+            while (queueSize > 0) {
+                final int node = queueNodes[0];
+                if (!visited.get(node) && queueCosts[0] == costs.get(node)) {
+                    return;
+                }
+                pop();
+            }
+        }
+
+        private void push(int node, double key, double cost) {
+            if (queueSize == queueNodes.length) {
+                final int newSize = queueSize + (queueSize >> 1);
+                queueNodes = Arrays.copyOf(queueNodes, newSize);
+                queueKeys = Arrays.copyOf(queueKeys, newSize);
+                queueCosts = Arrays.copyOf(queueCosts, newSize);
+            }
+            int pos = queueSize++;
+            while (pos > 0) {
+                final int parent = (pos - 1) >>> 1;
+                if (queueKeys[parent] <= key) {
+                    break;
+                }
+                queueNodes[pos] = queueNodes[parent];
+                queueKeys[pos] = queueKeys[parent];
+                queueCosts[pos] = queueCosts[parent];
+                pos = parent;
+            }
+            queueNodes[pos] = node;
+            queueKeys[pos] = key;
+            queueCosts[pos] = cost;
+        }
+
+        private void pop() {
+            final int size = --queueSize;
+            final int node = queueNodes[size];
+            final double key = queueKeys[size];
+            final double cost = queueCosts[size];
+            int pos = 0;
+            int child;
+            while ((child = (pos << 1) + 1) < size) {
+                if (child + 1 < size && queueKeys[child + 1] < queueKeys[child]) {
+                    child++;
+                }
+                if (key <= queueKeys[child]) {
+                    break;
+                }
+                queueNodes[pos] = queueNodes[child];
+                queueKeys[pos] = queueKeys[child];
+                queueCosts[pos] = queueCosts[child];
+                pos = child;
+            }
+            queueNodes[pos] = node;
+            queueKeys[pos] = key;
+            queueCosts[pos] = cost;
+        }
+    }
+}
@@ -25,49 +25,79 @@ import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public final class DSSResult {
     public final DisjointSetStruct struct;
     public final PagedDisjointSetStruct hugeStruct;
+    public final PagedAtomicDisjointSetStruct sharedStruct;
 
     public DSSResult(final DisjointSetStruct struct) {
-        this(struct, null);
+        this(struct, null, null);
     }
 
     public DSSResult(final PagedDisjointSetStruct hugeStruct) {
-        this(null, hugeStruct);
+        this(null, hugeStruct, null);
     }
 
-    private DSSResult(DisjointSetStruct struct, PagedDisjointSetStruct hugeStruct) {
-        assert (struct != null && hugeStruct == null) || (struct == null && hugeStruct != null);
+    public DSSResult(final PagedAtomicDisjointSetStruct sharedStruct) {
+        this(null, null, sharedStruct);
+    }
+
+    private DSSResult(
+            DisjointSetStruct struct,
+            PagedDisjointSetStruct hugeStruct,
+            PagedAtomicDisjointSetStruct sharedStruct) {
+        assert (struct != null ? 1 : 0) + (hugeStruct != null ? 1 : 0) + (sharedStruct != null ? 1 : 0) == 1;
         this.struct = struct;
         this.hugeStruct = hugeStruct;
+        this.sharedStruct = sharedStruct;
     }
 
     public int getSetCount() {
-        return struct != null ? struct.getSetCount() : hugeStruct.getSetCount();
+        if (struct != null) {
+            return struct.getSetCount();
+        }
+        if (hugeStruct != null) {
+            return hugeStruct.getSetCount();
+        }
+        return Math.toIntExact(sharedStruct.getSetCount());
     }
 
     public Stream<DisjointSetStruct.Result> resultStream(IdMapping idMapping) {
-        return struct != null
-                ? struct.resultStream(idMapping)
-                : hugeStruct.resultStream(((HugeIdMapping) idMapping));
+        if (struct != null) {
+            return struct.resultStream(idMapping);
+        }
+        if (hugeStruct != null) {
+            return hugeStruct.resultStream(((HugeIdMapping) idMapping));
+        }
+        return idMapping instanceof HugeIdMapping
+                ? sharedStruct.resultStream((HugeIdMapping) idMapping)
+                : IntStream.range(0, Math.toIntExact(idMapping.nodeCount()))
+                        .mapToObj(mappedId -> new DisjointSetStruct.Result(
+                                idMapping.toOriginalNodeId(mappedId),
+                                sharedStruct.find(mappedId)));
     }
 
     public void forEach(NodeIterator nodes, IntIntPredicate consumer) {
         if (struct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, struct.find(nodeId)));
-        } else {
+        } else if (hugeStruct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) hugeStruct.find(nodeId)));
+        } else {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) sharedStruct.find(nodeId)));
         }
     }
 
     public void forEach(HugeNodeIterator nodes, LongLongPredicate consumer) {
         if (hugeStruct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, hugeStruct.find(nodeId)));
+        } else if (sharedStruct != null) {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, sharedStruct.find(nodeId)));
         } else {
             nodes.forEachNode(nodeId -> consumer.apply((int) nodeId, struct.find((int) nodeId)));
         }
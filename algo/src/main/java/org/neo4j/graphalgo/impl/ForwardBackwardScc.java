@@ -87,7 +87,7 @@ public class ForwardBackwardScc extends Algorithm<ForwardBackwardScc> {
         return this;
     }
 
-    public class Result {
+    public static class Result {
         public final long nodeId;
 
         public Result(long nodeId) {
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.traverse.DirectionOptimizingBFS;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Forward-backward SCC of a single start node on a {@link HugeGraph}.
+ * <p>
+ * Both searches use the {@link DirectionOptimizingBFS}, so the graph
+ * has to be loaded with both directions. The backward search only
+ * visits descendants of the start node, therefore every node it
+ * reaches is part of the SCC.
+ */
+public class HugeForwardBackwardScc extends Algorithm<HugeForwardBackwardScc> {
+
+    private HugeGraph graph;
+    private DirectionOptimizingBFS traverse;
+    private PagedAtomicBitSet descendants;
+    private PagedAtomicBitSet scc;
+    private final AllocationTracker tracker;
+    private long sccSize;
+
+    public HugeForwardBackwardScc(
+            HugeGraph graph,
+            ExecutorService executorService,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.tracker = tracker;
+        traverse = new DirectionOptimizingBFS(graph, executorService, concurrency, tracker);
+        descendants = PagedAtomicBitSet.newBitSet(graph.nodeCount(), tracker);
+        scc = PagedAtomicBitSet.newBitSet(graph.nodeCount(), tracker);
+    }
+
+    public HugeForwardBackwardScc compute(long startNodeId) {
+        descendants.clear();
+        scc.clear();
+        // D <- BFS( G(V,E(V)), v)
+        traverse.withReverseDirection(Direction.INCOMING)
+                .bfs(startNodeId,
+                        Direction.OUTGOING,
+                        node -> running(),
+                        (node, depth) -> descendants.set(node));
+        getProgressLogger().logProgress(.5);
+        // SCC <- BFS( G(D, E'(D)), v)
+        traverse.withReverseDirection(Direction.OUTGOING)
+                .bfs(startNodeId,
+                        Direction.INCOMING,
+                        node -> descendants.get(node) && running(),
+                        (node, depth) -> scc.set(node));
+        getProgressLogger().logDone();
+        sccSize = LongStream.range(0L, graph.nodeCount()).filter(scc::get).count();
+        return this;
+    }
+
+    /**
+     * @return number of nodes in the SCC of the start node
+     */
+    public long getSccSize() {
+        return sccSize;
+    }
+
+    public boolean isInScc(long nodeId) {
+        return scc.get(nodeId);
+    }
+
+    public Stream<ForwardBackwardScc.Result> resultStream() {
+        return LongStream.range(0L, graph.nodeCount())
+                .filter(scc::get)
+                .mapToObj(node -> new ForwardBackwardScc.Result(graph.toOriginalNodeId(node)));
+    }
+
+    @Override
+    public HugeForwardBackwardScc me() {
+        return this;
+    }
+
+    @Override
+    public HugeForwardBackwardScc release() {
+        traverse.release(tracker);
+        tracker.remove(descendants.release());
+        tracker.remove(scc.release());
+        graph = null;
+        traverse = null;
+        descendants = null;
+        scc = null;
+        return this;
+    }
+}
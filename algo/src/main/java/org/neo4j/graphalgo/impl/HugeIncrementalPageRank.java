@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedLongStack;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Incremental PageRank that updates a previous result after a small change
+ * to the graph instead of recomputing all scores.
+ * <p>
+ * The scores of {@link HugePageRank} satisfy {@code x = (1 - d) + d * A * x}, where
+ * {@code A} distributes the score of every node evenly over its outgoing relationships.
+ * For the previous scores and the current graph, the residual {@code r = (1 - d) + d * A * x - x}
+ * is only non-zero around the nodes whose relationships changed.
+ * Residuals are computed exactly for those nodes by pulling over their incoming relationships
+ * and are then pushed forward ("Forward Push", Gauss-Southwell style):
+ * a node adds its residual to its score and passes {@code d * r / degree} on to every target.
+ * Nodes are only pushed while their residual exceeds the tolerance, so the work
+ * stays proportional to the region that is actually affected by the change.
+ * <p>
+ * Pushes run in rounds. The nodes of a round are split into batches that are
+ * processed by up to {@code concurrency} workers. Residuals are added atomically and
+ * a node is queued for the next round at most once, so every node is pushed by a single
+ * worker per round. Pushes commute, the order of the additions only affects rounding.
+ * <p>
+ * The dirty nodes must contain both end nodes of every relationship that was added or removed.
+ * The graph must be loaded with incoming relationships (i.e. {@link Direction#BOTH})
+ * and must use the same node ids as the graph that produced the previous result.
+ */
+public final class HugeIncrementalPageRank extends Algorithm<HugeIncrementalPageRank> {
+
+    // number of nodes a worker takes from the current round at once
+    private static final int BATCH_SIZE = 1 << 12;
+
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final HugeIdMapping idMapping;
+    private final HugeRelationshipIterator relationshipIterator;
+    private final HugeDegrees degrees;
+    private final double dampingFactor;
+    private final double alpha;
+    private final double tolerance;
+
+    private DoubleArray scores;
+    private PagedAtomicDoubleArray residuals;
+    private PagedAtomicBitSet queued;
+
+    // the nodes of the current round
+    private HugeLongArray round;
+    private long roundSize;
+    private final AtomicLong roundOffset = new AtomicLong();
+
+    private long affectedNodes;
+    private long pushes;
+    private int rounds;
+
+    HugeIncrementalPageRank(
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            HugeIdMapping idMapping,
+            HugeRelationshipIterator relationshipIterator,
+            HugeDegrees degrees,
+            double dampingFactor,
+            double tolerance) {
+        if (tolerance <= 0.0) {
+            throw new IllegalArgumentException("tolerance must be positive, but was " + tolerance);
+        }
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.idMapping = idMapping;
+        this.relationshipIterator = relationshipIterator;
+        this.degrees = degrees;
+        this.dampingFactor = dampingFactor;
+        this.alpha = 1.0 - dampingFactor;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Updates the previous scores for the given dirty nodes.
+     *
+     * @param previous   scores from an earlier run, addressed with the node ids of this graph
+     * @param dirtyNodes the end nodes of all relationships that changed since the previous run
+     */
+    public HugeIncrementalPageRank compute(PageRankResult previous, PrimitiveLongIterator dirtyNodes) {
+        long nodeCount = idMapping.nodeCount();
+        scores = DoubleArray.newArray(nodeCount, tracker);
+        residuals = PagedAtomicDoubleArray.newArray(nodeCount, tracker);
+        queued = PagedAtomicBitSet.newBitSet(nodeCount, tracker);
+
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            scores.set(nodeId, previous.score(nodeId));
+        }
+
+        // all nodes whose incoming contributions might have changed
+        PagedLongStack affected = new PagedLongStack(nodeCount >>> 6, tracker);
+        while (dirtyNodes.hasNext()) {
+            long nodeId = dirtyNodes.next();
+            markAffected(nodeId, affected);
+            relationshipIterator.forEachRelationship(
+                    nodeId,
+                    Direction.OUTGOING,
+                    (source, target) -> {
+                        markAffected(target, affected);
+                        return true;
+                    });
+        }
+        affectedNodes = affected.size();
+
+        List<PushTask> tasks = new ArrayList<>();
+        int workers = ParallelUtil.canRunInParallel(executor) ? Math.max(1, concurrency) : 1;
+        for (int i = 0; i < workers; i++) {
+            tasks.add(new PushTask(nodeCount));
+        }
+
+        nextRound(affected);
+        tracker.remove(affected.release());
+        runRound(tasks, true);
+
+        // push in rounds, nodes that exceed the tolerance during a round are
+        // pushed in the next one, which accumulates more residual per push
+        while (nextRound(tasks) > 0L && running()) {
+            runRound(tasks, false);
+            ++rounds;
+        }
+
+        for (PushTask task : tasks) {
+            pushes += task.pushes;
+            tracker.remove(task.next.release());
+        }
+        if (round != null) {
+            tracker.remove(round.release());
+            round = null;
+        }
+        getProgressLogger().logDone();
+        return this;
+    }
+
+    private void runRound(List<PushTask> tasks, boolean initial) {
+        roundOffset.set(0L);
+        for (PushTask task : tasks) {
+            task.initial = initial;
+        }
+        ParallelUtil.run(tasks, executor);
+    }
+
+    private long nextRound(List<PushTask> tasks) {
+        long size = 0L;
+        for (PushTask task : tasks) {
+            size += task.next.size();
+        }
+        prepareRound(size);
+        for (PushTask task : tasks) {
+            drainIntoRound(task.next);
+        }
+        return size;
+    }
+
+    private void nextRound(PagedLongStack stack) {
+        prepareRound(stack.size());
+        drainIntoRound(stack);
+    }
+
+    private void prepareRound(long size) {
+        if (round == null || round.size() < size) {
+            if (round != null) {
+                tracker.remove(round.release());
+            }
+            round = HugeLongArray.newArray(size, tracker);
+        }
+        roundSize = 0L;
+    }
+
+    private void drainIntoRound(PagedLongStack stack) {
+        while (!stack.isEmpty()) {
+            round.set(roundSize++, stack.pop());
+        }
+    }
+
+    private void markAffected(long nodeId, PagedLongStack stack) {
+        if (queued.trySet(nodeId)) {
+            stack.push(nodeId);
+        }
+    }
+
+    public PageRankResult result() {
+        return new DoubleArrayResult(scores);
+    }
+
+    /**
+     * @return the number of nodes whose residual has been computed from the dirty nodes
+     */
+    public long affectedNodes() {
+        return affectedNodes;
+    }
+
+    /**
+     * @return the number of rounds of pushes until all residuals were within the tolerance
+     */
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * @return the number of push operations until all residuals were within the tolerance
+     */
+    public long pushes() {
+        return pushes;
+    }
+
+    @Override
+    public HugeIncrementalPageRank me() {
+        return this;
+    }
+
+    @Override
+    public HugeIncrementalPageRank release() {
+        if (residuals != null) {
+            tracker.remove(residuals.release());
+            tracker.remove(queued.release());
+            residuals = null;
+            queued = null;
+        }
+        return this;
+    }
+
+    /**
+     * Processes batches of the current round and collects the nodes for the next one.
+     * In the initial round, the residuals of the affected nodes are computed instead.
+     */
+    private final class PushTask implements Runnable, HugeRelationshipConsumer {
+
+        private final HugeRelationshipIterator relationships;
+        private final PagedLongStack next;
+        private boolean initial;
+        private double share;
+        private double incoming;
+        private long pushes;
+
+        private PushTask(long nodeCount) {
+            this.relationships = relationshipIterator.concurrentCopy();
+            this.next = new PagedLongStack(nodeCount >>> 6, tracker);
+        }
+
+        @Override
+        public void run() {
+            long offset;
+            while ((offset = roundOffset.getAndAdd(BATCH_SIZE)) < roundSize) {
+                long end = Math.min(offset + BATCH_SIZE, roundSize);
+                for (long i = offset; i < end; i++) {
+                    long nodeId = round.get(i);
+                    if (initial) {
+                        initialize(nodeId);
+                    } else {
+                        queued.unset(nodeId);
+                        push(nodeId);
+                    }
+                }
+            }
+        }
+
+        private void initialize(long nodeId) {
+            double residual = initialResidual(nodeId);
+            residuals.set(nodeId, residual);
+            if (Math.abs(residual) > tolerance) {
+                next.push(nodeId);
+            } else {
+                queued.unset(nodeId);
+            }
+        }
+
+        private double initialResidual(long nodeId) {
+            incoming = 0.0;
+            relationships.forEachRelationship(
+                    nodeId,
+                    Direction.INCOMING,
+                    (target, source) -> {
+                        int degree = degrees.degree(source, Direction.OUTGOING);
+                        if (degree > 0) {
+                            incoming += scores.get(source) / degree;
+                        }
+                        return true;
+                    });
+            return alpha + dampingFactor * incoming - scores.get(nodeId);
+        }
+
+        private void push(long nodeId) {
+            double residual = residuals.getAndSet(nodeId, 0.0);
+            scores.add(nodeId, residual);
+            ++pushes;
+            int degree = degrees.degree(nodeId, Direction.OUTGOING);
+            if (degree > 0) {
+                share = dampingFactor * residual / degree;
+                relationships.forEachRelationship(nodeId, Direction.OUTGOING, this);
+            }
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            residuals.add(targetNodeId, share);
+            if (Math.abs(residuals.get(targetNodeId)) > tolerance && queued.trySet(targetNodeId)) {
+                next.push(targetNodeId);
+            }
+            return true;
+        }
+    }
+
+    static final class DoubleArrayResult implements PageRankResult {
+        private final DoubleArray scores;
+
+        DoubleArrayResult(DoubleArray scores) {
+            this.scores = scores;
+        }
+
+        @Override
+        public double score(final long nodeId) {
+            return scores.get(nodeId);
+        }
+
+        @Override
+        public double score(final int nodeId) {
+            return scores.get(nodeId);
+        }
+
+        @Override
+        public void export(final String propertyName, final Exporter exporter) {
+            exporter.write(propertyName, scores, DoubleArray.Translator.INSTANCE);
+        }
+    }
+}
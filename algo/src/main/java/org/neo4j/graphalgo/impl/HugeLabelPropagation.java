@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.container.LabelVotes;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Label propagation on a {@link HugeGraph}, see {@link LabelPropagation}.
+ * <p>
+ * Every node starts with its own id as label. Node weights and an initial
+ * partition property are not available on the huge graph, so the votes of
+ * the neighbors are weighted by the relationship weight only.
+ */
+public final class HugeLabelPropagation extends Algorithm<HugeLabelPropagation> {
+
+    private HugeGraph graph;
+    private final int batchSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+
+    private HugeLongArray labels;
+    private long ranIterations;
+    private boolean didConverge;
+
+    public HugeLabelPropagation(
+            HugeGraph graph,
+            int batchSize,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+    }
+
+    public HugeLabelPropagation compute(
+            Direction direction,
+            long maxIterations) {
+        return compute(direction, maxIterations, true);
+    }
+
+    public HugeLabelPropagation compute(
+            Direction direction,
+            long maxIterations,
+            boolean randomizeOrder) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Must iterate at least 1 time");
+        }
+
+        if (labels == null || labels.size() != nodeCount) {
+            labels = HugeLongArray.newArray(nodeCount, tracker);
+        }
+        ranIterations = 0;
+        didConverge = false;
+
+        labels.setAll(nodeId -> nodeId);
+
+        // batches of about equal degree, so that no step waits on a few super nodes
+        final long[] partition = ParallelUtil.degreePartition(
+                nodeCount,
+                (int) Math.min(Integer.MAX_VALUE, ParallelUtil.threadSize(batchSize, nodeCount)),
+                1L,
+                node -> graph.degree(node, direction));
+        final List<ComputeStep> computeSteps = new ArrayList<>(partition.length - 1);
+        for (int i = 0; i < partition.length - 1; i++) {
+            computeSteps.add(new ComputeStep(
+                    graph,
+                    labels,
+                    direction,
+                    randomizeOrder,
+                    getProgressLogger(),
+                    partition[i],
+                    partition[i + 1]
+            ));
+        }
+
+        for (long i = 0L; i < maxIterations; i++) {
+            ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
+        }
+
+        long maxIteration = 0;
+        boolean converged = true;
+        for (ComputeStep step : computeSteps) {
+            if (step.iteration > maxIteration) {
+                maxIteration = step.iteration;
+            }
+            converged = converged && !step.didChange;
+            step.release();
+        }
+
+        ranIterations = maxIteration;
+        didConverge = converged;
+
+        return this;
+    }
+
+    public long ranIterations() {
+        return ranIterations;
+    }
+
+    public boolean didConverge() {
+        return didConverge;
+    }
+
+    public HugeLongArray labels() {
+        return labels;
+    }
+
+    @Override
+    public HugeLabelPropagation me() {
+        return this;
+    }
+
+    @Override
+    public HugeLabelPropagation release() {
+        graph = null;
+        return this;
+    }
+
+    private static final class ComputeStep implements Runnable, HugeWeightedRelationshipConsumer {
+
+        private final HugeGraph graph;
+        private final HugeRelationshipIterator relationships;
+        private final HugeLongArray existingLabels;
+        private final Direction direction;
+        private final ProgressLogger progressLogger;
+        private final long start;
+        private final long end;
+        private final Random random;
+        private final long maxNode;
+        private final LabelVotes votes;
+
+        private boolean didChange = true;
+        private long iteration = 0L;
+
+        private ComputeStep(
+                HugeGraph graph,
+                HugeLongArray existingLabels,
+                Direction direction,
+                boolean randomizeOrder,
+                ProgressLogger progressLogger,
+                long start,
+                long end) {
+            this.graph = graph;
+            // every step needs its own adjacency cursors
+            this.relationships = graph.concurrentCopy();
+            this.existingLabels = existingLabels;
+            this.direction = direction;
+            this.progressLogger = progressLogger;
+            this.start = start;
+            this.end = end;
+            this.random = randomizeOrder ? ThreadLocalRandom.current() : null;
+            this.maxNode = graph.nodeCount() - 1L;
+            this.votes = new LabelVotes();
+        }
+
+        @Override
+        public void run() {
+            if (this.didChange) {
+                iteration++;
+                boolean didChange = false;
+                if (random == null) {
+                    for (long nodeId = start; nodeId < end; nodeId++) {
+                        didChange = compute(nodeId, didChange);
+                    }
+                } else {
+                    // same order as the RandomlySwitchingIterator of LabelPropagation
+                    for (long nodeId = start; nodeId < end; nodeId++) {
+                        if (nodeId + 1L < end && random.nextBoolean()) {
+                            didChange = compute(nodeId + 1L, didChange);
+                            didChange = compute(nodeId, didChange);
+                            nodeId++;
+                        } else {
+                            didChange = compute(nodeId, didChange);
+                        }
+                    }
+                }
+                this.didChange = didChange;
+                if (!didChange) {
+                    release();
+                }
+            }
+        }
+
+        private boolean compute(long nodeId, boolean didChange) {
+            votes.reset(graph.degree(nodeId, direction));
+            long previous = existingLabels.get(nodeId);
+            relationships.forEachWeightedRelationship(nodeId, direction, this);
+            long partition = votes.best(previous);
+            progressLogger.logProgress(nodeId, maxNode);
+            if (partition != previous) {
+                existingLabels.set(nodeId, partition);
+                return true;
+            }
+            return didChange;
+        }
+
+        @Override
+        public boolean accept(
+                final long sourceNodeId,
+                final long targetNodeId,
+                final double weight) {
+            votes.add(existingLabels.get(targetNodeId), weight);
+            return true;
+        }
+
+        private void release() {
+            votes.release();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.AllShortestPaths.Result;
 import org.neo4j.graphalgo.impl.msbfs.HugeMultiSourceBFS;
+import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Iterator;
@@ -51,6 +52,7 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
     private final int concurrency;
     private final ExecutorService executorService;
     private final long nodeCount;
+    private int omega = HugeMultiSourceBFS.OMEGA;
 
     public HugeMSBFSAllShortestPaths(
             HugeGraph graph,
@@ -93,6 +95,14 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
                 0), false);
     }
 
+    /**
+     * number of sources per MS-BFS traversal, see {@link HugeMultiSourceBFS#withOmega(int)}
+     */
+    public HugeMSBFSAllShortestPaths withOmega(int omega) {
+        this.omega = MultiSourceBFS.validateOmega(omega);
+        return this;
+    }
+
     @Override
     public HugeMSBFSAllShortestPaths me() {
         return this;
@@ -147,7 +157,7 @@ public class HugeMSBFSAllShortestPaths extends MSBFSASPAlgorithm<HugeMSBFSAllSho
                         progressLogger.logProgress(target, maxNodeId);
                     },
                     tracker
-            ).run(concurrency, executorService);
+            ).withOmega(omega).run(concurrency, executorService);
 
             resultQueue.add(new Result(-1, -1, -1));
         }
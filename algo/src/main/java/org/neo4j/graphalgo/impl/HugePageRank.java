@@ -169,12 +169,30 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
      */
     @Override
     public HugePageRank compute(int iterations) {
-        assert iterations >= 1;
+        return compute(iterations, 0.0);
+    }
+
+    /**
+     * compute pageRank for at most n iterations or until the scores have converged
+     */
+    @Override
+    public HugePageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
         initializeSteps();
-        computeSteps.run(iterations);
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps.iterations;
+    }
+
+    @Override
+    public double delta() {
+        return computeSteps.delta;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -456,6 +474,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final ExecutorService pool;
         private int[][][] scores;
         private final int concurrency;
+        private int iterations;
+        private double delta;
 
         private ComputeSteps(
                 AllocationTracker tracker,
@@ -487,7 +507,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             }
         }
 
-        private void run(int iterations) {
+        private void run(int iterations, double tolerance) {
             final int operations = (iterations << 1) + 1;
             int op = 0;
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
@@ -500,7 +520,20 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
+                ++this.iterations;
+                if (converged(tolerance)) {
+                    break;
+                }
+            }
+        }
+
+        private boolean converged(double tolerance) {
+            double delta = 0.0;
+            for (ComputeStep step : steps) {
+                delta += step.delta;
             }
+            this.delta = delta;
+            return delta < tolerance;
         }
 
         private void synchronizeScores() {
@@ -559,6 +592,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final int partitionSize;
 
         private int srcRankDelta = 0;
+        // L1 norm of the score changes of the last combineScores
+        private double delta;
 
         ComputeStep(
                 double dampingFactor,
@@ -652,6 +687,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             int[][] prevScores = this.prevScores;
 
             int length = prevScores[0].length;
+            double l1Delta = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = 0;
                 for (int j = 0; j < scoreDim; j++) {
@@ -662,7 +698,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
+                l1Delta += Math.abs(delta);
             }
+            this.delta = l1Delta;
         }
 
     }
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parallel UnionFind in the style of Afforest (Sutton et al.).
+ * <p>
+ * The first pass only links the first {@link #NEIGHBOR_ROUNDS} neighbors of
+ * every node, which usually already connects most of a giant component.
+ * The biggest intermediate set is then estimated from a random sample of
+ * nodes and the final pass skips all relationships of nodes in that set.
+ * <p>
+ * Skipping a node is only correct if its relationships are also seen from
+ * the other side, so the graph must be loaded with {@link Direction#BOTH}.
+ */
+public class HugeParallelUnionFindAfforest extends GraphUnionFindAlgo<HugeGraph, PagedAtomicDisjointSetStruct, HugeParallelUnionFindAfforest> {
+
+    // number of neighbors per node that are linked before the biggest set is estimated
+    static final int NEIGHBOR_ROUNDS = 2;
+    // number of nodes that are sampled to find the biggest set
+    private static final int SAMPLE_SIZE = 1024;
+    // more batches than threads, so that workers can balance skewed batches
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    private final int concurrency;
+    private final AtomicLong visitedNodes = new AtomicLong();
+
+    HugeParallelUnionFindAfforest(
+            HugeGraph graph,
+            ExecutorService executor,
+            AllocationTracker tracker,
+            int concurrency) {
+        super(graph);
+        this.executor = executor;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute(double threshold) {
+        final ForkJoinPool pool = forkJoinPool();
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        final int pages = struct.pageCount();
+        final long[] pagePartition = new long[Math.min(pages, Math.max(1, concurrency)) + 1];
+        for (int i = 0; i < pagePartition.length; i++) {
+            pagePartition[i] = (long) pages * i / (pagePartition.length - 1);
+        }
+        ParallelUtil.iterateParallel(
+                pool,
+                pagePartition,
+                getTerminationFlag(),
+                () -> (start, end) -> struct.reset((int) start, (int) end));
+
+        final long[] partition = ParallelUtil.degreePartition(
+                graph,
+                nodeCount,
+                Direction.BOTH,
+                Math.max(1, concurrency) * BATCHES_PER_THREAD);
+        visitedNodes.set(0L);
+        ParallelUtil.iterateParallel(
+                pool,
+                partition,
+                getTerminationFlag(),
+                () -> new UnionFindTask(struct, threshold, true, -1L));
+
+        final long biggestSet = sampleBiggestSet(struct);
+        ParallelUtil.iterateParallel(
+                pool,
+                partition,
+                getTerminationFlag(),
+                () -> new UnionFindTask(struct, threshold, false, biggestSet));
+        return struct;
+    }
+
+    private long sampleBiggestSet(PagedAtomicDisjointSetStruct struct) {
+        if (nodeCount == 0L) {
+            return -1L;
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final LongIntHashMap setSizes = new LongIntHashMap();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            setSizes.addTo(struct.find(random.nextLong(nodeCount)), 1);
+        }
+        long biggestSet = -1L;
+        int biggestSize = 0;
+        for (LongIntCursor cursor : setSizes) {
+            if (cursor.value > biggestSize) {
+                biggestSize = cursor.value;
+                biggestSet = cursor.key;
+            }
+        }
+        return biggestSet;
+    }
+
+    private ForkJoinPool forkJoinPool() {
+        if (executor instanceof ForkJoinPool) {
+            return (ForkJoinPool) executor;
+        }
+        return ParallelUtil.canRunInParallel(executor) ? Pools.FJ_POOL : null;
+    }
+
+    /**
+     * links the first {@link #NEIGHBOR_ROUNDS} neighbors of every node while
+     * sampling, otherwise links all remaining neighbors of the nodes outside
+     * of the skipped set.
+     */
+    private final class UnionFindTask implements ParallelUtil.BatchConsumer {
+
+        private final HugeRelationshipIterator rels;
+        private final PagedAtomicDisjointSetStruct struct;
+        private final double threshold;
+        private final boolean sampling;
+        private final long skippedSet;
+        private int seen;
+
+        UnionFindTask(
+                PagedAtomicDisjointSetStruct struct,
+                double threshold,
+                boolean sampling,
+                long skippedSet) {
+            this.rels = graph.concurrentCopy();
+            this.struct = struct;
+            this.threshold = threshold;
+            this.sampling = sampling;
+            this.skippedSet = skippedSet;
+        }
+
+        @Override
+        public void accept(long start, long end) {
+            for (long node = start; node < end; node++) {
+                if (!sampling && struct.find(node) == skippedSet) {
+                    continue;
+                }
+                seen = 0;
+                if (Double.isNaN(threshold)) {
+                    rels.forEachRelationship(
+                            node,
+                            Direction.BOTH,
+                            (sourceNodeId, targetNodeId) -> {
+                                if (sampling == (seen++ < NEIGHBOR_ROUNDS)) {
+                                    struct.union(sourceNodeId, targetNodeId);
+                                }
+                                return !sampling || seen < NEIGHBOR_ROUNDS;
+                            });
+                } else {
+                    rels.forEachWeightedRelationship(
+                            node,
+                            Direction.BOTH,
+                            (sourceNodeId, targetNodeId, weight) -> {
+                                if (sampling == (seen++ < NEIGHBOR_ROUNDS) && weight >= threshold) {
+                                    struct.union(sourceNodeId, targetNodeId);
+                                }
+                                return !sampling || seen < NEIGHBOR_ROUNDS;
+                            });
+                }
+            }
+            if (!sampling) {
+                getProgressLogger().logProgress(visitedNodes.addAndGet(end - start), nodeCount);
+            }
+        }
+    }
+}
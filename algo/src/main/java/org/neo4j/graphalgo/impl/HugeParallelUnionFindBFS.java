@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.traverse.DirectionOptimizingBFS;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * parallel UnionFind which first traverses the component of the node with
+ * the highest degree using the {@link DirectionOptimizingBFS}.
+ * <p>
+ * In small world graphs this component holds most of the nodes and the
+ * bottom-up steps of the search skip most of its relationships. Every
+ * visited node is then linked directly to the smallest visited node id.
+ * The relationships of all other nodes are linked into the shared struct
+ * like in {@link HugeParallelUnionFindShared}, none of them can lead into
+ * the visited component.
+ * <p>
+ * The search ignores relationship weights, so it is skipped if a threshold
+ * is given. The graph must be loaded with {@link Direction#BOTH}.
+ */
+public class HugeParallelUnionFindBFS extends GraphUnionFindAlgo<HugeGraph, PagedAtomicDisjointSetStruct, HugeParallelUnionFindBFS> {
+
+    // more batches than threads, so that workers can balance skewed batches
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    private final int concurrency;
+    private final AtomicLong visitedNodes = new AtomicLong();
+
+    HugeParallelUnionFindBFS(
+            HugeGraph graph,
+            ExecutorService executor,
+            AllocationTracker tracker,
+            int concurrency) {
+        super(graph);
+        this.executor = executor;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute(double threshold) {
+        final ForkJoinPool pool = forkJoinPool();
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        final int pages = struct.pageCount();
+        final long[] pagePartition = new long[Math.min(pages, Math.max(1, concurrency)) + 1];
+        for (int i = 0; i < pagePartition.length; i++) {
+            pagePartition[i] = (long) pages * i / (pagePartition.length - 1);
+        }
+        ParallelUtil.iterateParallel(
+                pool,
+                pagePartition,
+                getTerminationFlag(),
+                () -> (start, end) -> struct.reset((int) start, (int) end));
+
+        DirectionOptimizingBFS traverse = null;
+        final LongAccumulator root = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        if (Double.isNaN(threshold) && nodeCount > 0L) {
+            traverse = new DirectionOptimizingBFS(graph, executor, concurrency, tracker)
+                    .withReverseDirection(Direction.BOTH);
+            traverse.bfs(
+                    maxDegreeNode(),
+                    Direction.BOTH,
+                    node -> running(),
+                    (node, depth) -> root.accumulate(node));
+        }
+
+        final long[] partition = ParallelUtil.degreePartition(
+                graph,
+                nodeCount,
+                Direction.OUTGOING,
+                Math.max(1, concurrency) * BATCHES_PER_THREAD);
+        visitedNodes.set(0L);
+        final DirectionOptimizingBFS visited = traverse;
+        final long rootNode = root.get();
+        ParallelUtil.iterateParallel(
+                pool,
+                partition,
+                getTerminationFlag(),
+                () -> new UnionFindTask(struct, threshold, visited, rootNode));
+
+        if (traverse != null) {
+            traverse.release(tracker);
+        }
+        return struct;
+    }
+
+    private long maxDegreeNode() {
+        long maxNode = 0L;
+        int maxDegree = -1;
+        for (long node = 0L; node < nodeCount; node++) {
+            final int degree = graph.degree(node, Direction.BOTH);
+            if (degree > maxDegree) {
+                maxDegree = degree;
+                maxNode = node;
+            }
+        }
+        return maxNode;
+    }
+
+    private ForkJoinPool forkJoinPool() {
+        if (executor instanceof ForkJoinPool) {
+            return (ForkJoinPool) executor;
+        }
+        return ParallelUtil.canRunInParallel(executor) ? Pools.FJ_POOL : null;
+    }
+
+    /**
+     * links visited nodes to the root of the traversed component and
+     * all other nodes to their neighbors
+     */
+    private final class UnionFindTask implements ParallelUtil.BatchConsumer {
+
+        private final HugeRelationshipIterator rels;
+        private final PagedAtomicDisjointSetStruct struct;
+        private final double threshold;
+        private final DirectionOptimizingBFS visited;
+        private final long root;
+
+        UnionFindTask(
+                PagedAtomicDisjointSetStruct struct,
+                double threshold,
+                DirectionOptimizingBFS visited,
+                long root) {
+            this.rels = graph.concurrentCopy();
+            this.struct = struct;
+            this.threshold = threshold;
+            this.visited = visited;
+            this.root = root;
+        }
+
+        @Override
+        public void accept(long start, long end) {
+            for (long node = start; node < end; node++) {
+                if (visited != null && visited.isVisited(node)) {
+                    // the root is the smallest id, so this is a single link
+                    struct.union(node, root);
+                } else if (Double.isNaN(threshold)) {
+                    rels.forEachRelationship(
+                            node,
+                            Direction.OUTGOING,
+                            (sourceNodeId, targetNodeId) -> {
+                                struct.union(sourceNodeId, targetNodeId);
+                                return true;
+                            });
+                } else {
+                    rels.forEachWeightedRelationship(
+                            node,
+                            Direction.OUTGOING,
+                            (sourceNodeId, targetNodeId, weight) -> {
+                                if (weight >= threshold) {
+                                    struct.union(sourceNodeId, targetNodeId);
+                                }
+                                return true;
+                            });
+                }
+            }
+            getProgressLogger().logProgress(visitedNodes.addAndGet(end - start), nodeCount);
+        }
+    }
+}
@@ -184,13 +184,10 @@ public class HugeParallelUnionFindFJMerge extends GraphUnionFindAlgo<HugeGraph,
         @Override
         public void run() {
             for (long node = offset; node < end && node < nodeCount && running(); node++) {
-                rels.forEachRelationship(
+                rels.forEachWeightedRelationship(
                         node,
                         Direction.OUTGOING,
-                        (sourceNodeId, targetNodeId) -> {
-                            double weight = graph.weightOf(
-                                    sourceNodeId,
-                                    targetNodeId);
+                        (sourceNodeId, targetNodeId, weight) -> {
                             if (weight > threshold) {
                                 struct.union(sourceNodeId, targetNodeId);
                             }
@@ -152,11 +152,10 @@ public class HugeParallelUnionFindForkJoin extends GraphUnionFindAlgo<HugeGraph,
                     nodeCount,
                     tracker).reset();
             for (long node = offset; node < end && running(); node++) {
-                rels.forEachRelationship(
+                rels.forEachWeightedRelationship(
                         node,
                         Direction.OUTGOING,
-                        (source, target) -> {
-                            double weight = graph.weightOf(source, target);
+                        (source, target, weight) -> {
                             if (weight >= threshold && !struct.connected(
                                     source,
                                     target)) {
@@ -49,7 +49,6 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
 
     private final ExecutorService executor;
     private final long nodeCount;
-    private final long batchSize;
     private final int stepSize;
     private final AllocationTracker tracker;
 
@@ -66,7 +65,7 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
         this.executor = executor;
         nodeCount = graph.nodeCount();
         this.tracker = tracker;
-        this.batchSize = ParallelUtil.adjustBatchSize(
+        long batchSize = ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
                 minBatchSize,
@@ -88,10 +87,15 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
         final List<Future<?>> futures = new ArrayList<>(stepSize);
         final BlockingQueue<PagedDisjointSetStruct> queue = new ArrayBlockingQueue<>(stepSize);
 
-        int steps = 0;
-        for (long i = 0L; i < nodeCount; i += batchSize) {
-            futures.add(executor.submit(new HugeUnionFindTask(queue, i)));
-            ++steps;
+        // batches of about equal degree instead of equal node count
+        final long[] partition = ParallelUtil.degreePartition(
+                graph,
+                nodeCount,
+                Direction.OUTGOING,
+                stepSize);
+        final int steps = partition.length - 1;
+        for (int i = 0; i < steps; i++) {
+            futures.add(executor.submit(new HugeUnionFindTask(queue, partition[i], partition[i + 1])));
         }
 
         for (int i = 1; i < steps; ++i) {
@@ -135,11 +139,11 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
         private final long offset;
         private final long end;
 
-        HugeUnionFindTask(BlockingQueue<PagedDisjointSetStruct> queue, long offset) {
+        HugeUnionFindTask(BlockingQueue<PagedDisjointSetStruct> queue, long offset, long end) {
             this.rels = graph.concurrentCopy();
             this.queue = queue;
             this.offset = offset;
-            this.end = Math.min(offset + batchSize, nodeCount);
+            this.end = end;
         }
 
         @Override
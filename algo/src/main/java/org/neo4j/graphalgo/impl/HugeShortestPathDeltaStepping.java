@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Delta-Stepping on a {@link HugeGraph}, see {@link ShortestPathDeltaStepping}.
+ * <p>
+ * Distances are kept as doubles and lowered with a compare-and-set, so unlike
+ * the int variant there is no scaling of the weights. Every worker keeps its
+ * own buckets. A phase takes the smallest non empty bucket of all workers,
+ * relaxes its light edges until the bucket stays empty and then relaxes the
+ * heavy edges of all nodes that have been settled in the phase.
+ * <p>
+ * Nodes that can not be reached from the start node have a distance of
+ * {@link Double#POSITIVE_INFINITY}.
+ */
+public final class HugeShortestPathDeltaStepping extends Algorithm<HugeShortestPathDeltaStepping> {
+
+    // number of bucket entries a worker claims at once
+    private static final int BATCH_SIZE = 256;
+
+    private HugeGraph graph;
+    private PagedAtomicDoubleArray distance;
+    private final double delta;
+    private final long nodeCount;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private ExecutorService executorService;
+    private List<Worker> workers;
+    // entries of the bucket that is currently processed, gathered from all workers
+    private long[] current = new long[0];
+    private int currentSize;
+
+    public HugeShortestPathDeltaStepping(
+            HugeGraph graph,
+            double delta,
+            int concurrency,
+            AllocationTracker tracker) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be > 0");
+        }
+        this.graph = graph;
+        this.delta = delta;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.distance = PagedAtomicDoubleArray.newArray(nodeCount, tracker);
+    }
+
+    /**
+     * Set Executor-service to enable concurrent evaluation.
+     *
+     * @param executorService the executor service or null do disable concurrent eval.
+     * @return itself for method chaining
+     */
+    public HugeShortestPathDeltaStepping withExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * compute the shortest path
+     *
+     * @param startNode UNmapped (original) neo4j nodeId as starting point
+     * @return itself for method chaining
+     */
+    public HugeShortestPathDeltaStepping compute(long startNode) {
+        for (long i = 0L; i < nodeCount; i++) {
+            distance.set(i, Double.POSITIVE_INFINITY);
+        }
+
+        final int workerCount = ParallelUtil.canRunInParallel(executorService) ? Math.max(1, concurrency) : 1;
+        workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(graph.concurrentCopy()));
+        }
+
+        final long start = graph.toHugeMappedNodeId(startNode);
+        if (start == -1L) {
+            return this;
+        }
+        distance.set(start, 0D);
+        workers.get(0).addToBucket(0L, start);
+
+        long bucket;
+        while ((bucket = nextNonEmptyBucket()) != -1L && running()) {
+            // light edges may put nodes back into the current bucket
+            while (gather(bucket) > 0 && running()) {
+                runWorkers(bucket, Phase.LIGHT);
+            }
+            runWorkers(bucket, Phase.HEAVY);
+        }
+
+        workers = null;
+        current = new long[0];
+        return this;
+    }
+
+    /**
+     * @return the distance from the start node to the given mapped node id
+     */
+    public double distance(long nodeId) {
+        return distance.get(nodeId);
+    }
+
+    /**
+     * @return mapped-id to distance array
+     */
+    public PagedAtomicDoubleArray getShortestPaths() {
+        return distance;
+    }
+
+    /**
+     * stream the results
+     *
+     * @return Stream of results containing neo4j-NodeId and Sum of Costs of the shortest path
+     */
+    public Stream<ShortestPathDeltaStepping.DeltaSteppingResult> resultStream() {
+        return LongStream.range(0, nodeCount)
+                .mapToObj(node -> new ShortestPathDeltaStepping.DeltaSteppingResult(
+                        graph.toOriginalNodeId(node),
+                        distance.get(node)));
+    }
+
+    @Override
+    public HugeShortestPathDeltaStepping me() {
+        return this;
+    }
+
+    @Override
+    public HugeShortestPathDeltaStepping release() {
+        if (distance != null) {
+            tracker.remove(distance.release());
+        }
+        distance = null;
+        graph = null;
+        workers = null;
+        current = null;
+        return this;
+    }
+
+    private long nextNonEmptyBucket() {
+        long min = -1L;
+        for (Worker worker : workers) {
+            for (LongCursor key : worker.buckets.keys()) {
+                if (min == -1L || key.value < min) {
+                    min = key.value;
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * move the entries of the given bucket from all workers into {@link #current}
+     *
+     * @return the number of gathered entries
+     */
+    private int gather(long bucket) {
+        int size = 0;
+        for (Worker worker : workers) {
+            final LongArrayList entries = worker.buckets.get(bucket);
+            if (entries != null) {
+                size = Math.addExact(size, entries.size());
+            }
+        }
+        if (current.length < size) {
+            current = new long[size];
+        }
+        int offset = 0;
+        for (Worker worker : workers) {
+            final LongArrayList entries = worker.buckets.remove(bucket);
+            if (entries != null) {
+                System.arraycopy(entries.buffer, 0, current, offset, entries.size());
+                offset += entries.size();
+            }
+        }
+        currentSize = size;
+        return size;
+    }
+
+    private void runWorkers(long bucket, Phase phase) {
+        cursor.set(0L);
+        for (Worker worker : workers) {
+            worker.bucket = bucket;
+            worker.phase = phase;
+        }
+        ParallelUtil.run(workers, executorService);
+    }
+
+    private enum Phase {
+        LIGHT, HEAVY
+    }
+
+    private final class Worker implements Runnable, HugeWeightedRelationshipConsumer {
+
+        private final HugeRelationshipIterator iterator;
+        private final LongObjectHashMap<LongArrayList> buckets = new LongObjectHashMap<>();
+        // nodes settled in the current bucket, their heavy edges are relaxed at the end of the phase
+        private final LongArrayList settled = new LongArrayList();
+        private long bucket;
+        private Phase phase;
+
+        private Worker(HugeRelationshipIterator iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void run() {
+            if (phase == Phase.LIGHT) {
+                relaxLight();
+            } else {
+                relaxHeavy();
+            }
+        }
+
+        private void relaxLight() {
+            final long size = currentSize;
+            long start;
+            while ((start = cursor.getAndAdd(BATCH_SIZE)) < size) {
+                final long end = Math.min(size, start + BATCH_SIZE);
+                for (long i = start; i < end; i++) {
+                    final long node = current[(int) i];
+                    // skip entries that moved to a lower bucket in the meantime
+                    if (bucketOf(distance.get(node)) == bucket) {
+                        settled.add(node);
+                        iterator.forEachWeightedRelationship(node, Direction.OUTGOING, this);
+                    }
+                }
+            }
+        }
+
+        private void relaxHeavy() {
+            final long[] nodes = settled.buffer;
+            for (int i = 0, size = settled.size(); i < size; i++) {
+                iterator.forEachWeightedRelationship(nodes[i], Direction.OUTGOING, this);
+            }
+            settled.elementsCount = 0;
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId, double weight) {
+            if ((weight <= delta) == (phase == Phase.LIGHT)) {
+                final double cost = distance.get(sourceNodeId) + weight;
+                if (distance.setIfLess(targetNodeId, cost)) {
+                    addToBucket(bucketOf(cost), targetNodeId);
+                }
+            }
+            return true;
+        }
+
+        private void addToBucket(long bucket, long node) {
+            LongArrayList entries = buckets.get(bucket);
+            if (entries == null) {
+                entries = new LongArrayList();
+                buckets.put(bucket, entries);
+            }
+            entries.add(node);
+        }
+    }
+
+    private long bucketOf(double cost) {
+        return (long) (cost / delta);
+    }
+}
@@ -19,19 +19,19 @@
 package org.neo4j.graphalgo.impl;
 
 import com.carrotsearch.hppc.IntArrayList;
-import com.carrotsearch.hppc.IntDoubleHashMap;
-import com.carrotsearch.hppc.IntDoubleScatterMap;
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
-import com.carrotsearch.hppc.cursors.IntDoubleCursor;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.container.LabelVotes;
 import org.neo4j.graphdb.Direction;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
@@ -39,8 +39,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public final class LabelPropagation extends Algorithm<LabelPropagation> {
 
-    private static final int[] EMPTY_INTS = new int[0];
-
     private HeavyGraph graph;
     private final int batchSize;
     private final int concurrency;
@@ -93,19 +91,25 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         ranIterations = 0;
         didConverge = false;
 
-        final List<Runnable> computeSteps = ParallelUtil.readParallel(
-                concurrency,
-                batchSize,
+        // batches of about equal degree, so that no step waits on a few super nodes
+        final int[] partition = ParallelUtil.degreePartition(
                 graph,
-                (offset, nodes) -> new InitStep(
-                        graph,
-                        labels,
-                        direction,
-                        randomizeOrder,
-                        getProgressLogger(),
-                        nodes
-                ),
-                executor);
+                nodeCount,
+                direction,
+                ParallelUtil.threadSize(batchSize, nodeCount),
+                1L);
+        final List<Runnable> computeSteps = new ArrayList<>(partition.length - 1);
+        for (int i = 0; i < partition.length - 1; i++) {
+            computeSteps.add(new InitStep(
+                    graph,
+                    labels,
+                    direction,
+                    randomizeOrder,
+                    getProgressLogger(),
+                    new NodeRange(partition[i], partition[i + 1])
+            ));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
 
         for (int i = 0, l = computeSteps.size(); i < l; i++) {
             computeSteps.set(i, ((InitStep) computeSteps.get(i)).computeStep());
@@ -132,6 +136,74 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return this;
     }
 
+    /**
+     * Semi-synchronous label propagation. The nodes are colored so that no
+     * two adjacent nodes share a color and every iteration updates one color
+     * class after another. Nodes of the same class never read each others
+     * labels, so the classes can be updated in parallel and the result does
+     * not depend on scheduling. Unlike the asynchronous variant this one
+     * does not oscillate and always produces the same labels for the same graph.
+     * <p>
+     * The coloring looks at both directions, so the graph must have been
+     * loaded with {@link Direction#BOTH} or as undirected graph.
+     */
+    public LabelPropagation computeColored(
+            Direction direction,
+            long maxIterations) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Must iterate at least 1 time");
+        }
+
+        if (labels == null || labels.length != nodeCount) {
+            labels = new int[nodeCount];
+        }
+        ranIterations = 0;
+        didConverge = false;
+
+        final int[] labels = this.labels;
+        final HeavyGraph graph = this.graph;
+        if (ParallelUtil.canRunInParallel(executor)) {
+            ParallelUtil.iterateParallel(
+                    executor,
+                    nodeCount,
+                    concurrency,
+                    nodeId -> labels[nodeId] = (int) graph.valueOf(nodeId, nodeId));
+        } else {
+            for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+                labels[nodeId] = (int) graph.valueOf(nodeId, nodeId);
+            }
+        }
+
+        final List<List<ColorClassStep>> colorClasses = colorClasses(direction);
+        final ProgressLogger progressLogger = getProgressLogger();
+        for (long i = 0L; i < maxIterations && running(); i++) {
+            boolean didChange = false;
+            for (List<ColorClassStep> steps : colorClasses) {
+                // at most concurrency steps per class, all of them must have run before the next class starts
+                ParallelUtil.run(steps, executor);
+            }
+            for (List<ColorClassStep> steps : colorClasses) {
+                for (ColorClassStep step : steps) {
+                    didChange |= step.didChange;
+                }
+            }
+            ++ranIterations;
+            progressLogger.logProgress(i, maxIterations);
+            if (!didChange) {
+                didConverge = true;
+                break;
+            }
+        }
+
+        for (List<ColorClassStep> steps : colorClasses) {
+            for (ColorClassStep step : steps) {
+                step.release();
+            }
+        }
+
+        return this;
+    }
+
     public long ranIterations() {
         return ranIterations;
     }
@@ -174,6 +246,68 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return this;
     }
 
+    /**
+     * greedy coloring in node id order, each node takes the smallest color
+     * that none of its already colored neighbors has. The nodes are then
+     * grouped by color and every group is split into batches.
+     */
+    private List<List<ColorClassStep>> colorClasses(Direction direction) {
+        final int[] colors = new int[nodeCount];
+        Arrays.fill(colors, -1);
+        final int[] usedBy = new int[nodeCount + 1];
+        Arrays.fill(usedBy, -1);
+        int colorCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            final int current = node;
+            graph.forEachRelationship(node, Direction.BOTH, (source, target, relationId) -> {
+                final int color = colors[target];
+                if (color >= 0) {
+                    usedBy[color] = current;
+                }
+                return true;
+            });
+            int color = 0;
+            while (usedBy[color] == node) {
+                ++color;
+            }
+            colors[node] = color;
+            colorCount = Math.max(colorCount, color + 1);
+        }
+
+        // counting sort of the nodes by their color
+        final int[] offsets = new int[colorCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            ++offsets[colors[node] + 1];
+        }
+        for (int color = 0; color < colorCount; color++) {
+            offsets[color + 1] += offsets[color];
+        }
+        final int[] nodes = new int[nodeCount];
+        final int[] positions = Arrays.copyOf(offsets, colorCount);
+        for (int node = 0; node < nodeCount; node++) {
+            nodes[positions[colors[node]]++] = node;
+        }
+
+        final List<List<ColorClassStep>> colorClasses = new ArrayList<>(colorCount);
+        for (int color = 0; color < colorCount; color++) {
+            final int start = offsets[color];
+            final int end = offsets[color + 1];
+            final int batch = ParallelUtil.adjustBatchSize(end - start, concurrency, Math.max(1, batchSize));
+            final List<ColorClassStep> steps = new ArrayList<>();
+            for (int from = start; from < end; from += batch) {
+                steps.add(new ColorClassStep(
+                        graph,
+                        labels,
+                        direction,
+                        nodes,
+                        from,
+                        Math.min(end, from + batch)));
+            }
+            colorClasses.add(steps);
+        }
+        return colorClasses;
+    }
+
     private static final class InitStep implements Runnable {
 
         private final HeavyGraph graph;
@@ -230,7 +364,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         private final ProgressLogger progressLogger;
         private final PrimitiveIntIterable nodes;
         private final int maxNode;
-        private final IntDoubleHashMap votes;
+        private final LabelVotes votes;
 
         private boolean didChange = true;
         private long iteration = 0L;
@@ -248,7 +382,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             this.progressLogger = progressLogger;
             this.nodes = RandomlySwitchingIterable.of(randomizeOrder, nodes);
             this.maxNode = (int) (graph.nodeCount() - 1L);
-            this.votes = new IntDoubleScatterMap();
+            this.votes = new LabelVotes();
         }
 
         @Override
@@ -268,17 +402,10 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         }
 
         private boolean compute(int nodeId, boolean didChange) {
-            votes.clear();
-            int partition = existingLabels[nodeId];
-            int previous = partition;
+            votes.reset(graph.degree(nodeId, direction));
+            int previous = existingLabels[nodeId];
             graph.forEachRelationship(nodeId, direction, this);
-            double weight = Double.NEGATIVE_INFINITY;
-            for (IntDoubleCursor vote : votes) {
-                if (weight < vote.value) {
-                    weight = vote.value;
-                    partition = vote.key;
-                }
-            }
+            int partition = (int) votes.best(previous);
             progressLogger.logProgress(nodeId, maxNode);
             if (partition != previous) {
                 existingLabels[nodeId] = partition;
@@ -294,21 +421,100 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 final long relationId) {
             int partition = existingLabels[targetNodeId];
             double weight = graph.weightOf(sourceNodeId, targetNodeId) * graph.weightOf(targetNodeId);
-            votes.addTo(partition, weight);
+            votes.add(partition, weight);
             return true;
         }
 
         private void release() {
-            // the HPPC release() method allocates new arrays
-            // the clear() method overwrite the existing keys with the default value
-            // we want to throw away all data to allow for GC collection instead.
-
-            if (votes.keys != null) {
-                votes.keys = EMPTY_INTS;
-                votes.clear();
-                votes.keys = null;
-                votes.values = null;
+            votes.release();
+        }
+    }
+
+    private static final class ColorClassStep implements Runnable, RelationshipConsumer {
+
+        private final HeavyGraph graph;
+        private final int[] existingLabels;
+        private final Direction direction;
+        private final int[] nodes;
+        private final int start;
+        private final int end;
+        private final LabelVotes votes;
+
+        private boolean didChange;
+
+        private ColorClassStep(
+                HeavyGraph graph,
+                int[] existingLabels,
+                Direction direction,
+                int[] nodes,
+                int start,
+                int end) {
+            this.graph = graph;
+            this.existingLabels = existingLabels;
+            this.direction = direction;
+            this.nodes = nodes;
+            this.start = start;
+            this.end = end;
+            this.votes = new LabelVotes();
+        }
+
+        @Override
+        public void run() {
+            boolean didChange = false;
+            for (int i = start; i < end; i++) {
+                final int nodeId = nodes[i];
+                votes.reset(graph.degree(nodeId, direction));
+                final int previous = existingLabels[nodeId];
+                graph.forEachRelationship(nodeId, direction, this);
+                final int partition = (int) votes.best(previous);
+                if (partition != previous) {
+                    existingLabels[nodeId] = partition;
+                    didChange = true;
+                }
             }
+            this.didChange = didChange;
+        }
+
+        @Override
+        public boolean accept(
+                final int sourceNodeId,
+                final int targetNodeId,
+                final long relationId) {
+            int partition = existingLabels[targetNodeId];
+            double weight = graph.weightOf(sourceNodeId, targetNodeId) * graph.weightOf(targetNodeId);
+            votes.add(partition, weight);
+            return true;
+        }
+
+        private void release() {
+            votes.release();
+        }
+    }
+
+    private static final class NodeRange implements PrimitiveIntIterable {
+        private final int start;
+        private final int end;
+
+        private NodeRange(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public PrimitiveIntIterator iterator() {
+            return new PrimitiveIntIterator() {
+                private int current = start;
+
+                @Override
+                public boolean hasNext() {
+                    return current < end;
+                }
+
+                @Override
+                public int next() {
+                    return current++;
+                }
+            };
         }
     }
 
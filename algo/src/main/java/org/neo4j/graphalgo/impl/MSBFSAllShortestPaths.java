@@ -49,6 +49,7 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
     private final int concurrency;
     private final ExecutorService executorService;
     private final int nodeCount;
+    private int omega = MultiSourceBFS.OMEGA;
 
     public MSBFSAllShortestPaths(Graph graph, int concurrency, ExecutorService executorService) {
         this.graph = graph;
@@ -86,6 +87,14 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
                 0), false);
     }
 
+    /**
+     * number of sources per MS-BFS traversal, see {@link MultiSourceBFS#withOmega(int)}
+     */
+    public MSBFSAllShortestPaths withOmega(int omega) {
+        this.omega = MultiSourceBFS.validateOmega(omega);
+        return this;
+    }
+
     @Override
     public MSBFSAllShortestPaths me() {
         return this;
@@ -140,7 +149,7 @@ public class MSBFSAllShortestPaths extends MSBFSASPAlgorithm<MSBFSAllShortestPat
                         }
                         progressLogger.logProgress((double) target / (nodeCount - 1));
                     }
-            ).run(concurrency, executorService);
+            ).withOmega(omega).run(concurrency, executorService);
 
             resultQueue.add(new Result(-1, -1, -1));
         }
@@ -18,8 +18,6 @@
  */
 package org.neo4j.graphalgo.impl;
 
-import com.carrotsearch.hppc.IntArrayList;
-import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
@@ -34,7 +32,6 @@ import org.neo4j.graphdb.Direction;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -87,8 +84,9 @@ import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
  * Every partition should have about the same number of relationships to operate on.
  * This is done to avoid having one partition with super nodes and instead have
  * all partitions run in approximately equal time.
- * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
- * in order to batch partitions and keep the number of threads in use predictable/configurable.
+ * The nodes are split into at most {@code concurrency} partitions of about equal cost
+ * (see {@link ParallelUtil#degreePartition(Degrees, int, Direction, int, long)}),
+ * in order to keep the number of threads in use predictable/configurable.
  * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
@@ -132,16 +130,21 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             RelationshipIterator relationshipIterator,
             Degrees degrees,
             double dampingFactor) {
-        List<Partition> partitions;
+        if (concurrency <= 0) {
+            concurrency = Pools.DEFAULT_QUEUE_SIZE;
+        }
+        int nodeCount = Math.toIntExact(idMapping.nodeCount());
+        int[] partition;
         if (ParallelUtil.canRunInParallel(executor)) {
-            partitions = partitionGraph(
-                    adjustBatchSize(batchSize),
-                    idMapping,
-                    nodeIterator,
-                    degrees);
+            partition = ParallelUtil.degreePartition(
+                    degrees,
+                    nodeCount,
+                    Direction.OUTGOING,
+                    concurrency,
+                    adjustBatchSize(batchSize));
         } else {
             executor = null;
-            partitions = createSinglePartition(idMapping, degrees);
+            partition = new int[]{0, nodeCount};
         }
 
         computeSteps = createComputeSteps(
@@ -149,7 +152,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                 dampingFactor,
                 relationshipIterator,
                 degrees,
-                partitions,
+                partition,
                 executor);
     }
 
@@ -158,11 +161,29 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
      */
     @Override
     public PageRank compute(int iterations) {
-        assert iterations >= 1;
-        computeSteps.run(iterations);
+        return compute(iterations, 0.0);
+    }
+
+    /**
+     * compute pageRank for at most n iterations or until the scores have converged
+     */
+    @Override
+    public PageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps.iterations;
+    }
+
+    @Override
+    public double delta() {
+        return computeSteps.delta;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -173,7 +194,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         return this;
     }
 
-    private int adjustBatchSize(int batchSize) {
+    private long adjustBatchSize(int batchSize) {
         // multiply batchsize by 8 as a very rough estimate of an average
         // degree of 8 for nodes, so that every partition has approx
         // batchSize nodes.
@@ -181,75 +202,21 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         return batchSize > 0 ? batchSize : Integer.MAX_VALUE;
     }
 
-    private List<Partition> partitionGraph(
-            int batchSize,
-            IdMapping idMapping,
-            NodeIterator nodeIterator,
-            Degrees degrees) {
-        int nodeCount = Math.toIntExact(idMapping.nodeCount());
-        PrimitiveIntIterator nodes = nodeIterator.nodeIterator();
-        List<Partition> partitions = new ArrayList<>();
-        int start = 0;
-        while (nodes.hasNext()) {
-            Partition partition = new Partition(
-                    nodeCount,
-                    nodes,
-                    degrees,
-                    start,
-                    batchSize);
-            partitions.add(partition);
-            start += partition.nodeCount;
-        }
-        return partitions;
-    }
-
-    private List<Partition> createSinglePartition(
-            IdMapping idMapping,
-            Degrees degrees) {
-        return Collections.singletonList(
-                new Partition(
-                        Math.toIntExact(idMapping.nodeCount()),
-                        null,
-                        degrees,
-                        0,
-                        -1
-                )
-        );
-    }
-
     private ComputeSteps createComputeSteps(
             int concurrency,
             double dampingFactor,
             RelationshipIterator relationshipIterator,
             Degrees degrees,
-            List<Partition> partitions,
+            int[] partition,
             ExecutorService pool) {
-        if (concurrency <= 0) {
-            concurrency = Pools.DEFAULT_QUEUE_SIZE;
-        }
-        final int expectedParallelism = Math.min(
-                concurrency,
-                partitions.size());
-        List<ComputeStep> computeSteps = new ArrayList<>(expectedParallelism);
-        IntArrayList starts = new IntArrayList(expectedParallelism);
-        IntArrayList lengths = new IntArrayList(expectedParallelism);
-        int partitionsPerThread = ParallelUtil.threadSize(
-                concurrency + 1,
-                partitions.size());
-        Iterator<Partition> parts = partitions.iterator();
-
-        while (parts.hasNext()) {
-            Partition partition = parts.next();
-            int partitionCount = partition.nodeCount;
-            int start = partition.startNode;
-            for (int i = 1; i < partitionsPerThread && parts.hasNext(); i++) {
-                partition = parts.next();
-                partitionCount += partition.nodeCount;
-            }
-
-            starts.add(start);
-            lengths.add(partitionCount);
-
+        int stepCount = partition.length - 1;
+        List<ComputeStep> computeSteps = new ArrayList<>(stepCount);
+        int[] startArray = Arrays.copyOf(partition, stepCount);
+        int[] lengthArray = new int[stepCount];
+        for (int i = 0; i < stepCount; i++) {
+            int start = partition[i];
+            int partitionCount = partition[i + 1] - start;
+            lengthArray[i] = partitionCount;
             computeSteps.add(new ComputeStep(
                     dampingFactor,
                     relationshipIterator,
@@ -259,8 +226,6 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             ));
         }
 
-        int[] startArray = starts.toArray();
-        int[] lengthArray = lengths.toArray();
         for (ComputeStep computeStep : computeSteps) {
             computeStep.setStarts(startArray, lengthArray);
         }
@@ -278,41 +243,13 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         return this;
     }
 
-    private static final class Partition {
-
-        private final int startNode;
-        private final int nodeCount;
-
-        Partition(
-                int allNodeCount,
-                PrimitiveIntIterator nodes,
-                Degrees degrees,
-                int startNode,
-                int batchSize) {
-
-            int nodeCount;
-            int partitionSize = 0;
-            if (batchSize > 0) {
-                nodeCount = 0;
-                while (partitionSize < batchSize && nodes.hasNext()) {
-                    int nodeId = nodes.next();
-                    ++nodeCount;
-                    partitionSize += degrees.degree(nodeId, Direction.OUTGOING);
-                }
-            } else {
-                nodeCount = allNodeCount;
-            }
-
-            this.startNode = startNode;
-            this.nodeCount = nodeCount;
-        }
-    }
-
     private final class ComputeSteps {
         private final int concurrency;
         private List<ComputeStep> steps;
         private final ExecutorService pool;
         private int[][][] scores;
+        private int iterations;
+        private double delta;
 
         private ComputeSteps(
                 int concurrency,
@@ -341,7 +278,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             return new PartitionedPrimitiveDoubleArrayResult(results, firstStep.starts);
         }
 
-        private void run(int iterations) {
+        private void run(int iterations, double tolerance) {
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
             for (int i = 0; i < iterations && running(); i++) {
@@ -350,7 +287,20 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                 synchronizeScores();
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ++this.iterations;
+                if (converged(tolerance)) {
+                    break;
+                }
+            }
+        }
+
+        private boolean converged(double tolerance) {
+            double delta = 0.0;
+            for (ComputeStep step : steps) {
+                delta += step.delta;
             }
+            this.delta = delta;
+            return delta < tolerance;
         }
 
         private void synchronizeScores() {
@@ -405,6 +355,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int endNode;
 
         private int srcRankDelta = 0;
+        // L1 norm of the score changes of the last synchronizeScores
+        private double delta;
 
         ComputeStep(
                 double dampingFactor,
@@ -507,13 +459,16 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             double[] pageRank = this.pageRank;
 
             int length = allScores.length;
+            double l1Delta = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = allScores[i];
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
                 allScores[i] = 0;
+                l1Delta += Math.abs(delta);
             }
+            this.delta = l1Delta;
         }
 
     }
@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 
 import java.util.concurrent.ExecutorService;
 
@@ -28,6 +29,22 @@ public interface PageRankAlgorithm {
 
     PageRankAlgorithm compute(int iterations);
 
+    /**
+     * Runs at most {@code maxIterations} iterations and stops as soon as the sum of all
+     * score changes (L1 norm) of an iteration is smaller than {@code tolerance}.
+     */
+    PageRankAlgorithm compute(int maxIterations, double tolerance);
+
+    /**
+     * @return the number of iterations that have actually been run
+     */
+    int iterations();
+
+    /**
+     * @return the sum of all score changes (L1 norm) of the last iteration
+     */
+    double delta();
+
     PageRankResult result();
 
     Algorithm<?> algorithm();
@@ -88,4 +105,44 @@ public interface PageRankAlgorithm {
                 graph,
                 dampingFactor);
     }
+
+    /**
+     * Wraps scores, e.g. of a previous run read by {@link PageRankScoreReader}, as a result.
+     */
+    static PageRankResult scores(DoubleArray scores) {
+        return new HugeIncrementalPageRank.DoubleArrayResult(scores);
+    }
+
+    /**
+     * Creates an incremental PageRank that updates the scores of a previous run
+     * for a set of changed nodes, see {@link HugeIncrementalPageRank}.
+     */
+    static HugeIncrementalPageRank incremental(
+            AllocationTracker tracker,
+            HugeGraph graph,
+            double dampingFactor,
+            double tolerance) {
+        return incremental(tracker, graph, dampingFactor, tolerance, null, 1);
+    }
+
+    /**
+     * Creates an incremental PageRank that pushes with up to {@code concurrency} workers.
+     */
+    static HugeIncrementalPageRank incremental(
+            AllocationTracker tracker,
+            HugeGraph graph,
+            double dampingFactor,
+            double tolerance,
+            ExecutorService pool,
+            int concurrency) {
+        return new HugeIncrementalPageRank(
+                pool,
+                concurrency,
+                tracker,
+                graph,
+                graph,
+                graph,
+                dampingFactor,
+                tolerance);
+    }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.StatementApi;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the scores of a previous PageRank run from a node property,
+ * as input for {@link HugeIncrementalPageRank}.
+ */
+public final class PageRankScoreReader extends StatementApi {
+
+    private static final long BATCH_SIZE = 100_000L;
+
+    private final HugeGraph graph;
+    private final double defaultScore;
+
+    /**
+     * @param defaultScore the score of nodes without the property, e.g. nodes that have been added since
+     */
+    public PageRankScoreReader(GraphDatabaseAPI api, HugeGraph graph, double defaultScore) {
+        super(api);
+        this.graph = graph;
+        this.defaultScore = defaultScore;
+    }
+
+    /**
+     * @return the scores addressed with the node ids of the graph
+     * @throws IllegalArgumentException if the property does not exist
+     */
+    public DoubleArray read(
+            String property,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        final int propertyKey = applyInTransaction(statement ->
+                statement.readOperations().propertyKeyGetForName(property));
+        if (propertyKey == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            throw new IllegalArgumentException("No previous scores found in property '" + property + "'");
+        }
+
+        final long nodeCount = graph.nodeCount();
+        final DoubleArray scores = DoubleArray.newArray(nodeCount, tracker);
+        final List<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += BATCH_SIZE) {
+            final long from = start;
+            final long to = Math.min(start + BATCH_SIZE, nodeCount);
+            tasks.add(() -> acceptInTransaction(statement ->
+                    readBatch(statement.readOperations(), propertyKey, scores, from, to)));
+        }
+        // every task covers a fixed range of nodes, none of them may be dropped
+        ParallelUtil.runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
+        return scores;
+    }
+
+    private void readBatch(ReadOperations readOp, int propertyKey, DoubleArray scores, long from, long to) {
+        for (long nodeId = from; nodeId < to; nodeId++) {
+            double score = defaultScore;
+            try {
+                Object value = readOp.nodeGetProperty(graph.toOriginalNodeId(nodeId), propertyKey);
+                if (value instanceof Number) {
+                    score = ((Number) value).doubleValue();
+                }
+            } catch (EntityNotFoundException ignored) {
+            }
+            scores.set(nodeId, score);
+        }
+    }
+}
@@ -44,7 +44,6 @@ public class ParallelUnionFindQueue extends GraphUnionFindAlgo<Graph, DisjointSe
 
     private final ExecutorService executor;
     private final int nodeCount;
-    private final int batchSize;
     private final int stepSize;
 
     public static Function<Graph, ParallelUnionFindQueue> of(ExecutorService executor, int minBatchSize, int concurrency) {
@@ -62,7 +61,7 @@ public class ParallelUnionFindQueue extends GraphUnionFindAlgo<Graph, DisjointSe
         super(graph);
         this.executor = executor;
         nodeCount = Math.toIntExact(graph.nodeCount());
-        this.batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, minBatchSize);
+        int batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, minBatchSize);
         stepSize = ParallelUtil.threadSize(batchSize, nodeCount);
     }
 
@@ -71,11 +70,17 @@ public class ParallelUnionFindQueue extends GraphUnionFindAlgo<Graph, DisjointSe
         final List<Future<?>> futures = new ArrayList<>(stepSize);
         final BlockingQueue<DisjointSetStruct> queue = new ArrayBlockingQueue<>(stepSize);
 
+        // batches of about equal degree instead of equal node count
+        final int[] partition = ParallelUtil.degreePartition(
+                graph,
+                nodeCount,
+                Direction.OUTGOING,
+                stepSize,
+                1L);
         Phaser phaser = new Phaser();
-        int steps = 0;
-        for (int i = 0; i < nodeCount; i += batchSize) {
-            futures.add(executor.submit(new UnionFindTask(queue, i, phaser)));
-            ++steps;
+        final int steps = partition.length - 1;
+        for (int i = 0; i < steps; i++) {
+            futures.add(executor.submit(new UnionFindTask(queue, partition[i], partition[i + 1], phaser)));
         }
         phaser.awaitAdvance(phaser.getPhase());
 
@@ -124,10 +129,11 @@ public class ParallelUnionFindQueue extends GraphUnionFindAlgo<Graph, DisjointSe
         UnionFindTask(
                 BlockingQueue<DisjointSetStruct> queue,
                 int offset,
+                int end,
                 Phaser phaser) {
             this.queue = queue;
             this.offset = offset;
-            this.end = Math.min(offset + batchSize, nodeCount);
+            this.end = end;
             this.phaser = phaser;
             phaser.register();
         }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parallel UnionFind on a single {@link PagedAtomicDisjointSetStruct}.
+ * <p>
+ * All threads union into the same lock-free struct, so there is neither
+ * a struct per batch nor a merge phase. Batches of about equal degree are
+ * stolen by idle workers of the fork-join pool.
+ */
+public class ParallelUnionFindShared extends GraphUnionFindAlgo<Graph, PagedAtomicDisjointSetStruct, ParallelUnionFindShared> {
+
+    // more batches than threads, so that workers can balance skewed batches
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+    private final int nodeCount;
+    private final int concurrency;
+    private final AtomicLong visitedNodes = new AtomicLong();
+
+    public ParallelUnionFindShared(
+            Graph graph,
+            ExecutorService executor,
+            AllocationTracker tracker,
+            int concurrency) {
+        super(graph);
+        this.executor = executor;
+        this.tracker = tracker;
+        this.nodeCount = Math.toIntExact(graph.nodeCount());
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute(double threshold) {
+        final ForkJoinPool pool = forkJoinPool();
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        final int pages = struct.pageCount();
+        final long[] pagePartition = new long[Math.min(pages, Math.max(1, concurrency)) + 1];
+        for (int i = 0; i < pagePartition.length; i++) {
+            pagePartition[i] = (long) pages * i / (pagePartition.length - 1);
+        }
+        ParallelUtil.iterateParallel(
+                pool,
+                pagePartition,
+                getTerminationFlag(),
+                () -> (start, end) -> struct.reset((int) start, (int) end));
+
+        // batches of about equal degree instead of equal node count
+        final long[] partition = ParallelUtil.degreePartition(
+                nodeCount,
+                Math.max(1, concurrency) * BATCHES_PER_THREAD,
+                node -> graph.degree((int) node, Direction.OUTGOING));
+        visitedNodes.set(0L);
+        ParallelUtil.iterateParallel(
+                pool,
+                partition,
+                getTerminationFlag(),
+                () -> (start, end) -> {
+                    if (Double.isNaN(threshold)) {
+                        for (int node = (int) start; node < end; node++) {
+                            graph.forEachRelationship(
+                                    node,
+                                    Direction.OUTGOING,
+                                    (sourceNodeId, targetNodeId, relationId) -> {
+                                        struct.union(sourceNodeId, targetNodeId);
+                                        return true;
+                                    });
+                        }
+                    } else {
+                        for (int node = (int) start; node < end; node++) {
+                            graph.forEachRelationship(
+                                    node,
+                                    Direction.OUTGOING,
+                                    (sourceNodeId, targetNodeId, relationId, weight) -> {
+                                        if (weight >= threshold) {
+                                            struct.union(sourceNodeId, targetNodeId);
+                                        }
+                                        return true;
+                                    });
+                        }
+                    }
+                    getProgressLogger().logProgress(visitedNodes.addAndGet(end - start), nodeCount);
+                });
+        return struct;
+    }
+
+    private ForkJoinPool forkJoinPool() {
+        if (executor instanceof ForkJoinPool) {
+            return (ForkJoinPool) executor;
+        }
+        return ParallelUtil.canRunInParallel(executor) ? Pools.FJ_POOL : null;
+    }
+}
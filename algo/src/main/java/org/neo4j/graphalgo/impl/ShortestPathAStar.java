@@ -115,7 +115,7 @@ public class ShortestPathAStar extends Algorithm<ShortestPathAStar> {
         }
     }
 
-    private double computeHeuristic(final double lat1, final double lon1, final double lat2, final double lon2) {
+    static double computeHeuristic(final double lat1, final double lon1, final double lat2, final double lon2) {
         final int earthRadius = 6371;
         final double kmToNM = 0.539957;
         final double latDistance = Math.toRadians(lat2 - lat1);
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.IntDoubleMap;
+import com.carrotsearch.hppc.IntDoubleScatterMap;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.NodeWeights;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bidirectional A* single source - single target shortest path algorithm
+ * <p>
+ * Like {@link ShortestPathAStar} the heuristic is the great circle distance
+ * in nautical miles between two nodes, but the coordinates are read from
+ * values that have been loaded with the graph instead of the database.
+ * <p>
+ * Both searches use the average of the distance to the goal and the
+ * distance from the start as potential, which keeps them consistent with
+ * each other so they can stop as soon as they meet on a shortest path.
+ * Directed searches need the incoming relationships, so the graph has to be
+ * loaded with {@link org.neo4j.graphdb.Direction#BOTH}.
+ */
+public final class ShortestPathBidirectionalAStar extends BidirectionalShortestPath<ShortestPathBidirectionalAStar> {
+
+    private NodeWeights latitudes;
+    private NodeWeights longitudes;
+    private IntDoubleMap potentials = new IntDoubleScatterMap();
+    private double startLat, startLon, goalLat, goalLon;
+
+    /**
+     * @param graph      the graph
+     * @param latitudes  latitude of each mapped node
+     * @param longitudes longitude of each mapped node
+     */
+    public ShortestPathBidirectionalAStar(Graph graph, NodeWeights latitudes, NodeWeights longitudes) {
+        super(graph);
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    @Override
+    protected void init(int start, int goal) {
+        potentials.clear();
+        startLat = latitude(start);
+        startLon = longitude(start);
+        goalLat = latitude(goal);
+        goalLon = longitude(goal);
+    }
+
+    @Override
+    protected double potential(int node) {
+        double potential = potentials.getOrDefault(node, Double.NaN);
+        if (Double.isNaN(potential)) {
+            final double lat = latitude(node);
+            final double lon = longitude(node);
+            potential = (ShortestPathAStar.computeHeuristic(lat, lon, goalLat, goalLon)
+                    - ShortestPathAStar.computeHeuristic(startLat, startLon, lat, lon)) / 2.0;
+            potentials.put(node, potential);
+        }
+        return potential;
+    }
+
+    private double latitude(int node) {
+        return coordinate(latitudes.weightOf(node), node);
+    }
+
+    private double longitude(int node) {
+        return coordinate(longitudes.weightOf(node), node);
+    }
+
+    private double coordinate(double value, int node) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Node " + graph.toOriginalNodeId(node) + " has no coordinates");
+        }
+        return value;
+    }
+
+    /**
+     * return the result stream
+     *
+     * @return stream of result DTOs
+     */
+    public Stream<ShortestPathAStar.Result> resultStream() {
+        final int[] nodes = getFinalPath().toArray();
+        final double[] costs = getFinalPathCosts().toArray();
+        return IntStream.range(0, nodes.length)
+                .mapToObj(i -> new ShortestPathAStar.Result(graph.toOriginalNodeId(nodes[i]), costs[i]));
+    }
+
+    @Override
+    public ShortestPathBidirectionalAStar me() {
+        return this;
+    }
+
+    @Override
+    public ShortestPathBidirectionalAStar release() {
+        latitudes = null;
+        longitudes = null;
+        potentials = null;
+        return super.release();
+    }
+}
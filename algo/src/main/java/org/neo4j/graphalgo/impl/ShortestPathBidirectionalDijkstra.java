@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.Graph;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bidirectional Dijkstra single source - single target shortest path algorithm
+ * <p>
+ * Finds the same paths as {@link ShortestPathDijkstra} but searches from the
+ * start and the goal node at the same time, which usually expands far fewer
+ * nodes. Directed searches need the incoming relationships, so the graph has
+ * to be loaded with {@link org.neo4j.graphdb.Direction#BOTH}.
+ */
+public final class ShortestPathBidirectionalDijkstra extends BidirectionalShortestPath<ShortestPathBidirectionalDijkstra> {
+
+    public ShortestPathBidirectionalDijkstra(Graph graph) {
+        super(graph);
+    }
+
+    @Override
+    protected double potential(int node) {
+        return 0.0;
+    }
+
+    /**
+     * return the result stream
+     *
+     * @return stream of result DTOs
+     */
+    public Stream<ShortestPathDijkstra.Result> resultStream() {
+        final int[] nodes = getFinalPath().toArray();
+        final double[] costs = getFinalPathCosts().toArray();
+        return IntStream.range(0, nodes.length)
+                .mapToObj(i -> new ShortestPathDijkstra.Result(graph.toOriginalNodeId(nodes[i]), costs[i]));
+    }
+
+    @Override
+    public ShortestPathBidirectionalDijkstra me() {
+        return this;
+    }
+}
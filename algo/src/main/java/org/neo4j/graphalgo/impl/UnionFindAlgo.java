@@ -22,7 +22,9 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
 
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
@@ -162,6 +164,147 @@ public enum UnionFindAlgo {
             return new DSSResult(struct);
         }
     },
+    SHARED {
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            ParallelUnionFindShared algo = new ParallelUnionFindShared(
+                    graph,
+                    executor,
+                    AllocationTracker.EMPTY,
+                    concurrency);
+            prepare.accept("CC(ParallelUnionFindShared)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            HugeParallelUnionFindShared algo = new HugeParallelUnionFindShared(
+                    hugeGraph,
+                    executor,
+                    tracker,
+                    concurrency);
+            prepare.accept("CC(HugeParallelUnionFindShared)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+    },
+    AFFOREST {
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            ParallelUnionFindAfforest algo = new ParallelUnionFindAfforest(
+                    graph,
+                    executor,
+                    AllocationTracker.EMPTY,
+                    concurrency);
+            prepare.accept("CC(ParallelUnionFindAfforest)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            HugeParallelUnionFindAfforest algo = new HugeParallelUnionFindAfforest(
+                    hugeGraph,
+                    executor,
+                    tracker,
+                    concurrency);
+            prepare.accept("CC(HugeParallelUnionFindAfforest)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+
+        @Override
+        public Direction direction() {
+            return Direction.BOTH;
+        }
+    },
+    BFS {
+        /**
+         * the traversal needs a huge graph, other graphs use {@link #AFFOREST}
+         */
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            return AFFOREST.run(
+                    graph,
+                    executor,
+                    minBatchSize,
+                    concurrency,
+                    threshold,
+                    prepare);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            HugeParallelUnionFindBFS algo = new HugeParallelUnionFindBFS(
+                    hugeGraph,
+                    executor,
+                    tracker,
+                    concurrency);
+            prepare.accept("CC(HugeParallelUnionFindBFS)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+
+        @Override
+        public Direction direction() {
+            return Direction.BOTH;
+        }
+    },
     SEQ {
         @Override
         DSSResult run(
@@ -204,6 +347,14 @@ public enum UnionFindAlgo {
     public static BiConsumer<String, Algorithm<?>> NOTHING = (s, a) -> {
     };
 
+    /**
+     * the direction in which the graph has to be loaded,
+     * relationships are always treated as undirected
+     */
+    public Direction direction() {
+        return Direction.OUTGOING;
+    }
+
     abstract DSSResult run(
             Graph graph,
             ExecutorService executor,
@@ -27,10 +27,10 @@ import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.results.UnionFindResult;
-import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -76,7 +76,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 tracker);
         graph.release();
 
-        if (configuration.isWriteFlag()) {
+        if (configuration.isWriteToFile() || configuration.isWriteFlag()) {
             uf.write(builder::timeWrite, graph, dssResult, configuration);
         }
 
@@ -135,7 +135,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 .withOptionalRelationshipWeightsFromProperty(
                         config.getWeightProperty(),
                         config.getWeightPropertyDefaultValue(1.0))
-                .withDirection(Direction.OUTGOING)
+                .withDirection(algo(config).direction())
                 .withAllocationTracker(tracker)
                 .load(config.getGraphImpl());
     }
@@ -157,8 +157,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
         int concurrency = config.getConcurrency();
         int minBatchSize = config.getBatchSize();
         final double threshold = config.get(CONFIG_THRESHOLD, Double.NaN);
-        UnionFindAlgo uf = concurrency > 1 ? parallel : sequential;
-        return uf.runAny(
+        return algo(config).runAny(
                 graph,
                 Pools.DEFAULT,
                 tracker,
@@ -168,6 +167,10 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 this);
     }
 
+    private UnionFindAlgo algo(ProcedureConfiguration config) {
+        return config.getConcurrency() > 1 ? parallel : sequential;
+    }
+
     private void write(
             Supplier<ProgressTimer> timer,
             Graph graph,
@@ -183,15 +186,21 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
             DSSResult struct,
             ProcedureConfiguration configuration) {
         log.debug("Writing results");
-        Exporter exporter = Exporter.of(api, graph)
+        Exporter.Builder builder = Exporter.of(api, graph)
                 .withLog(log)
                 .parallel(
                         Pools.DEFAULT,
                         configuration.getConcurrency(),
                         TerminationFlag.wrap(transaction))
-                .build();
+                .withWriteBatchSize(configuration.getWriteBatchSize());
+        if (configuration.isWriteToFile()) {
+            builder.toDirectory(configuration.getWriteDirectory());
+        }
+        Exporter exporter = builder.build();
         if (struct.hugeStruct != null) {
             write(exporter, struct.hugeStruct, configuration);
+        } else if (struct.sharedStruct != null) {
+            write(exporter, struct.sharedStruct, configuration);
         } else {
             write(exporter, struct.struct, configuration);
         }
@@ -227,4 +236,16 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 PagedDisjointSetStruct.Translator.INSTANCE);
     }
 
+    private void write(
+            Exporter exporter,
+            PagedAtomicDisjointSetStruct struct,
+            ProcedureConfiguration configuration) {
+        exporter.write(
+                configuration.get(
+                        CONFIG_CLUSTER_PROPERTY,
+                        DEFAULT_CLUSTER_PROPERTY),
+                struct,
+                PagedAtomicDisjointSetStruct.Translator.INSTANCE);
+    }
+
 }
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.betweenness;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Implements Betweenness Centrality for unweighted huge graphs
+ * using node-partitioning like {@link ParallelBetweennessCentrality}.
+ * <p>
+ * Each worker holds paged arrays for sigma, delta and the distance together
+ * with a single BFS order which serves as queue, stack and list of visited
+ * nodes. Dependencies are accumulated over the successors of a node, so no
+ * predecessor lists are built and only the nodes visited by the last source
+ * have to be reset.
+ * <p>
+ * The state of a worker is still sized by the node count, so memory grows with
+ * {@code workers * nodeCount}. The number of workers is therefore throttled to
+ * what fits into the available heap, but at least one worker is started.
+ * <p>
+ * TODO: every source is traversed on its own. Sharing the frontier across a
+ * batch of sources and bounding the per-worker state independently of the
+ * node count are not implemented yet.
+ */
+public class HugeParallelBetweennessCentrality extends Algorithm<HugeParallelBetweennessCentrality> {
+
+    // the graph
+    private HugeGraph graph;
+    private final AllocationTracker tracker;
+    // AL counts up for every node until nodeCount is reached
+    private final AtomicLong nodeQueue = new AtomicLong();
+    // paged atomic double array which is shared by all workers
+    private PagedAtomicDoubleArray centrality;
+    // the node count
+    private final long nodeCount;
+    // global executor service
+    private ExecutorService executorService;
+    // number of threads to spawn
+    private final int concurrency;
+    private Direction direction = Direction.OUTGOING;
+    private double divisor = 1.0;
+
+    /**
+     * constructs a parallel centrality solver
+     *
+     * @param graph the graph iface
+     * @param tracker the allocation tracker
+     * @param executorService the executor service
+     * @param concurrency desired number of threads to spawn
+     */
+    public HugeParallelBetweennessCentrality(
+            HugeGraph graph,
+            AllocationTracker tracker,
+            ExecutorService executorService,
+            int concurrency) {
+        this.graph = graph;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.centrality = PagedAtomicDoubleArray.newArray(nodeCount, tracker);
+    }
+
+    public HugeParallelBetweennessCentrality withDirection(Direction direction) {
+        this.direction = direction;
+        this.divisor = direction == Direction.BOTH ? 2.0 : 1.0;
+        return this;
+    }
+
+    /**
+     * compute centrality
+     *
+     * @return itself for method chaining
+     */
+    public HugeParallelBetweennessCentrality compute() {
+        nodeQueue.set(0);
+        final int threads = maxConcurrencyByMemory(
+                (int) Math.min(Math.max(1, concurrency), Math.max(1, nodeCount)),
+                nodeCount,
+                availableMemory());
+        final ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executorService.submit(new BCTask()));
+        }
+        ParallelUtil.awaitTermination(futures);
+        return this;
+    }
+
+    /**
+     * get the centrality array
+     *
+     * @return array with centrality
+     */
+    public PagedAtomicDoubleArray getCentrality() {
+        return centrality;
+    }
+
+    /**
+     * emit the result stream
+     *
+     * @return stream if Results
+     */
+    public Stream<BetweennessCentrality.Result> resultStream() {
+        return LongStream.range(0, nodeCount)
+                .mapToObj(nodeId ->
+                        new BetweennessCentrality.Result(
+                                graph.toOriginalNodeId(nodeId),
+                                centrality.get(nodeId)));
+    }
+
+    @Override
+    public HugeParallelBetweennessCentrality me() {
+        return this;
+    }
+
+    @Override
+    public HugeParallelBetweennessCentrality release() {
+        graph = null;
+        executorService = null;
+        tracker.remove(centrality.release());
+        centrality = null;
+        return this;
+    }
+
+    /**
+     * throttle the number of workers so that their state fits into the given memory
+     */
+    static int maxConcurrencyByMemory(int concurrency, long nodeCount, long availableBytes) {
+        final long perWorker = estimateMemoryUsagePerWorker(nodeCount);
+        final long maxWorkers = perWorker > 0 ? availableBytes / perWorker : concurrency;
+        return (int) Math.max(1L, Math.min(concurrency, maxWorkers));
+    }
+
+    private static long estimateMemoryUsagePerWorker(long nodeCount) {
+        // order, sigma and distance are long arrays, delta is a double array
+        return DoubleArray.estimateMemoryUsage(nodeCount) << 2;
+    }
+
+    private static long availableMemory() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.maxMemory() - rt.totalMemory() + rt.freeMemory();
+    }
+
+    /**
+     * a BCTask takes one element from the nodeQueue as long as
+     * it is lower then nodeCount and calculates it's centrality
+     */
+    private final class BCTask implements Runnable, HugeRelationshipConsumer {
+
+        private final HugeRelationshipIterator rels;
+        // nodes in BFS order, the range [head, tail) is the queue
+        private final HugeLongArray order;
+        private final HugeLongArray sigma;
+        private final HugeLongArray distance;
+        private final DoubleArray delta;
+        private final HugeRelationshipConsumer accumulator = this::accumulate;
+        private long tail;
+
+        private BCTask() {
+            this.rels = graph.concurrentCopy();
+            this.order = HugeLongArray.newArray(nodeCount, tracker);
+            this.sigma = HugeLongArray.newArray(nodeCount, tracker);
+            this.distance = HugeLongArray.newArray(nodeCount, tracker);
+            this.delta = DoubleArray.newArray(nodeCount, tracker);
+            this.distance.fill(-1L);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (;;) {
+                    final long startNodeId = nodeQueue.getAndIncrement();
+                    if (startNodeId >= nodeCount || !running()) {
+                        return;
+                    }
+                    getProgressLogger().logProgress((double) startNodeId / (nodeCount - 1));
+                    compute(startNodeId);
+                    reset();
+                }
+            } finally {
+                releaseState();
+            }
+        }
+
+        private void compute(long startNodeId) {
+            sigma.set(startNodeId, 1L);
+            distance.set(startNodeId, 0L);
+            order.set(0, startNodeId);
+            tail = 1;
+            for (long head = 0; head < tail; head++) {
+                rels.forEachRelationship(order.get(head), direction, this);
+            }
+
+            // accumulate dependencies in reverse BFS order from the successors
+            for (long i = tail - 1; i > 0; i--) {
+                final long node = order.get(i);
+                rels.forEachRelationship(node, direction, accumulator);
+                centrality.add(node, delta.get(node) / divisor);
+            }
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            final long depth = distance.get(sourceNodeId) + 1;
+            long targetDistance = distance.get(targetNodeId);
+            if (targetDistance < 0) {
+                order.set(tail++, targetNodeId);
+                distance.set(targetNodeId, depth);
+                targetDistance = depth;
+            }
+            if (targetDistance == depth) {
+                sigma.addTo(targetNodeId, sigma.get(sourceNodeId));
+            }
+            return true;
+        }
+
+        private boolean accumulate(long sourceNodeId, long targetNodeId) {
+            if (distance.get(targetNodeId) == distance.get(sourceNodeId) + 1) {
+                delta.add(sourceNodeId, (double) sigma.get(sourceNodeId) / (double) sigma.get(targetNodeId) * (delta.get(targetNodeId) + 1.0));
+            }
+            return true;
+        }
+
+        /**
+         * reset local state of all visited nodes
+         */
+        private void reset() {
+            for (long i = 0; i < tail; i++) {
+                final long node = order.get(i);
+                sigma.set(node, 0L);
+                distance.set(node, -1L);
+                delta.set(node, 0.0);
+            }
+            tail = 0;
+        }
+
+        private void releaseState() {
+            tracker.remove(order.release());
+            tracker.remove(sigma.release());
+            tracker.remove(distance.release());
+            tracker.remove(delta.release());
+        }
+    }
+}
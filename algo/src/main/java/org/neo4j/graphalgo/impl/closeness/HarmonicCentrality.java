@@ -28,6 +28,7 @@ import org.neo4j.graphalgo.impl.msbfs.BfsConsumer;
 import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 import org.neo4j.graphdb.Direction;
 
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -44,6 +45,9 @@ public class HarmonicCentrality extends Algorithm<HarmonicCentrality> implements
     private final int concurrency;
     private ExecutorService executorService;
     private final int nodeCount;
+    private int sampleSize = 0;
+    // sampled pivots or null if the exact centrality is computed
+    private long[] pivots;
 
     public HarmonicCentrality(Graph graph, int concurrency, ExecutorService executorService) {
         this.graph = graph;
@@ -53,13 +57,28 @@ public class HarmonicCentrality extends Algorithm<HarmonicCentrality> implements
         inverseFarness = new AtomicDoubleArray(nodeCount);
     }
 
+    @Override
+    public HarmonicCentrality withSampleSize(int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("sampleSize must not be negative but was " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        return this;
+    }
+
     public HarmonicCentrality compute() {
         final ProgressLogger progressLogger = getProgressLogger();
+        pivots = sampleSize > 0 && sampleSize < nodeCount
+                ? PivotSampling.sample(nodeCount, sampleSize)
+                : null;
+        final int[] startNodes = pivots == null
+                ? null
+                : Arrays.stream(pivots).mapToInt(Math::toIntExact).toArray();
         final BfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             inverseFarness.add(nodeId, sourceNodeIds.size() * (1.0 / depth));
             progressLogger.logProgress((double) nodeId / (nodeCount - 1));
         };
-        new MultiSourceBFS(graph, graph, Direction.BOTH, consumer)
+        new MultiSourceBFS(graph, graph, Direction.BOTH, consumer, startNodes)
                 .run(concurrency, executorService);
         return this;
     }
@@ -68,7 +87,15 @@ public class HarmonicCentrality extends Algorithm<HarmonicCentrality> implements
         return IntStream.range(0, nodeCount)
                 .mapToObj(nodeId -> new Result(
                         graph.toOriginalNodeId(nodeId),
-                        inverseFarness.get(nodeId) / (double) (nodeCount - 1)));
+                        centrality(nodeId)));
+    }
+
+    private double centrality(int nodeId) {
+        if (pivots == null) {
+            return inverseFarness.get(nodeId) / (double) (nodeCount - 1);
+        }
+        int samples = PivotSampling.samplesOf(pivots, nodeId);
+        return samples == 0 ? 0.0 : inverseFarness.get(nodeId) / samples;
     }
 
     public void export(final String propertyName, final Exporter exporter) {
@@ -76,7 +103,7 @@ public class HarmonicCentrality extends Algorithm<HarmonicCentrality> implements
                 propertyName,
                 inverseFarness,
                 (PropertyTranslator.OfDouble<AtomicDoubleArray>)
-                        (data, nodeId) -> data.get((int) nodeId) / (double) (nodeCount - 1));
+                        (data, nodeId) -> centrality((int) nodeId));
     }
 
     @Override
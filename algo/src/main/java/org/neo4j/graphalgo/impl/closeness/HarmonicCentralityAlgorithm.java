@@ -25,6 +25,12 @@ public interface HarmonicCentralityAlgorithm {
 
     HarmonicCentralityAlgorithm release();
 
+    /**
+     * approximate the centrality by traversing only from {@code sampleSize}
+     * random pivots, see {@link PivotSampling}. 0 computes the exact centrality.
+     */
+    HarmonicCentralityAlgorithm withSampleSize(int sampleSize);
+
     void export(final String propertyName, final Exporter exporter);
 
     static HarmonicCentralityAlgorithm instance(Graph graph, AllocationTracker tracker, ExecutorService pool, int concurrency) {
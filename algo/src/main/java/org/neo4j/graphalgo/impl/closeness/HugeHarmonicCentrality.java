@@ -46,6 +46,9 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
     private ExecutorService executorService;
     private final int concurrency;
     private final long nodeCount;
+    private int sampleSize = 0;
+    // sampled pivots or null if the exact centrality is computed
+    private long[] pivots;
 
     public HugeHarmonicCentrality(HugeGraph graph, AllocationTracker allocationTracker, int concurrency, ExecutorService executorService) {
         this.graph = graph;
@@ -56,8 +59,20 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
         inverseFarness = PagedAtomicDoubleArray.newArray(nodeCount, allocationTracker);
     }
 
+    @Override
+    public HugeHarmonicCentrality withSampleSize(int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("sampleSize must not be negative but was " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        return this;
+    }
+
     public HugeHarmonicCentrality compute() {
         final ProgressLogger progressLogger = getProgressLogger();
+        pivots = sampleSize > 0 && sampleSize < nodeCount
+                ? PivotSampling.sample(nodeCount, sampleSize)
+                : null;
         final HugeBfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
             final double len = sourceNodeIds.size();
             inverseFarness.add(nodeId, len * (1.0 / depth));
@@ -69,7 +84,8 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
                 graph,
                 Direction.BOTH,
                 consumer,
-                allocationTracker)
+                allocationTracker,
+                pivots)
                 .run(concurrency, executorService);
 
         return this;
@@ -79,7 +95,15 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
         return LongStream.range(0, nodeCount)
                 .mapToObj(nodeId -> new Result(
                         graph.toOriginalNodeId(nodeId),
-                        inverseFarness.get(nodeId) / (double)(nodeCount - 1)));
+                        centrality(nodeId)));
+    }
+
+    private double centrality(long nodeId) {
+        if (pivots == null) {
+            return inverseFarness.get(nodeId) / (double) (nodeCount - 1);
+        }
+        int samples = PivotSampling.samplesOf(pivots, nodeId);
+        return samples == 0 ? 0.0 : inverseFarness.get(nodeId) / samples;
     }
 
     public void export(final String propertyName, final Exporter exporter) {
@@ -87,7 +111,7 @@ public class HugeHarmonicCentrality extends Algorithm<HugeHarmonicCentrality> im
                 propertyName,
                 inverseFarness,
                 (PropertyTranslator.OfDouble<PagedAtomicDoubleArray>)
-                        (data, nodeId) -> data.get((int) nodeId) / (double) (nodeCount - 1));
+                        (data, nodeId) -> centrality(nodeId));
     }
 
     @Override
@@ -44,6 +44,8 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
     private HugeGraph graph;
     private PagedAtomicIntegerArray farness;
     private PagedAtomicIntegerArray component;
+    // sampled pivots or null if the exact centrality is computed
+    private long[] pivots;
 
     private final int concurrency;
     private final ExecutorService executorService;
@@ -72,21 +74,38 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
 
         final ProgressLogger progressLogger = getProgressLogger();
 
-        final HugeBfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
-            int len = sourceNodeIds.size();
-            farness.add(nodeId, len * depth);
-            while (sourceNodeIds.hasNext()) {
-                component.add(sourceNodeIds.next(), 1);
-            }
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
-        };
+        pivots = sampleSize > 0 && sampleSize < nodeCount
+                ? PivotSampling.sample(nodeCount, sampleSize)
+                : null;
+
+        final HugeBfsConsumer consumer;
+        if (pivots == null) {
+            consumer = (nodeId, depth, sourceNodeIds) -> {
+                int len = sourceNodeIds.size();
+                farness.add(nodeId, len * depth);
+                while (sourceNodeIds.hasNext()) {
+                    component.add(sourceNodeIds.next(), 1);
+                }
+                progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            };
+        } else {
+            // distances are symmetric, so we count the reached pivots per node instead
+            consumer = (nodeId, depth, sourceNodeIds) -> {
+                int len = sourceNodeIds.size();
+                farness.add(nodeId, len * depth);
+                component.add(nodeId, len);
+                progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            };
+        }
 
         new HugeMultiSourceBFS(
                 graph,
                 graph,
                 Direction.OUTGOING,
                 consumer,
-                tracker)
+                tracker,
+                pivots)
+                .withOmega(omega)
                 .run(concurrency, executorService);
 
         return this;
@@ -96,10 +115,7 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
     public DoubleArray getCentrality() {
         final DoubleArray cc = DoubleArray.newArray(nodeCount, tracker);
         for (int i = 0; i < nodeCount; i++) {
-            cc.set(i, centrality(farness.get(i),
-                    component.get(i),
-                    nodeCount,
-                    wassermanFaust));
+            cc.set(i, centrality(i));
         }
         return cc;
     }
@@ -110,7 +126,7 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
                 propertyName,
                 farness,
                 (PropertyTranslator.OfDouble<PagedAtomicIntegerArray>)
-                        (data, nodeId) -> centrality(data.get(nodeId), component.get(nodeId), nodeCount, wassermanFaust));
+                        (data, nodeId) -> centrality(nodeId));
     }
 
     @Override
@@ -118,10 +134,22 @@ public class HugeMSClosenessCentrality extends MSBFSCCAlgorithm<HugeMSClosenessC
         return LongStream.range(0L, nodeCount)
                 .mapToObj(nodeId -> new MSClosenessCentrality.Result(
                         graph.toOriginalNodeId(nodeId),
-                        centrality(farness.get(nodeId), component.get(nodeId), nodeCount, wassermanFaust)
+                        centrality(nodeId)
                 ));
     }
 
+    private double centrality(long nodeId) {
+        if (pivots == null) {
+            return centrality(farness.get(nodeId), component.get(nodeId), nodeCount, wassermanFaust);
+        }
+        return sampledCentrality(
+                farness.get(nodeId),
+                component.get(nodeId),
+                PivotSampling.samplesOf(pivots, nodeId),
+                nodeCount,
+                wassermanFaust);
+    }
+
     @Override
     public HugeMSClosenessCentrality me() {
         return this;
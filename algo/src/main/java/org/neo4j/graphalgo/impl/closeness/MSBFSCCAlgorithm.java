@@ -20,12 +20,36 @@ package org.neo4j.graphalgo.impl.closeness;
 
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.impl.msbfs.MultiSourceBFS;
 
 import java.util.function.LongToIntFunction;
 import java.util.stream.Stream;
 
 public abstract class MSBFSCCAlgorithm<ME extends MSBFSCCAlgorithm<ME>> extends Algorithm<ME> {
 
+    protected int omega = MultiSourceBFS.OMEGA;
+    protected int sampleSize = 0;
+
+    /**
+     * number of sources per MS-BFS traversal, see {@link MultiSourceBFS#withOmega(int)}
+     */
+    public ME withOmega(int omega) {
+        this.omega = MultiSourceBFS.validateOmega(omega);
+        return me();
+    }
+
+    /**
+     * approximate the centrality by traversing only from {@code sampleSize}
+     * random pivots, see {@link PivotSampling}. 0 computes the exact centrality.
+     */
+    public ME withSampleSize(int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("sampleSize must not be negative but was " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        return me();
+    }
+
     public abstract Stream<MSClosenessCentrality.Result> resultStream();
 
     public abstract ME compute();
@@ -41,8 +65,16 @@ public abstract class MSBFSCCAlgorithm<ME extends MSBFSCCAlgorithm<ME>> extends
                 .toArray();
     }
 
-    static double centrality(long farness, long componentSize, long nodeCount, boolean wassermanFaust) {
-        if (farness == 0L) {
+    static double sampledCentrality(long farness, long componentSize, int samples, long nodeCount, boolean wassermanFaust) {
+        if (samples == 0) {
+            return 0.;
+        }
+        double scale = (nodeCount - 1.) / samples;
+        return centrality(farness * scale, componentSize * scale, nodeCount, wassermanFaust);
+    }
+
+    static double centrality(double farness, double componentSize, long nodeCount, boolean wassermanFaust) {
+        if (farness == 0.) {
             return 0.;
         }
         if (wassermanFaust) {
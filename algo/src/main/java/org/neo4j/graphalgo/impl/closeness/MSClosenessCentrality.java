@@ -43,6 +43,8 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
     private Graph graph;
     private AtomicIntegerArray farness;
     private AtomicIntegerArray component;
+    // sampled pivots or null if the exact centrality is computed
+    private long[] pivots;
 
     private final int concurrency;
     private final ExecutorService executorService;
@@ -64,15 +66,35 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
     public MSClosenessCentrality compute() {
 
         final ProgressLogger progressLogger = getProgressLogger();
-        final BfsConsumer consumer = (nodeId, depth, sourceNodeIds) -> {
-            int len = sourceNodeIds.size();
-            farness.addAndGet(nodeId, len * depth);
-            while (sourceNodeIds.hasNext()) {
-                component.incrementAndGet(sourceNodeIds.next());
-            }
-            progressLogger.logProgress((double) nodeId / (nodeCount - 1));
-        };
-        new MultiSourceBFS(graph, graph, Direction.OUTGOING, consumer)
+
+        pivots = sampleSize > 0 && sampleSize < nodeCount
+                ? PivotSampling.sample(nodeCount, sampleSize)
+                : null;
+
+        final BfsConsumer consumer;
+        final int[] startNodes;
+        if (pivots == null) {
+            consumer = (nodeId, depth, sourceNodeIds) -> {
+                int len = sourceNodeIds.size();
+                farness.addAndGet(nodeId, len * depth);
+                while (sourceNodeIds.hasNext()) {
+                    component.incrementAndGet(sourceNodeIds.next());
+                }
+                progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            };
+            startNodes = null;
+        } else {
+            // distances are symmetric, so we count the reached pivots per node instead
+            consumer = (nodeId, depth, sourceNodeIds) -> {
+                int len = sourceNodeIds.size();
+                farness.addAndGet(nodeId, len * depth);
+                component.addAndGet(nodeId, len);
+                progressLogger.logProgress((double) nodeId / (nodeCount - 1));
+            };
+            startNodes = Arrays.stream(pivots).mapToInt(Math::toIntExact).toArray();
+        }
+        new MultiSourceBFS(graph, graph, Direction.OUTGOING, consumer, startNodes)
+                .withOmega(omega)
                 .run(concurrency, executorService);
         return this;
     }
@@ -80,10 +102,7 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
     @Override
     public double[] getCentrality() {
         final double[] cc = new double[nodeCount];
-        Arrays.parallelSetAll(cc, i -> centrality(farness.get(i),
-                component.get(i),
-                nodeCount,
-                wassermanFaust));
+        Arrays.parallelSetAll(cc, this::centrality);
         return cc;
     }
 
@@ -92,7 +111,19 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
         return IntStream.range(0, nodeCount)
                 .mapToObj(nodeId -> new Result(
                         graph.toOriginalNodeId(nodeId),
-                        centrality(farness.get(nodeId), component.get(nodeId), nodeCount, wassermanFaust)));
+                        centrality(nodeId)));
+    }
+
+    private double centrality(int nodeId) {
+        if (pivots == null) {
+            return centrality(farness.get(nodeId), component.get(nodeId), nodeCount, wassermanFaust);
+        }
+        return sampledCentrality(
+                farness.get(nodeId),
+                component.get(nodeId),
+                PivotSampling.samplesOf(pivots, nodeId),
+                nodeCount,
+                wassermanFaust);
     }
 
     @Override
@@ -102,7 +133,7 @@ public class MSClosenessCentrality extends MSBFSCCAlgorithm<MSClosenessCentralit
                 farness,
                 (PropertyTranslator.OfDouble<AtomicIntegerArray>)
                         (data, nodeId) ->
-                                centrality(farness.get((int) nodeId), component.get((int) nodeId), nodeCount, wassermanFaust));
+                                centrality((int) nodeId));
     }
 
     @Override
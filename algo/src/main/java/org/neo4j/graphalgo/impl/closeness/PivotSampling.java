@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.closeness;
+
+import com.carrotsearch.hppc.LongHashSet;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pivot sampling for approximate closeness and harmonic centrality
+ * as described in [1].
+ * <p>
+ * Instead of running a BFS from every node, only {@code k} uniformly sampled
+ * pivots are traversed. On an undirected graph the distances from the pivots
+ * to a node are a sample of the distances from that node to all others, so the
+ * farness and inverse farness of every node are estimated by scaling the
+ * sampled sums by {@code (n - 1) / k}.
+ * <p>
+ * With {@code k = ln(n) / ε²} pivots the estimated average distance of every
+ * node is within {@code ε} times the diameter and the estimated harmonic
+ * centrality within {@code ε} of the exact value, both with high probability.
+ * <p>
+ * [1]: <a href="https://arxiv.org/abs/cs/0009005">Fast Approximation of Centrality</a>
+ */
+public final class PivotSampling {
+
+    private PivotSampling() {}
+
+    /**
+     * the number of pivots needed for an error of at most {@code epsilon}
+     */
+    public static int sampleSize(long nodeCount, double epsilon) {
+        if (!(epsilon > 0.0)) {
+            throw new IllegalArgumentException("epsilon must be positive but was " + epsilon);
+        }
+        double sampleSize = Math.ceil(Math.log(Math.max(2L, nodeCount)) / (epsilon * epsilon));
+        return (int) Math.min(sampleSize, (double) Integer.MAX_VALUE);
+    }
+
+    /**
+     * samples {@code sampleSize} distinct node ids out of {@code [0, nodeCount)}
+     * using Floyd's algorithm, the result is sorted.
+     */
+    static long[] sample(long nodeCount, int sampleSize) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final LongHashSet pivots = new LongHashSet(sampleSize);
+        for (long j = nodeCount - sampleSize; j < nodeCount; j++) {
+            long pivot = random.nextLong(j + 1L);
+            if (!pivots.add(pivot)) {
+                pivots.add(j);
+            }
+        }
+        long[] sample = pivots.toArray();
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    /**
+     * the number of pivots that are a sample of the other nodes of
+     * {@code nodeId}, that is all pivots except the node itself
+     */
+    static int samplesOf(long[] pivots, long nodeId) {
+        return Arrays.binarySearch(pivots, nodeId) >= 0
+                ? pivots.length - 1
+                : pivots.length;
+    }
+}
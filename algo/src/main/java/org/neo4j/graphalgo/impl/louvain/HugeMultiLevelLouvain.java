@@ -0,0 +1,702 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Multi-level Louvain on a {@link HugeGraph} that has been loaded as undirected.
+ * <p>
+ * Every level runs the local moving phase until no node changes its community
+ * (or the modularity does not improve anymore) and then aggregates each community
+ * into a single node of a new, weighted graph. The weight between two communities
+ * is the sum of all relationship weights between their members, the weight within a
+ * community becomes a self-loop. The next level runs on that coarsened graph, which
+ * is usually orders of magnitude smaller than the previous one.
+ * <p>
+ * The local moving phase is parallel: threads take batches of nodes and move them
+ * against a shared community assignment while the community weights are updated
+ * atomically, the moves themselves are decided by {@link LouvainMoves}.
+ * The aggregation is parallel over the communities of a level.
+ * <p>
+ * All structures are paged. The community ids of every level are kept
+ * for the nodes of the original graph.
+ */
+public final class HugeMultiLevelLouvain extends Algorithm<HugeMultiLevelLouvain> implements LouvainAlgorithm {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final double MIN_MODULARITY_GAIN = 1e-6;
+
+    private HugeIdMapping idMapping;
+    private HugeRelationshipIterator relationshipIterator;
+    private ExecutorService pool;
+    private final AllocationTracker tracker;
+    private final int concurrency;
+    private final int maxLevels;
+    private final int maxIterations;
+    private final long rootNodeCount;
+
+    private final List<HugeLongArray> levelCommunities = new ArrayList<>();
+    private final List<Double> levelModularities = new ArrayList<>();
+    private int iterations;
+
+    public HugeMultiLevelLouvain(
+            HugeGraph graph,
+            ExecutorService pool,
+            AllocationTracker tracker,
+            int concurrency,
+            int maxLevels,
+            int maxIterations) {
+        this(graph, graph, pool, tracker, concurrency, maxLevels, maxIterations);
+    }
+
+    HugeMultiLevelLouvain(
+            HugeIdMapping idMapping,
+            HugeRelationshipIterator relationshipIterator,
+            ExecutorService pool,
+            AllocationTracker tracker,
+            int concurrency,
+            int maxLevels,
+            int maxIterations) {
+        this.idMapping = idMapping;
+        this.relationshipIterator = relationshipIterator;
+        this.pool = pool;
+        this.tracker = tracker;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxLevels = Math.max(1, maxLevels);
+        this.maxIterations = maxIterations;
+        this.rootNodeCount = idMapping.nodeCount();
+    }
+
+    @Override
+    public HugeMultiLevelLouvain compute() {
+        iterations = 0;
+        LevelGraph level = new RootGraph(rootNodeCount, relationshipIterator);
+        HugeLongArray rootCommunities = null;
+        for (int depth = 0; depth < maxLevels && running(); depth++) {
+            LocalMoves moves = new LocalMoves(level);
+            moves.run();
+            HugeLongArray communities = moves.communities;
+            long communityCount = renumber(communities, level.nodeCount());
+            moves.release();
+            if (rootCommunities != null && communityCount == level.nodeCount()) {
+                // nothing has been merged, the previous level is final
+                tracker.remove(communities.release());
+                break;
+            }
+
+            rootCommunities = rootCommunities == null
+                    ? communities
+                    : project(rootCommunities, communities);
+            levelCommunities.add(rootCommunities);
+            levelModularities.add(moves.modularity);
+
+            final int currentLevel = depth;
+            final double modularity = moves.modularity;
+            getProgressLogger().log(() -> String.format(
+                    "Level %d: %d communities, modularity %.5f",
+                    currentLevel,
+                    communityCount,
+                    modularity));
+
+            if (communityCount == level.nodeCount() || depth + 1 == maxLevels) {
+                if (communities != rootCommunities) {
+                    tracker.remove(communities.release());
+                }
+                break;
+            }
+            LevelGraph next = aggregate(level, communities, communityCount);
+            if (communities != rootCommunities) {
+                tracker.remove(communities.release());
+            }
+            level.release();
+            level = next;
+        }
+        level.release();
+        return this;
+    }
+
+    /**
+     * maps every node of the original graph to the community of its super node
+     */
+    private HugeLongArray project(HugeLongArray rootCommunities, HugeLongArray communities) {
+        HugeLongArray projected = HugeLongArray.newArray(rootNodeCount, tracker);
+        ParallelUtil.iterateParallelHuge(pool, rootNodeCount, concurrency, node ->
+                projected.set(node, communities.get(rootCommunities.get(node))));
+        return projected;
+    }
+
+    /**
+     * renumbers the communities to 0..communityCount-1
+     * in the order of their first occurrence.
+     */
+    private long renumber(HugeLongArray communities, long nodeCount) {
+        HugeLongArray mapping = HugeLongArray.newArray(nodeCount, tracker);
+        mapping.fill(-1L);
+        long communityCount = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            long community = communities.get(node);
+            long id = mapping.get(community);
+            if (id == -1L) {
+                id = communityCount++;
+                mapping.set(community, id);
+            }
+            communities.set(node, id);
+        }
+        tracker.remove(mapping.release());
+        return communityCount;
+    }
+
+    /**
+     * builds the weighted graph of communities, where every community
+     * becomes a node and all relationships between two communities
+     * are merged into a single one.
+     */
+    private LevelGraph aggregate(LevelGraph level, HugeLongArray communities, long communityCount) {
+        long nodeCount = level.nodeCount();
+
+        // counting sort of the nodes by their community
+        HugeLongArray memberOffsets = HugeLongArray.newArray(communityCount + 1L, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            long community = communities.get(node);
+            memberOffsets.set(community, memberOffsets.get(community) + 1L);
+        }
+        prefixSum(memberOffsets, communityCount);
+        HugeLongArray members = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongArray cursors = HugeLongArray.newArray(communityCount, tracker);
+        memberOffsets.copyTo(cursors, communityCount);
+        for (long node = 0L; node < nodeCount; node++) {
+            long community = communities.get(node);
+            long index = cursors.get(community);
+            members.set(index, node);
+            cursors.set(community, index + 1L);
+        }
+        tracker.remove(cursors.release());
+
+        // first pass: count the neighbouring communities and sum up the self-loops
+        HugeLongArray offsets = HugeLongArray.newArray(communityCount + 1L, tracker);
+        DoubleArray selfLoops = DoubleArray.newArray(communityCount, tracker);
+        forEachParallel(communityCount, () -> new AggregateTask(level, communities, memberOffsets, members) {
+            @Override
+            void emit(long community, double selfLoop, LongDoubleHashMap neighbours) {
+                offsets.set(community, neighbours.size());
+                selfLoops.set(community, selfLoop);
+            }
+        });
+        long relationshipCount = prefixSum(offsets, communityCount);
+
+        // second pass: write the merged relationships
+        HugeLongArray targets = HugeLongArray.newArray(Math.max(1L, relationshipCount), tracker);
+        DoubleArray weights = DoubleArray.newArray(Math.max(1L, relationshipCount), tracker);
+        forEachParallel(communityCount, () -> new AggregateTask(level, communities, memberOffsets, members) {
+            @Override
+            void emit(long community, double selfLoop, LongDoubleHashMap neighbours) {
+                long index = offsets.get(community);
+                for (LongDoubleCursor cursor : neighbours) {
+                    targets.set(index, cursor.key);
+                    weights.set(index, cursor.value);
+                    ++index;
+                }
+            }
+        });
+
+        tracker.remove(memberOffsets.release());
+        tracker.remove(members.release());
+        return new CoarseGraph(communityCount, offsets, targets, weights, selfLoops, tracker);
+    }
+
+    /**
+     * turns the counts at 0..length-1 into offsets and stores the total at length
+     */
+    private static long prefixSum(HugeLongArray array, long length) {
+        long sum = 0L;
+        for (long i = 0L; i < length; i++) {
+            long count = array.get(i);
+            array.set(i, sum);
+            sum += count;
+        }
+        array.set(length, sum);
+        return sum;
+    }
+
+    /**
+     * runs one task per thread, every task takes batches of ids
+     * from a shared queue until all ids are processed.
+     */
+    private <T extends NodeTask> List<T> forEachParallel(long size, Supplier<T> newTask) {
+        AtomicLong queue = new AtomicLong();
+        List<T> tasks = new ArrayList<>(concurrency);
+        List<Runnable> runnables = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            T task = newTask.get();
+            tasks.add(task);
+            runnables.add(() -> {
+                long start;
+                while ((start = queue.getAndAdd(BATCH_SIZE)) < size) {
+                    long end = Math.min(size, start + BATCH_SIZE);
+                    for (long node = start; node < end; node++) {
+                        task.run(node);
+                    }
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, runnables, getTerminationFlag(), pool);
+        return tasks;
+    }
+
+    @Override
+    public HugeLongArray getCommunityIds() {
+        return levelCommunities.get(levelCommunities.size() - 1);
+    }
+
+    /**
+     * @return the community ids of the original nodes after the given level
+     */
+    public HugeLongArray getCommunityIds(int level) {
+        return levelCommunities.get(level);
+    }
+
+    /**
+     * @return the community ids of the node after each level
+     */
+    public long[] getCommunities(long node) {
+        long[] communities = new long[levelCommunities.size()];
+        for (int level = 0; level < communities.length; level++) {
+            communities[level] = levelCommunities.get(level).get(node);
+        }
+        return communities;
+    }
+
+    /**
+     * @return the modularity after each level
+     */
+    public double[] getModularities() {
+        return levelModularities.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @Override
+    public int getLevels() {
+        return levelCommunities.size();
+    }
+
+    @Override
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public long getCommunityCount() {
+        HugeLongArray communities = getCommunityIds();
+        long max = -1L;
+        for (long node = 0L; node < rootNodeCount; node++) {
+            max = Math.max(max, communities.get(node));
+        }
+        // ids are dense after renumbering
+        return max + 1L;
+    }
+
+    @Override
+    public Stream<Result> resultStream() {
+        return resultStream(false);
+    }
+
+    @Override
+    public Stream<Result> resultStream(boolean includeIntermediateCommunities) {
+        HugeLongArray communities = getCommunityIds();
+        return LongStream.range(0L, rootNodeCount)
+                .mapToObj(node -> new Result(
+                        idMapping.toOriginalNodeId(node),
+                        communities.get(node),
+                        includeIntermediateCommunities
+                                ? LongStream.of(getCommunities(node)).boxed().collect(Collectors.toList())
+                                : null));
+    }
+
+    @Override
+    public HugeMultiLevelLouvain me() {
+        return this;
+    }
+
+    @Override
+    public HugeMultiLevelLouvain release() {
+        for (HugeLongArray communities : levelCommunities) {
+            tracker.remove(communities.release());
+        }
+        levelCommunities.clear();
+        idMapping = null;
+        relationshipIterator = null;
+        pool = null;
+        return this;
+    }
+
+    /**
+     * the local moving phase of a single level
+     */
+    private final class LocalMoves {
+
+        private final LevelGraph graph;
+        private final long nodeCount;
+        private final HugeLongArray communities;
+        private final DoubleArray nodeWeights;
+        private final PagedAtomicDoubleArray communityWeights;
+        private final PagedAtomicIntegerArray communitySizes;
+        private double m2;
+        private double modularity;
+
+        private LocalMoves(LevelGraph graph) {
+            this.graph = graph;
+            this.nodeCount = graph.nodeCount();
+            this.communities = HugeLongArray.newArray(nodeCount, tracker);
+            this.nodeWeights = DoubleArray.newArray(nodeCount, tracker);
+            this.communityWeights = PagedAtomicDoubleArray.newArray(nodeCount, tracker);
+            this.communitySizes = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
+        }
+
+        private void run() {
+            List<WeightTask> weightTasks = forEachParallel(nodeCount, WeightTask::new);
+            m2 = 0.0;
+            for (WeightTask task : weightTasks) {
+                m2 += task.sum;
+            }
+            if (m2 == 0.0) {
+                modularity = 0.0;
+                return;
+            }
+            modularity = modularity();
+            for (int i = 0; i < maxIterations && running(); i++) {
+                ++iterations;
+                long moved = 0L;
+                for (MoveTask task : forEachParallel(nodeCount, MoveTask::new)) {
+                    moved += task.moved;
+                }
+                if (moved == 0L) {
+                    break;
+                }
+                double previous = modularity;
+                modularity = modularity();
+                if (modularity - previous < MIN_MODULARITY_GAIN) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Q = sum of internal weights / 2m - sum of squared community weights / 4m²
+         */
+        private double modularity() {
+            double internal = 0.0;
+            double squared = 0.0;
+            for (QualityTask task : forEachParallel(nodeCount, QualityTask::new)) {
+                internal += task.internal;
+                squared += task.squared;
+            }
+            return internal / m2 - squared / (m2 * m2);
+        }
+
+        private void release() {
+            tracker.remove(nodeWeights.release());
+            tracker.remove(communityWeights.release());
+            tracker.remove(communitySizes.release());
+        }
+
+        /**
+         * initializes every node as its own community
+         */
+        private final class WeightTask implements NodeTask, HugeWeightedRelationshipConsumer {
+            private final LevelGraph graph = LocalMoves.this.graph.concurrentCopy();
+            private double degree;
+            private double sum;
+
+            @Override
+            public void run(long node) {
+                degree = graph.selfLoop(node);
+                graph.forEachNeighbour(node, this);
+                communities.set(node, node);
+                nodeWeights.set(node, degree);
+                communityWeights.set(node, degree);
+                communitySizes.set(node, 1);
+                sum += degree;
+            }
+
+            @Override
+            public boolean accept(long source, long target, double weight) {
+                degree += weight;
+                return true;
+            }
+        }
+
+        /**
+         * moves every node into the neighbouring community with the highest modularity gain
+         */
+        private final class MoveTask implements NodeTask, HugeWeightedRelationshipConsumer {
+            private final LevelGraph graph = LocalMoves.this.graph.concurrentCopy();
+            private final LouvainMoves moves = new LouvainMoves(
+                    communities::get,
+                    communityWeights::get,
+                    communitySizes::get,
+                    m2);
+            private long moved;
+
+            @Override
+            public void run(long node) {
+                moves.clear();
+                graph.forEachNeighbour(node, this);
+
+                long current = communities.get(node);
+                double degree = nodeWeights.get(node);
+                long best = moves.bestCommunity(current, degree);
+                if (best == current) {
+                    return;
+                }
+                communities.set(node, best);
+                communityWeights.add(current, -degree);
+                communityWeights.add(best, degree);
+                communitySizes.add(current, -1);
+                communitySizes.add(best, 1);
+                ++moved;
+            }
+
+            @Override
+            public boolean accept(long source, long target, double weight) {
+                moves.addNeighbour(source, target, weight);
+                return true;
+            }
+        }
+
+        /**
+         * sums up internal weights by node and squared weights by community
+         */
+        private final class QualityTask implements NodeTask, HugeWeightedRelationshipConsumer {
+            private final LevelGraph graph = LocalMoves.this.graph.concurrentCopy();
+            private long community;
+            private double internal;
+            private double squared;
+
+            @Override
+            public void run(long node) {
+                community = communities.get(node);
+                internal += graph.selfLoop(node);
+                graph.forEachNeighbour(node, this);
+                // community ids are node ids within the local moving phase
+                double weight = communityWeights.get(node);
+                squared += weight * weight;
+            }
+
+            @Override
+            public boolean accept(long source, long target, double weight) {
+                if (communities.get(target) == community) {
+                    internal += weight;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * merges the relationships of all members of a community
+     */
+    private static abstract class AggregateTask implements NodeTask, HugeWeightedRelationshipConsumer {
+        private final LevelGraph graph;
+        private final HugeLongArray communities;
+        private final HugeLongArray memberOffsets;
+        private final HugeLongArray members;
+        private final LongDoubleHashMap neighbours = new LongDoubleHashMap();
+        private long community;
+        private double selfLoop;
+
+        AggregateTask(
+                LevelGraph graph,
+                HugeLongArray communities,
+                HugeLongArray memberOffsets,
+                HugeLongArray members) {
+            this.graph = graph.concurrentCopy();
+            this.communities = communities;
+            this.memberOffsets = memberOffsets;
+            this.members = members;
+        }
+
+        @Override
+        public void run(long community) {
+            this.community = community;
+            selfLoop = 0.0;
+            neighbours.clear();
+            long end = memberOffsets.get(community + 1L);
+            for (long i = memberOffsets.get(community); i < end; i++) {
+                long node = members.get(i);
+                selfLoop += graph.selfLoop(node);
+                graph.forEachNeighbour(node, this);
+            }
+            emit(community, selfLoop, neighbours);
+        }
+
+        @Override
+        public boolean accept(long source, long target, double weight) {
+            long targetCommunity = communities.get(target);
+            if (targetCommunity == community) {
+                selfLoop += weight;
+            } else {
+                neighbours.addTo(targetCommunity, weight);
+            }
+            return true;
+        }
+
+        abstract void emit(long community, double selfLoop, LongDoubleHashMap neighbours);
+    }
+
+    private interface NodeTask {
+        void run(long node);
+    }
+
+    /**
+     * The graph of a single level. The self-loop of a node holds
+     * the weight of all relationships within the node, counted
+     * from both ends, and is not part of its neighbours.
+     */
+    private interface LevelGraph {
+
+        long nodeCount();
+
+        double selfLoop(long node);
+
+        void forEachNeighbour(long node, HugeWeightedRelationshipConsumer consumer);
+
+        LevelGraph concurrentCopy();
+
+        void release();
+    }
+
+    /**
+     * the original graph as the first level
+     */
+    private static final class RootGraph implements LevelGraph {
+        private final long nodeCount;
+        private final HugeRelationshipIterator relationships;
+
+        private RootGraph(long nodeCount, HugeRelationshipIterator relationships) {
+            this.nodeCount = nodeCount;
+            this.relationships = relationships;
+        }
+
+        @Override
+        public long nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        public double selfLoop(long node) {
+            return 0.0;
+        }
+
+        @Override
+        public void forEachNeighbour(long node, HugeWeightedRelationshipConsumer consumer) {
+            relationships.forEachWeightedRelationship(node, Direction.OUTGOING, consumer);
+        }
+
+        @Override
+        public LevelGraph concurrentCopy() {
+            return new RootGraph(nodeCount, relationships.concurrentCopy());
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /**
+     * the aggregated graph of the communities of the previous level, stored as CSR
+     */
+    private static final class CoarseGraph implements LevelGraph {
+        private final long nodeCount;
+        private final HugeLongArray offsets;
+        private final HugeLongArray targets;
+        private final DoubleArray weights;
+        private final DoubleArray selfLoops;
+        private final AllocationTracker tracker;
+
+        private CoarseGraph(
+                long nodeCount,
+                HugeLongArray offsets,
+                HugeLongArray targets,
+                DoubleArray weights,
+                DoubleArray selfLoops,
+                AllocationTracker tracker) {
+            this.nodeCount = nodeCount;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.selfLoops = selfLoops;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public long nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        public double selfLoop(long node) {
+            return selfLoops.get(node);
+        }
+
+        @Override
+        public void forEachNeighbour(long node, HugeWeightedRelationshipConsumer consumer) {
+            long end = offsets.get(node + 1L);
+            for (long i = offsets.get(node); i < end; i++) {
+                if (!consumer.accept(node, targets.get(i), weights.get(i))) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public LevelGraph concurrentCopy() {
+            return this;
+        }
+
+        @Override
+        public void release() {
+            tracker.remove(offsets.release());
+            tracker.remove(targets.release());
+            tracker.remove(weights.release());
+            tracker.remove(selfLoops.release());
+        }
+    }
+}
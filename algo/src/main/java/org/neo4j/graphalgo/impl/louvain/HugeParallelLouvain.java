@@ -20,12 +20,15 @@ package org.neo4j.graphalgo.impl.louvain;
 
 
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
-import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
 import org.neo4j.graphalgo.core.utils.paged.PagedSimpleBitSet;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
@@ -34,12 +37,19 @@ import java.util.ArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
  * Parallel modularity based community detection algo
+ * <p>
+ * The local moving phase is lock-free. Threads decide optimistically which
+ * neighbouring community a node should join, based on whatever assignment
+ * they observe, and apply the move right away. Community weights and sizes
+ * live in paged atomic arrays and are updated using CAS, so no thread ever
+ * blocks. The moves themselves are decided by {@link LouvainMoves}, which also
+ * prevents two singletons from swapping their communities, the only conflict
+ * that does not resolve itself in the next iteration.
  *
  * @author mknblch
  */
@@ -65,11 +75,6 @@ public class HugeParallelLouvain extends Algorithm<HugeParallelLouvain> implemen
      * incrementing node counter
      */
     private final AtomicLong queue;
-    /**
-     * R&W Locks
-     */
-    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    private final ReentrantReadWriteLock.WriteLock writeLock = readWriteLock.writeLock();
     /**
      * task array for parallel execution
      */
@@ -82,11 +87,15 @@ public class HugeParallelLouvain extends Algorithm<HugeParallelLouvain> implemen
      * community weight. Sum of degrees of nodes
      * within a cluster
      */
-    private DoubleArray communityWeights;
+    private PagedAtomicDoubleArray communityWeights;
+    /**
+     * number of nodes within a cluster
+     */
+    private PagedAtomicIntegerArray communitySizes;
     /**
      * pre calculated values
      */
-    private double m2, mq2;
+    private double m2;
     /**
      * node to community id mapping
      */
@@ -111,7 +120,8 @@ public class HugeParallelLouvain extends Algorithm<HugeParallelLouvain> implemen
         this.concurrency = concurrency;
         this.maxIterations = maxIterations;
         communityIds = HugeLongArray.newArray(nodeCount, tracker);
-        communityWeights = DoubleArray.newArray(nodeCount, tracker);
+        communityWeights = PagedAtomicDoubleArray.newArray(nodeCount, tracker);
+        communitySizes = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
         this.queue = new AtomicLong(0);
         this.tracker = tracker;
 
@@ -139,70 +149,38 @@ public class HugeParallelLouvain extends Algorithm<HugeParallelLouvain> implemen
 
     @Override
     public HugeParallelLouvain release() {
+        tracker.remove(communityWeights.release());
+        tracker.remove(communitySizes.release());
         graph = null;
         executorService = null;
         communityIds = null;
         communityWeights = null;
+        communitySizes = null;
         return this;
     }
 
     private void reset() {
 
-        tasks.clear();
-        for (int i = 0; i < concurrency; i++) {
-            tasks.add(new Task());
-        }
-
         communityIds.setAll(i -> i);
         final LongAdder adder = new LongAdder();
         ParallelUtil.iterateParallelHuge(executorService, nodeCount, concurrency, node -> {
             final int d = graph.degree(node, Direction.OUTGOING);
             communityWeights.set(node, d);
+            communitySizes.set(node, 1);
             adder.add(d);
         });
         /**
-         * we can iterate over outgoing rels only because
-         * the graph should be treated as undirected and
-         * therefore have to multiply m by 4 instead of 2
+         * the graph is treated as undirected, every relationship
+         * is visited from both ends and the sum of all degrees is 2m
          */
-        m2 = adder.intValue() * 4.0; // 2m
-        mq2 = 2.0 * Math.pow(adder.intValue(), 2.0); // 2m^2
-    }
+        m2 = adder.doubleValue(); // 2m
 
-    /**
-     * assign node to community
-     * @param node nodeId
-     * @param targetCommunity communityId
-     */
-    private void assign(long node, long targetCommunity) {
-        final int d = graph.degree(node, Direction.OUTGOING);
-        writeLock.lock();
-        try {
-            final long index = communityIds.get(node);
-            communityWeights.add(index, -d);
-            communityWeights.add(targetCommunity, d);
-            // update communityIds
-            communityIds.set(node, targetCommunity);
-        } finally {
-            writeLock.unlock();
+        tasks.clear();
+        for (int i = 0; i < concurrency; i++) {
+            tasks.add(new Task());
         }
     }
 
-     /**
-     * @return kiIn
-     */
-    private int kIIn(long node, long targetCommunity) {
-        int[] sum = {0}; // {ki, ki_in}
-        graph.forEachRelationship(node, Direction.OUTGOING, (sourceNodeId, targetNodeId) -> {
-            if (targetCommunity == communityIds.get(targetNodeId)) {
-                sum[0]++;
-            }
-            return true;
-        });
-
-        return sum[0];
-    }
-
     public Stream<Result> resultStream() {
         return LongStream.range(0, nodeCount)
                 .mapToObj(i ->
@@ -230,43 +208,58 @@ public class HugeParallelLouvain extends Algorithm<HugeParallelLouvain> implemen
         return this;
     }
 
-    private class Task implements Runnable {
+    private class Task implements Runnable, HugeRelationshipConsumer {
 
         private boolean changes = false;
-        private double bestGain;
-        private long bestCommunity;
-        private final ReentrantReadWriteLock.ReadLock readLock = readWriteLock.readLock();
+        private final HugeRelationshipIterator relationships = graph.concurrentCopy();
+        private final LouvainMoves moves = new LouvainMoves(
+                communityIds::get,
+                communityWeights::get,
+                communitySizes::get,
+                m2);
         private final TerminationFlag flag = getTerminationFlag();
         private final ProgressLogger logger = getProgressLogger();
 
         @Override
         public void run() {
             changes = false;
-            for (long node; (node = queue.getAndIncrement()) < nodeCount && flag.running(); ) {
-                bestGain = 0.0;
-                readLock.lock();
-                final long sourceCommunity = bestCommunity = communityIds.get(node);
-                final double mSource = (communityWeights.get(sourceCommunity) * graph.degree(node, Direction.OUTGOING)) / mq2;
-                readLock.unlock();
-
-                graph.forEachRelationship(node, Direction.OUTGOING, (sourceNodeId, targetNodeId) -> {
-                    readLock.lock();
-                    final long targetCommunity = communityIds.get(targetNodeId);
-                    readLock.unlock();
-                    final double gain = kIIn(sourceNodeId, targetCommunity) / m2 - mSource;
-                    if (gain > bestGain) {
-                        bestCommunity = targetCommunity;
-                        bestGain = gain;
-                    }
-                    return flag.running();
-                });
-                if (bestCommunity != sourceCommunity) {
-                    assign(node, bestCommunity);
-                    changes = true;
+            long start;
+            while ((start = queue.getAndAdd(ParallelUtil.DEFAULT_BATCH_SIZE)) < nodeCount && flag.running()) {
+                final long end = Math.min(nodeCount, start + ParallelUtil.DEFAULT_BATCH_SIZE);
+                for (long node = start; node < end; node++) {
+                    changes |= move(node);
                 }
-                logger.logProgress(node, nodeCount - 1);
+                logger.logProgress(end - 1, nodeCount - 1);
             }
         }
+
+        /**
+         * move the node into the neighbouring community with the highest modularity gain
+         * @return true if the node changed its community
+         */
+        private boolean move(long node) {
+            moves.clear();
+            relationships.forEachRelationship(node, Direction.OUTGOING, this);
+
+            final long sourceCommunity = communityIds.get(node);
+            final int degree = graph.degree(node, Direction.OUTGOING);
+            final long bestCommunity = moves.bestCommunity(sourceCommunity, degree);
+            if (bestCommunity == sourceCommunity) {
+                return false;
+            }
+            communityWeights.add(sourceCommunity, -degree);
+            communityWeights.add(bestCommunity, degree);
+            communitySizes.add(sourceCommunity, -1);
+            communitySizes.add(bestCommunity, 1);
+            communityIds.set(node, bestCommunity);
+            return true;
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId) {
+            moves.addNeighbour(sourceNodeId, targetNodeId, 1.0);
+            return true;
+        }
     }
 
 }
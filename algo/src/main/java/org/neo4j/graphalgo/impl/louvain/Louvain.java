@@ -19,26 +19,34 @@
 package org.neo4j.graphalgo.impl.louvain;
 
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.api.NodeIterator;
-import org.neo4j.graphalgo.core.sources.ShuffledNodeIterator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
-import org.neo4j.graphalgo.core.utils.Pointer;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.traverse.SimpleBitSet;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.IntConsumer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * sequential weighted undirected modularity based localCommunities detection
+ * parallel weighted undirected modularity based community detection
  * (first phase of louvain algo)
+ * <p>
+ * All threads work on one shared community structure. Nodes are partitioned
+ * into batches which are taken by the threads from a shared queue, so every
+ * iteration visits each node exactly once. Community weights and sizes are
+ * updated atomically, the moves themselves are decided by {@link LouvainMoves}.
  *
  * @author mknblch
  */
@@ -49,35 +57,37 @@ public class Louvain extends Algorithm<Louvain> implements LouvainAlgorithm {
      * be loaded as undirected.
      */
     private static final Direction D = Direction.OUTGOING;
-    private static final int NONE = -1;
+    private static final int BATCH_SIZE = 1024;
     private static final double MINIMUM_MODULARITY = Double.NEGATIVE_INFINITY; // -1.0;
 
     private Graph graph;
     private ExecutorService pool;
-    private NodeIterator nodeIterator;
     private final int nodeCount;
     private final int maxIterations;
     private final int concurrency;
     private final AllocationTracker tracker;
-    private double m, m2;
+    private double m2;
     private int[] communities;
     private double[] ki;
+    private AtomicDoubleArray sTot;
+    private AtomicIntegerArray sizes;
     private int iterations;
     private double q = MINIMUM_MODULARITY;
-    private AtomicInteger counter = new AtomicInteger(0);
+    private final AtomicInteger queue = new AtomicInteger(0);
 
     public Louvain(Graph graph, int maxIterations, ExecutorService pool, int concurrency, AllocationTracker tracker) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
         this.maxIterations = maxIterations;
         this.pool = pool;
-        this.concurrency = concurrency;
+        this.concurrency = Math.max(1, concurrency);
         this.tracker = tracker;
-        this.nodeIterator = new ShuffledNodeIterator(nodeCount);
         ki = new double[nodeCount];
         communities = new int[nodeCount];
-        // (1x double + 1x int) * N
-        tracker.add(12 * nodeCount);
+        sTot = new AtomicDoubleArray(nodeCount);
+        sizes = new AtomicIntegerArray(nodeCount);
+        // (2x double + 2x int) * N
+        tracker.add(24 * nodeCount);
     }
 
     /**
@@ -85,18 +95,11 @@ public class Louvain extends Algorithm<Louvain> implements LouvainAlgorithm {
      */
     private void init() {
         final ProgressLogger progressLogger = getProgressLogger();
-        for (int node = 0; node < nodeCount; node++) {
-            graph.forEachRelationship(node, D, (s, t, r) -> {
-                final double w = graph.weightOf(s, t);
-                m += w;
-                ki[s] += w;
-                ki[t] += w;
-                return true;
-            });
-            progressLogger.logProgress(node, nodeCount, () -> "Init");
-        }
-        m2 = 2 * m;
         Arrays.setAll(communities, i -> i);
+        m2 = 0.0;
+        for (InitTask task : run(InitTask::new)) {
+            m2 += task.m2;
+        }
         progressLogger.logDone(() -> "Init complete");
     }
 
@@ -108,67 +111,53 @@ public class Louvain extends Algorithm<Louvain> implements LouvainAlgorithm {
         // init helper values & initial community structure
         init();
         final ProgressLogger progressLogger = getProgressLogger();
-        // create an array of tasks for parallel exec
-        final ArrayList<Task> tasks = new ArrayList<>();
-        for (int i = 0; i < concurrency; i++) {
-            tasks.add(new Task());
+        if (m2 == 0.0) {
+            return this;
         }
-        // (2x double + 1x int) * N * threads
-        tracker.add(20 * nodeCount * concurrency);
         // as long as maxIterations is not reached
-        for (iterations = 0; iterations < maxIterations; iterations++) {
-            // reset node counter (for logging)
-            counter.set(0);
-            // run all tasks
-            ParallelUtil.runWithConcurrency(concurrency, tasks, pool);
-            // take the best candidate
-            Task candidate = best(tasks);
-            if (null == candidate || candidate.q <= this.q) {
-                // best candidate's modularity did not improve
+        for (iterations = 0; iterations < maxIterations && running(); iterations++) {
+            // move all nodes
+            boolean changes = false;
+            for (MoveTask task : run(MoveTask::new)) {
+                changes |= task.changes;
+            }
+            final double modularity = modularity();
+            if (!changes || modularity <= this.q) {
+                // modularity did not improve
                 break;
             }
             // memorize current modularity
-            this.q = candidate.q;
-            // sync all tasks with the best candidate for the next round
-            sync(candidate, tasks);
+            this.q = modularity;
             progressLogger.logDone(() -> String.format("Iteration %d led to a modularity %.4f", iterations, q));
         }
-        tracker.remove(20 * nodeCount * concurrency);
         progressLogger.logDone(() -> String.format("Done in %d iterations with Q=%.5f)", iterations, q));
         return this;
     }
 
     /**
-     * get the task with the best community distribution
-     * (highest modularity value) of an array of tasks
-     *
-     * @return best task
+     * calc graph modularity
      */
-    private static Task best(Collection<Task> tasks) {
-        Task best = null;
-        double q = MINIMUM_MODULARITY;
-        for (Task task : tasks) {
-            final double modularity = task.getModularity();
-            if (modularity > q) {
-                q = modularity;
-                best = task;
-            }
+    private double modularity() {
+        double internal = .0, squared = .0;
+        for (ModularityTask task : run(ModularityTask::new)) {
+            internal += task.internal;
+            squared += task.squared;
         }
-        return best;
+        return internal / m2 - squared / (m2 * m2);
     }
 
     /**
-     * sync parent Task with all other task except itself and
-     * copy community structure to global community structure
+     * runs one task per thread, every task takes batches
+     * of nodes from a shared queue until all nodes are processed
      */
-    private void sync(Task parent, Collection<Task> tasks) {
-        for (Task task : tasks) {
-            if (task == parent) {
-                continue;
-            }
-            task.sync(parent);
+    private <T extends NodeTask> List<T> run(Supplier<T> newTask) {
+        queue.set(0);
+        final List<T> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            tasks.add(newTask.get());
         }
-        System.arraycopy(parent.localCommunities, 0, communities, 0, nodeCount);
+        ParallelUtil.runWithConcurrency(concurrency, tasks, getTerminationFlag(), pool);
+        return tasks;
     }
 
     /**
@@ -230,147 +219,119 @@ public class Louvain extends Algorithm<Louvain> implements LouvainAlgorithm {
         this.pool = null;
         this.communities = null;
         this.ki = null;
-        tracker.remove(12 * nodeCount);
+        this.sTot = null;
+        this.sizes = null;
+        tracker.remove(24 * nodeCount);
         return this;
     }
 
     /**
-     * Restartable task to perform modularity optimization
+     * a task that is applied to batches of nodes from the shared queue
      */
-    private class Task implements Runnable {
-
-        private final double[] sTot, sIn;
-        private final int[] localCommunities;
-        private double bestGain, bestWeight;
-        private int bestCommunity;
-        private double q = MINIMUM_MODULARITY;
-
-        /**
-         * at creation the task copies the community-structure
-         * and initializes its helper arrays
-         */
-        public Task() {
-            sTot = new double[nodeCount];
-            sIn = new double[nodeCount];
-            localCommunities = new int[nodeCount];
-            System.arraycopy(ki, 0, sTot, 0, nodeCount);
-            System.arraycopy(communities, 0, localCommunities, 0, nodeCount);
-            Arrays.fill(sIn, 0.);
-        }
+    private abstract class NodeTask implements Runnable, WeightedRelationshipConsumer {
 
         /**
-         * copy community structure and helper arrays from parent
-         * task into this task
+         * HugeGraph shares its cursors, every thread needs its own copy
          */
-        public void sync(Task parent) {
-            System.arraycopy(parent.localCommunities, 0, localCommunities, 0, nodeCount);
-            System.arraycopy(parent.sTot, 0, sTot, 0, nodeCount);
-            System.arraycopy(parent.sIn, 0, sIn, 0, nodeCount);
-        }
+        final Graph graph = Louvain.this.graph instanceof HugeGraph
+                ? (Graph) ((HugeGraph) Louvain.this.graph).concurrentCopy()
+                : Louvain.this.graph;
 
         @Override
         public void run() {
-            final ProgressLogger progressLogger = getProgressLogger();
-            final Pointer.BoolPointer improvement = Pointer.wrap(false);
-            final int denominator = nodeCount * concurrency;
-            nodeIterator.forEachNode(node -> {
-                improvement.v |= move(node);
-                progressLogger.logProgress(
-                        counter.getAndIncrement(),
-                        denominator,
-                        () -> String.format("Iteration %d", iterations));
-                return true;
-            });
-            if (improvement.v) {
-                this.q = modularity();
+            int start;
+            while ((start = queue.getAndAdd(BATCH_SIZE)) < nodeCount && running()) {
+                final int end = Math.min(nodeCount, start + BATCH_SIZE);
+                for (int node = start; node < end; node++) {
+                    apply(node);
+                }
+                getProgressLogger().logProgress(end, nodeCount);
             }
         }
 
-        /**
-         * get the graph modularity of the calculated community structure
-         * @return
-         */
-        public double getModularity() {
-            return q;
-        }
+        abstract void apply(int node);
+    }
 
-        /**
-         * calc mod-gain for a node and move it into the best community
-         * @param node node id
-         * @return true if the node has been moved
-         */
-        private boolean move(int node) {
-            final int currentCommunity = bestCommunity = localCommunities[node];
-            sTot[currentCommunity] -= ki[node];
-            sIn[currentCommunity] -= 2. * weightIntoCom(node, currentCommunity);
-            localCommunities[node] = NONE;
-            bestGain = .0;
-            bestWeight = .0;
-            forEachConnectedCommunity(node, c -> {
-                final double wic = weightIntoCom(node, c);
-                final double g = 2. * wic - sTot[c] * ki[node] / m;
-                if (g > bestGain) {
-                    bestGain = g;
-                    bestCommunity = c;
-                    bestWeight = wic;
-                }
-            });
-            sTot[bestCommunity] += ki[node];
-            sIn[bestCommunity] += 2. * bestWeight;
-            localCommunities[node] = bestCommunity;
-            return bestCommunity != currentCommunity;
+    /**
+     * sums up the weighted degree of each node
+     */
+    private final class InitTask extends NodeTask {
+        private double m2, degree;
+
+        @Override
+        void apply(int node) {
+            degree = .0;
+            graph.forEachRelationship(node, D, this);
+            ki[node] = degree;
+            sTot.set(node, degree);
+            sizes.set(node, 1);
+            m2 += degree;
         }
 
-        /**
-         * apply consumer to each connected community one time
-         * @param node node id
-         * @param consumer community id consumer
-         */
-        private void forEachConnectedCommunity(int node, IntConsumer consumer) {
-            final SimpleBitSet visited = new SimpleBitSet(nodeCount);
-            graph.forEachRelationship(node, D, (s, t, r) -> {
-                final int c = localCommunities[t];
-                if (visited.contains(c)) {
-                    return true;
-                }
-                visited.put(c);
-                consumer.accept(c);
-                return true;
-            });
+        @Override
+        public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+            degree += weight;
+            return true;
         }
+    }
 
-        /**
-         * calc graph modularity
-         */
-        private double modularity() {
-            double q = .0;
-            final SimpleBitSet bitSet = new SimpleBitSet(nodeCount);
-            for (int k = 0; k < nodeCount; k++) {
-                final int c = localCommunities[k];
-                if (!bitSet.contains(c)) {
-                    bitSet.put(c);
-                    q += (sIn[c] / m2) - (Math.pow(sTot[c] / m2, 2.));
-                }
+    /**
+     * calc mod-gain for a node and move it into the best community
+     */
+    private final class MoveTask extends NodeTask {
+        private final LouvainMoves moves = new LouvainMoves(
+                node -> communities[(int) node],
+                community -> sTot.get((int) community),
+                community -> sizes.get((int) community),
+                m2);
+        private boolean changes = false;
+
+        @Override
+        void apply(int node) {
+            moves.clear();
+            graph.forEachRelationship(node, D, this);
+            final int currentCommunity = communities[node];
+            final int bestCommunity = (int) moves.bestCommunity(currentCommunity, ki[node]);
+            if (bestCommunity == currentCommunity) {
+                return;
             }
-            return q;
+            sTot.add(currentCommunity, -ki[node]);
+            sTot.add(bestCommunity, ki[node]);
+            sizes.decrementAndGet(currentCommunity);
+            sizes.incrementAndGet(bestCommunity);
+            communities[node] = bestCommunity;
+            changes = true;
         }
 
-        /**
-         * sum weights from node into community c
-         * @param node node id
-         * @param c community id
-         * @return sum of weights from node into community c
-         */
-        private double weightIntoCom(int node, int c) {
-            final Pointer.DoublePointer p = Pointer.wrap(.0);
-            graph.forEachRelationship(node, D, (s, t, r) -> {
-                if (localCommunities[t] == c) {
-                    p.v += graph.weightOf(s, t);
-                }
-                return true;
-            });
-            return p.v;
+        @Override
+        public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+            moves.addNeighbour(sourceNodeId, targetNodeId, weight);
+            return true;
+        }
+    }
+
+    /**
+     * sums up internal weights by node and squared total weights by community
+     */
+    private final class ModularityTask extends NodeTask {
+        private double internal, squared;
+        private int community;
+
+        @Override
+        void apply(int node) {
+            community = communities[node];
+            graph.forEachRelationship(node, D, this);
+            // community ids are node ids
+            final double weight = sTot.get(node);
+            squared += weight * weight;
         }
 
+        @Override
+        public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+            if (communities[targetNodeId] == community) {
+                internal += weight;
+            }
+            return true;
+        }
     }
 }
@@ -26,6 +26,7 @@ import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +36,19 @@ public interface LouvainAlgorithm {
 
     int DEFAULT_ITERATIONS = 5;
 
+    String CONFIG_LEVELS = "levels";
+
+    int DEFAULT_LEVELS = 1;
+
+    /**
+     * also return the community of every level, only used if more than one level is computed
+     */
+    String CONFIG_INCLUDE_INTERMEDIATE_COMMUNITIES = "includeIntermediateCommunities";
+
+    String CONFIG_INTERMEDIATE_COMMUNITIES_PROPERTY = "intermediateCommunitiesWriteProperty";
+
+    String DEFAULT_INTERMEDIATE_COMMUNITIES_PROPERTY = "communities";
+
     LouvainAlgorithm compute();
 
     <V> V getCommunityIds();
@@ -43,8 +57,23 @@ public interface LouvainAlgorithm {
 
     long getCommunityCount() ;
 
+    /**
+     * @return the number of aggregation levels that have been computed
+     */
+    default int getLevels() {
+        return 1;
+    }
+
     Stream<Result> resultStream();
 
+    /**
+     * @param includeIntermediateCommunities whether {@link Result#communities} should
+     *                                       hold the community of every level
+     */
+    default Stream<Result> resultStream(boolean includeIntermediateCommunities) {
+        return resultStream();
+    }
+
     LouvainAlgorithm withProgressLogger(ProgressLogger progressLogger);
 
     LouvainAlgorithm withTerminationFlag(TerminationFlag terminationFlag);
@@ -53,10 +82,19 @@ public interface LouvainAlgorithm {
 
         public final long nodeId;
         public final long community;
+        /**
+         * the community after each level or {@code null} if not requested
+         */
+        public final List<Long> communities;
 
         public Result(long nodeId, long community) {
+            this(nodeId, community, null);
+        }
+
+        public Result(long nodeId, long community, List<Long> communities) {
             this.nodeId = nodeId;
             this.community = community;
+            this.communities = communities;
         }
 
         @Override
@@ -64,6 +102,7 @@ public interface LouvainAlgorithm {
             return "Result{" +
                     "nodeId=" + nodeId +
                     ", community=" + community +
+                    ", communities=" + communities +
                     '}';
         }
     }
@@ -71,6 +110,10 @@ public interface LouvainAlgorithm {
     static LouvainAlgorithm instance(Graph graph, ProcedureConfiguration config) {
 
         if (graph instanceof HugeGraph) {
+            int levels = config.getInt(CONFIG_LEVELS, DEFAULT_LEVELS);
+            if (levels > 1) {
+                return new HugeMultiLevelLouvain((HugeGraph) graph, Pools.DEFAULT, AllocationTracker.create(), config.getConcurrency(), levels, config.getIterations(DEFAULT_ITERATIONS));
+            }
             if (config.hasWeightProperty()) {
                 return new Louvain(graph, config.getIterations(DEFAULT_ITERATIONS), Pools.DEFAULT, config.getConcurrency(), AllocationTracker.create());
             }
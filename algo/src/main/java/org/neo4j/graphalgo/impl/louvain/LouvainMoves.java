@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * The local moving step shared by all louvain implementations.
+ * <p>
+ * Collects the weights from a node into its neighbouring communities
+ * and picks the community with the highest modularity gain. To prevent
+ * two singletons from swapping their communities when moved concurrently,
+ * a singleton only joins another singleton with a smaller id.
+ * <p>
+ * Not thread safe, every thread needs its own instance.
+ */
+final class LouvainMoves {
+
+    private final LongDoubleHashMap neighbourWeights = new LongDoubleHashMap();
+    private final LongUnaryOperator communityOf;
+    private final LongToDoubleFunction communityWeight;
+    private final LongToIntFunction communitySize;
+    private final double m2;
+
+    /**
+     * @param communityOf     node to community mapping
+     * @param communityWeight sum of the weighted degrees of all members of a community
+     * @param communitySize   number of members of a community
+     * @param m2              sum of all weighted degrees
+     */
+    LouvainMoves(
+            LongUnaryOperator communityOf,
+            LongToDoubleFunction communityWeight,
+            LongToIntFunction communitySize,
+            double m2) {
+        this.communityOf = communityOf;
+        this.communityWeight = communityWeight;
+        this.communitySize = communitySize;
+        this.m2 = m2;
+    }
+
+    /**
+     * forget the neighbours of the previous node
+     */
+    void clear() {
+        neighbourWeights.clear();
+    }
+
+    /**
+     * add the weight of a relationship to the community of its target, self-loops are ignored
+     */
+    void addNeighbour(long source, long target, double weight) {
+        if (source != target) {
+            neighbourWeights.addTo(communityOf.applyAsLong(target), weight);
+        }
+    }
+
+    /**
+     * find the neighbouring community with the highest modularity gain
+     *
+     * @param current the current community of the node
+     * @param degree  the weighted degree of the node
+     * @return the community to move to or {@code current} if the node should stay
+     */
+    long bestCommunity(long current, double degree) {
+        final double scale = degree / m2;
+        // gain of staying, computed without the node itself
+        double bestGain = gain(
+                neighbourWeights.get(current),
+                communityWeight.applyAsDouble(current) - degree,
+                scale);
+        long best = current;
+        for (LongDoubleCursor cursor : neighbourWeights) {
+            if (cursor.key == current) {
+                continue;
+            }
+            final double gain = gain(cursor.value, communityWeight.applyAsDouble(cursor.key), scale);
+            if (gain > bestGain || (gain == bestGain && best != current && cursor.key < best)) {
+                bestGain = gain;
+                best = cursor.key;
+            }
+        }
+        if (best > current
+                && communitySize.applyAsInt(current) == 1
+                && communitySize.applyAsInt(best) == 1) {
+            // the other singleton might join our community at the same time
+            return current;
+        }
+        return best;
+    }
+
+    /**
+     * modularity gain of joining a community, up to the terms that
+     * are the same for all communities of a node
+     *
+     * @param weightIntoCommunity sum of the weights from the node into the community
+     * @param communityWeight     weight of the community without the node
+     * @param scale               weighted degree of the node / 2m
+     */
+    static double gain(double weightIntoCommunity, double communityWeight, double scale) {
+        return weightIntoCommunity - communityWeight * scale;
+    }
+}
@@ -87,8 +87,8 @@ public class WeightedLouvain extends Algorithm<WeightedLouvain> implements Louva
         final DoubleAdder adder = new DoubleAdder();
         ParallelUtil.iterateParallel(pool, nodeCount, concurrency, node -> {
             final double[] ws = {0.0};
-            graph.forEachRelationship(node, Direction.OUTGOING, (sourceNodeId, targetNodeId, relationId) -> {
-                ws[0] += graph.weightOf(sourceNodeId, targetNodeId);
+            graph.forEachRelationship(node, Direction.OUTGOING, (sourceNodeId, targetNodeId, relationId, weight) -> {
+                ws[0] += weight;
                 return true;
             });
             adder.add(ws[0]);
@@ -111,9 +111,9 @@ public class WeightedLouvain extends Algorithm<WeightedLouvain> implements Louva
 
     private double weightIntoC(int node, int targetCommunity) {
         final double[] w = {0.0};
-        graph.forEachRelationship(node, Direction.OUTGOING, (s, t, r) -> {
+        graph.forEachRelationship(node, Direction.OUTGOING, (s, t, r, weight) -> {
             if(nodeCommunity[t] != targetCommunity) return true;
-            w[0] += graph.weightOf(s, t);
+            w[0] += weight;
             return true;
         });
         return w[0];
@@ -51,10 +51,13 @@ import java.util.concurrent.TimeUnit;
  * The sources iterator is only valid during the execution of the callback and
  * should not be stored.
  * <p>
- * We use a fixed {@code ω} (OMEGA) of 32, which allows us to implement the
+ * We use a default {@code ω} (OMEGA) of 64, which allows us to implement the
  * seen/visitNext bit sets as a packed long which improves memory locality
  * as suggested in 4.1. of the paper.
- * If the number of sources exceed 32, multiple instances of MS-BFS are run
+ * {@link #withOmega(int)} widens the bit sets to 2, 4 or 8 consecutive longs
+ * per node, so that a single scan over the neighbors of a node serves up to
+ * 512 sources, at the cost of as many times the memory per thread.
+ * If the number of sources exceed {@code ω}, multiple instances of MS-BFS are run
  * in parallel.
  * <p>
  * If the MS-BFS runs in parallel, the callback may be executed from multiple threads
@@ -77,18 +80,24 @@ import java.util.concurrent.TimeUnit;
  */
 public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
-    // how many sources can be traversed simultaneously
-    static final int OMEGA = 64;
+    // how many sources can be traversed simultaneously by default
+    public static final int OMEGA = 64;
+    // how many sources can be traversed simultaneously at most
+    public static final int MAX_OMEGA = 512;
 
-    private final ThreadLocal<HugeLongArray> visits;
-    private final ThreadLocal<HugeLongArray> nexts;
-    private final ThreadLocal<HugeLongArray> seens;
+    private ThreadLocal<HugeLongArray> visits;
+    private ThreadLocal<HugeLongArray> nexts;
+    private ThreadLocal<HugeLongArray> seens;
 
     private final HugeIdMapping nodeIds;
     private final HugeRelationshipIterator relationships;
     private final Direction direction;
     private final HugeBfsConsumer perNodeAction;
     private final long[] startNodes;
+    private AllocationTracker tracker;
+    private int omega = OMEGA;
+    // number of longs per node in the bit sets
+    private int words = 1;
     private int sourceNodeCount;
     private long nodeOffset;
     private long nodeCount;
@@ -109,6 +118,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             Arrays.sort(this.startNodes);
         }
         nodeCount = nodeIds.nodeCount();
+        this.tracker = tracker;
         this.visits = new LocalHugeLongArray(nodeCount, tracker);
         this.nexts = new LocalHugeLongArray(nodeCount, tracker);
         this.seens = new LocalHugeLongArray(nodeCount, tracker);
@@ -120,6 +130,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             Direction direction,
             HugeBfsConsumer perNodeAction,
             long nodeCount,
+            int omega,
             ThreadLocal<HugeLongArray> visits,
             ThreadLocal<HugeLongArray> nexts,
             ThreadLocal<HugeLongArray> seens,
@@ -131,6 +142,8 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         this.perNodeAction = perNodeAction;
         this.startNodes = startNodes;
         this.nodeCount = nodeCount;
+        this.omega = omega;
+        this.words = omega / OMEGA;
         this.visits = visits;
         this.nexts = nexts;
         this.seens = seens;
@@ -144,6 +157,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             long nodeCount,
             long nodeOffset,
             int sourceNodeCount,
+            int omega,
             ThreadLocal<HugeLongArray> visits,
             ThreadLocal<HugeLongArray> nexts,
             ThreadLocal<HugeLongArray> seens) {
@@ -155,11 +169,27 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         this.nodeCount = nodeCount;
         this.nodeOffset = nodeOffset;
         this.sourceNodeCount = sourceNodeCount;
+        this.omega = omega;
+        this.words = omega / OMEGA;
         this.visits = visits;
         this.nexts = nexts;
         this.seens = seens;
     }
 
+    /**
+     * Sets the number of sources that are traversed simultaneously,
+     * must be one of 64, 128, 256 or 512.
+     */
+    public HugeMultiSourceBFS withOmega(int omega) {
+        MultiSourceBFS.validateOmega(omega);
+        this.omega = omega;
+        this.words = omega / OMEGA;
+        this.visits = new LocalHugeLongArray(nodeCount * words, tracker);
+        this.nexts = new LocalHugeLongArray(nodeCount * words, tracker);
+        this.seens = new LocalHugeLongArray(nodeCount * words, tracker);
+        return this;
+    }
+
     /**
      * Runs MS-BFS, possibly in parallel.
      */
@@ -182,11 +212,11 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
     /**
      * Runs MS-BFS, always single-threaded. Requires that there are at most
-     * 32 startNodes. If there are more, {@link #run(int, ExecutorService)} must be used.
+     * {@code ω} startNodes. If there are more, {@link #run(int, ExecutorService)} must be used.
      */
     @Override
     public void run() {
-        assert sourceLength() <= OMEGA : "more than " + OMEGA + " sources not supported";
+        assert sourceLength() <= omega : "more than " + omega + " sources not supported";
 
         long totalNodeCount = this.nodeCount;
 
@@ -207,11 +237,12 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
     private SourceNodes prepareOffsetSources(HugeLongArray visitSet, HugeLongArray seenSet) {
         int localNodeCount = this.sourceNodeCount;
         long nodeOffset = this.nodeOffset;
-        SourceNodes sourceNodes = new SourceNodes(nodeOffset, localNodeCount);
+        SourceNodes sourceNodes = new SourceNodes(nodeOffset, localNodeCount, words);
 
         for (int i = 0; i < localNodeCount; ++i) {
-            seenSet.set(nodeOffset + i, 1L << i);
-            visitSet.or(nodeOffset + i, 1L << i);
+            long index = (nodeOffset + i) * words + (i >>> 6);
+            seenSet.set(index, 1L << i);
+            visitSet.or(index, 1L << i);
         }
 
         return sourceNodes;
@@ -222,12 +253,12 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
         long[] startNodes = this.startNodes;
         int localNodeCount = startNodes.length;
-        SourceNodes sourceNodes = new SourceNodes(startNodes);
+        SourceNodes sourceNodes = new SourceNodes(startNodes, words);
 
         for (int i = 0; i < localNodeCount; ++i) {
-            long nodeId = startNodes[i];
-            seenSet.set(nodeId, 1L << i);
-            visitSet.or(nodeId, 1L << i);
+            long index = startNodes[i] * words + (i >>> 6);
+            seenSet.set(index, 1L << i);
+            visitSet.or(index, 1L << i);
         }
 
         return sourceNodes;
@@ -240,6 +271,10 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             HugeLongArray nextSet,
             HugeLongArray seenSet) {
 
+        // pages hold a power of two of longs, so the words of a node never span two pages
+        final int words = this.words;
+        final long[] nodeVisit = new long[words];
+        final long[] nodeNext = new long[words];
         HugeLongArray.Cursor visitCursor = visitSet.newCursor();
         HugeLongArray.Cursor nextCursor = nextSet.newCursor();
         int depth = 0;
@@ -251,9 +286,9 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                 int offset = visitCursor.offset;
                 int limit = visitCursor.limit;
                 long base = visitCursor.base;
-                for (int i = offset; i < limit; ++i) {
-                    if (array[i] != 0L) {
-                        prepareNextVisit(array[i], base + i, nextSet);
+                for (int i = offset; i < limit; i += words) {
+                    if (copyWords(array, i, nodeVisit, words)) {
+                        prepareNextVisit(nodeVisit, (base + i) / words, nextSet);
                     }
                 }
             }
@@ -262,7 +297,6 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             ++depth;
 
             boolean hasNext = false;
-            long next;
 
             nextSet.cursor(nextCursor);
             while (nextCursor.next()) {
@@ -270,12 +304,12 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                 int offset = nextCursor.offset;
                 int limit = nextCursor.limit;
                 long base = nextCursor.base;
-                for (int i = offset; i < limit; ++i) {
-                    if (array[i] != 0L) {
-                        next = visitNext(base + i, seenSet, nextSet);
-                        if (next != 0L) {
-                            sourceNodes.reset(next);
-                            perNodeAction.accept(base + i, depth, sourceNodes);
+                for (int i = offset; i < limit; i += words) {
+                    if (anyWord(array, i, words)) {
+                        if (visitNext(base + i, seenSet, nextSet, nodeNext)) {
+                            long nodeId = (base + i) / words;
+                            sourceNodes.reset(nodeNext);
+                            perNodeAction.accept(nodeId, depth, sourceNodes);
                             hasNext = true;
                         }
                     }
@@ -286,26 +320,65 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                 return;
             }
 
-            nextSet.copyTo(visitSet, totalNodeCount);
+            nextSet.copyTo(visitSet, totalNodeCount * words);
             nextSet.fill(0L);
         }
     }
 
-    private void prepareNextVisit(long nodeVisit, long nodeId, HugeLongArray nextSet) {
-        relationships.forEachRelationship(
-                nodeId,
-                direction,
-                (src, tgt) -> {
-                    nextSet.or(tgt, nodeVisit);
-                    return true;
-                });
+    private void prepareNextVisit(long[] nodeVisit, long nodeId, HugeLongArray nextSet) {
+        final int words = this.words;
+        if (words == 1) {
+            final long visit = nodeVisit[0];
+            relationships.forEachRelationship(
+                    nodeId,
+                    direction,
+                    (src, tgt) -> {
+                        nextSet.or(tgt, visit);
+                        return true;
+                    });
+        } else {
+            relationships.forEachRelationship(
+                    nodeId,
+                    direction,
+                    (src, tgt) -> {
+                        long index = tgt * words;
+                        for (int w = 0; w < words; ++w) {
+                            if (nodeVisit[w] != 0L) {
+                                nextSet.or(index + w, nodeVisit[w]);
+                            }
+                        }
+                        return true;
+                    });
+        }
+    }
+
+    private boolean visitNext(long index, HugeLongArray seenSet, HugeLongArray nextSet, long[] nodeNext) {
+        boolean any = false;
+        for (int w = 0; w < nodeNext.length; ++w) {
+            long seen = seenSet.get(index + w);
+            long next = nextSet.and(index + w, ~seen);
+            seenSet.or(index + w, next);
+            nodeNext[w] = next;
+            any |= next != 0L;
+        }
+        return any;
+    }
+
+    private static boolean copyWords(long[] array, int offset, long[] target, int words) {
+        long any = 0L;
+        for (int w = 0; w < words; ++w) {
+            any |= (target[w] = array[offset + w]);
+        }
+        return any != 0L;
     }
 
-    private long visitNext(long nodeId, HugeLongArray seenSet, HugeLongArray nextSet) {
-        long seen = seenSet.get(nodeId);
-        long next = nextSet.and(nodeId, ~seen);
-        seenSet.or(nodeId, next);
-        return next;
+    private static boolean anyWord(long[] array, int offset, int words) {
+        for (int w = 0; w < words; ++w) {
+            if (array[offset + w] != 0L) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /* assert-only */ private boolean isSorted(long[] nodes) {
@@ -326,18 +399,18 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
     private int numberOfThreads() {
         long sourceLength = sourceLength();
-        long threads = ParallelUtil.threadSize(OMEGA, sourceLength);
+        long threads = ParallelUtil.threadSize(omega, sourceLength);
         if ((int) threads != threads) {
             throw new IllegalArgumentException("Unable run MS-BFS on " + sourceLength + " sources.");
         }
         return (int) threads;
     }
 
-    // lazily creates MS-BFS instances for OMEGA sized source chunks
+    // lazily creates MS-BFS instances for omega sized source chunks
     private Collection<HugeMultiSourceBFS> allSourceBfss(int threads) {
         if (startNodes == null) {
             long sourceLength = nodeCount;
-            return new ParallelMultiSources(threads, sourceLength) {
+            return new ParallelMultiSources(threads, sourceLength, omega) {
                 @Override
                 HugeMultiSourceBFS next(final long from, final int length) {
                     return new HugeMultiSourceBFS(
@@ -348,6 +421,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                             sourceLength,
                             from,
                             length,
+                            omega,
                             visits,
                             nexts,
                             seens
@@ -357,7 +431,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         }
         long[] startNodes = this.startNodes;
         int sourceLength = startNodes.length;
-        return new ParallelMultiSources(threads, sourceLength) {
+        return new ParallelMultiSources(threads, sourceLength, omega) {
             @Override
             HugeMultiSourceBFS next(final long from, final int length) {
                 return new HugeMultiSourceBFS(
@@ -366,6 +440,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
                         direction,
                         perNodeAction,
                         nodeCount,
+                        omega,
                         visits,
                         nexts,
                         seens,
@@ -394,23 +469,25 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         private final int maxPos;
         private final int startPos;
         private final long offset;
-        private long sourceMask;
+        private final long[] sourceMask;
         private int pos;
 
-        private SourceNodes(long[] sourceNodes) {
-            assert sourceNodes.length <= OMEGA;
+        private SourceNodes(long[] sourceNodes, int words) {
+            assert sourceNodes.length <= words * OMEGA;
             this.sourceNodes = sourceNodes;
             this.maxPos = sourceNodes.length;
             this.offset = 0L;
             this.startPos = -1;
+            this.sourceMask = new long[words];
         }
 
-        private SourceNodes(long offset, int length) {
-            assert length <= OMEGA;
+        private SourceNodes(long offset, int length, int words) {
+            assert length <= words * OMEGA;
             this.sourceNodes = null;
             this.maxPos = length;
             this.offset = offset;
             this.startPos = -1;
+            this.sourceMask = new long[words];
         }
 
         public void reset() {
@@ -418,8 +495,8 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             fetchNext();
         }
 
-        void reset(long sourceMask) {
-            this.sourceMask = sourceMask;
+        void reset(long[] sourceMask) {
+            System.arraycopy(sourceMask, 0, this.sourceMask, 0, this.sourceMask.length);
             reset();
         }
 
@@ -437,12 +514,16 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
         @Override
         public int size() {
-            return Long.bitCount(sourceMask);
+            int size = 0;
+            for (long mask : sourceMask) {
+                size += Long.bitCount(mask);
+            }
+            return size;
         }
 
         private void fetchNext() {
             //noinspection StatementWithEmptyBody
-            while (++pos < maxPos && (sourceMask & (1L << pos)) == 0L)
+            while (++pos < maxPos && (sourceMask[pos >>> 6] & (1L << pos)) == 0L)
                 ;
         }
     }
@@ -450,12 +531,14 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
     private static abstract class ParallelMultiSources extends AbstractCollection<HugeMultiSourceBFS> implements Iterator<HugeMultiSourceBFS> {
         private final int threads;
         private final long sourceLength;
+        private final int omega;
         private long start = 0L;
         private int i = 0;
 
-        private ParallelMultiSources(int threads, long sourceLength) {
+        private ParallelMultiSources(int threads, long sourceLength, int omega) {
             this.threads = threads;
             this.sourceLength = sourceLength;
+            this.omega = omega;
         }
 
         @Override
@@ -477,7 +560,7 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
         @Override
         public HugeMultiSourceBFS next() {
-            int len = (int) Math.min(OMEGA, sourceLength - start);
+            int len = (int) Math.min(omega, sourceLength - start);
             HugeMultiSourceBFS bfs = next(start, len);
             start += len;
             i++;
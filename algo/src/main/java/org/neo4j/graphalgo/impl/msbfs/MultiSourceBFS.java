@@ -49,10 +49,13 @@ import java.util.concurrent.TimeUnit;
  * The sources iterator is only valid during the execution of the callback and
  * should not be stored.
  * <p>
- * We use a fixed {@code ω} (OMEGA) of 32, which allows us to implement the
+ * We use a default {@code ω} (OMEGA) of 64, which allows us to implement the
  * seen/visitNext bit sets as a packed long which improves memory locality
  * as suggested in 4.1. of the paper.
- * If the number of sources exceed 32, multiple instances of MS-BFS are run
+ * {@link #withOmega(int)} widens the bit sets to 2, 4 or 8 consecutive longs
+ * per node, so that a single scan over the neighbors of a node serves up to
+ * 512 sources, at the cost of as many times the memory per thread.
+ * If the number of sources exceed {@code ω}, multiple instances of MS-BFS are run
  * in parallel.
  * <p>
  * If the MS-BFS runs in parallel, the callback may be executed from multiple threads
@@ -75,18 +78,23 @@ import java.util.concurrent.TimeUnit;
  */
 public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
 
-    // how many sources can be traversed simultaneously
-    static final int OMEGA = 64;
+    // how many sources can be traversed simultaneously by default
+    public static final int OMEGA = 64;
+    // how many sources can be traversed simultaneously at most
+    public static final int MAX_OMEGA = 512;
 
-    private final ThreadLocal<long[]> visits;
-    private final ThreadLocal<long[]> nexts;
-    private final ThreadLocal<long[]> seens;
+    private ThreadLocal<long[]> visits;
+    private ThreadLocal<long[]> nexts;
+    private ThreadLocal<long[]> seens;
 
     private final IdMapping nodeIds;
     private final RelationshipIterator relationships;
     private final Direction direction;
     private final BfsConsumer perNodeAction;
     private final int[] startNodes;
+    private int omega = OMEGA;
+    // number of longs per node in the bit sets
+    private int words = 1;
     private int nodeOffset, sourceNodeCount;
     private int nodeCount;
 
@@ -116,6 +124,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             Direction direction,
             BfsConsumer perNodeAction,
             int nodeCount,
+            int omega,
             ThreadLocal<long[]> visits,
             ThreadLocal<long[]> nexts,
             ThreadLocal<long[]> seens,
@@ -127,6 +136,8 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
         this.perNodeAction = perNodeAction;
         this.startNodes = startNodes;
         this.nodeCount = nodeCount;
+        this.omega = omega;
+        this.words = omega / OMEGA;
         this.visits = visits;
         this.nexts = nexts;
         this.seens = seens;
@@ -140,6 +151,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             int nodeCount,
             int nodeOffset,
             int sourceNodeCount,
+            int omega,
             ThreadLocal<long[]> visits,
             ThreadLocal<long[]> nexts,
             ThreadLocal<long[]> seens) {
@@ -151,18 +163,48 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
         this.nodeCount = nodeCount;
         this.nodeOffset = nodeOffset;
         this.sourceNodeCount = sourceNodeCount;
+        this.omega = omega;
+        this.words = omega / OMEGA;
         this.visits = visits;
         this.nexts = nexts;
         this.seens = seens;
     }
 
+    /**
+     * Sets the number of sources that are traversed simultaneously,
+     * must be one of 64, 128, 256 or 512.
+     */
+    public MultiSourceBFS withOmega(int omega) {
+        validateOmega(omega);
+        int words = omega / OMEGA;
+        if ((long) nodeCount * words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unable to run MS-BFS with omega " + omega + " on " + nodeCount + " nodes.");
+        }
+        this.omega = omega;
+        this.words = words;
+        this.visits = new LocalLongArray(nodeCount * words);
+        this.nexts = new LocalLongArray(nodeCount * words);
+        this.seens = new LocalLongArray(nodeCount * words);
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if omega is not one of 64, 128, 256 or 512
+     */
+    public static int validateOmega(int omega) {
+        if (omega < OMEGA || omega > MAX_OMEGA || Integer.bitCount(omega) != 1) {
+            throw new IllegalArgumentException("omega must be one of 64, 128, 256 or 512 but was " + omega);
+        }
+        return omega;
+    }
+
     /**
      * Runs MS-BFS, possibly in parallel.
      */
     @Override
     public void run(int concurrency, ExecutorService executor) {
         int sourceLength = sourceLength();
-        int threads = ParallelUtil.threadSize(OMEGA, sourceLength);
+        int threads = ParallelUtil.threadSize(omega, sourceLength);
         Collection<MultiSourceBFS> bfss = allSourceBfss(threads);
         if (!ParallelUtil.canRunInParallel(executor)) {
             // fallback to sequentially running all MS-BFS instances
@@ -189,11 +231,11 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
 
     /**
      * Runs MS-BFS, always single-threaded. Requires that there are at most
-     * 64 startNodes. If there are more, {@link #run(int, ExecutorService)} must be used.
+     * {@code ω} startNodes. If there are more, {@link #run(int, ExecutorService)} must be used.
      */
     @Override
     public void run() {
-        assert sourceLength() <= OMEGA : "more than " + OMEGA + " sources not supported";
+        assert sourceLength() <= omega : "more than " + omega + " sources not supported";
 
         int totalNodeCount = this.nodeCount;
 
@@ -214,13 +256,14 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
     private SourceNodes prepareOffsetSources(final long[] visitSet, final long[] seenSet) {
         int localNodeCount = this.sourceNodeCount;
         int nodeOffset = this.nodeOffset;
-        SourceNodes sourceNodes = new SourceNodes(nodeOffset, localNodeCount);
+        int words = this.words;
+        SourceNodes sourceNodes = new SourceNodes(nodeOffset, localNodeCount, words);
 
         for (int i = 0; i < localNodeCount; ++i) {
-            seenSet[nodeOffset + i] = (1L << i);
+            seenSet[(nodeOffset + i) * words + (i >>> 6)] = (1L << i);
         }
         for (int i = 0; i < localNodeCount; ++i) {
-            visitSet[nodeOffset + i] |= (1L << i);
+            visitSet[(nodeOffset + i) * words + (i >>> 6)] |= (1L << i);
         }
 
         return sourceNodes;
@@ -231,12 +274,13 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
 
         int[] startNodes = this.startNodes;
         int localNodeCount = startNodes.length;
-        SourceNodes sourceNodes = new SourceNodes(startNodes);
+        int words = this.words;
+        SourceNodes sourceNodes = new SourceNodes(startNodes, words);
 
         for (int i = 0; i < localNodeCount; ++i) {
-            int nodeId = startNodes[i];
-            seenSet[nodeId] = (1L << i);
-            visitSet[nodeId] |= (1L << i);
+            int index = startNodes[i] * words + (i >>> 6);
+            seenSet[index] = (1L << i);
+            visitSet[index] |= (1L << i);
         }
 
         return sourceNodes;
@@ -249,24 +293,34 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             long[] nextSet,
             long[] seenSet) {
 
+        final int words = this.words;
+        final int length = totalNodeCount * words;
+        final long[] nodeNext = new long[words];
         int depth = 0;
 
         while (true) {
-            for (int i = 0; i < totalNodeCount; ++i) {
-                if (visitSet[i] != 0L) {
-                    prepareNextVisit(visitSet[i], i, nextSet);
+            if (words == 1) {
+                for (int i = 0; i < totalNodeCount; ++i) {
+                    if (visitSet[i] != 0L) {
+                        prepareNextVisit(visitSet[i], i, nextSet);
+                    }
+                }
+            } else {
+                for (int i = 0; i < totalNodeCount; ++i) {
+                    if (anyWord(visitSet, i * words, words)) {
+                        prepareNextVisit(visitSet, i, nextSet);
+                    }
                 }
             }
 
             ++depth;
 
             boolean hasNext = false;
-            long next;
             for (int i = 0; i < totalNodeCount; ++i) {
-                if (nextSet[i] != 0L) {
-                    next = visitNext(i, seenSet, nextSet);
-                    if (next != 0L) {
-                        sourceNodes.reset(next);
+                int index = i * words;
+                if (anyWord(nextSet, index, words)) {
+                    if (visitNext(index, seenSet, nextSet, nodeNext)) {
+                        sourceNodes.reset(nodeNext);
                         perNodeAction.accept(i, depth, sourceNodes);
                         hasNext = true;
                     }
@@ -277,11 +331,26 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
                 return;
             }
 
-            System.arraycopy(nextSet, 0, visitSet, 0, totalNodeCount);
+            System.arraycopy(nextSet, 0, visitSet, 0, length);
             Arrays.fill(nextSet, 0L);
         }
     }
 
+    private void prepareNextVisit(long[] visitSet, int nodeId, long[] nextSet) {
+        final int words = this.words;
+        final int offset = nodeId * words;
+        relationships.forEachRelationship(
+                nodeId,
+                direction,
+                (src, tgt, rel) -> {
+                    int index = tgt * words;
+                    for (int w = 0; w < words; ++w) {
+                        nextSet[index + w] |= visitSet[offset + w];
+                    }
+                    return true;
+                });
+    }
+
     private void prepareNextVisit(long nodeVisit, int nodeId, long[] nextSet) {
         relationships.forEachRelationship(
                 nodeId,
@@ -305,11 +374,24 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
                 });
     }
 
-    private long visitNext(int nodeId, long[] seenSet, long[] nextSet) {
-        long seen = seenSet[nodeId];
-        long next = nextSet[nodeId] &= ~seen;
-        seenSet[nodeId] |= next;
-        return next;
+    private boolean visitNext(int index, long[] seenSet, long[] nextSet, long[] nodeNext) {
+        long any = 0L;
+        for (int w = 0; w < nodeNext.length; ++w) {
+            long next = nextSet[index + w] &= ~seenSet[index + w];
+            seenSet[index + w] |= next;
+            nodeNext[w] = next;
+            any |= next;
+        }
+        return any != 0L;
+    }
+
+    private static boolean anyWord(long[] array, int offset, int words) {
+        for (int w = 0; w < words; ++w) {
+            if (array[offset + w] != 0L) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /* assert-only */ private boolean isSorted(int[] nodes) {
@@ -318,11 +400,11 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
         return Arrays.equals(copy, nodes);
     }
 
-    // lazily creates MS-BFS instances for OMEGA sized source chunks
+    // lazily creates MS-BFS instances for omega sized source chunks
     private Collection<MultiSourceBFS> allSourceBfss(int threads) {
         if (startNodes == null) {
             int sourceLength = nodeCount;
-            return new ParallelMultiSources(threads, sourceLength) {
+            return new ParallelMultiSources(threads, sourceLength, omega) {
                 @Override
                 MultiSourceBFS next(final int from, final int length) {
                     return new MultiSourceBFS(
@@ -333,6 +415,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
                             sourceLength,
                             from,
                             length,
+                            omega,
                             visits,
                             nexts,
                             seens
@@ -342,7 +425,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
         }
         int[] startNodes = this.startNodes;
         int sourceLength = startNodes.length;
-        return new ParallelMultiSources(threads, sourceLength) {
+        return new ParallelMultiSources(threads, sourceLength, omega) {
             @Override
             MultiSourceBFS next(final int from, final int length) {
                 return new MultiSourceBFS(
@@ -351,6 +434,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
                         direction,
                         perNodeAction,
                         nodeCount,
+                        omega,
                         visits,
                         nexts,
                         seens,
@@ -379,23 +463,25 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
         private final int maxPos;
         private final int startPos;
         private final int offset;
-        private long sourceMask;
+        private final long[] sourceMask;
         private int pos;
 
-        private SourceNodes(int[] sourceNodes) {
-            assert sourceNodes.length <= OMEGA;
+        private SourceNodes(int[] sourceNodes, int words) {
+            assert sourceNodes.length <= words * OMEGA;
             this.sourceNodes = sourceNodes;
             this.maxPos = sourceNodes.length;
             this.offset = 0;
             this.startPos = -1;
+            this.sourceMask = new long[words];
         }
 
-        private SourceNodes(int offset, int length) {
-            assert length <= OMEGA;
+        private SourceNodes(int offset, int length, int words) {
+            assert length <= words * OMEGA;
             this.sourceNodes = null;
             this.maxPos = length;
             this.offset = offset;
             this.startPos = -1;
+            this.sourceMask = new long[words];
         }
 
         public void reset() {
@@ -403,8 +489,8 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             fetchNext();
         }
 
-        void reset(long sourceMask) {
-            this.sourceMask = sourceMask;
+        void reset(long[] sourceMask) {
+            System.arraycopy(sourceMask, 0, this.sourceMask, 0, this.sourceMask.length);
             reset();
         }
 
@@ -422,12 +508,16 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
 
         @Override
         public int size() {
-            return Long.bitCount(sourceMask);
+            int size = 0;
+            for (long mask : sourceMask) {
+                size += Long.bitCount(mask);
+            }
+            return size;
         }
 
         private void fetchNext() {
             //noinspection StatementWithEmptyBody
-            while (++pos < maxPos && (sourceMask & (1L << pos)) == 0L)
+            while (++pos < maxPos && (sourceMask[pos >>> 6] & (1L << pos)) == 0L)
                 ;
         }
     }
@@ -435,12 +525,14 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
     private static abstract class ParallelMultiSources extends AbstractCollection<MultiSourceBFS> implements Iterator<MultiSourceBFS> {
         private final int threads;
         private final int sourceLength;
+        private final int omega;
         private int start = 0;
         private int i = 0;
 
-        private ParallelMultiSources(int threads, int sourceLength) {
+        private ParallelMultiSources(int threads, int sourceLength, int omega) {
             this.threads = threads;
             this.sourceLength = sourceLength;
+            this.omega = omega;
         }
 
         @Override
@@ -462,7 +554,7 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
 
         @Override
         public MultiSourceBFS next() {
-            int len = Math.min(OMEGA, sourceLength - start);
+            int len = Math.min(omega, sourceLength - start);
             MultiSourceBFS bfs = next(start, len);
             start += len;
             i++;
@@ -19,8 +19,8 @@
 package org.neo4j.graphalgo.impl.spanningTrees;
 
 import org.neo4j.graphalgo.api.IdMapping;
-import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.api.RelationshipWeights;
+import org.neo4j.graphalgo.api.WeightedRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.container.UndirectedTree;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
@@ -44,13 +44,13 @@ import org.neo4j.graphalgo.results.AbstractResultBuilder;
 public class KSpanningTree extends Algorithm<KSpanningTree> {
 
     private IdMapping idMapping;
-    private RelationshipIterator relationshipIterator;
+    private WeightedRelationshipIterator relationshipIterator;
     private RelationshipWeights weights;
     private final int nodeCount;
 
     private SpanningTree kSpanningTree;
 
-    public KSpanningTree(IdMapping idMapping, RelationshipIterator relationshipIterator, RelationshipWeights weights) {
+    public KSpanningTree(IdMapping idMapping, WeightedRelationshipIterator relationshipIterator, RelationshipWeights weights) {
         this.idMapping = idMapping;
         this.relationshipIterator = relationshipIterator;
         this.weights = weights;
@@ -60,7 +60,7 @@ public class KSpanningTree extends Algorithm<KSpanningTree> {
     public KSpanningTree compute(int startNode, int k, boolean max) {
 
         final ProgressLogger logger = getProgressLogger();
-        final Prim prim = new Prim(idMapping, relationshipIterator, weights)
+        final Prim prim = new Prim(idMapping, relationshipIterator)
                 .withProgressLogger(getProgressLogger())
                 .withTerminationFlag(getTerminationFlag());
 
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.triangle;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.IntersectionConsumer;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DeltaEncoding;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The adjacency of an undirected {@link HugeGraph} where every relationship
+ * is only kept in the direction from the node with the lower degree to the
+ * node with the higher degree (ties are broken by node id).
+ * <p>
+ * Every triangle {@code (a, b, c)} with {@code a < b < c} in that order is found
+ * exactly once by intersecting the lists of {@code a} and {@code b}.
+ * An oriented list has at most {@code sqrt(2m)} entries, so hubs
+ * no longer dominate the runtime.
+ * The lists are delta encoded and sorted by node id, in the same format as the
+ * adjacency of the graph itself, and intersected directly on their cursors.
+ */
+final class DegreeOrientedAdjacency {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int BATCHES_PER_THREAD = 16;
+
+    private final ByteArray adjacency;
+    private final HugeLongArray offsets;
+    private final long nodeCount;
+
+    private DegreeOrientedAdjacency(ByteArray adjacency, HugeLongArray offsets, long nodeCount) {
+        this.adjacency = adjacency;
+        this.offsets = offsets;
+        this.nodeCount = nodeCount;
+    }
+
+    static DegreeOrientedAdjacency build(
+            HugeGraph graph,
+            ExecutorService pool,
+            int concurrency,
+            TerminationFlag terminationFlag,
+            AllocationTracker tracker) {
+        long nodeCount = graph.nodeCount();
+        ByteArray adjacency = ByteArray.newArray(0L, tracker);
+        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, tracker);
+        AtomicLong queue = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            tasks.add(new BuildTask(graph, adjacency, offsets, queue, nodeCount));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, terminationFlag, pool);
+        return new DegreeOrientedAdjacency(adjacency, offsets, nodeCount);
+    }
+
+    /**
+     * Splits the nodes into consecutive ranges of roughly the same number
+     * of wedges, which is what the intersections cost. The result holds
+     * the start of every range followed by the node count.
+     */
+    LongArrayList partition(int concurrency) {
+        long totalCost = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            totalCost += cost(node);
+        }
+        long batchCost = Math.max(1L, totalCost / ((long) concurrency * BATCHES_PER_THREAD));
+        LongArrayList bounds = new LongArrayList();
+        bounds.add(0L);
+        long cost = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            cost += cost(node);
+            if (cost >= batchCost && node + 1L < nodeCount) {
+                bounds.add(node + 1L);
+                cost = 0L;
+            }
+        }
+        bounds.add(nodeCount);
+        return bounds;
+    }
+
+    /**
+     * number of wedges of the node plus one for visiting it at all
+     */
+    private long cost(long node) {
+        long degree = degree(node);
+        return 1L + (degree * (degree - 1L) >> 1);
+    }
+
+    int degree(long node) {
+        long offset = offsets.get(node);
+        return offset == 0L ? 0 : adjacency.getInt(offset);
+    }
+
+    Intersect newIntersect() {
+        return new Intersect();
+    }
+
+    long release() {
+        return adjacency.release() + offsets.release();
+    }
+
+    /**
+     * Finds all triangles of a node, not thread-safe.
+     */
+    final class Intersect {
+        private final ByteArray.DeltaCursor main = adjacency.newCursor();
+        private final ByteArray.DeltaCursor cursorA = adjacency.newCursor();
+        private final ByteArray.DeltaCursor cursorB = adjacency.newCursor();
+
+        void intersectAll(long nodeA, IntersectionConsumer consumer) {
+            long offsetA = offsets.get(nodeA);
+            if (offsetA == 0L) {
+                return;
+            }
+            adjacency.deltaCursor(main, offsetA);
+            while (main.hasNextVLong()) {
+                long nodeB = main.nextVLong();
+                long offsetB = offsets.get(nodeB);
+                if (offsetB != 0L) {
+                    intersect(
+                            nodeA,
+                            nodeB,
+                            adjacency.deltaCursor(cursorA, offsetA),
+                            adjacency.deltaCursor(cursorB, offsetB),
+                            consumer);
+                }
+            }
+        }
+
+        /**
+         * Leapfrog merge of two sorted lists: the cursor that is behind skips ahead
+         * to the current value of the other one. Skipping decodes the deltas in place
+         * without handing out intermediate ids.
+         */
+        private void intersect(
+                long nodeA,
+                long nodeB,
+                ByteArray.DeltaCursor a,
+                ByteArray.DeltaCursor b,
+                IntersectionConsumer consumer) {
+            long valueA = a.nextVLong();
+            long valueB = b.nextVLong();
+            while (true) {
+                if (valueA < valueB) {
+                    valueA = a.advance(valueB);
+                    if (valueA < valueB) {
+                        return;
+                    }
+                } else if (valueB < valueA) {
+                    valueB = b.advance(valueA);
+                    if (valueB < valueA) {
+                        return;
+                    }
+                } else {
+                    consumer.accept(nodeA, nodeB, valueA);
+                    if (!a.hasNextVLong() || !b.hasNextVLong()) {
+                        return;
+                    }
+                    valueA = a.nextVLong();
+                    valueB = b.nextVLong();
+                }
+            }
+        }
+    }
+
+    private static final class BuildTask implements Runnable {
+        private final HugeGraph graph;
+        private final HugeRelationshipIterator relationships;
+        private final ByteArray.LocalAllocator allocator;
+        private final HugeLongArray offsets;
+        private final AtomicLong queue;
+        private final long nodeCount;
+        private long[] targets = new long[0];
+        private int length;
+
+        BuildTask(
+                HugeGraph graph,
+                ByteArray adjacency,
+                HugeLongArray offsets,
+                AtomicLong queue,
+                long nodeCount) {
+            this.graph = graph;
+            this.relationships = graph.concurrentCopy();
+            this.allocator = adjacency.newAllocator();
+            this.offsets = offsets;
+            this.queue = queue;
+            this.nodeCount = nodeCount;
+        }
+
+        @Override
+        public void run() {
+            allocator.prepare();
+            long start;
+            while ((start = queue.getAndAdd(BATCH_SIZE)) < nodeCount) {
+                long end = Math.min(nodeCount, start + BATCH_SIZE);
+                for (long node = start; node < end; node++) {
+                    offsets.set(node, orient(node));
+                }
+            }
+        }
+
+        private long orient(long node) {
+            int degree = graph.degree(node, Direction.OUTGOING);
+            if (targets.length < degree) {
+                targets = new long[degree];
+            }
+            length = 0;
+            relationships.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                int targetDegree = graph.degree(target, Direction.OUTGOING);
+                if (targetDegree > degree || (targetDegree == degree && target > source)) {
+                    targets[length++] = target;
+                }
+                return true;
+            });
+            if (length == 0) {
+                return 0L;
+            }
+            // targets are sorted, store them as deltas
+            long requiredSize = 4L;
+            long previous = 0L;
+            for (int i = 0; i < length; i++) {
+                long delta = targets[i] - previous;
+                previous = targets[i];
+                targets[i] = delta;
+                requiredSize += DeltaEncoding.vSize(delta);
+            }
+            long index = allocator.allocate(requiredSize);
+            ByteArray.BulkAdder adder = allocator.adder;
+            adder.addUnsignedInt(length);
+            for (int i = 0; i < length; i++) {
+                adder.addVLong(targets[i]);
+            }
+            return index;
+        }
+    }
+}
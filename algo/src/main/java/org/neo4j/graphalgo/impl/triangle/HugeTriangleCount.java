@@ -18,10 +18,12 @@
  */
 package org.neo4j.graphalgo.impl.triangle;
 
+import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
 import org.neo4j.graphalgo.api.IntersectionConsumer;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDoubleArray;
@@ -31,6 +33,7 @@ import org.neo4j.graphdb.Direction;
 
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.DoubleAdder;
@@ -41,14 +44,21 @@ import java.util.stream.Stream;
 /**
  * TriangleCount counts the number of triangles in the Graph as well
  * as the number of triangles that passes through a node
+ * <p>
+ * If degree ordering is enabled, the relationships are first oriented from the lower to
+ * the higher degree node (see {@link DegreeOrientedAdjacency}) and the nodes are split
+ * into batches of about the same number of wedges instead of the same number of nodes.
  *
  * @author mknblch
  */
 public class HugeTriangleCount extends Algorithm<HugeTriangleCount> implements TriangleCountAlgorithm {
 
+    private static final int BATCHES_PER_THREAD = 16;
+
     private HugeGraph graph;
     private ExecutorService executorService;
     private final int concurrency;
+    private final boolean degreeOrdered;
     private final long nodeCount;
     private final AllocationTracker tracker;
     private final LongAdder triangleCount;
@@ -58,7 +68,12 @@ public class HugeTriangleCount extends Algorithm<HugeTriangleCount> implements T
     private double averageClusteringCoefficient;
 
     public HugeTriangleCount(HugeGraph graph, ExecutorService executorService, int concurrency, AllocationTracker tracker) {
+        this(graph, executorService, concurrency, false, tracker);
+    }
+
+    public HugeTriangleCount(HugeGraph graph, ExecutorService executorService, int concurrency, boolean degreeOrdered, AllocationTracker tracker) {
         this.graph = graph;
+        this.degreeOrdered = degreeOrdered;
         this.tracker = tracker;
         this.executorService = executorService;
         this.concurrency = concurrency;
@@ -124,14 +139,76 @@ public class HugeTriangleCount extends Algorithm<HugeTriangleCount> implements T
         queue.set(0);
         triangleCount.reset();
         averageClusteringCoefficient = 0.0;
-        // create tasks
-        final Collection<? extends Runnable> tasks = ParallelUtil.tasks(concurrency, () -> new HugeTask(graph));
-        // run
+        if (degreeOrdered) {
+            return computeDegreeOrdered();
+        }
+        // batches of about equal degree, stolen by idle workers of the fork-join pool
+        final long[] partition = ParallelUtil.degreePartition(
+                graph,
+                nodeCount,
+                Direction.OUTGOING,
+                concurrency * BATCHES_PER_THREAD);
+        ParallelUtil.iterateParallel(
+                forkJoinPool(),
+                partition,
+                getTerminationFlag(),
+                () -> new HugeTask(graph));
+        return this;
+    }
+
+    private ForkJoinPool forkJoinPool() {
+        if (executorService instanceof ForkJoinPool) {
+            return (ForkJoinPool) executorService;
+        }
+        return ParallelUtil.canRunInParallel(executorService) ? Pools.FJ_POOL : null;
+    }
+
+    private HugeTriangleCount computeDegreeOrdered() {
+        final DegreeOrientedAdjacency adjacency = DegreeOrientedAdjacency.build(
+                graph,
+                executorService,
+                concurrency,
+                getTerminationFlag(),
+                tracker);
+        final LongArrayList bounds = adjacency.partition(concurrency);
+        final Collection<? extends Runnable> tasks = ParallelUtil.tasks(concurrency, () -> new OrientedTask(adjacency, bounds));
         ParallelUtil.run(tasks, executorService);
+        tracker.remove(adjacency.release());
         return this;
     }
 
-    private class HugeTask implements Runnable, IntersectionConsumer {
+    private class OrientedTask implements Runnable, IntersectionConsumer {
+
+        private final DegreeOrientedAdjacency.Intersect intersect;
+        private final LongArrayList bounds;
+
+        OrientedTask(DegreeOrientedAdjacency adjacency, LongArrayList bounds) {
+            this.intersect = adjacency.newIntersect();
+            this.bounds = bounds;
+        }
+
+        @Override
+        public void run() {
+            long batch;
+            while ((batch = queue.getAndIncrement()) < bounds.size() - 1 && running()) {
+                final long end = bounds.get((int) batch + 1);
+                for (long node = bounds.get((int) batch); node < end; node++) {
+                    intersect.intersectAll(node, this);
+                }
+                getProgressLogger().logProgress(visitedNodes.addAndGet(end - bounds.get((int) batch)), nodeCount);
+            }
+        }
+
+        @Override
+        public void accept(final long nodeA, final long nodeB, final long nodeC) {
+            triangles.add(nodeA, 1);
+            triangles.add(nodeB, 1);
+            triangles.add(nodeC, 1);
+            triangleCount.increment();
+        }
+    }
+
+    private class HugeTask implements ParallelUtil.BatchConsumer, IntersectionConsumer {
 
         private HugeRelationshipIntersect hg;
 
@@ -140,12 +217,11 @@ public class HugeTriangleCount extends Algorithm<HugeTriangleCount> implements T
         }
 
         @Override
-        public void run() {
-            long node;
-            while ((node = queue.getAndIncrement()) < nodeCount && running()) {
+        public void accept(final long start, final long end) {
+            for (long node = start; node < end && running(); node++) {
                 hg.intersectAll(node, this);
-                getProgressLogger().logProgress(visitedNodes.incrementAndGet(), nodeCount);
             }
+            getProgressLogger().logProgress(visitedNodes.addAndGet(end - start), nodeCount);
         }
 
         @Override
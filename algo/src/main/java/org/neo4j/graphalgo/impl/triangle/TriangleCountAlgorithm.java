@@ -64,8 +64,15 @@ public interface TriangleCountAlgorithm {
     }
 
     static TriangleCountAlgorithm instance(Graph graph, ExecutorService pool, int concurrency) {
+        return instance(graph, pool, concurrency, false);
+    }
+
+    /**
+     * @param degreeOrdered orient relationships by degree before counting, only supported on huge graphs
+     */
+    static TriangleCountAlgorithm instance(Graph graph, ExecutorService pool, int concurrency, boolean degreeOrdered) {
         if (graph instanceof HugeGraph) {
-            return new HugeTriangleCount((HugeGraph) graph, pool, concurrency, AllocationTracker.create());
+            return new HugeTriangleCount((HugeGraph) graph, pool, concurrency, degreeOrdered, AllocationTracker.create());
         } else {
             return new TriangleCountQueue(graph, pool, concurrency);
         }
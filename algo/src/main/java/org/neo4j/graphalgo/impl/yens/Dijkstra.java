@@ -171,11 +171,10 @@ public class Dijkstra {
             double costs = this.costs.getOrDefault(node, Double.MAX_VALUE);
             graph.forEachRelationship(
                     node,
-                    direction, (s, t, relId) -> {
+                    direction, (s, t, relId, w) -> {
                         if (!filter.accept(s, t, relId)) {
                             return true;
                         }
-                        final double w = graph.weightOf(s, t);
                         final boolean updateCosts = updateCosts(s, t, w + costs);
                         if (!visited.get(t)) {
                             depth[t] = d + 1;
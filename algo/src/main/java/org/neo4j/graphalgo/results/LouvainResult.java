@@ -29,14 +29,16 @@ public class LouvainResult {
     public final long nodes;
     public final long iterations;
     public final long communityCount;
+    public final long levels;
 
-    private LouvainResult(long loadMillis, long computeMillis, long writeMillis, long nodes, long iterations, long communityCount) {
+    private LouvainResult(long loadMillis, long computeMillis, long writeMillis, long nodes, long iterations, long communityCount, long levels) {
         this.loadMillis = loadMillis;
         this.computeMillis = computeMillis;
         this.writeMillis = writeMillis;
         this.nodes = nodes;
         this.iterations = iterations;
         this.communityCount = communityCount;
+        this.levels = levels;
     }
 
     public static Builder builder() {
@@ -48,6 +50,7 @@ public class LouvainResult {
         private long nodes = 0;
         private long communityCount = 0;
         private long iterations = 1;
+        private long levels = 1;
 
         public Builder withIterations(long iterations) {
             this.iterations = iterations;
@@ -59,13 +62,18 @@ public class LouvainResult {
             return this;
         }
 
+        public Builder withLevels(long levels) {
+            this.levels = levels;
+            return this;
+        }
+
         public Builder withNodeCount(long nodes) {
             this.nodes = nodes;
             return this;
         }
 
         public LouvainResult build() {
-            return new LouvainResult(loadDuration, evalDuration, writeDuration, nodes, iterations, communityCount);
+            return new LouvainResult(loadDuration, evalDuration, writeDuration, nodes, iterations, communityCount, levels);
         }
     }
 }
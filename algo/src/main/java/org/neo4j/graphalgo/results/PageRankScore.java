@@ -36,7 +36,7 @@ public class PageRankScore {
     //  the Graph API doesn't expose this value yet
     public static final class Stats {
         public final long nodes, iterations, loadMillis, computeMillis, writeMillis;
-        public final double dampingFactor;
+        public final double dampingFactor, delta;
         public final boolean write;
         public final String writeProperty;
 
@@ -47,6 +47,7 @@ public class PageRankScore {
                 long computeMillis,
                 long writeMillis,
                 double dampingFactor,
+                double delta,
                 boolean write,
                 String writeProperty) {
             this.nodes = nodes;
@@ -55,6 +56,7 @@ public class PageRankScore {
             this.computeMillis = computeMillis;
             this.writeMillis = writeMillis;
             this.dampingFactor = dampingFactor;
+            this.delta = delta;
             this.write = write;
             this.writeProperty = writeProperty;
         }
@@ -63,6 +65,7 @@ public class PageRankScore {
             private long nodes;
             private long iterations;
             private double dampingFactor;
+            private double delta;
             private boolean write;
             private String writeProperty;
 
@@ -81,6 +84,11 @@ public class PageRankScore {
                 return this;
             }
 
+            public Builder withDelta(double delta) {
+                this.delta = delta;
+                return this;
+            }
+
             public Builder withWrite(boolean write) {
                 this.write = write;
                 return this;
@@ -99,6 +107,7 @@ public class PageRankScore {
                         evalDuration,
                         writeDuration,
                         dampingFactor,
+                        delta,
                         write,
                         writeProperty);
             }
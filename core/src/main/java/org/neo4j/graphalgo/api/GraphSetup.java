@@ -20,6 +20,7 @@ package org.neo4j.graphalgo.api;
 
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.NullLog;
@@ -81,6 +82,8 @@ public class GraphSetup {
     public final boolean sort;
     // in/out adjacencies are allowed to be merged into an undirected view of the graph
     public final boolean loadAsUndirected;
+    // where to place the pages of huge offsets, id mapping and adjacency
+    public final ArrayStorage storage;
 
     /**
      * main ctor
@@ -100,6 +103,7 @@ public class GraphSetup {
      * @param batchSize batch size for parallel loading
      * @param accumulateWeights true if relationship-weights should be summed within the loader
      * @param sort
+     * @param storage where the pages of huge offsets, id mapping and adjacency are placed
      */
     public GraphSetup(
             String startLabel,
@@ -122,6 +126,7 @@ public class GraphSetup {
             boolean sort,
             boolean loadAsUndirected,
             AllocationTracker tracker,
+            ArrayStorage storage,
             String name) {
 
         this.startLabel = startLabel;
@@ -145,6 +150,7 @@ public class GraphSetup {
         this.sort = sort;
         this.loadAsUndirected = loadAsUndirected;
         this.tracker = tracker;
+        this.storage = storage;
         this.name = name;
     }
 
@@ -172,6 +178,7 @@ public class GraphSetup {
         this.sort = false;
         this.loadAsUndirected = false;
         this.tracker = AllocationTracker.EMPTY;
+        this.storage = ArrayStorage.HEAP;
     }
 
     /**
@@ -201,6 +208,7 @@ public class GraphSetup {
         this.sort = false;
         this.loadAsUndirected = false;
         this.tracker = AllocationTracker.EMPTY;
+        this.storage = ArrayStorage.HEAP;
     }
 
     public boolean loadConcurrent() {
@@ -57,6 +57,24 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Falls back to a {@link #weightOf(long, long)} lookup per relationship,
+     * implementations should override this to read weights alongside the targets.
+     */
+    @Override
+    default void forEachWeightedRelationship(
+            long nodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer) {
+        forEachRelationship(
+                nodeId,
+                direction,
+                (sourceNodeId, targetNodeId) -> consumer.accept(
+                        sourceNodeId,
+                        targetNodeId,
+                        weightOf(sourceNodeId, targetNodeId)));
+    }
+
     @Override
     default int degree(int nodeId, Direction direction) {
         return degree((long) nodeId, direction);
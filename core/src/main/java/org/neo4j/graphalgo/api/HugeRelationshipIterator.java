@@ -42,6 +42,22 @@ public interface HugeRelationshipIterator {
         forEachRelationship(nodeId, Direction.OUTGOING, consumer);
     }
 
+    /**
+     * Iterate over all relationships of the given node and pass the weight
+     * of every relationship along with its target.
+     * Iterators without weights report every relationship with a weight of 1.0,
+     * implementations which load weights should read them alongside the targets.
+     */
+    default void forEachWeightedRelationship(
+            long nodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer) {
+        forEachRelationship(
+                nodeId,
+                direction,
+                (sourceNodeId, targetNodeId) -> consumer.accept(sourceNodeId, targetNodeId, 1.0));
+    }
+
     /**
      * @return a copy of this iterator that reuses new cursors internally,
      * so that iterations happen independent from other iterations.
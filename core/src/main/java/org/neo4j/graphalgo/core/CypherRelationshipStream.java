@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Loads the relationships of a cypher projection in a single pass over the query result.
+ * <p>
+ * The calling thread only reads the rows ({@code source}, {@code target} and optionally {@code weight})
+ * into fixed size chunks. Full chunks are handed to the executor, where the original node ids are
+ * mapped and appended to one of {@code concurrency} compact {@link Buffer}s.
+ * The number of chunks in flight is bounded, so the reader blocks if the workers fall behind.
+ * <p>
+ * The query is executed exactly once, relationships are not merged or deduplicated;
+ * this is left to the graph factory that consumes the buffers.
+ */
+public final class CypherRelationshipStream {
+
+    private static final String SOURCE = "source";
+    private static final String TARGET = "target";
+    private static final String WEIGHT = "weight";
+
+    private final List<Buffer> buffers;
+    private final long rows;
+
+    private CypherRelationshipStream(List<Buffer> buffers, long rows) {
+        this.buffers = buffers;
+        this.rows = rows;
+    }
+
+    /**
+     * Executes the statement and buffers all relationships whose source and target
+     * are mapped by {@code idMapping}.
+     *
+     * @param idMapping   maps an original node id to the mapped node id, or {@code -1} if the node is not loaded
+     * @param loadWeights whether the {@code weight} column should be read
+     * @param executor    executor for the workers, the rows are mapped on the calling thread if it cannot be used
+     * @param chunkSize   number of rows per chunk that is handed to a worker
+     */
+    public static CypherRelationshipStream load(
+            GraphDatabaseAPI api,
+            String statement,
+            Map<String, Object> params,
+            LongUnaryOperator idMapping,
+            boolean loadWeights,
+            ExecutorService executor,
+            int concurrency,
+            int chunkSize) {
+        if (chunkSize <= 0) {
+            chunkSize = ParallelUtil.DEFAULT_BATCH_SIZE;
+        }
+        final RowReader reader;
+        if (ParallelUtil.canRunInParallel(executor) && concurrency > 1) {
+            reader = new ParallelRowReader(idMapping, loadWeights, executor, concurrency, chunkSize);
+        } else {
+            reader = new RowReader(idMapping, loadWeights, chunkSize);
+        }
+        api.execute(statement, params).accept(reader);
+        return new CypherRelationshipStream(reader.finish(), reader.rows);
+    }
+
+    /**
+     * number of rows that have been read from the query result
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * number of relationships in all buffers
+     */
+    public long relationshipCount() {
+        long count = 0L;
+        for (Buffer buffer : buffers) {
+            count += buffer.size();
+        }
+        return count;
+    }
+
+    /**
+     * the buffers that hold the mapped relationships, every buffer can be consumed by a different thread
+     */
+    public List<Buffer> buffers() {
+        return buffers;
+    }
+
+    /**
+     * consume all relationships on the calling thread
+     */
+    public void forEach(RelationshipConsumer consumer) {
+        for (Buffer buffer : buffers) {
+            buffer.forEach(consumer);
+        }
+    }
+
+    @FunctionalInterface
+    public interface RelationshipConsumer {
+        /**
+         * @param weight the weight of the relationship or {@link Double#NaN} if no weight was loaded
+         */
+        void accept(long source, long target, double weight);
+    }
+
+    /**
+     * Append-only buffer of mapped relationships, stored in pages to avoid copying on growth.
+     */
+    public static final class Buffer {
+        private static final int PAGE_SHIFT = 14;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+        private final boolean withWeights;
+        private long[][] sources = new long[0][];
+        private long[][] targets = new long[0][];
+        private double[][] weights = new double[0][];
+        private long size;
+
+        private Buffer(boolean withWeights) {
+            this.withWeights = withWeights;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public void forEach(RelationshipConsumer consumer) {
+            long remaining = size;
+            for (int page = 0; remaining > 0L; page++) {
+                final long[] sourcePage = sources[page];
+                final long[] targetPage = targets[page];
+                final double[] weightPage = withWeights ? weights[page] : null;
+                final int length = (int) Math.min(remaining, PAGE_SIZE);
+                for (int i = 0; i < length; i++) {
+                    consumer.accept(
+                            sourcePage[i],
+                            targetPage[i],
+                            weightPage != null ? weightPage[i] : Double.NaN);
+                }
+                remaining -= length;
+            }
+        }
+
+        private void add(long source, long target, double weight) {
+            final int page = (int) (size >>> PAGE_SHIFT);
+            final int index = (int) (size & PAGE_MASK);
+            if (page == sources.length || sources[page] == null) {
+                grow(page);
+            }
+            sources[page][index] = source;
+            targets[page][index] = target;
+            if (withWeights) {
+                weights[page][index] = weight;
+            }
+            ++size;
+        }
+
+        private void grow(int page) {
+            if (page == sources.length) {
+                final int pages = Math.max(8, page << 1);
+                sources = Arrays.copyOf(sources, pages);
+                targets = Arrays.copyOf(targets, pages);
+                if (withWeights) {
+                    weights = Arrays.copyOf(weights, pages);
+                }
+            }
+            sources[page] = new long[PAGE_SIZE];
+            targets[page] = new long[PAGE_SIZE];
+            if (withWeights) {
+                weights[page] = new double[PAGE_SIZE];
+            }
+        }
+
+        private void addAll(Chunk chunk, LongUnaryOperator idMapping) {
+            long lastSourceId = -1L, lastTargetId = -1L;
+            long source = -1L, target = -1L;
+            for (int i = 0; i < chunk.size; i++) {
+                final long sourceId = chunk.sources[i];
+                if (sourceId != lastSourceId) {
+                    source = idMapping.applyAsLong(sourceId);
+                    lastSourceId = sourceId;
+                }
+                if (source == -1L) {
+                    continue;
+                }
+                final long targetId = chunk.targets[i];
+                if (targetId != lastTargetId) {
+                    target = idMapping.applyAsLong(targetId);
+                    lastTargetId = targetId;
+                }
+                if (target == -1L) {
+                    continue;
+                }
+                add(source, target, withWeights ? chunk.weights[i] : Double.NaN);
+            }
+        }
+    }
+
+    /**
+     * raw rows as read from the result, before the ids are mapped
+     */
+    private static final class Chunk {
+        private final long[] sources;
+        private final long[] targets;
+        private final double[] weights;
+        private int size;
+
+        private Chunk(int capacity, boolean withWeights) {
+            sources = new long[capacity];
+            targets = new long[capacity];
+            weights = withWeights ? new double[capacity] : null;
+        }
+
+        private boolean add(long source, long target, double weight) {
+            sources[size] = source;
+            targets[size] = target;
+            if (weights != null) {
+                weights[size] = weight;
+            }
+            return ++size == sources.length;
+        }
+    }
+
+    private static class RowReader implements Result.ResultVisitor<RuntimeException> {
+        final LongUnaryOperator idMapping;
+        final boolean loadWeights;
+        final int chunkSize;
+        Chunk chunk;
+        long rows;
+        private Buffer buffer;
+
+        RowReader(LongUnaryOperator idMapping, boolean loadWeights, int chunkSize) {
+            this.idMapping = idMapping;
+            this.loadWeights = loadWeights;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean visit(Result.ResultRow row) throws RuntimeException {
+            rows++;
+            if (chunk == null) {
+                chunk = nextChunk();
+            }
+            final long source = row.getNumber(SOURCE).longValue();
+            final long target = row.getNumber(TARGET).longValue();
+            final double weight = loadWeights
+                    ? RawValues.extractValue(getProperty(row, WEIGHT), Double.NaN)
+                    : Double.NaN;
+            if (chunk.add(source, target, weight)) {
+                final Chunk full = chunk;
+                chunk = null;
+                flush(full);
+            }
+            return true;
+        }
+
+        Chunk nextChunk() {
+            return new Chunk(chunkSize, loadWeights);
+        }
+
+        void flush(Chunk chunk) {
+            if (buffer == null) {
+                buffer = new Buffer(loadWeights);
+            }
+            buffer.addAll(chunk, idMapping);
+            chunk.size = 0;
+            this.chunk = chunk;
+        }
+
+        List<Buffer> finish() {
+            if (chunk != null && chunk.size > 0) {
+                flush(chunk);
+            }
+            return buffer != null
+                    ? Collections.singletonList(buffer)
+                    : Collections.emptyList();
+        }
+
+        private static Object getProperty(Result.ResultRow row, String propertyName) {
+            try {
+                return row.get(propertyName);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class ParallelRowReader extends RowReader {
+        private final ExecutorService executor;
+        private final BlockingQueue<Chunk> freeChunks;
+        private final BlockingQueue<Buffer> freeBuffers;
+        private final List<Buffer> allBuffers;
+        private final List<Future<?>> futures;
+
+        ParallelRowReader(
+                LongUnaryOperator idMapping,
+                boolean loadWeights,
+                ExecutorService executor,
+                int concurrency,
+                int chunkSize) {
+            super(idMapping, loadWeights, chunkSize);
+            this.executor = executor;
+            // allow the reader to fill the next chunks while every worker is busy
+            int chunks = concurrency << 1;
+            this.freeChunks = new ArrayBlockingQueue<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                freeChunks.add(new Chunk(chunkSize, loadWeights));
+            }
+            this.freeBuffers = new ArrayBlockingQueue<>(concurrency);
+            this.allBuffers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Buffer buffer = new Buffer(loadWeights);
+                freeBuffers.add(buffer);
+                allBuffers.add(buffer);
+            }
+            this.futures = new ArrayList<>();
+        }
+
+        @Override
+        Chunk nextChunk() {
+            try {
+                return freeChunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        void flush(Chunk chunk) {
+            futures.add(executor.submit(() -> {
+                try {
+                    final Buffer buffer = freeBuffers.take();
+                    try {
+                        buffer.addAll(chunk, idMapping);
+                    } finally {
+                        freeBuffers.add(buffer);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                } finally {
+                    chunk.size = 0;
+                    freeChunks.add(chunk);
+                }
+            }));
+        }
+
+        @Override
+        List<Buffer> finish() {
+            if (chunk != null && chunk.size > 0) {
+                flush(chunk);
+                chunk = null;
+            }
+            ParallelUtil.awaitTermination(futures);
+            return allBuffers;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.RelationshipType;
@@ -82,6 +83,7 @@ public class GraphLoader {
     private AllocationTracker tracker = AllocationTracker.EMPTY;
     private boolean sort = false;
     private boolean loadAsUndirected = false;
+    private ArrayStorage storage = ArrayStorage.HEAP;
 
     /**
      * Creates a new serial GraphLoader.
@@ -508,6 +510,7 @@ public class GraphLoader {
                 sort,
                 loadAsUndirected,
                 tracker,
+                storage,
                 name);
 
         try {
@@ -561,12 +564,24 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Place the pages of huge arrays (offsets, id mapping and adjacency) on heap, off-heap or in mapped memory.
+     * Only used by the huge graph implementation.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withStorage(ArrayStorage storage) {
+        this.storage = Objects.requireNonNull(storage);
+        return this;
+    }
+
     public GraphLoader init(Log log, String label, String relationship, ProcedureConfiguration config) {
         return withLog(log)
                 .withName(config.getGraphName(null))
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
+                .withStorage(config.getStorage())
                 .withParams(config.getParams());
     }
 }
@@ -23,6 +23,7 @@ import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.lightweight.LightGraph;
 import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
@@ -31,6 +32,7 @@ import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
 import org.neo4j.graphalgo.core.utils.Directions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
 import org.neo4j.graphdb.Direction;
 
 import java.util.*;
@@ -196,11 +198,38 @@ public class ProcedureConfiguration {
      *
      * @param defaultValue a default value
      * @return true if write is activated, false otherwise
+     * @throws IllegalArgumentException if {@code write: 'file'} has been requested,
+     *                                  procedures that support it check {@link #isWriteToFile()} first
      */
     public boolean isWriteFlag(boolean defaultValue) {
+        if (isWriteToFile()) {
+            throw new IllegalArgumentException("writing to a file is not supported by this procedure");
+        }
         return get(ProcedureConstants.WRITE_FLAG, defaultValue);
     }
 
+    /**
+     * return whether the results should be written to a file instead of node properties,
+     * which is requested with {@code write: 'file'}. Only procedures that check this
+     * before {@link #isWriteFlag()} support it.
+     *
+     * @return true if the results should be written to a file
+     */
+    public boolean isWriteToFile() {
+        Object value = config.get(ProcedureConstants.WRITE_FLAG);
+        return value instanceof String && ProcedureConstants.WRITE_TARGET_FILE.equalsIgnoreCase((String) value);
+    }
+
+    /**
+     * return the directory where the result files are written to, relative to
+     * the import directory of the database, which is also the default
+     *
+     * @return the relative directory
+     */
+    public String getWriteDirectory() {
+        return getString(ProcedureConstants.WRITE_DIRECTORY, "");
+    }
+
     public boolean isCypherFlag(boolean defaultValue) {
         return (boolean) config.getOrDefault(ProcedureConstants.CYPHER_QUERY, defaultValue);
     }
@@ -244,6 +273,15 @@ public class ProcedureConfiguration {
         return getNumber(ProcedureConstants.BATCH_SIZE_PARAM, defaultValue).intValue();
     }
 
+    /**
+     * get the number of nodes that are written back in one transaction
+     *
+     * @return write batch size, -1 if the exporter should choose it
+     */
+    public long getWriteBatchSize() {
+        return getNumber(ProcedureConstants.WRITE_BATCH_SIZE_PARAM, -1L).longValue();
+    }
+
     /**
      * TODO
      *
@@ -257,6 +295,15 @@ public class ProcedureConfiguration {
         return getConcurrency(Pools.DEFAULT_CONCURRENCY);
     }
 
+    /**
+     * return the storage for huge graph arrays, one of 'heap' (default), 'offheap' or 'mmap'
+     *
+     * @return the storage type
+     */
+    public ArrayStorage getStorage() {
+        return ArrayStorage.parse(getString(ProcedureConstants.STORAGE, null));
+    }
+
     public String getDirectionName() {
         return getDirectionName(ProcedureConstants.DIRECTION_DEFAULT);
     }
@@ -295,6 +342,8 @@ public class ProcedureConfiguration {
                 return GraphViewFactory.class;
             case HugeGraph.TYPE:
                 return HugeGraphFactory.class;
+            case HugeCypherGraphFactory.TYPE:
+                return HugeCypherGraphFactory.class;
             default:
                 if (validCustomName(graphImpl) && LoadGraphFactory.check(graphImpl)) {
                     return LoadGraphFactory.class;
@@ -304,7 +353,7 @@ public class ProcedureConfiguration {
     }
 
     private static Set<String> RESERVED = new HashSet<>(asList(HeavyGraph.TYPE,HeavyCypherGraphFactory.TYPE,
-            LightGraph.TYPE, GraphView.TYPE, HeavyGraph.TYPE));
+            LightGraph.TYPE, GraphView.TYPE, HeavyGraph.TYPE, HugeCypherGraphFactory.TYPE));
 
     public static boolean validCustomName(String name) {
         return name != null && !name.trim().isEmpty() && !RESERVED.contains(name.trim().toLowerCase());
@@ -392,6 +441,9 @@ public class ProcedureConfiguration {
         if (HugeGraphFactory.class.isAssignableFrom(cls)) {
             return "huge";
         }
+        if (HugeCypherGraphFactory.class.isAssignableFrom(cls)) {
+            return HugeCypherGraphFactory.TYPE;
+        }
         throw new IllegalArgumentException("Unknown impl: " + cls);
     }
     public Map<String, Object> getParams() {
@@ -51,6 +51,12 @@ public class ProcedureConstants {
 
     public static final String BATCH_SIZE_PARAM = "batchSize";
 
+    public static final String WRITE_BATCH_SIZE_PARAM = "writeBatchSize";
+
+    public static final String WRITE_TARGET_FILE = "file";
+
+    public static final String WRITE_DIRECTORY = "writeDirectory";
+
     public static final String DIRECTION = "direction";
 
     public static final String DIRECTION_DEFAULT = "BOTH";
@@ -61,4 +67,6 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String STORAGE = "storage";
+
 }
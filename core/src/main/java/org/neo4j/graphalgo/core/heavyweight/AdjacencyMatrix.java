@@ -105,6 +105,14 @@ class AdjacencyMatrix {
         return incoming[targetNodeId];
     }
 
+    /**
+     * set all outgoing connections at once, the array must not contain any unused elements
+     */
+    void setOutgoing(int sourceNodeId, int[] targetNodeIds) {
+        outgoing[sourceNodeId] = targetNodeIds;
+        outOffsets[sourceNodeId] = targetNodeIds.length;
+    }
+
     void setOutDegree(int nodeId, final int degree) {
         outOffsets[nodeId] = degree;
     }
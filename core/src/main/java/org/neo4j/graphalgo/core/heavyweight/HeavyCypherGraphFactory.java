@@ -23,21 +23,25 @@ import com.carrotsearch.hppc.LongIntMap;
 import com.carrotsearch.hppc.cursors.LongIntCursor;
 import com.carrotsearch.hppc.procedures.LongIntProcedure;
 import org.neo4j.graphalgo.api.*;
+import org.neo4j.graphalgo.core.CypherRelationshipStream;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.RawValues;
-import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Result;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * @author mknblch
@@ -95,9 +99,8 @@ public class HeavyCypherGraphFactory extends GraphFactory {
         Nodes nodes = canBatchLoad(batchSize, setup.startLabel) ?
                 batchLoadNodes(batchSize) :
                 loadNodes(0, NO_BATCH);
-        Relationships relationships;
-        relationships = canBatchLoad(batchSize, setup.relationshipType) ?
-                batchLoadRelationships(batchSize, nodes) :
+        Relationships relationships = setup.loadConcurrent() ?
+                streamRelationships(nodes) :
                 loadRelationships(0, NO_BATCH, nodes);
 
         if (setup.sort) {
@@ -106,66 +109,92 @@ public class HeavyCypherGraphFactory extends GraphFactory {
         return new HeavyGraph(nodes.idMap, relationships.matrix, relationships.relWeights, nodes.nodeWeights, nodes.nodeProps);
     }
 
-    private Relationships batchLoadRelationships(int batchSize, Nodes nodes) {
+    /**
+     * Executes the relationship statement once and buffers the relationships in parallel,
+     * see {@link CypherRelationshipStream}. The buffers are then merged into exactly sized
+     * adjacency arrays, one task per buffer. A {@code skip} parameter is set to 0 and
+     * {@code limit} is not restricted, so that paged statements are read in one go.
+     */
+    private Relationships streamRelationships(Nodes nodes) {
         ExecutorService pool = setup.executor;
-        int threads = setup.concurrency();
-        boolean accumulateWeights = setup.accumulateWeights;
-
-        // data structures for merged information
-        int nodeCount = nodes.idMap.size();
-        AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount, false);
+        int concurrency = setup.concurrency();
+        IdMap idMap = nodes.idMap;
+        int nodeCount = idMap.size();
         boolean hasRelationshipWeights = !setup.loadDefaultRelationshipWeight();
-        final WeightMapping relWeights = newWeightMapping(hasRelationshipWeights, setup.relationDefaultWeight, nodeCount*ESTIMATED_DEGREE);
 
-        long offset = 0;
-        long lastOffset = 0;
-        long total = 0;
-        List<Future<Relationships>> futures = new ArrayList<>(threads);
-        boolean working = true;
-        do {
-            long skip = offset;
-            // suboptimal, each sub-call allocates a AdjacencyMatrix of nodeCount size, would be better with a sparse variant
-            futures.add(pool.submit(() -> loadRelationships(skip, batchSize,nodes)));
-            offset += batchSize;
-            if (futures.size() >= threads) {
-                for (Future<Relationships> future : futures) {
-                    Relationships result = get("Error during loading relationships offset: "+(lastOffset+batchSize),future);
-                    lastOffset = result.offset;
-                    total += result.rows;
-                    working = result.rows > 0;
-                    if (working) {
-                        WeightMapping resultWeights = hasRelationshipWeights && result.relWeights.size() > 0 ? result.relWeights : null;
-                        result.matrix.nodesWithRelationships(Direction.OUTGOING).forEachNode(
-                                node -> {
-                                    result.matrix.forEach(node, Direction.OUTGOING,
-                                            (source, target, relationship) -> {
-                                                if (accumulateWeights) {
-                                                    // suboptimial, O(n) per node
-                                                    if (!matrix.hasOutgoing(source, target)) {
-                                                        matrix.addOutgoing(source, target);
-                                                    }
-                                                    if (resultWeights != null) {
-                                                        relWeights.set(relationship,
-                                                                resultWeights.get(relationship) +
-                                                                        relWeights.get(relationship, 0d));
-                                                    }
-                                                } else {
-                                                    matrix.addOutgoing(source, target);
-                                                    if (resultWeights != null) {
-                                                        relWeights.set(relationship, resultWeights.get(relationship));
-                                                    }
-                                                }
-                                                return true;
-                                            });
-                                    return true;
-                                });
+        CypherRelationshipStream stream = CypherRelationshipStream.load(
+                api,
+                setup.relationshipType,
+                params(0, NO_BATCH),
+                idMap::get,
+                hasRelationshipWeights,
+                pool,
+                concurrency,
+                setup.batchSize);
+        List<CypherRelationshipStream.Buffer> buffers = stream.buffers();
+
+        AtomicIntegerArray cursors = new AtomicIntegerArray(nodeCount);
+        ParallelUtil.run(bufferTasks(buffers, (source, target, weight) ->
+                cursors.incrementAndGet((int) source)), pool);
+        int[][] adjacency = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            adjacency[node] = new int[cursors.get(node)];
+            cursors.set(node, 0);
+        }
+        ParallelUtil.run(bufferTasks(buffers, (source, target, weight) ->
+                adjacency[(int) source][cursors.getAndIncrement((int) source)] = (int) target), pool);
+
+        if (setup.accumulateWeights) {
+            // parallel relationships are merged into one, their weights are summed up below
+            ParallelUtil.iterateParallel(pool, nodeCount, concurrency, node -> {
+                int[] targets = adjacency[node];
+                if (targets.length > 1) {
+                    Arrays.sort(targets);
+                    int degree = 1;
+                    for (int i = 1; i < targets.length; i++) {
+                        if (targets[i] != targets[degree - 1]) {
+                            targets[degree++] = targets[i];
+                        }
+                    }
+                    if (degree < targets.length) {
+                        adjacency[node] = Arrays.copyOf(targets, degree);
                     }
                 }
-                futures.clear();
-            }
-        } while (working);
+            });
+        }
+
+        AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount, false);
+        for (int node = 0; node < nodeCount; node++) {
+            matrix.setOutgoing(node, adjacency[node]);
+        }
 
-        return new Relationships(0, total, matrix, relWeights);
+        final WeightMapping relWeights = newWeightMapping(hasRelationshipWeights, setup.relationDefaultWeight, nodeCount * ESTIMATED_DEGREE);
+        if (hasRelationshipWeights) {
+            boolean accumulateWeights = setup.accumulateWeights;
+            stream.forEach((source, target, weight) -> {
+                if (Double.isNaN(weight)) {
+                    return;
+                }
+                long relId = RawValues.combineIntInt((int) source, (int) target);
+                if (accumulateWeights) {
+                    relWeights.set(relId, weight + relWeights.get(relId, 0d));
+                } else {
+                    relWeights.set(relId, weight);
+                }
+            });
+        }
+
+        return new Relationships(0, stream.rows(), matrix, relWeights);
+    }
+
+    private static Collection<Runnable> bufferTasks(
+            List<CypherRelationshipStream.Buffer> buffers,
+            CypherRelationshipStream.RelationshipConsumer consumer) {
+        List<Runnable> tasks = new ArrayList<>(buffers.size());
+        for (CypherRelationshipStream.Buffer buffer : buffers) {
+            tasks.add(() -> buffer.forEach(consumer));
+        }
+        return tasks;
     }
 
     private Nodes batchLoadNodes(int batchSize) {
@@ -350,9 +379,7 @@ public class HeavyCypherGraphFactory extends GraphFactory {
     private Map<String, Object> params(long offset, int batchSize) {
         Map<String,Object> params = new HashMap<>(setup.params);
         params.put(SKIP, offset);
-        if (batchSize > 0) {
-            params.put(LIMIT, batchSize);
-        }
+        params.put(LIMIT, batchSize > 0 ? batchSize : Long.MAX_VALUE);
         return params;
     }
 }
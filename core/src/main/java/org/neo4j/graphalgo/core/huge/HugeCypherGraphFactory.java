@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.CypherRelationshipStream;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Loads a {@link HugeGraph} from a node and a relationship statement, just like the
+ * {@link org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory} does for the heavy graph.
+ * <p>
+ * The node statement has to return an {@code id} column, the relationship statement
+ * {@code source}, {@code target} and optionally {@code weight}. Both statements are executed once,
+ * the rows of the relationship statement are mapped in parallel and afterwards compressed into
+ * the same adjacency format as used by the {@link HugeGraphFactory}.
+ * Node weights and properties are not supported by the huge graph and are ignored.
+ */
+public final class HugeCypherGraphFactory extends GraphFactory {
+
+    public static final String TYPE = "huge-cypher";
+
+    private static final String LIMIT = "limit";
+    private static final String SKIP = "skip";
+
+    public HugeCypherGraphFactory(GraphDatabaseAPI api, GraphSetup setup) {
+        super(api, setup);
+    }
+
+    @Override
+    public HugeGraph build() {
+        AllocationTracker tracker = setup.tracker;
+        NodeRowVisitor nodes = new NodeRowVisitor();
+        api.execute(setup.startLabel, params()).accept(nodes);
+        HugeIdMap mapping = nodes.idMap(setup.storage, tracker);
+        HugeGraph graph = loadRelationships(mapping, nodes.maxId, tracker);
+        progressLogger.logDone(tracker);
+        return graph;
+    }
+
+    private HugeGraph loadRelationships(HugeIdMap mapping, long maxOriginalId, AllocationTracker tracker) {
+        final long nodeCount = mapping.nodeCount();
+        final boolean hasWeights = !setup.loadDefaultRelationshipWeight();
+        final double defaultWeight = setup.relationDefaultWeight;
+
+        CypherRelationshipStream stream = CypherRelationshipStream.load(
+                api,
+                setup.relationshipType,
+                params(),
+                id -> id >= 0L && id <= maxOriginalId ? mapping.toHugeMappedNodeId(id) : -1L,
+                hasWeights,
+                threadPool,
+                setup.concurrency(),
+                setup.batchSize);
+
+        HugeLongArray inOffsets = null;
+        HugeLongArray outOffsets = null;
+        ByteArray inAdjacency = null;
+        ByteArray outAdjacency = null;
+        if (setup.loadAsUndirected) {
+            outOffsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+            outAdjacency = ByteArray.newArray(0, setup.storage, tracker);
+            compress(stream, nodeCount, true, true, outOffsets, outAdjacency, hasWeights, defaultWeight, tracker);
+        } else {
+            if (setup.loadOutgoing) {
+                outOffsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+                outAdjacency = ByteArray.newArray(0, setup.storage, tracker);
+                compress(stream, nodeCount, true, false, outOffsets, outAdjacency, hasWeights, defaultWeight, tracker);
+            }
+            if (setup.loadIncoming) {
+                inOffsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+                inAdjacency = ByteArray.newArray(0, setup.storage, tracker);
+                compress(stream, nodeCount, false, true, inOffsets, inAdjacency, hasWeights, defaultWeight, tracker);
+            }
+        }
+
+        return new HugeGraphImpl(
+                tracker,
+                mapping,
+                defaultWeight,
+                hasWeights,
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets
+        );
+    }
+
+    /**
+     * Groups the buffered relationships by their start node and writes them
+     * into the compressed adjacency, one task per range of nodes.
+     * The grouping is done with a counting sort into temporary arrays
+     * that are released once the adjacency has been written.
+     */
+    private void compress(
+            CypherRelationshipStream stream,
+            long nodeCount,
+            boolean outgoing,
+            boolean incoming,
+            HugeLongArray offsets,
+            ByteArray adjacency,
+            boolean hasWeights,
+            double defaultWeight,
+            AllocationTracker tracker) {
+        final ExecutorService pool = threadPool;
+        final List<CypherRelationshipStream.Buffer> buffers = stream.buffers();
+        final long relationshipCount = (outgoing && incoming ? 2L : 1L) * stream.relationshipCount();
+
+        PagedAtomicIntegerArray degrees = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
+        ParallelUtil.run(bufferTasks(buffers, (source, target, weight) -> {
+            if (outgoing) {
+                degrees.add(source, 1);
+            }
+            if (incoming) {
+                degrees.add(target, 1);
+            }
+        }), pool);
+
+        // starts[node] is the first index of the node in the grouped arrays,
+        // the degree of a node is the difference to the start of the next node
+        HugeLongArray starts = HugeLongArray.newArray(nodeCount + 1L, tracker);
+        long start = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            start += degrees.get(node);
+            starts.set(node + 1L, start);
+        }
+
+        HugeLongArray targets = HugeLongArray.newArray(relationshipCount, tracker);
+        DoubleArray weights = hasWeights ? DoubleArray.newArray(relationshipCount, tracker) : null;
+        ParallelUtil.run(bufferTasks(buffers, (source, target, weight) -> {
+            if (weights != null && Double.isNaN(weight)) {
+                weight = defaultWeight;
+            }
+            if (outgoing) {
+                long index = starts.get(source) + degrees.getAndAdd(source, -1) - 1L;
+                targets.set(index, target);
+                if (weights != null) {
+                    weights.set(index, weight);
+                }
+            }
+            if (incoming) {
+                long index = starts.get(target) + degrees.getAndAdd(target, -1) - 1L;
+                targets.set(index, source);
+                if (weights != null) {
+                    weights.set(index, weight);
+                }
+            }
+        }), pool);
+        tracker.remove(degrees.release());
+
+        long[] partition = ParallelUtil.degreePartition(
+                nodeCount,
+                setup.concurrency(),
+                node -> (int) (starts.get(node + 1L) - starts.get(node)));
+        List<Runnable> tasks = new ArrayList<>(partition.length - 1);
+        for (int i = 1; i < partition.length; i++) {
+            long from = partition[i - 1];
+            long to = partition[i];
+            tasks.add(() -> {
+                ByteArray.LocalAllocator allocator = adjacency.newAllocator();
+                allocator.prepare();
+                RelationshipBuffer buffer = new RelationshipBuffer(hasWeights, setup.accumulateWeights);
+                for (long node = from; node < to; node++) {
+                    long first = starts.get(node);
+                    long end = starts.get(node + 1L);
+                    if (first == end) {
+                        continue;
+                    }
+                    buffer.prepareNextNode((int) (end - first), node);
+                    for (long index = first; index < end; index++) {
+                        buffer.addTarget(targets.get(index), weights != null ? weights.get(index) : defaultWeight);
+                    }
+                    long adjacencyIdx = buffer.flush(allocator);
+                    if (adjacencyIdx != 0L) {
+                        offsets.set(node, adjacencyIdx);
+                    }
+                }
+            });
+        }
+        ParallelUtil.run(tasks, pool);
+        adjacency.finish();
+
+        tracker.remove(starts.release());
+        tracker.remove(targets.release());
+        if (weights != null) {
+            tracker.remove(weights.release());
+        }
+    }
+
+    private static Collection<Runnable> bufferTasks(
+            List<CypherRelationshipStream.Buffer> buffers,
+            CypherRelationshipStream.RelationshipConsumer consumer) {
+        List<Runnable> tasks = new ArrayList<>(buffers.size());
+        for (CypherRelationshipStream.Buffer buffer : buffers) {
+            tasks.add(() -> buffer.forEach(consumer));
+        }
+        return tasks;
+    }
+
+    private Map<String, Object> params() {
+        Map<String, Object> params = new HashMap<>(setup.params);
+        params.put(SKIP, 0L);
+        params.put(LIMIT, Long.MAX_VALUE);
+        return params;
+    }
+
+    /**
+     * Buffers the node ids in pages, the id map can only be created once the highest id is known.
+     */
+    private static final class NodeRowVisitor implements Result.ResultVisitor<RuntimeException> {
+        private static final int PAGE_SHIFT = 14;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+        private long[][] pages = new long[0][];
+        private long count;
+        private long maxId = -1L;
+
+        @Override
+        public boolean visit(Result.ResultRow row) throws RuntimeException {
+            long id = row.getNumber("id").longValue();
+            final int page = (int) (count >>> PAGE_SHIFT);
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, Math.max(8, page << 1));
+            }
+            if (pages[page] == null) {
+                pages[page] = new long[PAGE_SIZE];
+            }
+            pages[page][(int) (count & PAGE_MASK)] = id;
+            ++count;
+            maxId = Math.max(maxId, id);
+            return true;
+        }
+
+        HugeIdMap idMap(ArrayStorage storage, AllocationTracker tracker) {
+            HugeIdMap idMap = new HugeIdMap(count, maxId + 1L, storage, tracker);
+            long remaining = count;
+            for (int page = 0; remaining > 0L; page++) {
+                final long[] ids = pages[page];
+                final int length = (int) Math.min(remaining, PAGE_SIZE);
+                for (int i = 0; i < length; i++) {
+                    if (!idMap.contains(ids[i])) {
+                        idMap.add(ids[i]);
+                    }
+                }
+                remaining -= length;
+            }
+            pages = null;
+            return idMap;
+        }
+    }
+}
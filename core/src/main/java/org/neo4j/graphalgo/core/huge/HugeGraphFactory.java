@@ -21,9 +21,7 @@ package org.neo4j.graphalgo.core.huge;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.HugeGraph;
-import org.neo4j.graphalgo.api.HugeWeightMapping;
 import org.neo4j.graphalgo.core.GraphDimensions;
-import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.StatementTask;
@@ -58,9 +56,8 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph importGraph() throws EntityNotFoundException {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker;
-        HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
         HugeIdMap mapping = loadHugeIdMap(tracker);
-        HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        HugeGraph graph = loadRelationships(dimensions, mapping, concurrency, tracker, progress);
         progressLogger.logDone(tracker);
         return graph;
     }
@@ -68,7 +65,6 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
@@ -76,7 +72,6 @@ public final class HugeGraphFactory extends GraphFactory {
             return loadUndirectedRelationships(
                     dimensions,
                     mapping,
-                    weights,
                     concurrency,
                     tracker,
                     progress);
@@ -85,18 +80,19 @@ public final class HugeGraphFactory extends GraphFactory {
         final long nodeCount = dimensions.hugeNodeCount();
         final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
+        final double defaultWeight = setup.relationDefaultWeight;
 
         HugeLongArray inOffsets = null;
         HugeLongArray outOffsets = null;
         ByteArray inAdjacency = null;
         ByteArray outAdjacency = null;
         if (setup.loadIncoming) {
-            inOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            inAdjacency = ByteArray.newArray(0, tracker);
+            inOffsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+            inAdjacency = ByteArray.newArray(0, setup.storage, tracker);
         }
         if (setup.loadOutgoing) {
-            outOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            outAdjacency = ByteArray.newArray(nodeCount, tracker);
+            outOffsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+            outAdjacency = ByteArray.newArray(nodeCount, setup.storage, tracker);
         }
         if (setup.loadIncoming || setup.loadOutgoing) {
             // needs final b/c of reference from lambda
@@ -120,15 +116,22 @@ public final class HugeGraphFactory extends GraphFactory {
                     false,
                     relationId,
                     weightId,
-                    weights
+                    defaultWeight
             ));
             ParallelUtil.run(Arrays.asList(tasks), threadPool);
+            if (inAdjacency != null) {
+                inAdjacency.finish();
+            }
+            if (outAdjacency != null) {
+                outAdjacency.finish();
+            }
         }
 
         return new HugeGraphImpl(
                 tracker,
                 mapping,
-                weights,
+                defaultWeight,
+                weightId >= 0,
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
@@ -139,16 +142,16 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph loadUndirectedRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
         final long nodeCount = dimensions.hugeNodeCount();
         final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
+        final double defaultWeight = setup.relationDefaultWeight;
 
-        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, tracker);
-        ByteArray adjacency = ByteArray.newArray(0, tracker);
+        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, setup.storage, tracker);
+        ByteArray adjacency = ByteArray.newArray(0, setup.storage, tracker);
 
         NodeQueue nodes = new NodeQueue(nodeCount);
         HugeRelationshipImporter[] tasks = new HugeRelationshipImporter[concurrency];
@@ -165,14 +168,16 @@ public final class HugeGraphFactory extends GraphFactory {
                 true,
                 relationId,
                 weightId,
-                weights
+                defaultWeight
         ));
         ParallelUtil.run(Arrays.asList(tasks), threadPool);
+        adjacency.finish();
 
         return new HugeGraphImpl(
                 tracker,
                 mapping,
-                weights,
+                defaultWeight,
+                weightId >= 0,
                 null,
                 adjacency,
                 null,
@@ -205,7 +210,7 @@ public final class HugeGraphFactory extends GraphFactory {
         private final ByteArray.LocalAllocator outAllocator;
         private final int[] relationId;
         private final int weightId;
-        private final HugeWeightMapping weights;
+        private final double defaultWeight;
         private final boolean undirected;
 
         HugeRelationshipImporter(
@@ -221,7 +226,7 @@ public final class HugeGraphFactory extends GraphFactory {
                 boolean undirected,
                 int[] relationId,
                 int weightId,
-                HugeWeightMapping weights) {
+                double defaultWeight) {
             super(api);
             this.batchIndex = batchIndex;
             this.progress = progress;
@@ -233,7 +238,7 @@ public final class HugeGraphFactory extends GraphFactory {
             this.outAllocator = outAdjacency != null ? outAdjacency.newAllocator() : null;
             this.relationId = relationId;
             this.weightId = weightId;
-            this.weights = weights;
+            this.defaultWeight = defaultWeight;
             this.undirected = undirected;
         }
 
@@ -246,7 +251,6 @@ public final class HugeGraphFactory extends GraphFactory {
         public Void apply(final Statement statement) throws EntityNotFoundException {
             ReadOperations readOp = statement.readOperations();
             boolean shouldLoadWeights = weightId >= 0;
-            HugeWeightMap weightMap = shouldLoadWeights ? (HugeWeightMap) weights : null;
 
             final RelationshipLoader loader;
             if (undirected) {
@@ -257,8 +261,8 @@ public final class HugeGraphFactory extends GraphFactory {
                 final VisitRelationship visitIn;
                 final VisitRelationship visitOut;
                 if (shouldLoadWeights) {
-                    visitIn = new VisitIncomingNoWeight(idMap);
-                    visitOut = new VisitUndirectedOutgoingWithWeight(readOp, idMap, weightMap, weightId);
+                    visitIn = new VisitIncomingWithWeight(readOp, idMap, weightId, defaultWeight);
+                    visitOut = new VisitOutgoingWithWeight(readOp, idMap, weightId, defaultWeight);
                 } else {
                     visitIn = new VisitIncomingNoWeight(idMap);
                     visitOut = new VisitOutgoingNoWeight(idMap);
@@ -270,7 +274,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     outAllocator.prepare();
                     final VisitRelationship visitOut;
                     if (shouldLoadWeights) {
-                        visitOut = new VisitOutgoingWithWeight(readOp, idMap, weightMap, weightId);
+                        visitOut = new VisitOutgoingWithWeight(readOp, idMap, weightId, defaultWeight);
                     } else {
                         visitOut = new VisitOutgoingNoWeight(idMap);
                     }
@@ -280,7 +284,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     inAllocator.prepare();
                     final VisitRelationship visitIn;
                     if (shouldLoadWeights) {
-                        visitIn = new VisitIncomingWithWeight(readOp, idMap, weightMap, weightId);
+                        visitIn = new VisitIncomingWithWeight(readOp, idMap, weightId, defaultWeight);
                     } else {
                         visitIn = new VisitIncomingNoWeight(idMap);
                     }
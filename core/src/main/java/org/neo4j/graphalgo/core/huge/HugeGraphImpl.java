@@ -23,15 +23,18 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIntersect;
-import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.ByteArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotReader;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotWriter;
 import org.neo4j.graphdb.Direction;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.function.LongPredicate;
 
@@ -51,6 +54,14 @@ import java.util.function.LongPredicate;
  * Every target ID is first sorted, then delta encoded, and finally written as variable-length vlongs.
  * The delta encoding does not write the actual value but only the difference to the previous value, which plays very nice with the vlong encoding.
  * <p>
+ * If the graph is loaded with relationship weights, the weights are stored as a column of
+ * {@code degree} full-sized 8 byte {@code double}s between the degree and the first target ID:
+ * <blockquote>
+ * <code>degree</code> ~ <code>weight</code><sub><code>1</code></sub> ~ <code>weight</code><sub><code>n</code></sub> ~ <code>targetId</code><sub><code>1</code></sub> ~ <code>targetId</code><sub><code>n</code></sub>
+ * </blockquote>
+ * The i-th weight belongs to the i-th target, so that the cursor can yield (target, weight) pairs
+ * in a single sequential pass without any lookup into a separate weight map.
+ * <p>
  * The seconds data structure is a LongArray, which is a long[] addressable by longs
  * and capable of storing about 2^43 (~9k bn) longs – or 64 TiB worth of 64 bit longs.
  * The data is the offset address into the aforementioned adjacency array, the index is the respective source node id.
@@ -81,8 +92,9 @@ public class HugeGraphImpl implements HugeGraph {
 
     private final HugeIdMap idMapping;
     private final AllocationTracker tracker;
+    private final double defaultWeight;
+    private final boolean hasWeights;
 
-    private HugeWeightMapping weights;
     private ByteArray inAdjacency;
     private ByteArray outAdjacency;
     private HugeLongArray inOffsets;
@@ -95,14 +107,16 @@ public class HugeGraphImpl implements HugeGraph {
     HugeGraphImpl(
             final AllocationTracker tracker,
             final HugeIdMap idMapping,
-            final HugeWeightMapping weights,
+            final double defaultWeight,
+            final boolean hasWeights,
             final ByteArray inAdjacency,
             final ByteArray outAdjacency,
             final HugeLongArray inOffsets,
             final HugeLongArray outOffsets) {
         this.idMapping = idMapping;
         this.tracker = tracker;
-        this.weights = weights;
+        this.defaultWeight = defaultWeight;
+        this.hasWeights = hasWeights;
         this.inAdjacency = inAdjacency;
         this.outAdjacency = outAdjacency;
         this.inOffsets = inOffsets;
@@ -112,6 +126,57 @@ public class HugeGraphImpl implements HugeGraph {
         empty = inCache == null ? newCursor(this.outAdjacency) : newCursor(this.inAdjacency);
     }
 
+    /**
+     * Reads a graph that has been written with {@link #writeTo(SnapshotWriter)}.
+     */
+    static HugeGraphImpl readFrom(SnapshotReader in, AllocationTracker tracker) throws IOException {
+        double defaultWeight = in.readDouble();
+        boolean hasWeights = in.readBoolean();
+        HugeIdMap idMapping = HugeIdMap.readFrom(in, tracker);
+        HugeLongArray inOffsets = null;
+        ByteArray inAdjacency = null;
+        if (in.readBoolean()) {
+            inOffsets = HugeLongArray.readFrom(in, tracker);
+            inAdjacency = ByteArray.readFrom(in, tracker);
+        }
+        HugeLongArray outOffsets = null;
+        ByteArray outAdjacency = null;
+        if (in.readBoolean()) {
+            outOffsets = HugeLongArray.readFrom(in, tracker);
+            outAdjacency = ByteArray.readFrom(in, tracker);
+        }
+        return new HugeGraphImpl(
+                tracker,
+                idMapping,
+                defaultWeight,
+                hasWeights,
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets
+        );
+    }
+
+    /**
+     * Writes the id mapping, the offsets and the adjacency pages as they are.
+     * The offsets remain valid when reading the pages back, no re-encoding happens.
+     */
+    void writeTo(SnapshotWriter out) throws IOException {
+        out.writeDouble(defaultWeight);
+        out.writeBoolean(hasWeights);
+        idMapping.writeTo(out);
+        out.writeBoolean(inAdjacency != null);
+        if (inAdjacency != null) {
+            inOffsets.writeTo(out);
+            inAdjacency.writeTo(out);
+        }
+        out.writeBoolean(outAdjacency != null);
+        if (outAdjacency != null) {
+            outOffsets.writeTo(out);
+            outAdjacency.writeTo(out);
+        }
+    }
+
     @Override
     public long nodeCount() {
         return idMapping.nodeCount();
@@ -132,9 +197,41 @@ public class HugeGraphImpl implements HugeGraph {
         return idMapping.hugeNodeIterator();
     }
 
+    /**
+     * O(n) !
+     * Prefer {@link #forEachWeightedRelationship(long, Direction, HugeWeightedRelationshipConsumer)}
+     * when iterating relationships anyway.
+     */
     @Override
     public double weightOf(final long sourceNodeId, final long targetNodeId) {
-        return weights.weight(sourceNodeId, targetNodeId);
+        if (!hasWeights) {
+            return defaultWeight;
+        }
+        if (outAdjacency != null) {
+            return weightOf(sourceNodeId, targetNodeId, outOffsets, outAdjacency);
+        }
+        return weightOf(targetNodeId, sourceNodeId, inOffsets, inAdjacency);
+    }
+
+    @Override
+    public void forEachWeightedRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        switch (direction) {
+            case INCOMING:
+                forEachIncoming(nodeId, inCache, consumer);
+                return;
+
+            case OUTGOING:
+                forEachOutgoing(nodeId, outCache, consumer);
+                return;
+
+            case BOTH:
+                forEachOutgoing(nodeId, outCache, consumer);
+                forEachIncoming(nodeId, inCache, consumer);
+                return;
+
+            default:
+                throw new IllegalArgumentException(direction + "");
+        }
     }
 
     @Override
@@ -244,11 +341,11 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public void forEachIncoming(int nodeId, RelationshipConsumer consumer) {
-        forEachIncoming((long) nodeId, inAdjacency.newCursor(), toHugeInConsumer(consumer));
+        forEachIncoming((long) nodeId, newCursor(inAdjacency), toHugeInConsumer(consumer));
     }
 
     public void forEachIncoming(int nodeId, WeightedRelationshipConsumer consumer) {
-        forEachIncoming((long) nodeId, inAdjacency.newCursor(), toHugeInConsumer(consumer));
+        forEachIncoming((long) nodeId, newCursor(inAdjacency), toHugeInConsumer(consumer));
     }
 
     private void forEachIncoming(long node, ByteArray.DeltaCursor newCursor, final HugeRelationshipConsumer consumer) {
@@ -256,6 +353,11 @@ public class HugeGraphImpl implements HugeGraph {
         consumeNodes(node, cursor, consumer);
     }
 
+    private void forEachIncoming(long node, ByteArray.DeltaCursor newCursor, final HugeWeightedRelationshipConsumer consumer) {
+        ByteArray.DeltaCursor cursor = cursor(node, newCursor, inOffsets, inAdjacency);
+        consumeNodes(node, cursor, consumer);
+    }
+
     @Override
     public void forEachOutgoing(long node, final HugeRelationshipConsumer consumer) {
         forEachOutgoing(node, outCache, consumer);
@@ -263,11 +365,11 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public void forEachOutgoing(int nodeId, RelationshipConsumer consumer) {
-        forEachOutgoing((long) nodeId, outAdjacency.newCursor(), toHugeOutConsumer(consumer));
+        forEachOutgoing((long) nodeId, newCursor(outAdjacency), toHugeOutConsumer(consumer));
     }
 
     public void forEachOutgoing(int nodeId, WeightedRelationshipConsumer consumer) {
-        forEachOutgoing((long) nodeId, outAdjacency.newCursor(), toHugeOutConsumer(consumer));
+        forEachOutgoing((long) nodeId, newCursor(outAdjacency), toHugeOutConsumer(consumer));
     }
 
     private void forEachOutgoing(long node, ByteArray.DeltaCursor newCursor, final HugeRelationshipConsumer consumer) {
@@ -275,12 +377,18 @@ public class HugeGraphImpl implements HugeGraph {
         consumeNodes(node, cursor, consumer);
     }
 
+    private void forEachOutgoing(long node, ByteArray.DeltaCursor newCursor, final HugeWeightedRelationshipConsumer consumer) {
+        ByteArray.DeltaCursor cursor = cursor(node, newCursor, outOffsets, outAdjacency);
+        consumeNodes(node, cursor, consumer);
+    }
+
     @Override
     public HugeGraph concurrentCopy() {
         return new HugeGraphImpl(
                 tracker,
                 idMapping,
-                weights,
+                defaultWeight,
+                hasWeights,
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
@@ -290,7 +398,7 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public HugeRelationshipIntersect intersectionCopy() {
-        return new HugeGraphIntersectImpl(outAdjacency, outOffsets);
+        return new HugeGraphIntersectImpl(outAdjacency, outOffsets, hasWeights);
     }
 
     /**
@@ -353,17 +461,31 @@ public class HugeGraphImpl implements HugeGraph {
             outAdjacency = null;
             outOffsets = null;
         }
-        if (weights != null) {
-            tracker.remove(weights.release());
-        }
         empty = null;
         inCache = null;
         outCache = null;
-        weights = null;
     }
 
     private ByteArray.DeltaCursor newCursor(final ByteArray adjacency) {
-        return adjacency != null ? adjacency.newCursor() : null;
+        return adjacency != null ? adjacency.newCursor(hasWeights) : null;
+    }
+
+    private double weightOf(long node, long target, HugeLongArray offsets, ByteArray adjacency) {
+        final long offset = offsets.get(node);
+        if (offset == 0L) {
+            return defaultWeight;
+        }
+        ByteArray.DeltaCursor cursor = adjacency.deltaCursor(newCursor(adjacency), offset);
+        while (cursor.hasNextVLong()) {
+            long current = cursor.nextVLong();
+            if (current == target) {
+                return cursor.weight();
+            }
+            if (current > target) {
+                break;
+            }
+        }
+        return defaultWeight;
     }
 
     private int degree(long node, HugeLongArray offsets, ByteArray array) {
@@ -394,6 +516,19 @@ public class HugeGraphImpl implements HugeGraph {
         while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong()));
     }
 
+    private void consumeNodes(
+            long startNode,
+            ByteArray.DeltaCursor cursor,
+            HugeWeightedRelationshipConsumer consumer) {
+        if (hasWeights) {
+            //noinspection StatementWithEmptyBody
+            while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong(), cursor.weight()));
+        } else {
+            //noinspection StatementWithEmptyBody
+            while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong(), defaultWeight));
+        }
+    }
+
     private HugeRelationshipConsumer toHugeOutConsumer(RelationshipConsumer consumer) {
         return (s, t) -> consumer.accept(
                 (int) s,
@@ -408,25 +543,19 @@ public class HugeGraphImpl implements HugeGraph {
                 RawValues.combineIntInt((int) t, (int) s));
     }
 
-    private HugeRelationshipConsumer toHugeOutConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(s, t);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) s, (int) t),
-                    weight);
-        };
-    }
-
-    private HugeRelationshipConsumer toHugeInConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(t, s);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) t, (int) s),
-                    weight);
-        };
+    private HugeWeightedRelationshipConsumer toHugeOutConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, w) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) s, (int) t),
+                w);
+    }
+
+    private HugeWeightedRelationshipConsumer toHugeInConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, w) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) t, (int) s),
+                w);
     }
 }
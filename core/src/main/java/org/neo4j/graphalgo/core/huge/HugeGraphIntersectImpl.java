@@ -33,15 +33,15 @@ class HugeGraphIntersectImpl implements HugeRelationshipIntersect {
     private ByteArray.DeltaCursor cacheA;
     private ByteArray.DeltaCursor cacheB;
 
-    HugeGraphIntersectImpl(final ByteArray adjacency, final HugeLongArray offsets) {
+    HugeGraphIntersectImpl(final ByteArray adjacency, final HugeLongArray offsets, final boolean hasWeights) {
         assert adjacency != null;
         assert offsets != null;
         this.adjacency = adjacency;
         this.offsets = offsets;
-        cache = adjacency.newCursor();
-        cacheA = adjacency.newCursor();
-        cacheB = adjacency.newCursor();
-        empty = adjacency.newCursor();
+        cache = adjacency.newCursor(hasWeights);
+        cacheA = adjacency.newCursor(hasWeights);
+        cacheB = adjacency.newCursor(hasWeights);
+        empty = adjacency.newCursor(hasWeights);
     }
 
     @Override
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotReader;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Persists a {@link HugeGraph} into a compact binary file and restores it from there.
+ * <p>
+ * The file contains the adjacency pages, offsets and the id mapping of the graph
+ * in the same layout as they are kept in memory, so restoring a graph
+ * is a sequential bulk-copy from a memory-mapped file into the pages and
+ * does not involve the kernel at all.
+ * <p>
+ * The format is:
+ * <blockquote>
+ * <code>magic</code> ~ <code>version</code> ~ <code>defaultWeight</code> ~ <code>hasWeights</code> ~
+ * <code>idMap</code> ~ [<code>inOffsets</code> ~ <code>inAdjacency</code>] ~ [<code>outOffsets</code> ~ <code>outAdjacency</code>]
+ * </blockquote>
+ * A snapshot is only valid for the store it has been created from;
+ * changes to the store after saving the snapshot are not reflected.
+ */
+public final class HugeGraphSnapshot {
+
+    private static final int MAGIC = 0x4847_5348; // "HGSH"
+    private static final int VERSION = 2;
+
+    /**
+     * Writes the given graph into the file, replacing any existing file.
+     *
+     * @return the number of bytes written
+     */
+    public static long save(Graph graph, Path file) {
+        if (!(graph instanceof HugeGraphImpl)) {
+            throw new IllegalArgumentException("Only graphs of type '" + HugeGraph.TYPE + "' can be saved, but got '" + graph.getType() + "'");
+        }
+        try (SnapshotWriter out = SnapshotWriter.create(file)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            ((HugeGraphImpl) graph).writeTo(out);
+            return out.bytesWritten();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a graph from a file that has been written with {@link #save(Graph, Path)}.
+     */
+    public static HugeGraph restore(Path file, AllocationTracker tracker) {
+        try (SnapshotReader in = SnapshotReader.open(file)) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("The file " + file + " is not a graph snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + version + ", expected " + VERSION);
+            }
+            return HugeGraphImpl.readFrom(in, tracker);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HugeGraphSnapshot() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -25,10 +25,14 @@ import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotReader;
+import org.neo4j.graphalgo.core.utils.paged.SnapshotWriter;
 import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.function.LongPredicate;
 
@@ -50,11 +54,39 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
     /**
      * initialize the map with maximum node capacity
      */
-    HugeIdMap(long capacity, long fullCapacity, AllocationTracker tracker) {
-        graphIds = HugeLongArray.newArray(capacity, tracker);
+    HugeIdMap(long capacity, long fullCapacity, ArrayStorage storage, AllocationTracker tracker) {
+        graphIds = HugeLongArray.newArray(capacity, storage, tracker);
         nodeToGraphIds = SparseLongArray.newArray(fullCapacity, tracker);
     }
 
+    private HugeIdMap(long nodeCount, HugeLongArray graphIds, SparseLongArray nodeToGraphIds) {
+        this.nextGraphId = nodeCount;
+        this.graphIds = graphIds;
+        this.nodeToGraphIds = nodeToGraphIds;
+    }
+
+    /**
+     * Reads a mapping that has been written with {@link #writeTo(SnapshotWriter)}.
+     * Only the original ids and the capacity of the reverse mapping are stored,
+     * the reverse mapping is rebuilt from them.
+     */
+    static HugeIdMap readFrom(SnapshotReader in, AllocationTracker tracker) throws IOException {
+        long nodeCount = in.readLong();
+        long fullCapacity = in.readLong();
+        HugeLongArray graphIds = HugeLongArray.readFrom(in, tracker);
+        SparseLongArray nodeToGraphIds = SparseLongArray.newArray(fullCapacity, tracker);
+        for (long graphId = 0L; graphId < nodeCount; graphId++) {
+            nodeToGraphIds.set(graphIds.get(graphId), graphId);
+        }
+        return new HugeIdMap(nodeCount, graphIds, nodeToGraphIds);
+    }
+
+    void writeTo(SnapshotWriter out) throws IOException {
+        out.writeLong(nextGraphId);
+        out.writeLong(nodeToGraphIds.capacity());
+        graphIds.writeTo(out);
+    }
+
     void add(long longValue) {
         long internalId = nextGraphId++;
         nodeToGraphIds.set(longValue, internalId);
@@ -63,6 +95,10 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
 
     @Override
     public long toHugeMappedNodeId(long nodeId) {
+        // nodes created after loading can have ids beyond the capacity
+        if (nodeId < 0L || nodeId >= nodeToGraphIds.capacity()) {
+            return NOT_FOUND;
+        }
         return nodeToGraphIds.get(nodeId);
     }
 
@@ -73,7 +109,7 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
 
     @Override
     public boolean contains(final long nodeId) {
-        return nodeToGraphIds.contains(nodeId);
+        return nodeId >= 0L && nodeId < nodeToGraphIds.capacity() && nodeToGraphIds.contains(nodeId);
     }
 
     @Override
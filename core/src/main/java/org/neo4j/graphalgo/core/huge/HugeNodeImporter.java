@@ -22,6 +22,7 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ArrayStorage;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
@@ -29,6 +30,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFoundException> {
     private final AllocationTracker tracker;
+    private final ArrayStorage storage;
     private final ImportProgress progress;
     private final long nodeCount;
     private final long allNodesCount;
@@ -37,12 +39,14 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
     public HugeNodeImporter(
             GraphDatabaseAPI api,
             AllocationTracker tracker,
+            ArrayStorage storage,
             ImportProgress progress,
             long nodeCount,
             long allNodesCount,
             int labelId) {
         super(api);
         this.tracker = tracker;
+        this.storage = storage;
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.allNodesCount = allNodesCount;
@@ -51,7 +55,7 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
 
     @Override
     public HugeIdMap apply(final Statement statement) throws EntityNotFoundException {
-        final HugeIdMap mapping = new HugeIdMap(nodeCount, allNodesCount, tracker);
+        final HugeIdMap mapping = new HugeIdMap(nodeCount, allNodesCount, storage, tracker);
         final ReadOperations readOp = statement.readOperations();
         final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
                 ? readOp.nodesGetAll()
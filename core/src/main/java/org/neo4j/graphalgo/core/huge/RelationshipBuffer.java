@@ -0,0 +1,196 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IntroSorter;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DeltaEncoding;
+
+import java.util.Arrays;
+
+/**
+ * Collects the targets (and optionally the weights) of one node,
+ * which are already mapped to graph ids, and writes them as a
+ * sorted, delta encoded adjacency into a {@link ByteArray}.
+ */
+class RelationshipBuffer {
+
+    private final boolean withWeights;
+    private final boolean sumWeights;
+
+    private long[] targets;
+    private double[] weights;
+    private int length;
+    private boolean isSorted;
+
+    long prevTarget;
+    long sourceGraphId;
+
+    /**
+     * @param sumWeights whether the weights of parallel relationships should be summed up,
+     *                   otherwise the weight of the first relationship is kept
+     */
+    RelationshipBuffer(final boolean withWeights, final boolean sumWeights) {
+        this.withWeights = withWeights;
+        this.sumWeights = withWeights && sumWeights;
+        this.targets = new long[0];
+        this.weights = new double[0];
+    }
+
+    void prepareNextNode(int degree, long sourceGraphId) {
+        this.sourceGraphId = sourceGraphId;
+        length = 0;
+        prevTarget = -1L;
+        isSorted = true;
+        if (targets.length < degree) {
+            targets = new long[ArrayUtil.oversize(degree, Long.BYTES)];
+            if (withWeights) {
+                weights = new double[targets.length];
+            }
+        }
+    }
+
+    /**
+     * Continues with the targets that have been added to the other buffer.
+     */
+    void prepareNextNode(RelationshipBuffer other) {
+        this.sourceGraphId = other.sourceGraphId;
+        length = other.length;
+        prevTarget = other.prevTarget;
+        isSorted = other.isSorted;
+        targets = other.targets;
+        weights = other.weights;
+    }
+
+    final void addTarget(final long targetId) {
+        if (isSorted && targetId < prevTarget) {
+            isSorted = false;
+        }
+        targets[length++] = targetId;
+        prevTarget = targetId;
+    }
+
+    final void addTarget(final long targetId, final double weight) {
+        if (withWeights) {
+            weights[length] = weight;
+        }
+        addTarget(targetId);
+    }
+
+    /**
+     * Sets the weight of the target that was added last.
+     */
+    final void setLastWeight(final double weight) {
+        weights[length - 1] = weight;
+    }
+
+    /**
+     * Writes the adjacency of the current node in the format
+     * {@code degree ~ weight_1 ~ ... ~ weight_n ~ target_1 ~ ... ~ target_n}
+     * where the weights are only present if this visitor loads weights.
+     */
+    final long flush(ByteArray.LocalAllocator allocator) {
+        long requiredSize = applyDelta();
+        int degree = length;
+        if (degree == 0) {
+            return 0L;
+        }
+        if (withWeights) {
+            requiredSize += (long) degree * Double.BYTES;
+        }
+
+        long adjacencyIdx = allocator.allocate(requiredSize);
+        ByteArray.BulkAdder bulkAdder = allocator.adder;
+        bulkAdder.addUnsignedInt(degree);
+        if (withWeights) {
+            double[] weights = this.weights;
+            for (int i = 0; i < degree; i++) {
+                bulkAdder.addDouble(weights[i]);
+            }
+        }
+        long[] targets = this.targets;
+        for (int i = 0; i < degree; i++) {
+            bulkAdder.addVLong(targets[i]);
+        }
+
+        return adjacencyIdx;
+    }
+
+    private long applyDelta() {
+        int length = this.length;
+        if (length == 0) {
+            return 0L;
+        }
+
+        long[] targets = this.targets;
+        double[] weights = this.weights;
+        if (!isSorted) {
+            if (withWeights) {
+                new WeightedTargetSorter(targets, weights).sort(0, length);
+            } else {
+                Arrays.sort(targets, 0, length);
+            }
+        }
+
+        long delta = targets[0];
+        int writePos = 1;
+        long requiredBytes = 4L + DeltaEncoding.vSize(delta);  // length as full-int
+
+        for (int i = 1; i < length; ++i) {
+            long nextDelta = targets[i];
+            long value = targets[writePos] = nextDelta - delta;
+            if (value > 0L) {
+                if (withWeights) {
+                    weights[writePos] = weights[i];
+                }
+                ++writePos;
+                requiredBytes += DeltaEncoding.vSize(value);
+                delta = nextDelta;
+            } else if (sumWeights) {
+                weights[writePos - 1] += weights[i];
+            }
+        }
+
+        this.length = writePos;
+        return requiredBytes;
+    }
+
+    /**
+     * Sorts the targets and moves the weights along with them.
+     */
+    private static final class WeightedTargetSorter extends IntroSorter {
+        private final long[] targets;
+        private final double[] weights;
+        private long pivot;
+
+        private WeightedTargetSorter(final long[] targets, final double[] weights) {
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        @Override
+        protected void setPivot(final int i) {
+            pivot = targets[i];
+        }
+
+        @Override
+        protected int comparePivot(final int j) {
+            return Long.compare(pivot, targets[j]);
+        }
+
+        @Override
+        protected int compare(final int i, final int j) {
+            return Long.compare(targets[i], targets[j]);
+        }
+
+        @Override
+        protected void swap(final int i, final int j) {
+            long target = targets[i];
+            targets[i] = targets[j];
+            targets[j] = target;
+            double weight = weights[i];
+            weights[i] = weights[j];
+            weights[j] = weight;
+        }
+    }
+}
+
@@ -57,6 +57,16 @@ public class AtomicDoubleArray {
         data.set(index, Double.doubleToLongBits(value));
     }
 
+    /**
+     * Sets the element at position i to the given value and returns the old value.
+     * @param index the index
+     * @param value the new value
+     * @return the previous value
+     */
+    public double getAndSet(int index, double value) {
+        return Double.longBitsToDouble(data.getAndSet(index, Double.doubleToLongBits(value)));
+    }
+
     /**
      * add argument to value at index. Behaves exactly like standard java double arithmetic.
      * @param index index
@@ -70,6 +80,23 @@ public class AtomicDoubleArray {
         } while (!data.compareAndSet(index, currentBits, newBits));
     }
 
+    /**
+     * set the value at index to the argument if it is smaller than the current value.
+     * @param index index
+     * @param value the new value
+     * @return true if the value has been stored, false if the current value is less or equal
+     */
+    public boolean setIfLess(int index, double value) {
+        long newBits = Double.doubleToLongBits(value), currentBits;
+        do {
+            currentBits = data.get(index);
+            if (value >= Double.longBitsToDouble(currentBits)) {
+                return false;
+            }
+        } while (!data.compareAndSet(index, currentBits, newBits));
+        return true;
+    }
+
     /**
      * return capacity
      * @return the capacity
@@ -18,13 +18,18 @@
  */
 package org.neo4j.graphalgo.core.utils;
 
+import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.graphalgo.api.BatchNodeIterable;
+import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.HugeBatchNodeIterable;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -39,15 +44,18 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.IntConsumer;
 import java.util.function.LongConsumer;
+import java.util.function.LongToIntFunction;
 import java.util.function.Supplier;
 
 public final class ParallelUtil {
@@ -826,6 +834,155 @@ public final class ParallelUtil {
     }
 
 
+    /**
+     * Splits the nodes {@code 0..nodeCount-1} into at most {@code batchCount}
+     * consecutive batches of about the same cost, where every node costs its degree plus one.
+     * A node with a very large degree ends up in a small batch of its own instead of
+     * slowing down all other nodes that would share an equally sized batch with it.
+     *
+     * @return the first node of every batch followed by {@code nodeCount}
+     */
+    public static long[] degreePartition(
+            long nodeCount,
+            int batchCount,
+            LongToIntFunction degree) {
+        return degreePartition(nodeCount, batchCount, 1L, degree);
+    }
+
+    /**
+     * Same as {@link #degreePartition(long, int, LongToIntFunction)} but every batch,
+     * except for the last one, costs at least {@code minBatchCost}, so that
+     * small graphs are not split into more batches than worth it.
+     */
+    public static long[] degreePartition(
+            long nodeCount,
+            int batchCount,
+            long minBatchCost,
+            LongToIntFunction degree) {
+        long totalCost = nodeCount;
+        for (long node = 0L; node < nodeCount; node++) {
+            totalCost += degree.applyAsInt(node);
+        }
+        long batchCost = Math.max(
+                Math.max(1L, minBatchCost),
+                threadSize(Math.max(1, batchCount), totalCost));
+        LongArrayList bounds = new LongArrayList(batchCount + 1);
+        bounds.add(0L);
+        long cost = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            cost += 1L + degree.applyAsInt(node);
+            if (cost >= batchCost && node + 1L < nodeCount) {
+                bounds.add(node + 1L);
+                cost = 0L;
+            }
+        }
+        bounds.add(nodeCount);
+        return bounds.toArray();
+    }
+
+    /**
+     * @see #degreePartition(long, int, LongToIntFunction)
+     */
+    public static long[] degreePartition(
+            HugeDegrees degrees,
+            long nodeCount,
+            Direction direction,
+            int batchCount) {
+        return degreePartition(nodeCount, batchCount, node -> degrees.degree(node, direction));
+    }
+
+    /**
+     * @see #degreePartition(long, int, long, LongToIntFunction)
+     */
+    public static int[] degreePartition(
+            Degrees degrees,
+            int nodeCount,
+            Direction direction,
+            int batchCount,
+            long minBatchCost) {
+        long[] bounds = degreePartition(
+                (long) nodeCount,
+                batchCount,
+                minBatchCost,
+                node -> degrees.degree((int) node, direction));
+        int[] intBounds = new int[bounds.length];
+        Arrays.setAll(intBounds, i -> (int) bounds[i]);
+        return intBounds;
+    }
+
+    /**
+     * Runs a new consumer for every batch of the given partition on the fork-join pool.
+     * Batches are split recursively, so that idle workers steal the remaining batches
+     * from busy ones. Consumers are created per batch and can hold
+     * state that is not thread-safe, e.g. a concurrent copy of the graph.
+     * <p>
+     * Runs all batches on the calling thread if there is no pool or only one batch.
+     *
+     * @param partition batch bounds as returned by {@link #degreePartition(long, int, LongToIntFunction)}
+     */
+    public static void iterateParallel(
+            ForkJoinPool pool,
+            long[] partition,
+            TerminationFlag terminationFlag,
+            Supplier<? extends BatchConsumer> newConsumer) {
+        int batches = partition.length - 1;
+        if (batches <= 0) {
+            return;
+        }
+        if (batches == 1 || pool == null || pool.isShutdown()) {
+            BatchConsumer consumer = newConsumer.get();
+            for (int i = 0; i < batches && terminationFlag.running(); i++) {
+                consumer.accept(partition[i], partition[i + 1]);
+            }
+            return;
+        }
+        pool.invoke(new BatchTask(partition, 0, batches, terminationFlag, newConsumer));
+    }
+
+    /**
+     * Consumes a batch of node ids from {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        void accept(long start, long end);
+    }
+
+    private static final class BatchTask extends RecursiveAction {
+        private final long[] partition;
+        private final int from;
+        private final int to;
+        private final TerminationFlag terminationFlag;
+        private final Supplier<? extends BatchConsumer> newConsumer;
+
+        private BatchTask(
+                long[] partition,
+                int from,
+                int to,
+                TerminationFlag terminationFlag,
+                Supplier<? extends BatchConsumer> newConsumer) {
+            this.partition = partition;
+            this.from = from;
+            this.to = to;
+            this.terminationFlag = terminationFlag;
+            this.newConsumer = newConsumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (!terminationFlag.running()) {
+                return;
+            }
+            if (to - from == 1) {
+                newConsumer.get().accept(partition[from], partition[to]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new BatchTask(partition, from, mid, terminationFlag, newConsumer),
+                    new BatchTask(partition, mid, to, terminationFlag, newConsumer));
+        }
+    }
+
     /**
      * Copied from {@link java.util.concurrent.ExecutorCompletionService}
      * and adapted to reduce indirection.
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import java.util.Arrays;
+
+/**
+ * reusable accumulator for weighted label votes of a single node.
+ * <p>
+ * Nodes with a small degree collect their votes in two short arrays which
+ * are sorted by label once all votes are in. Larger nodes use an open
+ * addressing table whose slots are tagged with the generation they were
+ * written in, so that starting the next node only increments the generation
+ * instead of clearing the table. The table only grows, it is sized for the
+ * largest degree seen so far.
+ * <p>
+ * Not thread-safe, every thread should use its own instance.
+ */
+public final class LabelVotes {
+
+    /**
+     * maximum number of votes that are collected in the sorted arrays
+     */
+    public static final int SMALL_DEGREE = 32;
+
+    private final long[] smallLabels = new long[SMALL_DEGREE];
+    private final double[] smallWeights = new double[SMALL_DEGREE];
+    private int smallSize;
+    private boolean small;
+
+    private long[] keys;
+    private double[] values;
+    private int[] generations;
+    private int[] usedSlots;
+    private int usedSize;
+    private int mask;
+    private int generation;
+
+    public LabelVotes() {
+        allocate(2 * SMALL_DEGREE);
+    }
+
+    /**
+     * forget all votes and prepare for the next node
+     *
+     * @param degree number of votes the next node is going to receive,
+     *               used to choose between the small path and the table
+     */
+    public void reset(int degree) {
+        smallSize = 0;
+        small = degree <= SMALL_DEGREE;
+        if (!small) {
+            nextGeneration();
+            ensureCapacity(degree);
+        }
+    }
+
+    /**
+     * add the weight to the votes of the given label
+     */
+    public void add(long label, double weight) {
+        if (small) {
+            if (smallSize < SMALL_DEGREE) {
+                smallLabels[smallSize] = label;
+                smallWeights[smallSize] = weight;
+                ++smallSize;
+                return;
+            }
+            spill();
+        }
+        addToTable(label, weight);
+    }
+
+    /**
+     * return the label with the highest sum of weights, or the fallback
+     * if no votes have been added. Ties are resolved towards the smaller label.
+     */
+    public long best(long fallback) {
+        return small ? bestOfSmall(fallback) : bestOfTable(fallback);
+    }
+
+    /**
+     * drop the backing arrays so that they can be garbage collected,
+     * the instance can not be used afterwards
+     */
+    public void release() {
+        keys = null;
+        values = null;
+        generations = null;
+        usedSlots = null;
+    }
+
+    private long bestOfSmall(long fallback) {
+        final int size = smallSize;
+        if (size == 0) {
+            return fallback;
+        }
+        final long[] labels = smallLabels;
+        final double[] weights = smallWeights;
+        // insertion sort by label, the arrays are tiny
+        for (int i = 1; i < size; i++) {
+            final long label = labels[i];
+            final double weight = weights[i];
+            int j = i - 1;
+            while (j >= 0 && labels[j] > label) {
+                labels[j + 1] = labels[j];
+                weights[j + 1] = weights[j];
+                --j;
+            }
+            labels[j + 1] = label;
+            weights[j + 1] = weight;
+        }
+        long bestLabel = fallback;
+        double bestWeight = Double.NEGATIVE_INFINITY;
+        int i = 0;
+        while (i < size) {
+            final long label = labels[i];
+            double sum = weights[i];
+            while (++i < size && labels[i] == label) {
+                sum += weights[i];
+            }
+            if (sum > bestWeight) {
+                bestWeight = sum;
+                bestLabel = label;
+            }
+        }
+        return bestLabel;
+    }
+
+    private long bestOfTable(long fallback) {
+        long bestLabel = fallback;
+        double bestWeight = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < usedSize; i++) {
+            final int slot = usedSlots[i];
+            final double weight = values[slot];
+            final long label = keys[slot];
+            if (weight > bestWeight || (weight == bestWeight && label < bestLabel)) {
+                bestWeight = weight;
+                bestLabel = label;
+            }
+        }
+        return bestLabel;
+    }
+
+    private void spill() {
+        small = false;
+        nextGeneration();
+        ensureCapacity(2 * SMALL_DEGREE);
+        for (int i = 0; i < smallSize; i++) {
+            addToTable(smallLabels[i], smallWeights[i]);
+        }
+        smallSize = 0;
+    }
+
+    private void addToTable(long label, double weight) {
+        if (usedSize >= (usedSlots.length >>> 1)) {
+            grow(usedSlots.length << 1);
+        }
+        int slot = (int) BitMixer.mix64(label) & mask;
+        while (generations[slot] == generation) {
+            if (keys[slot] == label) {
+                values[slot] += weight;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        generations[slot] = generation;
+        keys[slot] = label;
+        values[slot] = weight;
+        usedSlots[usedSize++] = slot;
+    }
+
+    private void nextGeneration() {
+        usedSize = 0;
+        if (++generation == 0) {
+            // wrapped around, old stamps could collide with the new generation
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    private void ensureCapacity(int degree) {
+        // keep the load factor at 0.5 at most
+        if (degree > (usedSlots.length >>> 1)) {
+            grow(degree << 1);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        final int capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        final long[] oldKeys = keys;
+        final double[] oldValues = values;
+        final int[] oldSlots = usedSlots;
+        final int oldSize = usedSize;
+        allocate(capacity);
+        for (int i = 0; i < oldSize; i++) {
+            final int oldSlot = oldSlots[i];
+            addToTable(oldKeys[oldSlot], oldValues[oldSlot]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        generations = new int[capacity];
+        usedSlots = new int[capacity];
+        usedSize = 0;
+        mask = capacity - 1;
+        generation = 1;
+    }
+}
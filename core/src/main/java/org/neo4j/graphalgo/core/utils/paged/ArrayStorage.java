@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.Locale;
+
+/**
+ * Where the pages of a huge array are placed.
+ * <p>
+ * <ul>
+ * <li>{@link #HEAP} – regular {@code long[]} or {@code byte[]} pages, managed by the garbage collector.</li>
+ * <li>{@link #OFFHEAP} – direct buffers outside of the Java heap. These are limited by {@code -XX:MaxDirectMemorySize},
+ * which defaults to the maximum heap size, so this moves the data out of the scope of the garbage collector
+ * but does not allow for more data than the heap could hold unless the limit is raised.</li>
+ * <li>{@link #MMAP} – buffers that are sliced out of large regions of an unlinked temporary file, so that the OS
+ * can page them out. These are limited by the available disk space and the address space of the process.
+ * Every region of up to 1 GiB is one mapping, which counts against the limit of the OS
+ * ({@code vm.max_map_count} on Linux).</li>
+ * </ul>
+ * Off-heap pages are never freed explicitly. Released arrays only drop them, the garbage collector
+ * frees or unmaps the buffers once no cursor reads from them anymore.
+ * The memory is reported to the {@link AllocationTracker} for all storage types.
+ */
+public enum ArrayStorage {
+    HEAP,
+    OFFHEAP,
+    MMAP;
+
+    /**
+     * @throws IllegalArgumentException if the name does not match any storage type (case insensitive)
+     */
+    public static ArrayStorage parse(String name) {
+        if (name == null) {
+            return HEAP;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Unknown storage '%s', expected one of 'heap', 'offheap' or 'mmap'",
+                    name));
+        }
+    }
+}
@@ -18,15 +18,32 @@
  */
 package org.neo4j.graphalgo.core.utils.paged;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfByteArray;
 
-
+/**
+ * Paged byte storage for the delta-encoded adjacency lists of the huge graph.
+ * <p>
+ * The data is always written into {@code byte[]} pages. With {@link ArrayStorage#OFFHEAP} or
+ * {@link ArrayStorage#MMAP}, every page is copied into a buffer outside of the Java heap as soon as
+ * its writer moved on to the next page, so that only the pages that are currently written to stay on heap.
+ * {@link #finish()} moves the remaining pages once all writers are done, afterwards
+ * the array is read through buffer-backed cursors.
+ */
 public final class ByteArray extends PagedDataStructure<byte[]> {
 
     private final AtomicLong allocIdx = new PaddedAtomicLong();
     private final AllocationTracker tracker;
+    private final ArrayStorage storage;
+
+    // pages that have been moved out of the heap, null for heap storage
+    private ByteBuffer[] offHeapPages;
+    private OffHeapMemory.MappedFile mappedFile;
 
     private static final PageAllocator.Factory<byte[]> ALLOCATOR_FACTORY =
             PageAllocator.ofArray(byte[].class, 1 << 18);
@@ -37,18 +54,57 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
     }
 
     public static ByteArray newArray(long size, AllocationTracker tracker) {
-        return new ByteArray(size, ALLOCATOR_FACTORY.newAllocator(tracker), tracker);
+        return newArray(size, ArrayStorage.HEAP, tracker);
+    }
+
+    /**
+     * Creates a new array whose pages are moved to the given {@link ArrayStorage} once they are written.
+     * {@link #finish()} has to be called after all data has been written.
+     */
+    public static ByteArray newArray(long size, ArrayStorage storage, AllocationTracker tracker) {
+        return new ByteArray(size, ALLOCATOR_FACTORY.newAllocator(tracker), storage, tracker);
     }
 
-    private ByteArray(long size, PageAllocator<byte[]> allocator, AllocationTracker tracker) {
+    /**
+     * Reads an array that has been written with {@link #writeTo(SnapshotWriter)}.
+     */
+    public static ByteArray readFrom(SnapshotReader in, AllocationTracker tracker) throws IOException {
+        int numPages = in.readInt();
+        byte[][] pages = new byte[numPages][];
+        for (int i = 0; i < numPages; i++) {
+            byte[] page = new byte[in.readInt()];
+            in.readBytes(page);
+            tracker.add(sizeOfByteArray(page.length));
+            pages[i] = page;
+        }
+        PageAllocator<byte[]> allocator = ALLOCATOR_FACTORY.newAllocator(tracker);
+        long size = PageUtil.capacityFor(numPages, Integer.numberOfTrailingZeros(allocator.pageSize()));
+        return new ByteArray(size, pages, allocator, tracker);
+    }
+
+    private ByteArray(long size, PageAllocator<byte[]> allocator, ArrayStorage storage, AllocationTracker tracker) {
         super(size, allocator);
         this.tracker = tracker;
+        this.storage = storage;
+        if (storage != ArrayStorage.HEAP) {
+            offHeapPages = new ByteBuffer[0];
+        }
+    }
+
+    private ByteArray(long size, byte[][] pages, PageAllocator<byte[]> allocator, AllocationTracker tracker) {
+        super(size, pages, allocator);
+        this.tracker = tracker;
+        this.storage = ArrayStorage.HEAP;
+        this.allocIdx.set(size);
     }
 
     public int getInt(long index) {
         assert index < capacity();
         final int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
+        if (offHeapPages != null) {
+            return offHeapPages[pageIndex].getInt(indexInPage);
+        }
         return getInt(pages[pageIndex], indexInPage);
     }
 
@@ -74,7 +130,72 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
      * {@inheritDoc}
      */
     public DeltaCursor newCursor() {
-        return new DeltaCursor(pages, pageShift, pageMask);
+        return newCursor(false);
+    }
+
+    /**
+     * Creates a new cursor. If {@code withWeights} is {@code true}, the cursor expects
+     * {@code degree} weights to be stored between the degree and the first target id
+     * and skips over them when decoding targets.
+     */
+    public DeltaCursor newCursor(boolean withWeights) {
+        if (offHeapPages != null) {
+            return new BufferDeltaCursor(offHeapPages, pageShift, pageMask, withWeights);
+        }
+        return new HeapDeltaCursor(pages, pageShift, pageMask, withWeights);
+    }
+
+    /**
+     * Moves all pages that are still on heap to the configured storage.
+     * Must be called once after all {@link LocalAllocator}s are done writing and before any cursor is created.
+     * This is a no-op for {@link ArrayStorage#HEAP}.
+     */
+    public synchronized void finish() {
+        if (storage == ArrayStorage.HEAP) {
+            return;
+        }
+        int numPages = pages.length;
+        for (int i = 0; i < numPages; i++) {
+            moveOffHeap(i);
+        }
+        if (offHeapPages.length != numPages) {
+            offHeapPages = Arrays.copyOf(offHeapPages, numPages);
+        }
+        if (mappedFile != null) {
+            mappedFile.close();
+            mappedFile = null;
+        }
+    }
+
+    /**
+     * Copies a page that will not be written to anymore into a buffer and drops the heap page.
+     */
+    private synchronized void moveOffHeap(int pageIndex) {
+        byte[] page = releasePage(pageIndex);
+        if (page == null) {
+            return;
+        }
+        ByteBuffer buffer;
+        if (storage == ArrayStorage.MMAP) {
+            if (mappedFile == null) {
+                mappedFile = new OffHeapMemory.MappedFile(".bytes");
+            }
+            buffer = mappedFile.map(page.length);
+        } else {
+            buffer = OffHeapMemory.allocateDirect(page.length);
+        }
+        // the page has been encoded in big endian order
+        buffer.order(ByteOrder.BIG_ENDIAN).put(page).clear();
+        if (pageIndex >= offHeapPages.length) {
+            offHeapPages = Arrays.copyOf(offHeapPages, Math.max(pageIndex + 1, offHeapPages.length << 1));
+        }
+        offHeapPages[pageIndex] = buffer;
+    }
+
+    private void pageWritten(int pageIndex) {
+        if (storage != ArrayStorage.HEAP) {
+            moveOffHeap(pageIndex);
+        }
     }
 
     private long allocate(int numberOfPages, BulkAdder into) {
@@ -100,10 +221,43 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         pages[pageIndex] = newPage;
     }
 
+    /**
+     * Off-heap pages are only dropped, cursors that are still in use keep reading from them
+     * and the buffers are reclaimed by the garbage collector, see {@link OffHeapMemory}.
+     */
     public final long release() {
+        offHeapPages = null;
         return super.release();
     }
 
+    /**
+     * Writes all pages of this array, including oversized pages, so that
+     * all offsets into this array remain valid after reading it back
+     * with {@link #readFrom(SnapshotReader, AllocationTracker)}.
+     * Off-heap pages are read back into heap pages.
+     */
+    public void writeTo(SnapshotWriter out) throws IOException {
+        if (offHeapPages != null) {
+            ByteBuffer[] pages = this.offHeapPages;
+            out.writeInt(pages.length);
+            for (ByteBuffer page : pages) {
+                byte[] bytes = new byte[page == null ? 0 : page.capacity()];
+                if (page != null) {
+                    page.duplicate().get(bytes);
+                }
+                out.writeInt(bytes.length);
+                out.writeBytes(bytes);
+            }
+            return;
+        }
+        byte[][] pages = this.pages;
+        out.writeInt(pages.length);
+        for (byte[] page : pages) {
+            out.writeInt(page.length);
+            out.writeBytes(page);
+        }
+    }
+
     public DeltaCursor deltaCursor(DeltaCursor reuse, long offset) {
         return reuse.init(offset);
     }
@@ -142,6 +296,10 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
             offset = DeltaEncoding.encodeVLong(i, array, offset);
         }
 
+        public void addDouble(double d) {
+            offset = DeltaEncoding.encodeLong(Double.doubleToRawLongBits(d), array, offset);
+        }
+
         void grow(byte[][] pages) {
             this.pages = pages;
         }
@@ -191,6 +349,8 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         public final BulkAdder adder;
 
         private long top;
+        // an oversized page that has been handed out last, -1 if there is none
+        private int oversizedPage = -1;
 
         private LocalAllocator(final ByteArray array) {
             this.array = array;
@@ -219,6 +379,11 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         }
 
         private long majorAllocate(long size, long maxOffset, long address) {
+            if (oversizedPage != -1) {
+                // oversized pages hold exactly one adjacency list, which has been written by now
+                array.pageWritten(oversizedPage);
+                oversizedPage = -1;
+            }
             if (maxOffset < 0L) {
                 return oversizingAllocate(size);
             }
@@ -227,7 +392,10 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
                 return address;
             }
             address = top += (adder.limit - adder.offset);
-            if (adder.next()) {
+            int writtenPage = adder.currentPage;
+            boolean hasNext = adder.next();
+            array.pageWritten(writtenPage);
+            if (hasNext) {
                 // TODO: store and reuse fragments
                 // branch: huge-alloc-fragmentation-recycle
                 top += size;
@@ -252,38 +420,45 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
                 throw new IllegalArgumentException("requested page of size " + size + " is too large to be allocated");
             }
             byte[] largePage = new byte[(int) size];
-            return array.allocate(largePage, adder);
+            long address = array.allocate(largePage, adder);
+            oversizedPage = array.pageIndex(address);
+            return address;
         }
     }
 
-    public static final class DeltaCursor {
+    /**
+     * Decodes the adjacency list of a single node, see {@link #deltaCursor(DeltaCursor, long)}.
+     */
+    public static abstract class DeltaCursor {
 
-        private byte[][] pages;
-        private final int pageShift;
-        private final int pageMask;
+        final int pageShift;
+        final int pageMask;
+        final boolean withWeights;
 
-        private byte[] array;
-        private int offset;
+        int offset;
+        int weightsOffset;
 
-        private int currentTarget;
-        private int maxTargets;
-        private long delta;
+        int currentTarget;
+        int maxTargets;
+        long delta;
 
         private DeltaCursor(
-                byte[][] pages,
                 int pageShift,
-                int pageMask) {
-            this.pages = pages;
+                int pageMask,
+                boolean withWeights) {
             this.pageShift = pageShift;
             this.pageMask = pageMask;
+            this.withWeights = withWeights;
         }
 
         /**
          * Copy iteration state from another cursor without changing {@code other}.
          */
-        public void copyFrom(DeltaCursor other) {
-            array = other.array;
+        public abstract void copyFrom(DeltaCursor other);
+
+        void copyStateFrom(DeltaCursor other) {
             offset = other.offset;
+            weightsOffset = other.weightsOffset;
             currentTarget = other.currentTarget;
             maxTargets = other.maxTargets;
             delta = other.delta;
@@ -292,21 +467,21 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         /**
          * Return how many targets can be decoded in total. This is equivalent to the degree.
          */
-        public int cost() {
+        public final int cost() {
             return maxTargets;
         }
 
         /**
          * Return how many targets are still left to be decoded.
          */
-        public int remaining() {
+        public final int remaining() {
             return maxTargets - currentTarget;
         }
 
         /**
          * Return true iff there is at least one more target to decode.
          */
-        public boolean hasNextVLong() {
+        public final boolean hasNextVLong() {
             return currentTarget < maxTargets;
         }
 
@@ -314,10 +489,14 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
          * Read and decode the next target id.
          * It is undefined behavior if this is called after {@link #hasNextVLong()} returns {@code false}.
          */
-        public long nextVLong() {
-            ++currentTarget;
-            return nextVLong(array, offset);
-        }
+        public abstract long nextVLong();
+
+        /**
+         * Return the weight of the target that was decoded last.
+         * It is undefined behavior if this is called on a cursor that was not created with weights,
+         * before any target was decoded, or after the cursor did exhaust.
+         */
+        public abstract double weight();
 
         /**
          * Read and decode target ids until it is strictly larger than (`>`) the provided {@code target}.
@@ -326,9 +505,7 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
          * {@code skipUntil(target) <= target} can be used to distinguish the no-more-ids case and afterwards {@link #hasNextVLong()}
          * will return {@code false}
          */
-        public long skipUntil(long target) {
-            return skipUntil(target, array, offset);
-        }
+        public abstract long skipUntil(long target);
 
         /**
          * Read and decode target ids until it is larger than or equal (`>=`) the provided {@code target}.
@@ -337,10 +514,54 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
          * {@code advance(target) < target} can be used to distinguish the no-more-ids case and afterwards {@link #hasNextVLong()}
          * will return {@code false}
          */
+        public abstract long advance(long target);
+
+        abstract DeltaCursor init(long fromIndex);
+    }
+
+    private static final class HeapDeltaCursor extends DeltaCursor {
+
+        private byte[][] pages;
+        private byte[] array;
+
+        private HeapDeltaCursor(
+                byte[][] pages,
+                int pageShift,
+                int pageMask,
+                boolean withWeights) {
+            super(pageShift, pageMask, withWeights);
+            this.pages = pages;
+        }
+
+        @Override
+        public void copyFrom(DeltaCursor other) {
+            array = ((HeapDeltaCursor) other).array;
+            copyStateFrom(other);
+        }
+
+        @Override
+        public long nextVLong() {
+            ++currentTarget;
+            return nextVLong(array, offset);
+        }
+
+        @Override
+        public double weight() {
+            int offset = weightsOffset + ((currentTarget - 1) << 3);
+            return Double.longBitsToDouble(getLong(array, offset));
+        }
+
+        @Override
+        public long skipUntil(long target) {
+            return skipUntil(target, array, offset);
+        }
+
+        @Override
         public long advance(long target) {
             return advance(target, array, offset);
         }
 
+        @Override
         DeltaCursor init(long fromIndex) {
             initPage(fromIndex);
 
@@ -362,9 +583,24 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
                     ((array[offset++] & 0xFF) << 16) |
                     ((array[offset++] & 0xFF) << 8) |
                     (array[offset++] & 0xFF);
+            if (withWeights) {
+                weightsOffset = offset;
+                offset += maxTargets << 3;
+            }
             this.offset = offset;
         }
 
+        private long getLong(byte[] array, int offset) {
+            return ((array[offset] & 0xFFL) << 56) |
+                    ((array[offset + 1] & 0xFFL) << 48) |
+                    ((array[offset + 2] & 0xFFL) << 40) |
+                    ((array[offset + 3] & 0xFFL) << 32) |
+                    ((array[offset + 4] & 0xFFL) << 24) |
+                    ((array[offset + 5] & 0xFFL) << 16) |
+                    ((array[offset + 6] & 0xFFL) << 8) |
+                    (array[offset + 7] & 0xFFL);
+        }
+
         private long nextVLong(byte[] page, int offset) {
             byte b = page[offset++];
             long i = (long) ((int) b & 0x7F);
@@ -414,4 +650,118 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
             return value;
         }
     }
+
+    /**
+     * Decodes adjacency lists from pages that have been moved out of the heap.
+     * Mirrors {@link HeapDeltaCursor}, which is kept separate so that heap graphs keep their decoding loop.
+     */
+    private static final class BufferDeltaCursor extends DeltaCursor {
+
+        private ByteBuffer[] pages;
+        private ByteBuffer page;
+
+        private BufferDeltaCursor(
+                ByteBuffer[] pages,
+                int pageShift,
+                int pageMask,
+                boolean withWeights) {
+            super(pageShift, pageMask, withWeights);
+            this.pages = pages;
+        }
+
+        @Override
+        public void copyFrom(DeltaCursor other) {
+            page = ((BufferDeltaCursor) other).page;
+            copyStateFrom(other);
+        }
+
+        @Override
+        public long nextVLong() {
+            ++currentTarget;
+            return nextVLong(page, offset);
+        }
+
+        @Override
+        public double weight() {
+            int offset = weightsOffset + ((currentTarget - 1) << 3);
+            return Double.longBitsToDouble(page.getLong(offset));
+        }
+
+        @Override
+        public long skipUntil(long target) {
+            return skipUntil(target, page, offset);
+        }
+
+        @Override
+        public long advance(long target) {
+            return advance(target, page, offset);
+        }
+
+        @Override
+        DeltaCursor init(long fromIndex) {
+            page = pages[PageUtil.pageIndex(fromIndex, pageShift)];
+            int offset = PageUtil.indexInPage(fromIndex, pageMask);
+
+            currentTarget = 0;
+            delta = 0L;
+            maxTargets = page.getInt(offset);
+            offset += Integer.BYTES;
+            if (withWeights) {
+                weightsOffset = offset;
+                offset += maxTargets << 3;
+            }
+            this.offset = offset;
+
+            return this;
+        }
+
+        private long nextVLong(ByteBuffer page, int offset) {
+            byte b = page.get(offset++);
+            long i = (long) ((int) b & 0x7F);
+            for (int shift = 7; ((int) b & 0x80) != 0; shift += 7) {
+                b = page.get(offset++);
+                i |= ((long) b & 0x7FL) << shift;
+            }
+            this.offset = offset;
+            return delta += i;
+        }
+
+        private long skipUntil(long target, ByteBuffer page, int offset) {
+            long value = delta;
+            int current = currentTarget;
+            int limit = maxTargets;
+            while (value <= target && current++ < limit) {
+                byte b = page.get(offset++);
+                long i = (long) ((int) b & 0x7F);
+                for (int shift = 7; ((int) b & 0x80) != 0; shift += 7) {
+                    b = page.get(offset++);
+                    i |= ((long) b & 0x7FL) << shift;
+                }
+                value += i;
+            }
+            this.currentTarget = current;
+            this.offset = offset;
+            this.delta = value;
+            return value;
+        }
+
+        private long advance(long target, ByteBuffer page, int offset) {
+            long value = delta;
+            int current = currentTarget;
+            int limit = maxTargets;
+            while (value < target && current++ < limit) {
+                byte b = page.get(offset++);
+                long i = (long) ((int) b & 0x7F);
+                for (int shift = 7; ((int) b & 0x80) != 0; shift += 7) {
+                    b = page.get(offset++);
+                    i |= ((long) b & 0x7FL) << shift;
+                }
+                value += i;
+            }
+            this.currentTarget = current;
+            this.offset = offset;
+            this.delta = value;
+            return value;
+        }
+    }
 }
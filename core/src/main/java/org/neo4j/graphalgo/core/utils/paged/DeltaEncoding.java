@@ -25,6 +25,18 @@ public final class DeltaEncoding {
         return offset;
     }
 
+    public static int encodeLong(long value, byte[] array, int offset) {
+        array[offset++] = (byte) (value >>> 56);
+        array[offset++] = (byte) (value >>> 48);
+        array[offset++] = (byte) (value >>> 40);
+        array[offset++] = (byte) (value >>> 32);
+        array[offset++] = (byte) (value >>> 24);
+        array[offset++] = (byte) (value >>> 16);
+        array[offset++] = (byte) (value >>> 8);
+        array[offset++] = (byte) (value);
+        return offset;
+    }
+
     public static int encodeVLong(long value, byte[] array, int offset) {
         long i = value;
         while ((i & ~0x7FL) != 0L) {
@@ -2,6 +2,9 @@ package org.neo4j.graphalgo.core.utils.paged;
 
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
 import java.util.Arrays;
 import java.util.function.IntToLongFunction;
 import java.util.function.LongUnaryOperator;
@@ -11,6 +14,7 @@ import java.util.function.LongUnaryOperator;
  * <p>
  * It is implemented by paging of smaller long-arrays ({@code long[][]}) to support approx. 32k bn. elements.
  * If the the provided size is small enough, an optimized view of a single {@code long[]} might be used.
+ * Alternatively, the pages can be placed outside of the Java heap, see {@link ArrayStorage}.
  * <p>
  * <ul>
  * <li>The array is of a fixed size and cannot grow or shrink dynamically.</li>
@@ -115,6 +119,22 @@ public abstract class HugeLongArray {
      */
     abstract public long release();
 
+    /**
+     * Writes the size and all values of this array, so that it can be read back
+     * with {@link #readFrom(SnapshotReader, AllocationTracker)}.
+     */
+    public final void writeTo(SnapshotWriter out) throws IOException {
+        long size = size();
+        out.writeLong(size);
+        if (size > 0L) {
+            try (Cursor cursor = cursor(newCursor())) {
+                while (cursor.next()) {
+                    out.writeLongs(cursor.array, cursor.offset, cursor.limit - cursor.offset);
+                }
+            }
+        }
+    }
+
     /**
      * Returns a new {@link Cursor} for this array. The cursor is not positioned and in an invalid state.
      * You must call {@link Cursor#next()} first to position the cursor to a valid state.
@@ -150,11 +170,50 @@ public abstract class HugeLongArray {
         return PagedHugeLongArray.of(size, tracker);
     }
 
+    /**
+     * Creates a new array if the given size whose pages are placed according to the given {@link ArrayStorage},
+     * tracking the memory requirements into the given {@link AllocationTracker}.
+     * The off-heap variants are slower to access than heap arrays, but they do not add to the Java heap
+     * and do not need to be scanned by the garbage collector.
+     */
+    public static HugeLongArray newArray(long size, ArrayStorage storage, AllocationTracker tracker) {
+        switch (storage) {
+            case OFFHEAP:
+                return OffHeapHugeLongArray.of(size, false, tracker);
+            case MMAP:
+                return OffHeapHugeLongArray.of(size, true, tracker);
+            default:
+                return newArray(size, tracker);
+        }
+    }
+
+    /**
+     * Reads an array that has been written with {@link #writeTo(SnapshotWriter)}, tracking the memory
+     * requirements into the given {@link AllocationTracker}.
+     */
+    public static HugeLongArray readFrom(SnapshotReader in, AllocationTracker tracker) throws IOException {
+        long size = in.readLong();
+        HugeLongArray array = newArray(size, tracker);
+        if (size > 0L) {
+            try (Cursor cursor = array.cursor(array.newCursor())) {
+                while (cursor.next()) {
+                    in.readLongs(cursor.array, cursor.offset, cursor.limit - cursor.offset);
+                }
+            }
+        }
+        return array;
+    }
+
     /* test-only */
     static HugeLongArray newPagedArray(long size, AllocationTracker tracker) {
         return PagedHugeLongArray.of(size, tracker);
     }
 
+    /* test-only */
+    static HugeLongArray newOffHeapArray(long size, boolean mapped, AllocationTracker tracker) {
+        return OffHeapHugeLongArray.of(size, mapped, tracker);
+    }
+
     /* test-only */
     static HugeLongArray newSingleArray(int size, AllocationTracker tracker) {
         return SingleHugeLongArray.of(size, tracker);
@@ -167,6 +226,9 @@ public abstract class HugeLongArray {
      * <p>
      * The {@code limit} parameter does not have the same meaning as the {@code length} parameter that is used in many methods that can operate on array slices.
      * The proper value would be {@code int length = limit - offset}.
+     * <p>
+     * Arrays that are stored off-heap (see {@link ArrayStorage}) expose copies of their data,
+     * writing into those slices does not change the array.
      */
     public static abstract class Cursor implements AutoCloseable {
 
@@ -199,6 +261,20 @@ public abstract class HugeLongArray {
         abstract public void close();
     }
 
+    /**
+     * Copies the first {@code length} values and clears the remainder of {@code dest},
+     * used when the source and target are backed by different storage types.
+     */
+    private static void copyElementwise(HugeLongArray src, HugeLongArray dest, long length) {
+        for (long i = 0L; i < length; i++) {
+            dest.set(i, src.get(i));
+        }
+        long destSize = dest.size();
+        for (long i = length; i < destSize; i++) {
+            dest.set(i, 0L);
+        }
+    }
+
     /**
      * A {@link PropertyTranslator} for instances of {@link HugeLongArray}s.
      */
@@ -305,6 +381,8 @@ public abstract class HugeLongArray {
                         remaining -= toCopy;
                     }
                 }
+            } else {
+                copyElementwise(this, dest, length);
             }
         }
 
@@ -497,6 +575,8 @@ public abstract class HugeLongArray {
                 for (int i = pageLen; i < dst.pages.length; i++) {
                     Arrays.fill(dst.pages[i], 0L);
                 }
+            } else {
+                copyElementwise(this, dest, length);
             }
         }
 
@@ -585,4 +665,219 @@ public abstract class HugeLongArray {
             }
         }
     }
+
+    /**
+     * Pages are stored outside of the Java heap, either in direct buffers or in buffers that are mapped
+     * from a temporary file. The file is unlinked right after mapping, so its storage is reclaimed by the OS
+     * once the buffers are unmapped by the garbage collector after {@link #release()}.
+     * Direct buffers count against {@code -XX:MaxDirectMemorySize}, see {@link OffHeapMemory}.
+     * Cursors copy the values into a heap buffer, the slices they expose are read-only snapshots.
+     */
+    private static final class OffHeapHugeLongArray extends HugeLongArray {
+
+        private static final int PAGE_SHIFT = 20;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final long PAGE_MASK = (long) (PAGE_SIZE - 1);
+        private static final int CURSOR_SIZE = 1 << 14;
+
+        private static HugeLongArray of(long size, boolean mapped, AllocationTracker tracker) {
+            int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, (int) PAGE_MASK);
+            long memoryUsed = size << 3;
+            ByteBuffer[] buffers = new ByteBuffer[numPages];
+            if (mapped) {
+                try (OffHeapMemory.MappedFile file = new OffHeapMemory.MappedFile(".longs")) {
+                    for (int i = 0; i < numPages; i++) {
+                        buffers[i] = file.map(pageLength(i, size) << 3);
+                    }
+                }
+            } else {
+                OffHeapMemory.checkDirectMemory(memoryUsed);
+                for (int i = 0; i < numPages; i++) {
+                    buffers[i] = OffHeapMemory.allocateDirect(pageLength(i, size) << 3);
+                }
+            }
+            LongBuffer[] pages = new LongBuffer[numPages];
+            for (int i = 0; i < numPages; i++) {
+                pages[i] = buffers[i].asLongBuffer();
+            }
+
+            tracker.add(MemoryUsage.shallowSizeOfInstance(HugeLongArray.class));
+            tracker.add(MemoryUsage.sizeOfObjectArray(numPages));
+            tracker.add(memoryUsed);
+
+            return new OffHeapHugeLongArray(size, pages, memoryUsed);
+        }
+
+        private static int pageLength(int page, long size) {
+            return (int) Math.min(PAGE_SIZE, size - (((long) page) << PAGE_SHIFT));
+        }
+
+        private final long size;
+        // views on the buffers, they keep the underlying memory reachable
+        private LongBuffer[] pages;
+        private final long memoryUsed;
+
+        private OffHeapHugeLongArray(long size, LongBuffer[] pages, long memoryUsed) {
+            this.size = size;
+            this.pages = pages;
+            this.memoryUsed = memoryUsed;
+        }
+
+        @Override
+        public long get(long index) {
+            assert index < size;
+            return pages[pageIndex(index)].get(indexInPage(index));
+        }
+
+        @Override
+        public void set(long index, long value) {
+            assert index < size;
+            pages[pageIndex(index)].put(indexInPage(index), value);
+        }
+
+        @Override
+        public void or(long index, final long value) {
+            assert index < size;
+            final LongBuffer page = pages[pageIndex(index)];
+            final int indexInPage = indexInPage(index);
+            page.put(indexInPage, page.get(indexInPage) | value);
+        }
+
+        @Override
+        public long and(long index, final long value) {
+            assert index < size;
+            final LongBuffer page = pages[pageIndex(index)];
+            final int indexInPage = indexInPage(index);
+            final long result = page.get(indexInPage) & value;
+            page.put(indexInPage, result);
+            return result;
+        }
+
+        @Override
+        public void addTo(long index, long value) {
+            assert index < size;
+            final LongBuffer page = pages[pageIndex(index)];
+            final int indexInPage = indexInPage(index);
+            page.put(indexInPage, page.get(indexInPage) + value);
+        }
+
+        @Override
+        public void setAll(LongUnaryOperator gen) {
+            for (int i = 0; i < pages.length; i++) {
+                final LongBuffer page = pages[i];
+                final long base = ((long) i) << PAGE_SHIFT;
+                final int limit = page.capacity();
+                for (int j = 0; j < limit; j++) {
+                    page.put(j, gen.applyAsLong(base + j));
+                }
+            }
+        }
+
+        @Override
+        public void fill(long value) {
+            for (LongBuffer page : pages) {
+                final int limit = page.capacity();
+                for (int j = 0; j < limit; j++) {
+                    page.put(j, value);
+                }
+            }
+        }
+
+        @Override
+        public void copyTo(HugeLongArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            copyElementwise(this, dest, length);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Drops the pages, cursors that are still in use keep reading from them
+         * and the buffers are reclaimed by the garbage collector, see {@link OffHeapMemory}.
+         */
+        @Override
+        public long release() {
+            if (pages != null) {
+                pages = null;
+                return memoryUsed;
+            }
+            return 0L;
+        }
+
+        @Override
+        public Cursor newCursor() {
+            return new OffHeapCursor(size, pages);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor) {
+            assert cursor instanceof OffHeapCursor;
+            ((OffHeapCursor) cursor).init();
+            return cursor;
+        }
+
+        private static int pageIndex(long index) {
+            return (int) (index >>> PAGE_SHIFT);
+        }
+
+        private static int indexInPage(long index) {
+            return (int) (index & PAGE_MASK);
+        }
+
+        private static final class OffHeapCursor extends Cursor {
+
+            private LongBuffer[] pages;
+            private long capacity;
+            private long nextIndex;
+
+            private OffHeapCursor(final long capacity, final LongBuffer[] pages) {
+                super();
+                this.capacity = capacity;
+                this.pages = pages;
+                this.array = new long[(int) Math.min(CURSOR_SIZE, capacity)];
+            }
+
+            private void init() {
+                nextIndex = 0L;
+                base = 0L;
+                limit = 0;
+            }
+
+            public final boolean next() {
+                final long from = nextIndex;
+                if (from >= capacity) {
+                    return false;
+                }
+                // CURSOR_SIZE divides PAGE_SIZE, a slice never spans two pages
+                final int length = (int) Math.min(array.length, capacity - from);
+                final LongBuffer page = pages[pageIndex(from)];
+                final int offsetInPage = indexInPage(from);
+                for (int i = 0; i < length; i++) {
+                    array[i] = page.get(offsetInPage + i);
+                }
+                base = from;
+                limit = length;
+                nextIndex = from + length;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                array = null;
+                pages = null;
+                base = 0L;
+                limit = 0;
+                capacity = 0L;
+                nextIndex = 0L;
+            }
+        }
+    }
 }
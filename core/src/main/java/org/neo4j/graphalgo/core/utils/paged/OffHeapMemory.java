@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.PlatformManagedObject;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * Allocation of the buffers that back {@link ArrayStorage#OFFHEAP}
+ * and {@link ArrayStorage#MMAP} pages.
+ * <p>
+ * Direct buffers are limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum
+ * heap size. Allocations that would exceed this limit fail upfront with a message that points
+ * to the flag and to {@code mmap} storage, which is limited by the available disk space instead.
+ * <p>
+ * Buffers are never freed explicitly. Concurrent copies of a graph and running algorithms
+ * share the same buffers, so they are unmapped or freed by the garbage collector once
+ * the last reader dropped them.
+ */
+final class OffHeapMemory {
+
+    private static final String HOTSPOT_BEAN_CLASS = "com.sun.management.HotSpotDiagnosticMXBean";
+
+    private static final long MAX_DIRECT_MEMORY = maxDirectMemory();
+    private static final BufferPoolMXBean DIRECT_POOL = directBufferPool();
+
+    private OffHeapMemory() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @throws IllegalStateException if the direct memory limit does not allow for {@code bytes} more
+     */
+    static void checkDirectMemory(long bytes) {
+        if (DIRECT_POOL == null) {
+            return;
+        }
+        long used = DIRECT_POOL.getMemoryUsed();
+        if (used + bytes > MAX_DIRECT_MEMORY) {
+            throw new IllegalStateException(String.format(
+                    "Cannot allocate %s of off-heap memory, %s of the %s direct memory limit are already in use. " +
+                            "Raise the limit with -XX:MaxDirectMemorySize or use storage:'mmap'.",
+                    humanReadable(bytes),
+                    humanReadable(used),
+                    humanReadable(MAX_DIRECT_MEMORY)));
+        }
+    }
+
+    static ByteBuffer allocateDirect(int bytes) {
+        checkDirectMemory(bytes);
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * A temporary file that is unlinked when it is closed. Mapped buffers remain valid
+     * after closing the file, the OS reclaims the storage once they are all unmapped.
+     * <p>
+     * Every mapping counts against the limit of the OS ({@code vm.max_map_count} on Linux,
+     * 65530 by default), so the file is mapped in regions that start at {@value #MIN_REGION_SIZE} bytes
+     * and double up to {@value #MAX_REGION_SIZE} bytes, and the buffers are sliced out of them.
+     * A slice keeps its region mapped as long as it is reachable.
+     */
+    static final class MappedFile implements AutoCloseable {
+        private static final int MIN_REGION_SIZE = 1 << 24;
+        private static final int MAX_REGION_SIZE = 1 << 30;
+
+        private final Path path;
+        private final FileChannel channel;
+        private long position;
+        private int nextRegionSize = MIN_REGION_SIZE;
+        private ByteBuffer region;
+
+        MappedFile(String suffix) {
+            try {
+                path = Files.createTempFile("graphalgo-", suffix);
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Slices the next {@code bytes} of the file out of the current region,
+         * a new region is mapped if they don't fit. Can be called concurrently.
+         */
+        synchronized ByteBuffer map(int bytes) {
+            if (region == null || region.remaining() < bytes) {
+                region = mapRegion(Math.max(bytes, nextRegionSize));
+                nextRegionSize = (int) Math.min(MAX_REGION_SIZE, (long) nextRegionSize << 1);
+            }
+            int from = region.position();
+            ByteBuffer buffer = region.duplicate();
+            buffer.limit(from + bytes);
+            region.position(from + bytes);
+            return buffer.slice().order(ByteOrder.nativeOrder());
+        }
+
+        private ByteBuffer mapRegion(int bytes) {
+            try {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+                position += bytes;
+                return mapped;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            region = null;
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static long maxDirectMemory() {
+        long configured = 0L;
+        try {
+            final Class<?> beanClazz = Class.forName(HOTSPOT_BEAN_CLASS);
+            final Object hotSpotBean = ManagementFactory.getPlatformMXBean(
+                    beanClazz.asSubclass(PlatformManagedObject.class));
+            if (hotSpotBean != null) {
+                final Object vmOption = beanClazz
+                        .getMethod("getVMOption", String.class)
+                        .invoke(hotSpotBean, "MaxDirectMemorySize");
+                configured = Long.parseLong(vmOption
+                        .getClass()
+                        .getMethod("getValue")
+                        .invoke(vmOption)
+                        .toString());
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+        // 0 means that the limit defaults to the maximum heap size
+        return configured > 0L ? configured : Runtime.getRuntime().maxMemory();
+    }
+
+    private static BufferPoolMXBean directBufferPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.core.utils.container.AtomicBitSet;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+
+/**
+ * thread safe bitset for long indices, paged over {@link AtomicBitSet}s
+ */
+public final class PagedAtomicBitSet extends PagedDataStructure<AtomicBitSet> {
+
+    private static final PageAllocator.Factory<AtomicBitSet> ALLOCATOR_FACTORY;
+
+    static {
+        // one page holds as many bits as an int page holds ints
+        int pageSize = PageUtil.pageSizeFor(Integer.BYTES) << 5;
+        long pageUsage = shallowSizeOfInstance(AtomicBitSet.class) +
+                shallowSizeOfInstance(AtomicIntegerArray.class) +
+                sizeOfIntArray(pageSize >>> 5);
+
+        ALLOCATOR_FACTORY = PageAllocator.of(
+                pageSize,
+                pageUsage,
+                () -> new AtomicBitSet(pageSize),
+                new AtomicBitSet[0]);
+    }
+
+    public static PagedAtomicBitSet newBitSet(long size, AllocationTracker tracker) {
+        return new PagedAtomicBitSet(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    private PagedAtomicBitSet(long size, PageAllocator<AtomicBitSet> allocator) {
+        super(size, allocator);
+    }
+
+    public boolean get(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].get(indexInPage);
+    }
+
+    public void set(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        pages[pageIndex].set(indexInPage);
+    }
+
+    /**
+     * @return true if the bit was set by this call, false if it was already set
+     */
+    public boolean trySet(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].trySet(indexInPage);
+    }
+
+    public void unset(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        pages[pageIndex].unset(indexInPage);
+    }
+
+    public void clear() {
+        final int pages = numPages(capacity());
+        for (int i = 0; i < pages; i++) {
+            this.pages[i].clear();
+        }
+    }
+}
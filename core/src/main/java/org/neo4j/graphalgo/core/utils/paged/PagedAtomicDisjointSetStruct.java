@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
+/**
+ * Lock-free disjoint set that can be shared by any number of threads.
+ * <p>
+ * Every set is a tree in a single parent array, roots point to themselves.
+ * {@link #union(long, long)} links the root with the bigger id below the root
+ * with the smaller id using a compare-and-set, which fails and retries if
+ * another thread changed that root in the meantime. {@link #find(long)} uses
+ * path splitting, which is safe to run concurrently since it only ever
+ * replaces a parent by its own parent.
+ * <p>
+ * A parent is never bigger than its child, so the trees can not form a cycle
+ * and the id of a set is always the smallest node id in it.
+ */
+public final class PagedAtomicDisjointSetStruct extends PagedDataStructure<AtomicLongArray> {
+
+    private static final PageAllocator.Factory<AtomicLongArray> ALLOCATOR_FACTORY;
+
+    static {
+        int pageSize = PageUtil.pageSizeFor(Long.BYTES);
+        long pageUsage = shallowSizeOfInstance(AtomicLongArray.class) + sizeOfLongArray(pageSize);
+
+        ALLOCATOR_FACTORY = PageAllocator.of(
+                pageSize,
+                pageUsage,
+                () -> new AtomicLongArray(pageSize),
+                new AtomicLongArray[0]);
+    }
+
+    public PagedAtomicDisjointSetStruct(long capacity, AllocationTracker tracker) {
+        super(capacity, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    /**
+     * put every node into its own set. Only pages from {@code fromPage}
+     * (inclusive) to {@code toPage} (exclusive) are reset, so that threads
+     * can share the work.
+     */
+    public void reset(int fromPage, int toPage) {
+        for (int page = fromPage; page < toPage; page++) {
+            final AtomicLongArray array = pages[page];
+            final long base = (long) page << pageShift;
+            for (int i = 0, length = array.length(); i < length; i++) {
+                // published by whatever waits for the reset to finish
+                array.lazySet(i, base + i);
+            }
+        }
+    }
+
+    public PagedAtomicDisjointSetStruct reset() {
+        reset(0, pages.length);
+        return this;
+    }
+
+    /**
+     * @return number of pages, to split up a {@link #reset(int, int)}
+     */
+    public int pageCount() {
+        return pages.length;
+    }
+
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * find the set id of a node and halve the path to it
+     */
+    public long find(long p) {
+        final AtomicLongArray[] pages = this.pages;
+        AtomicLongArray page = pages[pageIndex(p)];
+        long parent;
+        while ((parent = page.get(indexInPage(p))) != p) {
+            final AtomicLongArray parentPage = pages[pageIndex(parent)];
+            final long grandParent = parentPage.get(indexInPage(parent));
+            if (grandParent != parent) {
+                page.compareAndSet(indexInPage(p), parent, grandParent);
+            }
+            p = parent;
+            page = parentPage;
+        }
+        return p;
+    }
+
+    /**
+     * join the sets of both nodes
+     */
+    public void union(long p, long q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) {
+                return;
+            }
+            if (p < q) {
+                final long tmp = p;
+                p = q;
+                q = tmp;
+            }
+            if (cas(p, p, q)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * set id of the node without modifying the array
+     */
+    public long findNoOpt(long p) {
+        long parent;
+        while ((parent = parent(p)) != p) {
+            p = parent;
+        }
+        return p;
+    }
+
+    public long getSetCount() {
+        long count = 0L;
+        for (long i = 0L, size = size(); i < size; ++i) {
+            if (parent(i) == i) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    public Stream<DisjointSetStruct.Result> resultStream(HugeIdMapping idMapping) {
+        return LongStream.range(HugeIdMapping.START_NODE_ID, idMapping.nodeCount())
+                .mapToObj(mappedId ->
+                        new DisjointSetStruct.Result(
+                                idMapping.toOriginalNodeId(mappedId),
+                                find(mappedId)));
+    }
+
+    private long parent(long index) {
+        assert index < capacity();
+        return pages[pageIndex(index)].get(indexInPage(index));
+    }
+
+    private boolean cas(long index, long expected, long update) {
+        return pages[pageIndex(index)].compareAndSet(indexInPage(index), expected, update);
+    }
+
+    public static final class Translator implements PropertyTranslator.OfLong<PagedAtomicDisjointSetStruct> {
+
+        public static final PropertyTranslator<PagedAtomicDisjointSetStruct> INSTANCE = new Translator();
+
+        @Override
+        public long toLong(final PagedAtomicDisjointSetStruct data, final long nodeId) {
+            return data.findNoOpt(nodeId);
+        }
+    }
+}
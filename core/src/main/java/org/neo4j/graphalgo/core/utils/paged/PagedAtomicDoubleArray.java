@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
 
 import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.shallowSizeOfInstance;
 import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
@@ -62,10 +63,34 @@ public final class PagedAtomicDoubleArray extends PagedDataStructure<AtomicDoubl
         pages[pageIndex].set(indexInPage, value);
     }
 
+    public double getAndSet(long index, double value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].getAndSet(indexInPage, value);
+    }
+
     public void add(long index, double delta) {
         assert index < capacity();
         final int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
         pages[pageIndex].add(indexInPage, delta);
     }
+
+    public boolean setIfLess(long index, double value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].setIfLess(indexInPage, value);
+    }
+
+    public static class Translator implements PropertyTranslator.OfDouble<PagedAtomicDoubleArray> {
+
+        public static final PagedAtomicDoubleArray.Translator INSTANCE = new PagedAtomicDoubleArray.Translator();
+
+        @Override
+        public double toDouble(final PagedAtomicDoubleArray data, final long nodeId) {
+            return data.get(nodeId);
+        }
+    }
 }
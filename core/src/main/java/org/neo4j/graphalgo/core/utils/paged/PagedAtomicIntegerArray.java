@@ -72,6 +72,13 @@ public final class PagedAtomicIntegerArray extends PagedDataStructure<AtomicInte
         pages[pageIndex].addAndGet(indexInPage, delta);
     }
 
+    public int getAndAdd(long index, int delta) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].getAndAdd(indexInPage, delta);
+    }
+
     public boolean cas(long index, int expected, int update) {
         assert index < capacity();
         final int pageIndex = pageIndex(index);
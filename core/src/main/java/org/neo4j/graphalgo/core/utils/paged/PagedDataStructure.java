@@ -170,6 +170,21 @@ public class PagedDataStructure<T> {
         this.capacity.set(capacityFor(numPages));
     }
 
+    /**
+     * Removes the page at the given index from this structure and returns it.
+     */
+    final T releasePage(int pageIndex) {
+        growLock.lock();
+        try {
+            T[] pages = this.pages;
+            T page = pages[pageIndex];
+            pages[pageIndex] = null;
+            return page;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
     T allocateNewPage() {
         return allocator.newPage();
     }
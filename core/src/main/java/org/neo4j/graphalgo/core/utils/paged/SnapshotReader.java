@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads values that have been written by a {@link SnapshotWriter}.
+ * The file is memory-mapped in windows of up to 1 GiB and values are
+ * bulk-copied from the mapped window into the pages of the data structures,
+ * so that reading is bounded by the disk bandwidth.
+ */
+public final class SnapshotReader implements AutoCloseable {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public static SnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new SnapshotReader(channel);
+    }
+
+    private SnapshotReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        map(0L);
+    }
+
+    public boolean readBoolean() throws IOException {
+        ensureAvailable(Byte.BYTES);
+        return window.get() != 0;
+    }
+
+    public int readInt() throws IOException {
+        ensureAvailable(Integer.BYTES);
+        return window.getInt();
+    }
+
+    public long readLong() throws IOException {
+        ensureAvailable(Long.BYTES);
+        return window.getLong();
+    }
+
+    public double readDouble() throws IOException {
+        ensureAvailable(Double.BYTES);
+        return window.getDouble();
+    }
+
+    public void readBytes(byte[] into) throws IOException {
+        int offset = 0;
+        int length = into.length;
+        while (length > 0) {
+            ensureAvailable(Byte.BYTES);
+            int chunk = Math.min(length, window.remaining());
+            window.get(into, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public void readLongs(long[] into, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureAvailable(Long.BYTES);
+            int chunk = Math.min(length, window.remaining() / Long.BYTES);
+            window.asLongBuffer().get(into, offset, chunk);
+            window.position(window.position() + chunk * Long.BYTES);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Return the number of bytes read so far.
+     */
+    public long bytesRead() {
+        return windowStart + window.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void ensureAvailable(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            long position = bytesRead();
+            if (position + bytes > fileSize) {
+                throw new IOException("Unexpected end of snapshot file at position " + position);
+            }
+            map(position);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(WINDOW_SIZE, fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+}
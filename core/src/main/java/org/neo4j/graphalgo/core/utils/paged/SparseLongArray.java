@@ -50,6 +50,13 @@ public final class SparseLongArray {
         this.tracker = tracker;
     }
 
+    /**
+     * @return the number of indices that can be addressed, all indices must be smaller than this
+     */
+    public long capacity() {
+        return capacity;
+    }
+
     public long get(long index) {
         assert index < capacity;
         final int pageIndex = pageIndex(index);
@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicBitSet;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * Parallel, level synchronous breadth first search on a {@link HugeGraph}
+ * which switches between top-down and bottom-up steps.
+ * <p>
+ * A top-down step expands every node of the current frontier and claims its
+ * unvisited neighbors. A bottom-up step goes over all unvisited nodes instead
+ * and checks whether any of their reverse neighbors is part of the frontier,
+ * which stops at the first hit. Bottom-up steps are much cheaper on the large
+ * middle levels of small world graphs, top-down steps on the small ones.
+ * The switch follows the heuristic of Beamer et al., "Direction-Optimizing
+ * Breadth-First Search": go bottom-up when the frontier has more than
+ * {@code 1/alpha} of the unexplored edges and back to top-down when it
+ * has less than {@code 1/beta} of all nodes.
+ * <p>
+ * Bottom-up steps iterate the reverse direction, so they are only enabled
+ * after {@link #withReverseDirection(Direction)} has been called with a
+ * direction that has been loaded.
+ * <p>
+ * The instance can be reused for several searches but not concurrently.
+ * NOTE: predicate and visitor must be thread safe
+ */
+public final class DirectionOptimizingBFS {
+
+    public static final double DEFAULT_ALPHA = 14.0;
+    public static final double DEFAULT_BETA = 24.0;
+
+    // number of frontier entries a top-down worker claims at once
+    private static final long TOP_DOWN_BATCH = 64L;
+    // number of nodes a bottom-up worker claims at once, multiple of the bitset word size
+    private static final long BOTTOM_UP_BATCH = 4096L;
+
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * called exactly once for every node the search reaches
+         */
+        void accept(long nodeId, int depth);
+    }
+
+    private final HugeGraph graph;
+    private final long nodeCount;
+    private final ExecutorService executor;
+    private final PagedAtomicBitSet visited;
+    private final PagedAtomicBitSet frontierBits;
+    private final List<Worker> workers;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong nextSize = new AtomicLong();
+
+    private HugeLongArray frontier;
+    private HugeLongArray next;
+    private long frontierSize;
+
+    private Direction direction;
+    private Direction reverseDirection;
+    private LongPredicate predicate;
+    private Visitor visitor;
+    private int depth;
+
+    private Direction countedDirection;
+    private long edgeCount;
+
+    private double alpha = DEFAULT_ALPHA;
+    private double beta = DEFAULT_BETA;
+    private int bottomUpSteps;
+    private int topDownSteps;
+
+    public DirectionOptimizingBFS(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.executor = executor;
+        this.visited = PagedAtomicBitSet.newBitSet(nodeCount, tracker);
+        this.frontierBits = PagedAtomicBitSet.newBitSet(nodeCount, tracker);
+        this.frontier = HugeLongArray.newArray(nodeCount, tracker);
+        this.next = HugeLongArray.newArray(nodeCount, tracker);
+        final int workerCount = ParallelUtil.canRunInParallel(executor) ? Math.max(1, concurrency) : 1;
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(graph.concurrentCopy()));
+        }
+    }
+
+    /**
+     * enable bottom-up steps, which traverse the given direction to find the
+     * parents of an unvisited node. Must be the reverse of the direction the
+     * search uses, e.g. INCOMING for an OUTGOING search, or the same direction
+     * for undirected graphs. {@code null} disables bottom-up steps.
+     */
+    public DirectionOptimizingBFS withReverseDirection(Direction reverseDirection) {
+        this.reverseDirection = reverseDirection;
+        return this;
+    }
+
+    public DirectionOptimizingBFS withAlpha(double alpha) {
+        this.alpha = alpha;
+        return this;
+    }
+
+    public DirectionOptimizingBFS withBeta(double beta) {
+        this.beta = beta;
+        return this;
+    }
+
+    /**
+     * reset the visited state, called by {@link #bfs} before every search
+     *
+     * @return itself
+     */
+    public DirectionOptimizingBFS reset() {
+        visited.clear();
+        frontierSize = 0L;
+        depth = 0;
+        bottomUpSteps = 0;
+        topDownSteps = 0;
+        return this;
+    }
+
+    /**
+     * start bfs at startNodeId using the supplied direction. A node is only
+     * visited if it passes the predicate. Upon first arrival at a node the
+     * visitor is called with its node id and its distance to the start node.
+     */
+    public DirectionOptimizingBFS bfs(
+            long startNodeId,
+            Direction direction,
+            LongPredicate predicate,
+            Visitor visitor) {
+        reset();
+        if (!predicate.test(startNodeId)) {
+            return this;
+        }
+        this.direction = direction;
+        this.predicate = predicate;
+        this.visitor = visitor;
+
+        visited.set(startNodeId);
+        visitor.accept(startNodeId, 0);
+        frontier.set(0L, startNodeId);
+        frontierSize = 1L;
+
+        long frontierEdges = graph.degree(startNodeId, direction);
+        long unexploredEdges = edgeCount(direction) - frontierEdges;
+        boolean bottomUp = false;
+        while (frontierSize > 0L) {
+            if (reverseDirection != null) {
+                if (!bottomUp && frontierEdges > unexploredEdges / alpha) {
+                    bottomUp = true;
+                } else if (bottomUp && frontierSize < nodeCount / beta) {
+                    bottomUp = false;
+                }
+            }
+            ++depth;
+            nextSize.set(0L);
+            cursor.set(0L);
+            if (bottomUp) {
+                ++bottomUpSteps;
+                frontierBits.clear();
+                for (long i = 0L; i < frontierSize; i++) {
+                    frontierBits.set(frontier.get(i));
+                }
+            } else {
+                ++topDownSteps;
+            }
+            for (Worker worker : workers) {
+                worker.bottomUp = bottomUp;
+                worker.edges = 0L;
+            }
+            ParallelUtil.run(workers, executor);
+
+            frontierEdges = 0L;
+            for (Worker worker : workers) {
+                frontierEdges += worker.edges;
+            }
+            unexploredEdges -= frontierEdges;
+
+            final HugeLongArray swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize.get();
+        }
+        --depth;
+        this.predicate = null;
+        this.visitor = null;
+        return this;
+    }
+
+    public boolean isVisited(long nodeId) {
+        return visited.get(nodeId);
+    }
+
+    /**
+     * @return the largest depth of the last search
+     */
+    public int maxDepth() {
+        return depth;
+    }
+
+    public int topDownSteps() {
+        return topDownSteps;
+    }
+
+    public int bottomUpSteps() {
+        return bottomUpSteps;
+    }
+
+    public void release(AllocationTracker tracker) {
+        tracker.remove(visited.release());
+        tracker.remove(frontierBits.release());
+        tracker.remove(frontier.release());
+        tracker.remove(next.release());
+        workers.clear();
+    }
+
+    private long edgeCount(Direction direction) {
+        if (direction != countedDirection) {
+            long edges = 0L;
+            for (long node = 0L; node < nodeCount; node++) {
+                edges += graph.degree(node, direction);
+            }
+            edgeCount = edges;
+            countedDirection = direction;
+        }
+        return edgeCount;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final HugeRelationshipIterator iterator;
+        private final long[] buffer = new long[(int) TOP_DOWN_BATCH];
+        private int buffered;
+        private boolean bottomUp;
+        private long edges;
+        private boolean found;
+
+        private Worker(HugeRelationshipIterator iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void run() {
+            if (bottomUp) {
+                bottomUp();
+            } else {
+                topDown();
+            }
+            flush();
+        }
+
+        private void topDown() {
+            final long size = frontierSize;
+            final int nextDepth = depth;
+            long start;
+            while ((start = cursor.getAndAdd(TOP_DOWN_BATCH)) < size) {
+                final long end = Math.min(size, start + TOP_DOWN_BATCH);
+                for (long i = start; i < end; i++) {
+                    iterator.forEachRelationship(frontier.get(i), direction, (source, target) -> {
+                        if (!visited.get(target) && predicate.test(target) && visited.trySet(target)) {
+                            discovered(target, nextDepth);
+                        }
+                        return true;
+                    });
+                }
+            }
+        }
+
+        private void bottomUp() {
+            final int nextDepth = depth;
+            long start;
+            while ((start = cursor.getAndAdd(BOTTOM_UP_BATCH)) < nodeCount) {
+                final long end = Math.min(nodeCount, start + BOTTOM_UP_BATCH);
+                for (long node = start; node < end; node++) {
+                    if (visited.get(node) || !predicate.test(node)) {
+                        continue;
+                    }
+                    found = false;
+                    iterator.forEachRelationship(node, reverseDirection, (source, target) -> {
+                        if (frontierBits.get(target)) {
+                            found = true;
+                            return false;
+                        }
+                        return true;
+                    });
+                    if (found) {
+                        // no other worker looks at this node during this step
+                        visited.set(node);
+                        discovered(node, nextDepth);
+                    }
+                }
+            }
+        }
+
+        private void discovered(long node, int nodeDepth) {
+            visitor.accept(node, nodeDepth);
+            edges += graph.degree(node, direction);
+            buffer[buffered++] = node;
+            if (buffered == buffer.length) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (buffered > 0) {
+                long offset = nextSize.getAndAdd(buffered);
+                for (int i = 0; i < buffered; i++) {
+                    next.set(offset + i, buffer[i]);
+                }
+                buffered = 0;
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.core.write;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeIdMapping;
@@ -29,13 +30,25 @@ import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.StatementApi;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
@@ -43,11 +56,19 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntFunction;
 import java.util.function.LongUnaryOperator;
+import java.util.regex.Pattern;
 
 public final class Exporter extends StatementApi {
 
     private static final long MIN_BATCH_SIZE = 10_000L;
     private static final long MAX_BATCH_SIZE = 100_000L;
+    // node id, type and value, see writeToFile
+    private static final int FILE_RECORD_SIZE = Long.BYTES + Byte.BYTES + Long.BYTES;
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_\\-]+");
+    public static final String FILE_SUFFIX = ".bin";
+    // type of the value of a file record
+    public static final byte FILE_TYPE_LONG = 'L';
+    public static final byte FILE_TYPE_DOUBLE = 'D';
     public static final String TASK_EXPORT = "EXPORT";
 
     private final TerminationFlag terminationFlag;
@@ -55,6 +76,8 @@ public final class Exporter extends StatementApi {
     private final ProgressLogger progressLogger;
     private final int concurrency;
     private final long nodeCount;
+    private final long writeBatchSize;
+    private final Path directory;
     private final LongUnaryOperator toOriginalId;
 
     public static Builder of(GraphDatabaseAPI db, Graph graph) {
@@ -77,6 +100,8 @@ public final class Exporter extends StatementApi {
         private ExecutorService executorService;
         private ProgressLoggerAdapter loggerAdapter;
         private int concurrency = Pools.DEFAULT_CONCURRENCY;
+        private long writeBatchSize = -1L;
+        private Path directory;
 
         private Builder(GraphDatabaseAPI db, IdMapping idMapping) {
             Objects.requireNonNull(idMapping);
@@ -116,6 +141,28 @@ public final class Exporter extends StatementApi {
             return this;
         }
 
+        /**
+         * Sets the number of nodes that are written in one transaction.
+         * A value {@code <= 0} keeps the default, which is one transaction
+         * for a sequential write and a batch size between {@value #MIN_BATCH_SIZE}
+         * and {@value #MAX_BATCH_SIZE} nodes for a parallel write.
+         */
+        public Builder withWriteBatchSize(long writeBatchSize) {
+            this.writeBatchSize = writeBatchSize;
+            return this;
+        }
+
+        /**
+         * Writes the results into one file per property instead of setting them as node properties,
+         * see {@link #write(String, Object, PropertyTranslator)}. The directory is resolved against
+         * the import directory of the database ({@code dbms.directories.import}), which has to be
+         * configured, and must not leave it. The directory is created if it does not exist.
+         */
+        public Builder toDirectory(String directory) {
+            this.directory = resolveDirectory(exportRoot(db), Objects.requireNonNull(directory));
+            return this;
+        }
+
         public Exporter build() {
             ProgressLogger progressLogger = loggerAdapter == null
                     ? ProgressLogger.NULL_LOGGER
@@ -123,8 +170,102 @@ public final class Exporter extends StatementApi {
             TerminationFlag flag = terminationFlag == null
                     ? TerminationFlag.RUNNING_TRUE
                     : terminationFlag;
-            return new Exporter(db, nodeCount, toOriginalId, flag, progressLogger, concurrency, executorService);
+            return new Exporter(db, nodeCount, toOriginalId, flag, progressLogger, concurrency, writeBatchSize, directory, executorService);
+        }
+    }
+
+    /**
+     * @return the real path of the import directory of the database, with all symbolic links resolved
+     * @throws IllegalStateException if no import directory is configured or it does not exist
+     */
+    static Path exportRoot(GraphDatabaseAPI db) {
+        final File root = db.getDependencyResolver()
+                .resolveDependency(Config.class)
+                .get(GraphDatabaseSettings.load_csv_file_url_root);
+        if (root == null) {
+            throw new IllegalStateException("writing to a file requires '" +
+                    GraphDatabaseSettings.load_csv_file_url_root.name() + "' to be configured");
+        }
+        try {
+            return root.toPath().toRealPath();
+        } catch (IOException e) {
+            throw new IllegalStateException("the import directory '" + root + "' does not exist", e);
+        }
+    }
+
+    /**
+     * Resolves the directory against the root and creates it if it does not exist.
+     * Symbolic links are resolved before the directory is created and again afterwards,
+     * so that neither a relative path nor a link can lead out of the root.
+     *
+     * @param root the real path of the root directory
+     * @return the real path of the directory
+     * @throws IllegalArgumentException if the resolved directory is not within the root
+     */
+    static Path resolveDirectory(Path root, String directory) {
+        final Path resolved = root.resolve(directory).normalize();
+        Path existing = resolved;
+        while (!Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        checkWithin(root, existing, directory);
+        try {
+            Files.createDirectories(resolved);
+            return checkWithin(root, resolved, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resolves a file against the import directory of the database ({@code dbms.directories.import}),
+     * like {@link Builder#toDirectory(String)} does for directories. The parent directory of the file
+     * is created if it does not exist. An existing file must not be a link out of the import directory.
+     *
+     * @return the path of the file within the import directory
+     * @throws IllegalStateException if no import directory is configured
+     * @throws IllegalArgumentException if the file is not within the import directory
+     */
+    public static Path resolveImportFile(GraphDatabaseAPI db, String file) {
+        final Path root = exportRoot(db);
+        final Path resolved = root.resolve(Objects.requireNonNull(file)).normalize();
+        if (!resolved.startsWith(root) || resolved.equals(root)) {
+            throw new IllegalArgumentException("the file '" + file + "' is not within the import directory");
+        }
+        final Path directory = resolveDirectory(root, root.relativize(resolved.getParent()).toString());
+        final Path resolvedFile = directory.resolve(resolved.getFileName().toString());
+        if (Files.exists(resolvedFile)) {
+            checkWithin(root, resolvedFile, file);
+        }
+        return resolvedFile;
+    }
+
+    private static Path checkWithin(Path root, Path path, String directory) {
+        final Path real;
+        try {
+            real = path.toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!real.startsWith(root)) {
+            throw new IllegalArgumentException("'" + directory + "' is not within the import directory");
+        }
+        return real;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the property is not a safe file name
+     */
+    static Path resolveFile(Path directory, String property) {
+        if (!FILE_NAME.matcher(property).matches()) {
+            throw new IllegalArgumentException("the property '" + property +
+                    "' can not be written to a file, only letters, digits, '_' and '-' are allowed");
         }
+        final Path file = directory.resolve(property + FILE_SUFFIX).normalize();
+        if (!file.startsWith(directory)) {
+            throw new IllegalArgumentException("the property '" + property + "' can not be written to a file");
+        }
+        return file;
     }
 
     public interface WriteConsumer {
@@ -142,6 +283,8 @@ public final class Exporter extends StatementApi {
             TerminationFlag terminationFlag,
             ProgressLogger log,
             int concurrency,
+            long writeBatchSize,
+            Path directory,
             ExecutorService executorService) {
         super(db);
         this.nodeCount = nodeCount;
@@ -149,13 +292,32 @@ public final class Exporter extends StatementApi {
         this.terminationFlag = terminationFlag;
         this.progressLogger = log;
         this.concurrency = concurrency;
+        this.writeBatchSize = writeBatchSize;
+        this.directory = directory;
         this.executorService = executorService;
     }
 
+    /**
+     * Writes the translated value of every node as a property. If a directory has been set,
+     * the values are written into the file {@code <property>.bin} in that directory instead.
+     * The file consists of fixed size records of the original node id as {@code long}, a type byte and
+     * the value, which is written as {@code long} for integral properties (e.g. community ids,
+     * type {@link #FILE_TYPE_LONG}) and as {@code double} otherwise (type {@link #FILE_TYPE_DOUBLE}),
+     * all big endian. Nodes without a value are skipped and
+     * the order of the records is not defined. Only numeric properties can be written to a file.
+     * <p>
+     * The file is a sequence of rows rather than separate id and value columns: the batches
+     * are written concurrently and skip nodes without a value, so the length of a column
+     * is not known before all batches are done.
+     */
     public <T> void write(
             String property,
             T data,
             PropertyTranslator<T> translator) {
+        if (directory != null) {
+            writeToFile(property, translate(0, data, translator));
+            return;
+        }
         final int propertyId = getOrCreatePropertyId(property);
         if (propertyId == -1) {
             throw new IllegalStateException("no write property id is set");
@@ -174,6 +336,11 @@ public final class Exporter extends StatementApi {
             String property2,
             U data2,
             PropertyTranslator<U> translator2) {
+        if (directory != null) {
+            writeToFile(property1, translate(0, data1, translator1));
+            writeToFile(property2, translate(0, data2, translator2));
+            return;
+        }
         final int propertyId1 = getOrCreatePropertyId(property1);
         if (propertyId1 == -1) {
             throw new IllegalStateException("no write property id is set");
@@ -190,6 +357,7 @@ public final class Exporter extends StatementApi {
     }
 
     public void write(String property, IntFunction<WriteConsumer> createWriter) {
+        checkNoDirectory();
         final int propertyId = getOrCreatePropertyId(property);
         if (propertyId == -1) {
             throw new IllegalStateException("no write property id is set");
@@ -203,6 +371,7 @@ public final class Exporter extends StatementApi {
     }
 
     public void writeRelationships(String relationship, WriteConsumer writer) {
+        checkNoDirectory();
         final int propertyId = getOrCreateRelationshipId(relationship);
         if (propertyId == -1) {
             throw new IllegalStateException("no write property id is set");
@@ -218,6 +387,7 @@ public final class Exporter extends StatementApi {
     }
 
     public void writeRelationshipAndProperty(String relationship, String property, PropertyWriteConsumer writer) {
+        checkNoDirectory();
         final int relationshipId = getOrCreateRelationshipId(relationship);
         final int propertyId = getOrCreatePropertyId(property);
         if (relationshipId == -1) {
@@ -237,7 +407,7 @@ public final class Exporter extends StatementApi {
             int propertyId,
             T data,
             PropertyTranslator<T> translator) {
-        writeSequential((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
+        writeSequential(translate(propertyId, data, translator));
     }
 
     private <T, U> void writeSequential(
@@ -247,14 +417,14 @@ public final class Exporter extends StatementApi {
             int propertyId2,
             U data2,
             PropertyTranslator<U> translator2) {
-        writeSequential((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
+        writeSequential(translate(propertyId1, data1, translator1, propertyId2, data2, translator2));
     }
 
     private <T> void writeParallel(
             int propertyId,
             T data,
             PropertyTranslator<T> translator) {
-        writeParallel((ops, offset) -> doWrite(propertyId, data, translator, ops, offset));
+        writeParallel(translate(propertyId, data, translator));
     }
 
     private <T, U> void writeParallel(
@@ -264,26 +434,49 @@ public final class Exporter extends StatementApi {
             int propertyId2,
             U data2,
             PropertyTranslator<U> translator2) {
-        writeParallel((ops, offset) -> doWrite(propertyId1, data1, translator1, propertyId2, data2, translator2, ops, offset));
+        writeParallel(translate(propertyId1, data1, translator1, propertyId2, data2, translator2));
     }
 
     private void writeSequential(WriteConsumer writer) {
-        try {
-            acceptInTransaction(stmt -> {
-                long progress = 0L;
-                DataWriteOperations ops = stmt.dataWriteOperations();
-                for (long i = 0L; i < nodeCount; i++) {
-                    writer.accept(ops, i);
-                    progressLogger.logProgress(++progress, nodeCount);
-                }
-            });
-        } catch (KernelException e) {
-            throw Exceptions.launderedException(e);
-        }
+        forEachBatchSequential((start, end) -> writeBatch(writer, start, end));
     }
 
     private void writeParallel(WriteConsumer writer) {
-        final long batchSize = ParallelUtil.adjustBatchSize(
+        forEachBatchParallel((start, end) -> writeBatch(writer, start, end));
+    }
+
+    private void writeSequential(PropertyCollector collector) {
+        forEachBatchSequential((start, end) -> writeBatch(collector, start, end));
+    }
+
+    private void writeParallel(PropertyCollector collector) {
+        forEachBatchParallel((start, end) -> writeBatch(collector, start, end));
+    }
+
+    /**
+     * Writes all nodes on the calling thread, committing a transaction
+     * after every {@code writeBatchSize} nodes.
+     */
+    private void forEachBatchSequential(BatchWriter writer) {
+        forEachBatchSequential(writer, Math.max(1L, nodeCount));
+    }
+
+    private void forEachBatchSequential(BatchWriter writer, long defaultBatchSize) {
+        final long batchSize = writeBatchSize > 0L ? writeBatchSize : defaultBatchSize;
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long end = Math.min(nodeCount, start + batchSize);
+            writer.write(start, end);
+            progressLogger.logProgress(end, nodeCount);
+        }
+    }
+
+    /**
+     * Writes the nodes in batches of {@code writeBatchSize} nodes, one transaction per batch.
+     * The progress is only published once a batch is committed, so that the writing threads
+     * don't contend on a shared counter for every single node.
+     */
+    private void forEachBatchParallel(BatchWriter writer) {
+        final long batchSize = writeBatchSize > 0L ? writeBatchSize : ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
                 MIN_BATCH_SIZE,
@@ -293,20 +486,8 @@ public final class Exporter extends StatementApi {
                 nodeCount,
                 batchSize,
                 (start, len) -> () -> {
-                    try {
-                        acceptInTransaction(stmt -> {
-                            long end = start + len;
-                            DataWriteOperations ops = stmt.dataWriteOperations();
-                            for (long j = start; j < end; j++) {
-                                writer.accept(ops, j);
-                                progressLogger.logProgress(
-                                        progress.incrementAndGet(),
-                                        nodeCount);
-                            }
-                        });
-                    } catch (KernelException e) {
-                        throw Exceptions.launderedException(e);
-                    }
+                    writer.write(start, start + len);
+                    progressLogger.logProgress(progress.addAndGet(len), nodeCount);
                 });
         ParallelUtil.runWithConcurrency(
                 concurrency,
@@ -319,38 +500,198 @@ public final class Exporter extends StatementApi {
         );
     }
 
-    private <T> void doWrite(
+    private void writeBatch(WriteConsumer writer, long start, long end) {
+        try {
+            acceptInTransaction(stmt -> {
+                DataWriteOperations ops = stmt.dataWriteOperations();
+                for (long j = start; j < end; j++) {
+                    writer.accept(ops, j);
+                }
+            });
+        } catch (KernelException e) {
+            throw Exceptions.launderedException(e);
+        }
+    }
+
+    /**
+     * Translates the results of the batch before the transaction is opened,
+     * so that the transaction only spans the actual property writes.
+     * Batches larger than {@value #MAX_BATCH_SIZE} nodes are translated in chunks
+     * within the transaction to keep the buffer small.
+     */
+    private void writeBatch(PropertyCollector collector, long start, long end) {
+        final PropertyBuffer buffer = new PropertyBuffer((int) Math.min(end - start, MAX_BATCH_SIZE));
+        final boolean translateUpfront = end - start <= MAX_BATCH_SIZE;
+        if (translateUpfront) {
+            collect(collector, buffer, start, end);
+            if (buffer.size == 0) {
+                return;
+            }
+        }
+        try {
+            acceptInTransaction(stmt -> {
+                DataWriteOperations ops = stmt.dataWriteOperations();
+                if (translateUpfront) {
+                    buffer.writeTo(ops);
+                    return;
+                }
+                for (long chunk = start; chunk < end; chunk += MAX_BATCH_SIZE) {
+                    buffer.size = 0;
+                    collect(collector, buffer, chunk, Math.min(end, chunk + MAX_BATCH_SIZE));
+                    buffer.writeTo(ops);
+                }
+            });
+        } catch (KernelException e) {
+            throw Exceptions.launderedException(e);
+        }
+    }
+
+    private void collect(PropertyCollector collector, PropertyBuffer buffer, long start, long end) {
+        for (long nodeId = start; nodeId < end; nodeId++) {
+            collector.collect(nodeId, toOriginalId.applyAsLong(nodeId), buffer);
+        }
+    }
+
+    private void writeToFile(String property, PropertyCollector collector) {
+        final Path file = resolveFile(directory, property);
+        // an existing link must not redirect the write out of the directory
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                LinkOption.NOFOLLOW_LINKS)) {
+            final AtomicLong position = new AtomicLong(0L);
+            final BatchWriter writer = (start, end) -> writeFileBatch(channel, position, collector, start, end);
+            if (ParallelUtil.canRunInParallel(executorService)) {
+                forEachBatchParallel(writer);
+            } else {
+                forEachBatchSequential(writer, MAX_BATCH_SIZE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes the batch in slices of at most {@value #MAX_BATCH_SIZE} nodes and appends them to the file.
+     * Every slice reserves its own region of the file, so the batches can be written concurrently.
+     */
+    private void writeFileBatch(
+            FileChannel channel,
+            AtomicLong position,
+            PropertyCollector collector,
+            long start,
+            long end) {
+        final PropertyBuffer buffer = new PropertyBuffer((int) Math.min(end - start, MAX_BATCH_SIZE));
+        ByteBuffer bytes = null;
+        for (long chunk = start; chunk < end; chunk += MAX_BATCH_SIZE) {
+            buffer.size = 0;
+            collect(collector, buffer, chunk, Math.min(end, chunk + MAX_BATCH_SIZE));
+            if (buffer.size == 0) {
+                continue;
+            }
+            final int length = buffer.size * FILE_RECORD_SIZE;
+            if (bytes == null || bytes.capacity() < length) {
+                bytes = ByteBuffer.allocate(length);
+            }
+            bytes.clear();
+            for (int i = 0; i < buffer.size; i++) {
+                bytes.putLong(buffer.nodeIds[i]);
+                putValue(bytes, buffer.properties[i].value());
+            }
+            bytes.flip();
+            long offset = position.getAndAdd(bytes.remaining());
+            try {
+                while (bytes.hasRemaining()) {
+                    offset += channel.write(bytes, offset);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * writes floating point values as double and integral values as long,
+     * so that large ids don't lose precision, each prefixed with its type
+     */
+    private static void putValue(ByteBuffer bytes, Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            bytes.put(FILE_TYPE_DOUBLE).putDouble(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            bytes.put(FILE_TYPE_LONG).putLong(((Number) value).longValue());
+        } else {
+            throw new IllegalArgumentException("only numeric properties can be written to a file");
+        }
+    }
+
+    private void checkNoDirectory() {
+        if (directory != null) {
+            throw new IllegalStateException("only translated node properties can be written to a file");
+        }
+    }
+
+    private static <T> PropertyCollector translate(
             int propertyId,
             T data,
-            PropertyTranslator<T> trans,
-            DataWriteOperations ops,
-            long nodeId) throws KernelException {
-        DefinedProperty prop = trans.toProperty(propertyId, data, nodeId);
-        if (prop != null) {
-            ops.nodeSetProperty(
-                    toOriginalId.applyAsLong(nodeId),
-                    prop
-            );
-        }
+            PropertyTranslator<T> translator) {
+        return (nodeId, originalNodeId, buffer) ->
+                buffer.add(originalNodeId, translator.toProperty(propertyId, data, nodeId));
     }
 
-    private <T, U> void doWrite(
+    private static <T, U> PropertyCollector translate(
             int propertyId1,
             T data1,
             PropertyTranslator<T> translator1,
             int propertyId2,
             U data2,
-            PropertyTranslator<U> translator2,
-            DataWriteOperations ops,
-            long nodeId) throws KernelException {
-        final long originalNodeId = toOriginalId.applyAsLong(nodeId);
-        DefinedProperty prop1 = translator1.toProperty(propertyId1, data1, nodeId);
-        if (prop1 != null) {
-            ops.nodeSetProperty(originalNodeId, prop1);
-        }
-        DefinedProperty prop2 = translator2.toProperty(propertyId2, data2, nodeId);
-        if (prop2 != null) {
-            ops.nodeSetProperty(originalNodeId, prop2);
+            PropertyTranslator<U> translator2) {
+        return (nodeId, originalNodeId, buffer) -> {
+            buffer.add(originalNodeId, translator1.toProperty(propertyId1, data1, nodeId));
+            buffer.add(originalNodeId, translator2.toProperty(propertyId2, data2, nodeId));
+        };
+    }
+
+    private interface BatchWriter {
+        void write(long start, long end);
+    }
+
+    private interface PropertyCollector {
+        void collect(long nodeId, long originalNodeId, PropertyBuffer buffer);
+    }
+
+    /**
+     * The translated properties of one batch together with the nodes they belong to.
+     */
+    private static final class PropertyBuffer {
+        private long[] nodeIds;
+        private DefinedProperty[] properties;
+        private int size;
+
+        private PropertyBuffer(int capacity) {
+            nodeIds = new long[capacity];
+            properties = new DefinedProperty[capacity];
+        }
+
+        void add(long originalNodeId, DefinedProperty property) {
+            if (property == null) {
+                return;
+            }
+            if (size == nodeIds.length) {
+                int newLength = ArrayUtil.oversize(size + 1, Long.BYTES);
+                nodeIds = Arrays.copyOf(nodeIds, newLength);
+                properties = Arrays.copyOf(properties, newLength);
+            }
+            nodeIds[size] = originalNodeId;
+            properties[size] = property;
+            ++size;
+        }
+
+        void writeTo(DataWriteOperations ops) throws KernelException {
+            for (int i = 0; i < size; i++) {
+                ops.nodeSetProperty(nodeIds[i], properties[i]);
+            }
         }
     }
 
@@ -19,11 +19,13 @@
 package org.neo4j.graphalgo;
 
 import org.junit.Ignore;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.UUID;
 
 /**
@@ -38,4 +40,11 @@ public class TestDatabaseCreator {
                 .newImpermanentDatabaseBuilder(new File(UUID.randomUUID().toString()))
                 .newGraphDatabase();
     }
+
+    public static GraphDatabaseAPI createTestDatabase(Path importDirectory) {
+        return (GraphDatabaseAPI)new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder(new File(UUID.randomUUID().toString()))
+                .setConfig(GraphDatabaseSettings.load_csv_file_url_root, importDirectory.toString())
+                .newGraphDatabase();
+    }
 }
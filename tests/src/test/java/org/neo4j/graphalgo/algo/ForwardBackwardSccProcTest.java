@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author mknblch
@@ -119,8 +120,25 @@ public class ForwardBackwardSccProcTest {
         assertEquals(3, call(getNodeId("g")).size());
     }
 
+    @Test
+    public void testHugeClusters() throws Exception {
+        final long[] nodes = {getNodeId("a"), getNodeId("b"), getNodeId("c")};
+        final LongScatterSet scc = call(getNodeId("a"), "huge");
+        assertEquals(3, scc.size());
+        for (long node : nodes) {
+            assertTrue(scc.contains(node));
+        }
+        assertEquals(3, call(getNodeId("d"), "huge").size());
+        assertEquals(3, call(getNodeId("g"), "huge").size());
+        assertEquals(1, call(getNodeId("x"), "huge").size());
+    }
+
     public LongScatterSet call(long nodeId) throws Exception {
-        String cypher = String.format("CALL algo.scc.forwardBackward.stream(%d, 'Node', 'TYPE', {concurrency:4}) YIELD nodeId RETURN nodeId", nodeId);
+        return call(nodeId, "heavy");
+    }
+
+    public LongScatterSet call(long nodeId, String graphImpl) throws Exception {
+        String cypher = String.format("CALL algo.scc.forwardBackward.stream(%d, 'Node', 'TYPE', {concurrency:4, graph:'%s'}) YIELD nodeId RETURN nodeId", nodeId, graphImpl);
         final LongScatterSet set = new LongScatterSet();
         api.execute(cypher).accept(row -> {
             set.add(row.getNumber("nodeId").longValue());
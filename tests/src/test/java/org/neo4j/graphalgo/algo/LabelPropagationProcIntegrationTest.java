@@ -173,6 +173,22 @@ public class LabelPropagationProcIntegrationTest {
                 assertEquals(42, row.getNumber("partition").intValue()));
     }
 
+    @Test
+    public void shouldRunColoredLabelPropagation() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {colored:true,iterations:5,write:false,batchSize:$batchSize,concurrency:$concurrency})";
+        String stream = "CALL algo.labelPropagation.stream(null, 'X', {colored:true,direction:'OUTGOING',batchSize:$batchSize,concurrency:$concurrency}) " +
+                "YIELD nodeId, label " +
+                "MATCH (node) WHERE id(node) = nodeId AND node.id IN [0,1] " +
+                "RETURN label";
+
+        runQuery(query, parParams(), row -> {
+            assertEquals(12, row.getNumber("nodes").intValue());
+            assertTrue(row.getBoolean("didConverge"));
+        });
+        runQuery(stream, parParams(), row ->
+                assertEquals(2, row.getNumber("label").intValue()));
+    }
+
     @Test
     public void shouldAllowHeavyGraph() {
         String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {graph:'heavy',batchSize:$batchSize,concurrency:$concurrency})";
@@ -186,14 +202,34 @@ public class LabelPropagationProcIntegrationTest {
     }
 
     @Test
-    public void shouldNotAllowLightOrHugeOrKernelGraph() throws Throwable {
+    public void shouldAllowHugeGraph() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {graph:'huge',batchSize:$batchSize,concurrency:$concurrency})";
+        runQuery(query, parParams(), row -> assertEquals(12, row.getNumber("nodes").intValue()));
+    }
+
+    @Test
+    public void shouldStreamResultsOnHugeGraph() {
+        // the huge graph carries no node properties, so every node starts out with its own id as label
+        // and nodes without outgoing relationships keep it
+        String query = "CALL algo.labelPropagation.stream(null, 'X', {graph:'huge', iterations: 20, direction: 'OUTGOING'}) " +
+                "YIELD nodeId, label " +
+                "MATCH (node) WHERE id(node) = nodeId AND NOT (node)-[:X]->() " +
+                "RETURN nodeId, label";
+
+        runQuery(query, row -> {
+            assertEquals(row.getNumber("nodeId").longValue(), row.getNumber("label").longValue());
+        });
+    }
+
+    @Test
+    public void shouldNotAllowLightOrKernelGraph() throws Throwable {
         String query = "CALL algo.labelPropagation(null, null, null, {graph:$graph})";
         Map<String, Object> params = parParams();
 
         exceptions.expect(IllegalArgumentException.class);
-        exceptions.expectMessage("The graph algorithm only supports these graph types; [heavy, cypher]");
+        exceptions.expectMessage("The graph algorithm only supports these graph types; [heavy, cypher, huge, huge-cypher]");
 
-        for (final String graph : Arrays.asList("light", "huge", "kernel")) {
+        for (final String graph : Arrays.asList("light", "kernel")) {
             params.put("graph", graph);
             try {
                 runQuery(query, params);
@@ -203,6 +239,20 @@ public class LabelPropagationProcIntegrationTest {
         }
     }
 
+    @Test
+    public void shouldRejectWriteToFile() throws Throwable {
+        String query = "CALL algo.labelPropagation(null, null, 'OUTGOING', {write:'file', graph:$graph})";
+
+        exceptions.expect(IllegalArgumentException.class);
+        exceptions.expectMessage("writing to a file is not supported by this procedure");
+
+        try {
+            runQuery(query, parParams());
+        } catch (QueryExecutionException qee) {
+            throw Exceptions.rootCause(qee);
+        }
+    }
+
     @Test
     public void shouldStreamResults() {
         // this one deliberately tests the streaming and non streaming versions against each other to check we get the same results
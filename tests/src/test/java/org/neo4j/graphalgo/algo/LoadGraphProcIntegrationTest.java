@@ -142,13 +142,12 @@ public class LoadGraphProcIntegrationTest {
         String query = "CALL algo.labelPropagation(null,null,null,{graph:$name,write:false})";
         try {
             runQuery(query, singletonMap("name", "foo"), row -> {
-                assertEquals(HeavyGraph.TYPE, graph);
+                assertTrue(HeavyGraph.TYPE.equals(graph) || HugeGraph.TYPE.equals(graph));
                 assertEquals(12, row.getNumber("nodes").intValue());
             });
         } catch (QueryExecutionException qee) {
             switch (graph) {
                 case GraphView.TYPE :
-                case HugeGraph.TYPE :
                     assertEquals(true, qee.getMessage().contains("The graph algorithm only supports these graph types"));
                     break;
                 default: fail("Error using wrong graph type:" + qee.getMessage());
@@ -34,6 +34,7 @@ import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -131,6 +132,30 @@ public class LouvainClusteringIntegrationTest {
         assertEquals(3, testMap.size());
     }
 
+    @Test
+    public void testStreamIntermediateCommunities() {
+        final String cypher = "CALL algo.louvain.stream('', '', {concurrency:1, levels:5, includeIntermediateCommunities:true}) " +
+                "YIELD nodeId, community, communities";
+        DB.execute(cypher).accept(row -> {
+            final long community = row.getNumber("community").longValue();
+            final List<?> communities = (List<?>) row.get("communities");
+            assertTrue("no intermediate communities", communities.size() > 0);
+            assertEquals(community, ((Number) communities.get(communities.size() - 1)).longValue());
+            return true;
+        });
+    }
+
+    @Test
+    public void testWriteIntermediateCommunities() {
+        DB.execute("CALL algo.louvain('', '', {concurrency:1, levels:5, includeIntermediateCommunities:true, " +
+                "writeProperty:'multiCommunity', intermediateCommunitiesWriteProperty:'multiCommunities'})").close();
+        DB.execute("MATCH (n:Node) RETURN n.multiCommunity AS community, n.multiCommunities AS communities").accept(row -> {
+            final long[] communities = (long[]) row.get("communities");
+            assertEquals(row.getNumber("community").longValue(), communities[communities.length - 1]);
+            return true;
+        });
+    }
+
     @Test
     public void testWithLabelRel() {
         final String cypher = "CALL algo.louvain('Node', 'TYPE', {concurrency:1}) " +
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PageRankIncrementalProcIntegrationTest {
+
+    private static GraphDatabaseAPI db;
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Label1 {name:\"a\"})\n" +
+            "CREATE (b:Label1 {name:\"b\"})\n" +
+            "CREATE (c:Label1 {name:\"c\"})\n" +
+            "CREATE (d:Label1 {name:\"d\"})\n" +
+            "CREATE (e:Label1 {name:\"e\"})\n" +
+            "CREATE (f:Label1 {name:\"f\"})\n" +
+            "CREATE (g:Label1 {name:\"g\"})\n" +
+            "CREATE (h:Label1 {name:\"h\"})\n" +
+            "CREATE (i:Label1 {name:\"i\"})\n" +
+            "CREATE (j:Label1 {name:\"j\"})\n" +
+            "CREATE\n" +
+            "  (b)-[:TYPE1]->(c),\n" +
+            "  (c)-[:TYPE1]->(b),\n" +
+            "  (d)-[:TYPE1]->(a),\n" +
+            "  (d)-[:TYPE1]->(b),\n" +
+            "  (e)-[:TYPE1]->(b),\n" +
+            "  (e)-[:TYPE1]->(d),\n" +
+            "  (e)-[:TYPE1]->(f),\n" +
+            "  (f)-[:TYPE1]->(b),\n" +
+            "  (f)-[:TYPE1]->(e),\n" +
+            "  (g)-[:TYPE1]->(b),\n" +
+            "  (g)-[:TYPE1]->(e),\n" +
+            "  (h)-[:TYPE1]->(b),\n" +
+            "  (h)-[:TYPE1]->(e),\n" +
+            "  (i)-[:TYPE1]->(b),\n" +
+            "  (i)-[:TYPE1]->(e),\n" +
+            "  (j)-[:TYPE1]->(e)\n";
+
+    @Rule
+    public ExpectedException exceptions = ExpectedException.none();
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(PageRankProc.class);
+    }
+
+    @Test
+    public void testIncrementalUpdateMatchesRecomputation() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {graph:'huge', iterations:40, writeProperty:'before'}) YIELD write",
+                row -> assertTrue(row.getBoolean("write")));
+
+        // a new relationship between existing nodes and a new node without a previous score
+        long a, g, x, b;
+        try (Transaction tx = db.beginTx()) {
+            final Label label = Label.label("Label1");
+            final RelationshipType type = RelationshipType.withName("TYPE1");
+            Node nodeA = db.findNode(label, "name", "a");
+            Node nodeG = db.findNode(label, "name", "g");
+            Node nodeB = db.findNode(label, "name", "b");
+            Node nodeX = db.createNode(label);
+            nodeX.setProperty("name", "x");
+            nodeA.createRelationshipTo(nodeG, type);
+            nodeX.createRelationshipTo(nodeB, type);
+            a = nodeA.getId();
+            g = nodeG.getId();
+            x = nodeX.getId();
+            b = nodeB.getId();
+            tx.success();
+        }
+
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {graph:'huge', iterations:40, writeProperty:'expected'}) YIELD write",
+                row -> assertTrue(row.getBoolean("write")));
+
+        runQuery(
+                "CALL algo.pageRank.incremental('Label1', 'TYPE1', $dirty, {previousProperty:'before', writeProperty:'after', tolerance:1e-6, concurrency:4}) " +
+                        "YIELD nodes, iterations, write, writeProperty",
+                MapUtil.map("dirty", Arrays.asList(a, g, x, b)),
+                row -> {
+                    assertEquals(11L, row.getNumber("nodes").longValue());
+                    assertTrue(row.getNumber("iterations").longValue() > 0L);
+                    assertTrue(row.getBoolean("write"));
+                    assertEquals("after", row.getString("writeProperty"));
+                });
+
+        try (Transaction tx = db.beginTx()) {
+            db.findNodes(Label.label("Label1")).forEachRemaining(node -> {
+                assertEquals(
+                        "score for " + node.getProperty("name"),
+                        ((Number) node.getProperty("expected")).doubleValue(),
+                        ((Number) node.getProperty("after")).doubleValue(),
+                        1e-2);
+            });
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testMissingPreviousPropertyIsRejected() throws Exception {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("No previous scores found in property 'noSuchScore'");
+        runQuery(
+                "CALL algo.pageRank.incremental('Label1', 'TYPE1', [], {previousProperty:'noSuchScore'}) YIELD nodes",
+                row -> {});
+    }
+
+    @Test
+    public void testOnlyHugeGraphIsSupported() throws Exception {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("The graph algorithm only supports these graph types; [huge, huge-cypher]");
+        runQuery(
+                "CALL algo.pageRank.incremental('Label1', 'TYPE1', [], {graph:'heavy'}) YIELD nodes",
+                row -> {});
+    }
+
+    private static void runQuery(
+            String query,
+            Consumer<Result.ResultRow> check) {
+        runQuery(query, MapUtil.map(), check);
+    }
+
+    private static void runQuery(
+            String query,
+            Map<String, Object> params,
+            Consumer<Result.ResultRow> check) {
+        try (Result result = db.execute(query, params)) {
+            result.accept(row -> {
+                check.accept(row);
+                return true;
+            });
+        }
+    }
+}
@@ -24,15 +24,20 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
-import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -41,6 +46,7 @@ import java.util.Map;
 import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -48,6 +54,7 @@ import static org.junit.Assert.fail;
 public class PageRankProcIntegrationTest {
 
     private static GraphDatabaseAPI db;
+    private static Path importDirectory;
     private static Map<Long, Double> expected = new HashMap<>();
 
     private static final String DB_CYPHER = "" +
@@ -96,8 +103,9 @@ public class PageRankProcIntegrationTest {
     }
 
     @BeforeClass
-    public static void setup() throws KernelException {
-        db = TestDatabaseCreator.createTestDatabase();
+    public static void setup() throws Exception {
+        importDirectory = Files.createTempDirectory("import");
+        db = TestDatabaseCreator.createTestDatabase(importDirectory);
         try (Transaction tx = db.beginTx()) {
             db.execute(DB_CYPHER).close();
             tx.success();
@@ -190,6 +198,50 @@ public class PageRankProcIntegrationTest {
         assertResult("pagerank");
     }
 
+    @Test
+    public void testPageRankWriteToFile() throws Exception {
+        Path directory = importDirectory.resolve("pagerank-" + graphImpl);
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {write:'file', writeDirectory:'pagerank-" + graphImpl + "', writeProperty:'filerank', graph:'"+graphImpl+"'}) YIELD write, writeProperty",
+                row -> {
+                    assertTrue(row.getBoolean("write"));
+                    assertEquals("filerank", row.getString("writeProperty"));
+                });
+
+        final Map<Long, Double> actual = new HashMap<>();
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("filerank" + Exporter.FILE_SUFFIX)));
+        while (records.hasRemaining()) {
+            long nodeId = records.getLong();
+            assertEquals(Exporter.FILE_TYPE_DOUBLE, records.get());
+            actual.put(nodeId, records.getDouble());
+        }
+        assertMapEquals(expected, actual);
+        try (Transaction tx = db.beginTx()) {
+            for (Long nodeId : expected.keySet()) {
+                assertFalse(db.getNodeById(nodeId).hasProperty("filerank"));
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testPageRankWriteToFileRejectsPathTraversal() throws Exception {
+        for (String config : Arrays.asList(
+                "writeDirectory:'../outside'",
+                "writeDirectory:'" + importDirectory.getParent() + "'",
+                "writeProperty:'../../filerank'")) {
+            try {
+                runQuery(
+                        "CALL algo.pageRank('Label1', 'TYPE1', {write:'file', " + config + ", graph:'" + graphImpl + "'}) YIELD write",
+                        row -> {});
+                fail("expected the file export to be rejected for " + config);
+            } catch (QueryExecutionException e) {
+                assertTrue(Exceptions.rootCause(e) instanceof IllegalArgumentException);
+            }
+        }
+        assertFalse(Files.exists(importDirectory.resolveSibling("outside")));
+    }
+
     @Test
     public void testPageRankParallelExecution() throws Exception {
         final Map<Long, Double> actual = new HashMap<>();
@@ -125,6 +125,15 @@ public class ParallelBetweennessCentralityIntegrationTest {
         testBetweennessWrite(cypher);
     }
 
+    @Test
+    public void testHugeParallelBC() throws Exception {
+
+        String cypher = "CALL algo.betweenness('', '', {graph:'huge', concurrency:4, write:true, writeProperty:'bc', stats:true}) YIELD " +
+                "loadMillis, computeMillis, writeMillis, nodes, minCentrality, maxCentrality, sumCentrality";
+
+        testBetweennessWrite(cypher);
+    }
+
     @Test
     public void testBC() throws Exception {
 
@@ -134,4 +134,23 @@ public class PrimProcIntegrationTest {
 
         assertEquals(relCount, 4);
     }
+
+    @Test
+    public void testHugeMatchesHeavy() throws Exception {
+        assertEquals(12.0, spanningTreeWeight("algo.spanningTree", "heavy", "MIN_HEAVY"), 0.0);
+        assertEquals(12.0, spanningTreeWeight("algo.spanningTree", "huge", "MIN_HUGE"), 0.0);
+        assertEquals(17.0, spanningTreeWeight("algo.spanningTree.maximum", "heavy", "MAX_HEAVY"), 0.0);
+        assertEquals(17.0, spanningTreeWeight("algo.spanningTree.maximum", "huge", "MAX_HUGE"), 0.0);
+    }
+
+    private static double spanningTreeWeight(String procedure, String graph, String writeProperty) {
+        db.execute("MATCH(n:Node{start:true}) WITH n CALL " + procedure + "('Node', 'TYPE', 'cost', id(n), " +
+                "{writeProperty:'" + writeProperty + "', graph:'" + graph + "', write:true}) " +
+                "YIELD effectiveNodeCount RETURN effectiveNodeCount").close();
+
+        return db.execute("MATCH (a)-[r:" + writeProperty + "]->(b) RETURN sum(r.cost) AS weight")
+                .<Number>columnAs("weight")
+                .next()
+                .doubleValue();
+    }
 }
@@ -83,6 +83,15 @@ public class ShortestPathAStarTest {
 	
 	@Test
     public void testAStarResult() throws Exception {
+		assertSingaporeToChiba("CALL algo.shortestPath.astar.stream(start, end, 'cost') ");
+	}
+
+	@Test
+    public void testBidirectionalAStarResult() throws Exception {
+		assertSingaporeToChiba("CALL algo.shortestPath.astar.stream(start, end, 'cost', 'latitude', 'longitude', {bidirectional:true}) ");
+	}
+
+	private void assertSingaporeToChiba(String call) {
 		final List<String> expectedNode = Arrays.asList("SINGAPORE", "SINGAPORE STRAIT", "WAYPOINT 68", 
 				"WAYPOINT 70", "WAYPOINT 74", "SOUTH CHINA SEA", "LUZON STRAIT", "WAYPOINT 87", "CHIBA");
 		final List<Double> expectedDistance = Arrays.asList(0.0, 29.0, 723.0, 895.0, 996.0, 1353.0, 
@@ -91,7 +100,7 @@ public class ShortestPathAStarTest {
 		final List<Double> actualDistance = new ArrayList<Double>(); 
         db.execute(
                 "MATCH (start:Node{name:'SINGAPORE'}), (end:Node{name:'CHIBA'}) " +
-                        "CALL algo.shortestPath.astar.stream(start, end, 'cost') " +
+                        call +
                         "YIELD nodeId, cost RETURN nodeId, cost ")
                 .accept(row -> {
                     long nodeId = row.getNumber("nodeId").longValue();
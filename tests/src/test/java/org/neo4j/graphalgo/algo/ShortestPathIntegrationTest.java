@@ -107,6 +107,24 @@ public class ShortestPathIntegrationTest {
         verify(consumer, times(1)).accept(anyLong(), eq(3.0));
     }
 
+    @Test
+    public void testBidirectionalDijkstraStream() throws Exception {
+        PathConsumer consumer = mock(PathConsumer.class);
+        DB.execute(
+                "MATCH (start:Node{type:'start'}), (end:Node{type:'end'}) " +
+                        "CALL algo.shortestPath.stream(start, end, 'cost',{graph:'" + graphImpl + "', direction:'OUTGOING', bidirectional:true}) " +
+                        "YIELD nodeId, cost RETURN nodeId, cost")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    consumer.accept((Long) row.getNumber("nodeId"), (Double) row.getNumber("cost"));
+                    return true;
+                });
+        verify(consumer, times(4)).accept(anyLong(), anyDouble());
+        verify(consumer, times(1)).accept(anyLong(), eq(0.0));
+        verify(consumer, times(1)).accept(anyLong(), eq(1.0));
+        verify(consumer, times(1)).accept(anyLong(), eq(2.0));
+        verify(consumer, times(1)).accept(anyLong(), eq(3.0));
+    }
+
     @Test
     public void testDijkstra() throws Exception {
         DB.execute(
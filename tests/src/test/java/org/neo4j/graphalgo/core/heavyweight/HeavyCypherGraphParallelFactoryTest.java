@@ -90,6 +90,17 @@ public class HeavyCypherGraphParallelFactoryTest {
         loadAndTestGraph(nodeStatement, relStatement, true);
     }
 
+    @Test
+    public void testLoadRelationshipsAccumulateWeightWithoutPagingCypher() throws Exception {
+        String nodeStatement = "MATCH (n) RETURN id(n) as id";
+        String relStatement =
+                "MATCH (n)-[r:REL]->(m) RETURN id(n) as source, id(m) as target, r.prop/2.0 as weight " +
+                "UNION ALL "+
+                "MATCH (n)-[r:REL]->(m) RETURN id(n) as source, id(m) as target, r.prop/2.0 as weight ";
+
+        loadAndTestGraph(nodeStatement, relStatement, true);
+    }
+
     @Test
     public void testLoadCypherBothParallel() throws Exception {
         String nodeStatement = "MATCH (n) WITH n SKIP {skip} LIMIT {limit} RETURN id(n) as id";
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.concurrent.atomic.DoubleAdder;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeCypherGraphFactoryTest {
+
+    private static final String NODES = "MATCH (n) RETURN id(n) as id";
+    private static final String RELS = "MATCH (n)-[r]->(m) WHERE type(r) = {rel} RETURN id(n) as source, id(m) as target, r.prop as weight";
+
+    private static GraphDatabaseService db;
+
+    private static long id1;
+    private static long id2;
+    private static long id3;
+
+    @BeforeClass
+    public static void setUp() {
+
+        db = TestDatabaseCreator.createTestDatabase();
+
+        db.execute("CREATE (n1)-[:REL  {prop:1}]->(n2)-[:REL {prop:2}]->(n3) CREATE (n1)-[:REL {prop:3}]->(n3) RETURN id(n1) AS id1, id(n2) AS id2, id(n3) AS id3").accept(row -> {
+            id1 = row.getNumber("id1").longValue();
+            id2 = row.getNumber("id2").longValue();
+            id3 = row.getNumber("id3").longValue();
+            return true;
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testLoadCypher() {
+        final HugeGraph graph = load(new GraphLoader((GraphDatabaseAPI) db).withDirection(Direction.BOTH));
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toHugeMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toHugeMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toHugeMappedNodeId(id1), Direction.INCOMING));
+        assertEquals(1, graph.degree(graph.toHugeMappedNodeId(id2), Direction.INCOMING));
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id3), Direction.INCOMING));
+        assertEquals(6.0, totalWeight(graph, Direction.OUTGOING), 0.0);
+        assertEquals(6.0, totalWeight(graph, Direction.INCOMING), 0.0);
+    }
+
+    @Test
+    public void testLoadCypherUndirected() {
+        final HugeGraph graph = load(new GraphLoader((GraphDatabaseAPI) db).asUndirected(true));
+
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(12.0, totalWeight(graph, Direction.OUTGOING), 0.0);
+    }
+
+    @Test
+    public void testLoadCypherAccumulateWeights() {
+        final HugeGraph graph = new GraphLoader((GraphDatabaseAPI) db)
+                .withParams(MapUtil.map("rel", "REL"))
+                .withRelationshipWeightsFromProperty("prop", 0)
+                .withAccumulateWeights(true)
+                .withLabel(NODES)
+                .withRelationshipType(RELS + " UNION ALL " + RELS)
+                .load(HugeCypherGraphFactory.class);
+
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(12.0, totalWeight(graph, Direction.OUTGOING), 0.0);
+    }
+
+    private static HugeGraph load(GraphLoader loader) {
+        return (HugeGraph) loader
+                .withParams(MapUtil.map("rel", "REL"))
+                .withRelationshipWeightsFromProperty("prop", 0)
+                .withLabel(NODES)
+                .withRelationshipType(RELS)
+                .load(HugeCypherGraphFactory.class);
+    }
+
+    private static double totalWeight(HugeGraph graph, Direction direction) {
+        DoubleAdder total = new DoubleAdder();
+        graph.forEachNode(n -> {
+            graph.forEachWeightedRelationship(n, direction, (s, t, w) -> {
+                total.add(w);
+                return true;
+            });
+            return true;
+        });
+        return total.sum();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public final class HugeGraphSnapshotTest {
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreSavedGraph() throws Exception {
+        db.execute("UNWIND range(0, 99) AS i CREATE (:N {id: i})").close();
+        db.execute("MATCH (a:N), (b:N) WHERE (a.id * 7 + b.id) % 13 = 0 " +
+                "CREATE (a)-[:R {w: a.id + b.id / 100.0}]->(b)").close();
+
+        HugeGraph graph = (HugeGraph) new GraphLoader(db)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+
+        File file = folder.newFile("graph.snapshot");
+        long bytes = HugeGraphSnapshot.save(graph, file.toPath());
+        assertEquals(file.length(), bytes);
+
+        HugeGraph restored = HugeGraphSnapshot.restore(file.toPath(), AllocationTracker.EMPTY);
+
+        assertEquals(graph.nodeCount(), restored.nodeCount());
+        graph.forEachNode((long node) -> {
+            assertEquals(graph.toOriginalNodeId(node), restored.toOriginalNodeId(node));
+            assertEquals(node, restored.toHugeMappedNodeId(graph.toOriginalNodeId(node)));
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(graph.degree(node, direction), restored.degree(node, direction));
+                assertEquals(relationships(graph, node, direction), relationships(restored, node, direction));
+            }
+            return true;
+        });
+
+        // ids of nodes that have been created after the snapshot
+        for (long nodeId : new long[]{100L, 1L << 20, 1L << 40}) {
+            assertFalse(restored.contains(nodeId));
+            assertEquals(-1L, restored.toHugeMappedNodeId(nodeId));
+        }
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachWeightedRelationship(node, direction, (s, t, w) -> {
+            relationships.add(s + "-" + t + ":" + w);
+            return true;
+        });
+        return relationships;
+    }
+}
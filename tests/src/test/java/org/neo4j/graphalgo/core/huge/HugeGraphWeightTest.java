@@ -64,6 +64,23 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    @Test
+    public void shouldIterateWeightsAlongsideTargets() throws Exception {
+        mkDb(WEIGHT_BATCH_SIZE << 1, 2);
+        HugeGraph graph = loadGraph(db);
+
+        graph.forEachNode((long node) -> {
+            graph.forEachWeightedRelationship(node, Direction.OUTGOING, (src, tgt, weight) -> {
+                int fakeId = ((int) src << 16) | (int) tgt & 0xFFFF;
+                assertEquals(
+                        "Wrong weight for (" + src + ")->(" + tgt + ")",
+                        fakeId, (long) weight);
+                return true;
+            });
+            return true;
+        });
+    }
+
     @Test(timeout = 10000)
     public void shouldLoadMoreWeights() throws Exception {
         mkDb(WEIGHT_BATCH_SIZE, 4);
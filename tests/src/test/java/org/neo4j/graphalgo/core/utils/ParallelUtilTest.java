@@ -31,11 +31,14 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Consumer;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -278,6 +281,53 @@ public final class ParallelUtilTest extends RandomizedTest {
         verify(pool, times(11)).getActiveCount();
     }
 
+    @Test
+    public void shouldPartitionByDegree() throws Exception {
+        // node 0 has as many relationships as all other nodes together
+        long[] partition = ParallelUtil.degreePartition(
+                1000L,
+                4,
+                node -> node == 0L ? 3000 : 1);
+        assertArrayEquals(new long[]{0L, 1L, 626L, 1000L}, partition);
+    }
+
+    @Test
+    public void shouldNotPartitionBelowMinBatchCost() throws Exception {
+        long[] partition = ParallelUtil.degreePartition(
+                1000L,
+                4,
+                10_000L,
+                node -> 1);
+        assertArrayEquals(new long[]{0L, 1000L}, partition);
+    }
+
+    @Test
+    public void shouldIterateAllBatchesInParallel() throws Exception {
+        int nodeCount = between(1000, 100_000);
+        long[] partition = ParallelUtil.degreePartition(
+                nodeCount,
+                between(2, 64),
+                node -> (int) (node % 7L));
+        AtomicIntegerArray visits = new AtomicIntegerArray(nodeCount);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelUtil.iterateParallel(
+                    pool,
+                    partition,
+                    TerminationFlag.RUNNING_TRUE,
+                    () -> (start, end) -> {
+                        for (long node = start; node < end; node++) {
+                            visits.incrementAndGet((int) node);
+                        }
+                    });
+        } finally {
+            pool.shutdown();
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            assertEquals(1, visits.get(node));
+        }
+    }
+
     private static void withPool(
             int nThreads,
             ThrowingConsumer<ExecutorService, ? extends Throwable> block) {
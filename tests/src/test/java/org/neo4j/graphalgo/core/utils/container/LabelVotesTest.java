@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LabelVotesTest {
+
+    @Test
+    public void testFallbackWithoutVotes() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        votes.reset(0);
+        assertEquals(42L, votes.best(42L));
+        votes.reset(LabelVotes.SMALL_DEGREE + 1);
+        assertEquals(42L, votes.best(42L));
+    }
+
+    @Test
+    public void testSmallDegree() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        votes.reset(5);
+        votes.add(7L, 1.0);
+        votes.add(3L, 1.0);
+        votes.add(7L, 1.5);
+        votes.add(5L, 2.0);
+        votes.add(3L, 1.0);
+        assertEquals(7L, votes.best(-1L));
+    }
+
+    @Test
+    public void testLargeDegree() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        final int degree = 10 * LabelVotes.SMALL_DEGREE;
+        votes.reset(degree);
+        for (int i = 0; i < degree; i++) {
+            votes.add(i % 100, 1.0);
+        }
+        votes.add(42L, 0.5);
+        assertEquals(42L, votes.best(-1L));
+    }
+
+    @Test
+    public void testTiesPreferSmallerLabel() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        votes.reset(3);
+        votes.add(9L, 1.0);
+        votes.add(4L, 1.0);
+        votes.add(6L, 1.0);
+        assertEquals(4L, votes.best(-1L));
+
+        final int degree = 10 * LabelVotes.SMALL_DEGREE;
+        votes.reset(degree);
+        for (int i = degree; i > 0; i--) {
+            votes.add(i, 1.0);
+        }
+        assertEquals(1L, votes.best(-1L));
+    }
+
+    @Test
+    public void testResetForgetsPreviousVotes() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        final int degree = 10 * LabelVotes.SMALL_DEGREE;
+        votes.reset(degree);
+        for (int i = 0; i < degree; i++) {
+            votes.add(1L, 1.0);
+        }
+        votes.reset(degree);
+        votes.add(2L, 1.0);
+        assertEquals(2L, votes.best(-1L));
+
+        votes.reset(1);
+        votes.add(3L, 1.0);
+        assertEquals(3L, votes.best(-1L));
+    }
+
+    @Test
+    public void testMoreVotesThanAnnounced() throws Exception {
+        final LabelVotes votes = new LabelVotes();
+        votes.reset(1);
+        for (int i = 0; i < 1000; i++) {
+            votes.add(i, i == 500 ? 2.0 : 1.0);
+        }
+        assertEquals(500L, votes.best(-1L));
+    }
+}
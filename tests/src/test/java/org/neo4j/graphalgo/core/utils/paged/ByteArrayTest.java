@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class ByteArrayTest {
+
+    @Test
+    public void shouldReadAdjacencyFromAllStorages() {
+        long[][] targets = targets(new Random(42L));
+        for (ArrayStorage storage : ArrayStorage.values()) {
+            ByteArray array = ByteArray.newArray(0L, storage, AllocationTracker.EMPTY);
+            long[] offsets = write(array, targets);
+            array.finish();
+
+            ByteArray.DeltaCursor cursor = array.newCursor(true);
+            for (int node = 0; node < targets.length; node++) {
+                long[] expected = targets[node];
+                assertEquals(expected.length, array.getInt(offsets[node]));
+                array.deltaCursor(cursor, offsets[node]);
+                assertEquals(expected.length, cursor.cost());
+                for (long target : expected) {
+                    assertTrue(cursor.hasNextVLong());
+                    assertEquals(target, cursor.nextVLong());
+                    assertEquals(target / 2.0, cursor.weight(), 0.0);
+                }
+                assertFalse(cursor.hasNextVLong());
+            }
+
+            // skipping must work across all storages as well
+            long[] large = targets[0];
+            array.deltaCursor(cursor, offsets[0]);
+            assertEquals(large[large.length / 2 + 1], cursor.skipUntil(large[large.length / 2]));
+            array.deltaCursor(cursor, offsets[0]);
+            assertEquals(large[large.length / 2], cursor.advance(large[large.length / 2]));
+
+            array.release();
+        }
+    }
+
+    @Test
+    public void shouldKeepOffHeapPagesReadableForCursorsAfterRelease() {
+        long[][] targets = targets(new Random(1337L));
+        for (ArrayStorage storage : new ArrayStorage[]{ArrayStorage.OFFHEAP, ArrayStorage.MMAP}) {
+            ByteArray array = ByteArray.newArray(0L, storage, AllocationTracker.EMPTY);
+            long[] offsets = write(array, targets);
+            array.finish();
+
+            // a concurrent copy of the graph still reads while another one is released
+            ByteArray.DeltaCursor cursor = array.newCursor(true);
+            array.release();
+            System.gc();
+
+            for (int node = 0; node < targets.length; node++) {
+                array.deltaCursor(cursor, offsets[node]);
+                for (long target : targets[node]) {
+                    assertEquals(target, cursor.nextVLong());
+                }
+                assertFalse(cursor.hasNextVLong());
+            }
+        }
+    }
+
+    @Test
+    public void shouldSliceMappedBuffersOutOfRegions() {
+        // spans several regions, the last buffer is larger than the next region
+        int[] sizes = new int[101];
+        Arrays.fill(sizes, 1 << 18);
+        sizes[100] = 1 << 27;
+        ByteBuffer[] buffers = new ByteBuffer[sizes.length];
+        try (OffHeapMemory.MappedFile file = new OffHeapMemory.MappedFile(".test")) {
+            for (int i = 0; i < sizes.length; i++) {
+                buffers[i] = file.map(sizes[i]);
+                assertEquals(sizes[i], buffers[i].capacity());
+                buffers[i].putInt(0, i);
+                buffers[i].putInt(sizes[i] - Integer.BYTES, ~i);
+            }
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(i, buffers[i].getInt(0));
+            assertEquals(~i, buffers[i].getInt(sizes[i] - Integer.BYTES));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailOffHeapAllocationBeyondDirectMemoryLimit() {
+        OffHeapMemory.checkDirectMemory(Long.MAX_VALUE / 2L);
+    }
+
+    /**
+     * The first node has an adjacency that is larger than a single page,
+     * the others span many pages in total.
+     */
+    private static long[][] targets(Random random) {
+        long[][] targets = new long[2000][];
+        for (int node = 0; node < targets.length; node++) {
+            int degree = node == 0 ? 100_000 : random.nextInt(200);
+            long[] nodeTargets = new long[degree];
+            long target = 0L;
+            for (int i = 0; i < degree; i++) {
+                target += 1L + random.nextInt(1 << 20);
+                nodeTargets[i] = target;
+            }
+            targets[node] = nodeTargets;
+        }
+        return targets;
+    }
+
+    /**
+     * Writes the targets like the huge importer does, interleaving two writers.
+     */
+    private static long[] write(ByteArray array, long[][] targets) {
+        ByteArray.LocalAllocator[] allocators = {array.newAllocator(), array.newAllocator()};
+        for (ByteArray.LocalAllocator allocator : allocators) {
+            allocator.prepare();
+        }
+        long[] offsets = new long[targets.length];
+        for (int node = 0; node < targets.length; node++) {
+            ByteArray.LocalAllocator allocator = allocators[node & 1];
+            long[] nodeTargets = targets[node];
+            long requiredSize = Integer.BYTES + (long) nodeTargets.length * Double.BYTES;
+            long previous = 0L;
+            for (long target : nodeTargets) {
+                requiredSize += DeltaEncoding.vSize(target - previous);
+                previous = target;
+            }
+            offsets[node] = allocator.allocate(requiredSize);
+            ByteArray.BulkAdder adder = allocator.adder;
+            adder.addUnsignedInt(nodeTargets.length);
+            for (long target : nodeTargets) {
+                adder.addDouble(target / 2.0);
+            }
+            previous = 0L;
+            for (long target : nodeTargets) {
+                adder.addVLong(target - previous);
+                previous = target;
+            }
+        }
+        return offsets;
+    }
+}
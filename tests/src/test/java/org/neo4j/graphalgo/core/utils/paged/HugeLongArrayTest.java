@@ -290,6 +290,65 @@ public final class HugeLongArrayTest extends RandomizedTest {
         });
     }
 
+    @Test
+    public void shouldSupportOffHeapStorage() {
+        for (boolean mapped : new boolean[]{false, true}) {
+            int size = between(10, 20);
+            HugeLongArray array = HugeLongArray.newOffHeapArray(size, mapped, AllocationTracker.EMPTY);
+            int index = between(2, 8);
+            int value = between(42, 1337);
+            int newValue = between(42, 1337);
+            assertEquals(0L, array.get(index));
+            array.set(index, value);
+            array.or(index, newValue);
+            assertEquals(value | newValue, array.get(index));
+            assertEquals(newValue, array.and(index, newValue));
+            array.addTo(index, value);
+            assertEquals(newValue + value, array.get(index));
+            assertEquals(size, array.size());
+            assertEquals(size * 8L, array.release());
+        }
+    }
+
+    @Test
+    public void shouldHaveCursorForOffHeapPages() {
+        for (boolean mapped : new boolean[]{false, true}) {
+            int size = between(1_100_000, 1_200_000);
+            HugeLongArray array = HugeLongArray.newOffHeapArray(size, mapped, AllocationTracker.EMPTY);
+            array.setAll(i -> i + 1L);
+
+            long actual = 0L;
+            long expectedBase = 0L;
+            final HugeLongArray.Cursor cursor = array.cursor(array.newCursor());
+            while (cursor.next()) {
+                assertEquals(expectedBase, cursor.base);
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    actual += cursor.array[i];
+                }
+                expectedBase += cursor.limit - cursor.offset;
+            }
+
+            assertEquals(size, expectedBase);
+            assertEquals(((long) size * (long) (size + 1)) / 2L, actual);
+        }
+    }
+
+    @Test
+    public void shouldArrayCopyBetweenStorages() {
+        int sizeSource = between(13, 42);
+        int sizeTarget = between(13, 42);
+        testArrayCopy(
+                HugeLongArray.newOffHeapArray(sizeSource, randomBoolean(), AllocationTracker.EMPTY),
+                sizeSource,
+                HugeLongArray.newPagedArray(sizeTarget, AllocationTracker.EMPTY),
+                sizeTarget);
+        testArrayCopy(
+                HugeLongArray.newSingleArray(sizeSource, AllocationTracker.EMPTY),
+                sizeSource,
+                HugeLongArray.newOffHeapArray(sizeTarget, randomBoolean(), AllocationTracker.EMPTY),
+                sizeTarget);
+    }
+
     private void testArray(int size, Consumer<HugeLongArray> block) {
         if (randomBoolean()) {
             block.accept(HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY));
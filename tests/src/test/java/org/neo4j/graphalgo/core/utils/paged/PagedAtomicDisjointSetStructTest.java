@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedAtomicDisjointSetStructTest {
+
+    @Test
+    public void testSetUnion() throws Exception {
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(7, AllocationTracker.EMPTY).reset();
+
+        // {0}{1}{2}{3}{4}{5}{6}
+        assertFalse(struct.connected(0, 1));
+        assertEquals(7, struct.getSetCount());
+
+        struct.union(0, 1);
+        // {0,1}{2}{3}{4}{5}{6}
+        assertTrue(struct.connected(0, 1));
+        assertFalse(struct.connected(2, 3));
+        assertEquals(6, struct.getSetCount());
+
+        struct.union(3, 2);
+        // {0,1}{2,3}{4}{5}{6}
+        assertTrue(struct.connected(2, 3));
+        assertFalse(struct.connected(0, 2));
+        assertEquals(5, struct.getSetCount());
+
+        struct.union(3, 1);
+        // {0,1,2,3}{4}{5}{6}
+        assertTrue(struct.connected(0, 2));
+        assertTrue(struct.connected(1, 3));
+        assertFalse(struct.connected(4, 5));
+        assertEquals(4, struct.getSetCount());
+
+        struct.union(6, 5);
+        // {0,1,2,3}{4}{5,6}
+        assertTrue(struct.connected(5, 6));
+        assertFalse(struct.connected(0, 6));
+        assertEquals(3, struct.getSetCount());
+    }
+
+    @Test
+    public void testSetIdIsSmallestNodeId() throws Exception {
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(10, AllocationTracker.EMPTY).reset();
+        struct.union(9, 7);
+        struct.union(8, 9);
+        struct.union(5, 4);
+        struct.union(8, 5);
+
+        for (long node : new long[]{4, 5, 7, 8, 9}) {
+            assertEquals(4L, struct.find(node));
+            assertEquals(4L, struct.findNoOpt(node));
+        }
+        assertEquals(6L, struct.find(6));
+        assertEquals(6L, struct.getSetCount());
+    }
+
+    @Test
+    public void testConcurrentUnion() throws Exception {
+        final int nodeCount = 100_000;
+        final int threads = 4;
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(nodeCount, AllocationTracker.EMPTY).reset();
+
+        // every thread links each node to its successor with a different stride,
+        // all together they chain up the even and the odd nodes
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            tasks.add(() -> {
+                for (long node = offset; node + 2 < nodeCount; node += threads) {
+                    struct.union(node + 2, node);
+                }
+            });
+        }
+        ParallelUtil.run(tasks, Pools.DEFAULT);
+
+        assertEquals(2L, struct.getSetCount());
+        for (long node = 0; node < nodeCount; node++) {
+            assertEquals(node % 2, struct.find(node));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.write;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExporterTest {
+
+    private static Path importDirectory;
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        importDirectory = Files.createTempDirectory("import");
+        db = TestDatabaseCreator.createTestDatabase(importDirectory);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldWriteLongValuesWithoutLosingPrecision() throws Exception {
+        final long[] values = {(1L << 53) + 1L, Long.MAX_VALUE, 42L};
+        final HugeLongArray communities = HugeLongArray.newArray(values.length, AllocationTracker.EMPTY);
+        for (int i = 0; i < values.length; i++) {
+            communities.set(i, values[i]);
+        }
+
+        Exporter.of(new Identity(values.length), db)
+                .toDirectory("communities")
+                .build()
+                .write("community", communities, HugeLongArray.Translator.INSTANCE);
+
+        final Map<Long, Long> actual = new HashMap<>();
+        final ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(
+                importDirectory.resolve("communities").resolve("community" + Exporter.FILE_SUFFIX)));
+        while (records.hasRemaining()) {
+            long nodeId = records.getLong();
+            assertEquals(Exporter.FILE_TYPE_LONG, records.get());
+            actual.put(nodeId, records.getLong());
+        }
+        assertEquals(values.length, actual.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], (long) actual.get((long) i));
+        }
+    }
+
+    @Test
+    public void shouldWriteBatchesLargerThanASliceToFile() throws Exception {
+        final int nodeCount = 250_001;
+        final HugeLongArray communities = HugeLongArray.newArray(nodeCount, AllocationTracker.EMPTY);
+        communities.setAll(nodeId -> nodeId * 3L);
+
+        Exporter.of(new Identity(nodeCount), db)
+                .withWriteBatchSize(Integer.MAX_VALUE)
+                .toDirectory("large")
+                .build()
+                .write("community", communities, HugeLongArray.Translator.INSTANCE);
+
+        final boolean[] seen = new boolean[nodeCount];
+        final ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(
+                importDirectory.resolve("large").resolve("community" + Exporter.FILE_SUFFIX)));
+        while (records.hasRemaining()) {
+            int nodeId = (int) records.getLong();
+            assertFalse("duplicate record for " + nodeId, seen[nodeId]);
+            seen[nodeId] = true;
+            assertEquals(Exporter.FILE_TYPE_LONG, records.get());
+            assertEquals(nodeId * 3L, records.getLong());
+        }
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            assertTrue("missing record for " + nodeId, seen[nodeId]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDirectoryOutsideOfImportDirectory() throws Exception {
+        Exporter.of(new Identity(1), db).toDirectory("../outside");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectAbsoluteDirectoryOutsideOfImportDirectory() throws Exception {
+        Exporter.of(new Identity(1), db).toDirectory(importDirectory.getParent().toString());
+    }
+
+    @Test
+    public void shouldRejectSymbolicLinkOutOfImportDirectory() throws Exception {
+        final Path outside = Files.createTempDirectory("outside");
+        Files.createSymbolicLink(importDirectory.resolve("link"), outside);
+        try {
+            Exporter.of(new Identity(1), db).toDirectory("link/communities");
+            fail("expected the linked directory to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertFalse(Files.exists(outside.resolve("communities")));
+        }
+    }
+
+    @Test
+    public void shouldNotFollowSymbolicLinkToFile() throws Exception {
+        final Path target = Files.createTempFile("outside", Exporter.FILE_SUFFIX);
+        Files.createDirectories(importDirectory.resolve("linked"));
+        Files.createSymbolicLink(importDirectory.resolve("linked").resolve("community" + Exporter.FILE_SUFFIX), target);
+        try {
+            Exporter.of(new Identity(1), db)
+                    .toDirectory("linked")
+                    .build()
+                    .write("community", new double[]{1.0}, Translators.DOUBLE_ARRAY_TRANSLATOR);
+            fail("expected the linked file to be rejected");
+        } catch (UncheckedIOException expected) {
+            assertEquals(0L, Files.size(target));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPropertyThatIsNotAFileName() throws Exception {
+        Exporter.resolveFile(Exporter.exportRoot(db), "../../community");
+    }
+
+    @Test
+    public void shouldResolveImportFileWithinImportDirectory() throws Exception {
+        final Path file = Exporter.resolveImportFile(db, "snapshots/graph.snapshot");
+        assertEquals(importDirectory.toRealPath().resolve("snapshots").resolve("graph.snapshot"), file);
+        assertTrue(Files.isDirectory(file.getParent()));
+    }
+
+    @Test
+    public void shouldRejectImportFileOutsideOfImportDirectory() throws Exception {
+        for (String file : Arrays.asList(
+                "../graph.snapshot",
+                "snapshots/../../graph.snapshot",
+                importDirectory.resolveSibling("graph.snapshot").toString(),
+                ".")) {
+            try {
+                Exporter.resolveImportFile(db, file);
+                fail("expected " + file + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectImportFileThatLinksOutOfImportDirectory() throws Exception {
+        final Path target = Files.createTempFile("outside", ".snapshot");
+        Files.createSymbolicLink(importDirectory.resolve("linked.snapshot"), target);
+        Exporter.resolveImportFile(db, "linked.snapshot");
+    }
+
+    private static final class Identity implements IdMapping {
+        private final long nodeCount;
+
+        private Identity(long nodeCount) {
+            this.nodeCount = nodeCount;
+        }
+
+        @Override
+        public int toMappedNodeId(long nodeId) {
+            return (int) nodeId;
+        }
+
+        @Override
+        public long toOriginalNodeId(int nodeId) {
+            return nodeId;
+        }
+
+        @Override
+        public boolean contains(long nodeId) {
+            return nodeId < nodeCount;
+        }
+
+        @Override
+        public long nodeCount() {
+            return nodeCount;
+        }
+    }
+}
@@ -24,10 +24,13 @@ import org.junit.Test;
 import org.neo4j.graphalgo.BetweennessCentralityProc;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.betweenness.*;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -138,6 +141,29 @@ public class BetweennessCentralityTest {
                 .forEach(r -> System.out.println(name(r.nodeId) + " -> " + r.centrality));
     }
 
+    @Test
+    public void testHugePBC() throws Exception {
+
+        final TestConsumer mock = mock(TestConsumer.class);
+
+        final HugeGraph hugeGraph = (HugeGraph) new GraphLoader(db)
+                .withAnyRelationshipType()
+                .withAnyLabel()
+                .withoutNodeProperties()
+                .load(HugeGraphFactory.class);
+
+        new HugeParallelBetweennessCentrality(hugeGraph, AllocationTracker.EMPTY, Pools.DEFAULT, 4)
+                .compute()
+                .resultStream()
+                .forEach(r -> mock.consume(name(r.nodeId), r.centrality));
+
+        verify(mock, times(1)).consume(eq("a"), eq(0.0));
+        verify(mock, times(1)).consume(eq("b"), eq(3.0));
+        verify(mock, times(1)).consume(eq("c"), eq(4.0));
+        verify(mock, times(1)).consume(eq("d"), eq(3.0));
+        verify(mock, times(1)).consume(eq("e"), eq(0.0));
+    }
+
     @Test
     public void testSuccessorBrandes() throws Exception {
 
@@ -165,4 +165,30 @@ public class ClosenessCentralityTest {
             assertArrayEquals(EXPECTED, centrality, 0.1);
         }
     }
+
+    @Test
+    public void testSampledCentrality() throws Exception {
+
+        // all but one node are pivots, so every estimate misses at most one distance
+        final double[] centrality = new MSClosenessCentrality(graph, Pools.DEFAULT_CONCURRENCY, Pools.DEFAULT, false)
+                .withSampleSize(4)
+                .compute()
+                .exportToArray();
+
+        assertArrayEquals(EXPECTED, centrality, 0.2);
+    }
+
+    @Test
+    public void testHugeSampledCentrality() throws Exception {
+        if (graph instanceof HugeGraph) {
+            HugeGraph hugeGraph = (HugeGraph) graph;
+            final double[] centrality =
+                    new HugeMSClosenessCentrality(hugeGraph, AllocationTracker.EMPTY, Pools.DEFAULT_CONCURRENCY, Pools.DEFAULT, false)
+                            .withSampleSize(4)
+                            .compute()
+                            .exportToArray();
+
+            assertArrayEquals(EXPECTED, centrality, 0.2);
+        }
+    }
 }
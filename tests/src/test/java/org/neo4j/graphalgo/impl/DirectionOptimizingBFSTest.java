@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.traverse.DirectionOptimizingBFS;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DirectionOptimizingBFSTest {
+
+    private static final String CYPHER =
+            "CREATE (a:Node {name:'a'})\n" +
+                    "CREATE (b:Node {name:'b'})\n" +
+                    "CREATE (c:Node {name:'c'})\n" +
+                    "CREATE (d:Node {name:'d'})\n" +
+                    "CREATE (e:Node {name:'e'})\n" +
+                    "CREATE (f:Node {name:'f'})\n" +
+                    "CREATE (g:Node {name:'g'})\n" +
+                    "CREATE" +
+                    " (a)-[:TYPE]->(b),\n" +
+                    " (a)-[:TYPE]->(c),\n" +
+                    " (b)-[:TYPE]->(d),\n" +
+                    " (c)-[:TYPE]->(d),\n" +
+                    " (d)-[:TYPE]->(e),\n" +
+                    " (f)-[:TYPE]->(a),\n" +
+                    " (e)-[:TYPE]->(g)";
+
+    private static GraphDatabaseAPI db;
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(CYPHER).close();
+            tx.success();
+        }
+
+        graph = (HugeGraph) new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testTopDown() {
+        final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY);
+        final Map<String, Integer> depths = traverse(bfs, Direction.OUTGOING);
+
+        assertDepths(depths);
+        assertFalse(depths.containsKey("f"));
+        assertEquals(0, bfs.bottomUpSteps());
+        assertEquals(4, bfs.maxDepth());
+    }
+
+    @Test
+    public void testBottomUp() {
+        final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .withReverseDirection(Direction.INCOMING)
+                // switch to bottom-up right away and never back
+                .withAlpha(Double.MAX_VALUE)
+                .withBeta(Double.MAX_VALUE);
+        final Map<String, Integer> depths = traverse(bfs, Direction.OUTGOING);
+
+        assertDepths(depths);
+        assertFalse(depths.containsKey("f"));
+        assertEquals(0, bfs.topDownSteps());
+        assertTrue(bfs.bottomUpSteps() > 0);
+    }
+
+    @Test
+    public void testBothDirections() {
+        final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(graph, null, 1, AllocationTracker.EMPTY)
+                .withReverseDirection(Direction.BOTH);
+        final Map<String, Integer> depths = traverse(bfs, Direction.BOTH);
+
+        assertDepths(depths);
+        assertEquals(1, (int) depths.get("f"));
+    }
+
+    @Test
+    public void testPredicate() {
+        final long d = graph.toHugeMappedNodeId(nodeId("d"));
+        final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .withReverseDirection(Direction.INCOMING);
+        final Map<String, Integer> depths = new ConcurrentHashMap<>();
+        bfs.bfs(
+                graph.toHugeMappedNodeId(nodeId("a")),
+                Direction.OUTGOING,
+                node -> node != d,
+                (node, depth) -> depths.put(name(node), depth));
+
+        assertEquals(3, depths.size());
+        assertFalse(bfs.isVisited(d));
+    }
+
+    private Map<String, Integer> traverse(DirectionOptimizingBFS bfs, Direction direction) {
+        final Map<String, Integer> depths = new ConcurrentHashMap<>();
+        bfs.bfs(
+                graph.toHugeMappedNodeId(nodeId("a")),
+                direction,
+                node -> true,
+                (node, depth) -> assertEquals(null, depths.put(name(node), depth)));
+        return depths;
+    }
+
+    private static void assertDepths(Map<String, Integer> depths) {
+        final Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 0);
+        expected.put("b", 1);
+        expected.put("c", 1);
+        expected.put("d", 2);
+        expected.put("e", 3);
+        expected.put("g", 4);
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), depths.get(entry.getKey()));
+        }
+    }
+
+    private static long nodeId(String name) {
+        try (Transaction tx = db.beginTx()) {
+            final Node node = db.findNodes(Label.label("Node"), "name", name).next();
+            tx.success();
+            return node.getId();
+        }
+    }
+
+    private static String name(long mappedId) {
+        try (Transaction tx = db.beginTx()) {
+            final String name = (String) db.getNodeById(graph.toOriginalNodeId(mappedId)).getProperty("name");
+            tx.success();
+            return name;
+        }
+    }
+}
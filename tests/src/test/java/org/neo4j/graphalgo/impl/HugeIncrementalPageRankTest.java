@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeIncrementalPageRankTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:'a'})\n" +
+            "CREATE (b:Node {name:'b'})\n" +
+            "CREATE (c:Node {name:'c'})\n" +
+            "CREATE (d:Node {name:'d'})\n" +
+            "CREATE (e:Node {name:'e'})\n" +
+            "CREATE (f:Node {name:'f'})\n" +
+            "CREATE (g:Node {name:'g'})\n" +
+            "CREATE\n" +
+            "  (b)-[:TYPE]->(c),\n" +
+            "  (c)-[:TYPE]->(b),\n" +
+            "  (d)-[:TYPE]->(a),\n" +
+            "  (d)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(d),\n" +
+            "  (e)-[:TYPE]->(f),\n" +
+            "  (f)-[:TYPE]->(b),\n" +
+            "  (f)-[:TYPE]->(e),\n" +
+            "  (g)-[:TYPE]->(e)\n";
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldUpdateScoresForChangedRelationships() {
+        HugeGraph before = load();
+        PageRankResult previous = PageRankAlgorithm.of(before, 0.85).compute(40).result();
+
+        long source, target;
+        try (Transaction tx = db.beginTx()) {
+            Node a = db.findNode(Label.label("Node"), "name", "a");
+            Node g = db.findNode(Label.label("Node"), "name", "g");
+            a.createRelationshipTo(g, RelationshipType.withName("TYPE"));
+            source = a.getId();
+            target = g.getId();
+            tx.success();
+        }
+
+        HugeGraph after = load();
+        PageRankResult expected = PageRankAlgorithm.of(after, 0.85).compute(40).result();
+
+        for (int concurrency : new int[]{1, 4}) {
+            HugeIncrementalPageRank incremental = PageRankAlgorithm
+                    .incremental(AllocationTracker.EMPTY, after, 0.85, 1e-6, Pools.DEFAULT, concurrency)
+                    .compute(previous, PrimitiveLongCollections.iterator(
+                            after.toHugeMappedNodeId(source),
+                            after.toHugeMappedNodeId(target)));
+            PageRankResult actual = incremental.result();
+
+            assertTrue(incremental.affectedNodes() >= 2L);
+            for (long nodeId = 0L; nodeId < after.nodeCount(); nodeId++) {
+                assertEquals(
+                        "Node#" + after.toOriginalNodeId(nodeId) + " with concurrency " + concurrency,
+                        expected.score(nodeId),
+                        actual.score(nodeId),
+                        1e-2);
+            }
+        }
+    }
+
+    private HugeGraph load() {
+        return (HugeGraph) new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+    }
+}
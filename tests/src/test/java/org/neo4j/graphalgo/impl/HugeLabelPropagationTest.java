@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.LongLongMap;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs on many small stars so that the nodes are split over several partitions,
+ * which are computed concurrently. Labels can only travel along relationships,
+ * so every node has to end up with the label of a node from its own star.
+ */
+public final class HugeLabelPropagationTest {
+
+    private static final int STARS = 1000;
+    private static final int LEAVES = 4;
+
+    private static GraphDatabaseAPI db;
+    private static LongLongMap starOf;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("UNWIND range(0, " + (STARS - 1) + ") AS star\n" +
+                    "CREATE (center:Node {star: star})\n" +
+                    "WITH star, center\n" +
+                    "UNWIND range(1, " + LEAVES + ") AS leaf\n" +
+                    "CREATE (center)-[:TYPE]->(:Node {star: star})-[:TYPE]->(center)").close();
+            tx.success();
+        }
+        starOf = new LongLongHashMap();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("MATCH (n:Node) RETURN id(n) AS id, n.star AS star")
+                    .accept(row -> {
+                        starOf.put(row.getNumber("id").longValue(), row.getNumber("star").longValue());
+                        return true;
+                    });
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepLabelsWithinStarsWhenRunningConcurrently() {
+        HugeGraph graph = (HugeGraph) new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+
+        for (boolean randomizeOrder : new boolean[]{false, true}) {
+            HugeLabelPropagation lp = new HugeLabelPropagation(
+                    graph,
+                    100,
+                    4,
+                    Pools.DEFAULT,
+                    AllocationTracker.EMPTY);
+            lp.compute(Direction.OUTGOING, 10L, randomizeOrder);
+
+            HugeLongArray labels = lp.labels();
+            assertEquals(graph.nodeCount(), labels.size());
+            for (long nodeId = 0L; nodeId < graph.nodeCount(); nodeId++) {
+                long originalId = graph.toOriginalNodeId(nodeId);
+                long labelId = graph.toOriginalNodeId(labels.get(nodeId));
+                assertEquals(
+                        "Node#" + originalId + " has the label of Node#" + labelId,
+                        starOf.get(originalId),
+                        starOf.get(labelId));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**         5     5      5
+ *      (A)---(B)---(C)----.
+ *    5/ 2\2  2 \2  2 \2  2 \          0.000001
+ *  (S)---(G)---(H)---(I)---(X)--//->(S)  (X)-->(Y)   (Z)
+ *    3\  /3 3  /3 3  /3 3  /
+ *      (D)---(E)---(F)----°
+ *
+ * S->X: {S,G,H,I,X}:8, {S,D,E,F,X}:12, {S,A,B,C,X}:20
+ */
+public final class HugeShortestPathDeltaSteppingTest {
+
+    private static GraphDatabaseAPI api;
+
+    private static HugeGraph graph;
+
+    private static long head, tail, y, z;
+
+    @BeforeClass
+    public static void setup() {
+        final String cypher =
+                "CREATE (s:Node {name:'s'})\n" +
+                        "CREATE (a:Node {name:'a'})\n" +
+                        "CREATE (b:Node {name:'b'})\n" +
+                        "CREATE (c:Node {name:'c'})\n" +
+                        "CREATE (d:Node {name:'d'})\n" +
+                        "CREATE (e:Node {name:'e'})\n" +
+                        "CREATE (f:Node {name:'f'})\n" +
+                        "CREATE (g:Node {name:'g'})\n" +
+                        "CREATE (h:Node {name:'h'})\n" +
+                        "CREATE (i:Node {name:'i'})\n" +
+                        "CREATE (x:Node {name:'x'})\n" +
+                        "CREATE (y:Node {name:'y'})\n" +
+                        "CREATE (z:Node {name:'z'})\n" +
+                        "CREATE" +
+                        " (s)-[:TYPE {cost:5}]->(a),\n" +
+                        " (a)-[:TYPE {cost:5}]->(b),\n" +
+                        " (b)-[:TYPE {cost:5}]->(c),\n" +
+                        " (c)-[:TYPE {cost:5}]->(x),\n" +
+
+                        " (a)-[:TYPE {cost:2}]->(g),\n" +
+                        " (b)-[:TYPE {cost:2}]->(h),\n" +
+                        " (c)-[:TYPE {cost:2}]->(i),\n" +
+
+                        " (s)-[:TYPE {cost:3}]->(d),\n" +
+                        " (d)-[:TYPE {cost:3}]->(e),\n" +
+                        " (e)-[:TYPE {cost:3}]->(f),\n" +
+                        " (f)-[:TYPE {cost:3}]->(x),\n" +
+
+                        " (d)-[:TYPE {cost:3}]->(g),\n" +
+                        " (e)-[:TYPE {cost:3}]->(h),\n" +
+                        " (f)-[:TYPE {cost:3}]->(i),\n" +
+
+                        " (s)-[:TYPE {cost:2}]->(g),\n" +
+                        " (g)-[:TYPE {cost:2}]->(h),\n" +
+                        " (h)-[:TYPE {cost:2}]->(i),\n" +
+                        " (i)-[:TYPE {cost:2}]->(x),\n" +
+
+                        " (x)-[:TYPE {cost:0.000001}]->(y),\n" + // below the int variants precision
+
+                        " (x)-[:TYPE {cost:2}]->(s)"; // create cycle
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+
+        head = getNode("s").getId();
+        tail = getNode("x").getId();
+        y = getNode("y").getId();
+        z = getNode("z").getId();
+
+        graph = (HugeGraph) new GraphLoader(api)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void testSequential() throws Exception {
+        final HugeShortestPathDeltaStepping sssp = new HugeShortestPathDeltaStepping(graph, 3, 1, AllocationTracker.EMPTY)
+                .compute(head);
+
+        assertEquals(8, sssp.distance(graph.toHugeMappedNodeId(tail)), 0.1);
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final HugeShortestPathDeltaStepping sssp = new HugeShortestPathDeltaStepping(graph, 3, 4, AllocationTracker.EMPTY)
+                .withExecutorService(Pools.DEFAULT)
+                .compute(head);
+
+        assertEquals(8, sssp.distance(graph.toHugeMappedNodeId(tail)), 0.1);
+    }
+
+    @Test
+    public void testDistancesAreNotScaled() throws Exception {
+        final HugeShortestPathDeltaStepping sssp = new HugeShortestPathDeltaStepping(graph, 3, 4, AllocationTracker.EMPTY)
+                .withExecutorService(Pools.DEFAULT)
+                .compute(head);
+
+        assertEquals(8.000001, sssp.distance(graph.toHugeMappedNodeId(y)), 1e-9);
+    }
+
+    @Test
+    public void testUnreachableNodeHasInfiniteDistance() throws Exception {
+        final HugeShortestPathDeltaStepping sssp = new HugeShortestPathDeltaStepping(graph, 3, 1, AllocationTracker.EMPTY)
+                .compute(head);
+
+        assertEquals(Double.POSITIVE_INFINITY, sssp.distance(graph.toHugeMappedNodeId(z)), 0.0);
+    }
+
+    public static Node getNode(String name) {
+        final Node[] node = new Node[1];
+        api.execute("MATCH (n:Node) WHERE n.name = '" + name + "' RETURN n").accept(row -> {
+            node[0] = row.getNode("n");
+            return false;
+        });
+        return node[0];
+    }
+}
@@ -135,6 +135,22 @@ public final class LabelPropagation420Test {
         testClustering(2);
     }
 
+    @Test
+    public void testColoredClustering() throws Exception {
+        for (int batchSize : new int[]{100, 2}) {
+            final LabelPropagation lp = new LabelPropagation(
+                    graph,
+                    batchSize,
+                    Pools.DEFAULT_CONCURRENCY,
+                    Pools.DEFAULT);
+
+            lp.computeColored(Direction.OUTGOING, 10);
+
+            assertTrue(lp.didConverge());
+            assertEquals(2L, lp.ranIterations());
+            assertArrayEquals(new int[]{1, 1, 4, 4, 4, 1}, lp.labels());
+        }
+    }
 
     private void testClustering(int batchSize) throws Exception {
         final LabelPropagation lp = new LabelPropagation(
@@ -34,6 +34,7 @@ import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.impl.louvain.HugeMultiLevelLouvain;
 import org.neo4j.graphalgo.impl.louvain.HugeParallelLouvain;
 import org.neo4j.graphalgo.impl.louvain.Louvain;
 import org.neo4j.graphalgo.impl.louvain.LouvainAlgorithm;
@@ -179,8 +180,8 @@ public class LouvainTest {
 
     @Test
     public void testUnweightedSequential() throws Exception {
-        assumeTrue(graph instanceof HugeGraph);
         setup(unidirectional);
+        assumeTrue(graph instanceof HugeGraph);
         final LouvainAlgorithm louvain = new HugeParallelLouvain((HugeGraph) graph, Pools.DEFAULT, AllocationTracker.EMPTY,1, MAX_ITERATIONS)
                 .compute();
 
@@ -191,6 +192,18 @@ public class LouvainTest {
         assertTrue("Maximum iterations > " + MAX_ITERATIONS,louvain.getIterations() < MAX_ITERATIONS);
     }
 
+    @Test
+    public void testUnweightedHugeParallel() throws Exception {
+        setup(unidirectional);
+        assumeTrue(graph instanceof HugeGraph);
+        final LouvainAlgorithm louvain = new HugeParallelLouvain((HugeGraph) graph, Pools.DEFAULT, AllocationTracker.EMPTY, Pools.DEFAULT_CONCURRENCY, MAX_ITERATIONS)
+                .compute();
+
+        printCommunities(louvain);
+        assertCommunities(louvain);
+        assertTrue("Maximum iterations > " + MAX_ITERATIONS,louvain.getIterations() < MAX_ITERATIONS);
+    }
+
     @Test
     public void testUnweightedParallel() throws Exception {
         setup(unidirectional);
@@ -204,6 +217,28 @@ public class LouvainTest {
         assertTrue("Maximum iterations > " + MAX_ITERATIONS,louvain.getIterations() < MAX_ITERATIONS);
     }
 
+    @Test
+    public void testMultiLevel() throws Exception {
+        setup(unidirectional);
+        assumeTrue(graph instanceof HugeGraph);
+        final HugeMultiLevelLouvain louvain = new HugeMultiLevelLouvain((HugeGraph) graph, Pools.DEFAULT, AllocationTracker.EMPTY, Pools.DEFAULT_CONCURRENCY, 10, MAX_ITERATIONS)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .compute();
+
+        printCommunities(louvain);
+        System.out.println("louvain.getLevels() = " + louvain.getLevels());
+        System.out.println("louvain.getModularities() = " + Arrays.toString(louvain.getModularities()));
+        assertWeightedCommunities(louvain);
+        assertEquals(louvain.getLevels(), louvain.getModularities().length);
+        assertEquals(4, louvain.getCommunityCount());
+        assertTrue("Modularity must be positive", louvain.getModularities()[louvain.getLevels() - 1] > 0.0);
+        for (long node = 0; node < graph.nodeCount(); node++) {
+            final long[] communities = louvain.getCommunities(node);
+            assertEquals(louvain.getLevels(), communities.length);
+            assertEquals(louvain.getCommunityIds().get(node), communities[communities.length - 1]);
+        }
+    }
+
     public void assertCommunities(LouvainAlgorithm louvain) {
         // TODO should b & e build its own set or belong to either a or f
         assertUnion(new String[]{"a", "c", "d"}, louvain.getCommunityIds());
@@ -43,6 +43,7 @@ import java.util.Map;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 public final class PageRankTest {
@@ -141,20 +142,7 @@ public final class PageRankTest {
             tx.close();
         }
 
-        final Graph graph;
-        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
-            graph = new GraphLoader(db)
-                    .withLabel("MATCH (n:Label1) RETURN id(n) as id")
-                    .withRelationshipType("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) as source,id(m) as target")
-                    .load(graphImpl);
-
-        } else {
-            graph = new GraphLoader(db)
-                    .withLabel(label)
-                    .withRelationshipType("TYPE1")
-                    .withDirection(Direction.OUTGOING)
-                    .load(graphImpl);
-        }
+        final Graph graph = loadGraph(label);
 
         final PageRankResult rankResult = PageRankAlgorithm
                 .of(graph, 0.85)
@@ -171,4 +159,40 @@ public final class PageRankTest {
             );
         });
     }
+
+    @Test
+    public void shouldStopAfterConvergence() throws Exception {
+        final Graph graph = loadGraph(Label.label("Label1"));
+
+        final PageRankAlgorithm converging = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(40, 1e-2);
+        assertTrue(converging.iterations() < 40);
+        assertTrue(converging.delta() < 1e-2);
+
+        final PageRankAlgorithm fixed = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(40, 0.0);
+        assertEquals(40, fixed.iterations());
+
+        IntStream.range(0, (int) graph.nodeCount()).forEach(i -> assertEquals(
+                fixed.result().score(i),
+                converging.result().score(i),
+                1e-1));
+    }
+
+    private Graph loadGraph(Label label) {
+        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
+            return new GraphLoader(db)
+                    .withLabel("MATCH (n:Label1) RETURN id(n) as id")
+                    .withRelationshipType("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) as source,id(m) as target")
+                    .load(graphImpl);
+
+        }
+        return new GraphLoader(db)
+                .withLabel(label)
+                .withRelationshipType("TYPE1")
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl);
+    }
 }
@@ -165,6 +165,34 @@ public final class ShortestPathDijkstraTest {
         assertArrayEquals(nodeIds, path);
     }
 
+    @Test
+    public void testBidirectional() {
+        final Label label = Label.label("Label1");
+        RelationshipType type = RelationshipType.withName("TYPE1");
+
+        ShortestPath expected = expected(label, type,
+                "name", "a",
+                "name", "c",
+                "name", "e",
+                "name", "d",
+                "name", "f");
+        long[] nodeIds = expected.nodeIds;
+
+        final Graph graph = new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType(type)
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withDirection(Direction.BOTH)
+                .load(graphImpl);
+
+        final ShortestPathBidirectionalDijkstra dijkstra = new ShortestPathBidirectionalDijkstra(graph);
+        dijkstra.compute(nodeIds[0], nodeIds[nodeIds.length - 1], Direction.OUTGOING);
+        final long[] path = Arrays.stream(dijkstra.getFinalPath().toArray()).mapToLong(graph::toOriginalNodeId).toArray();
+
+        assertEquals(expected.weight, dijkstra.getTotalCost(), 0.1);
+        assertArrayEquals(nodeIds, path);
+    }
+
     @Test
     public void test2() {
         final Label label = Label.label("Label2");
@@ -138,6 +138,18 @@ public class TriangleCountExpTest {
         assertEquals(EXPECTED_COEFFICIENT, algo.getAverageCoefficient(), 0.001);
     }
 
+    @Test
+    public void testDegreeOrderedParallel() {
+        final TriangleCountAlgorithm algo = TriangleCountAlgorithm.instance(graph, Pools.DEFAULT, 4, true);
+        try (ProgressTimer start = ProgressTimer.start(l -> System.out.println("took " + l + "ms"))) {
+            algo.compute();
+        }
+        assertEquals(TRIANGLE_COUNT, algo.getTriangleCount());
+        assertTriangles(algo.getTriangles());
+        assertCoefficients(algo.getCoefficients());
+        assertEquals(EXPECTED_COEFFICIENT, algo.getAverageCoefficient(), 0.001);
+    }
+
     @Test
     public void testForkJoin() {
         final TriangleCountForkJoin algo = new TriangleCountForkJoin(graph, ForkJoinPool.commonPool(), 100_000);
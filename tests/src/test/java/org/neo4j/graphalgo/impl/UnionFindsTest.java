@@ -124,6 +124,21 @@ public class UnionFindsTest {
         test(UnionFindAlgo.FJ_MERGE);
     }
 
+    @Test
+    public void testShared() {
+        test(UnionFindAlgo.SHARED);
+    }
+
+    @Test
+    public void testAfforest() {
+        test(UnionFindAlgo.AFFOREST);
+    }
+
+    @Test
+    public void testBFS() {
+        test(UnionFindAlgo.BFS);
+    }
+
 
     private void test(UnionFindAlgo uf) {
         DSSResult result = run(uf);
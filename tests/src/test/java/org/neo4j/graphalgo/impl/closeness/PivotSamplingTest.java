@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.closeness;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PivotSamplingTest {
+
+    @Test
+    public void testSampleIsSortedAndDistinct() {
+        for (int sampleSize : new int[]{1, 10, 500, 1000}) {
+            long[] pivots = PivotSampling.sample(1000L, sampleSize);
+            assertEquals(sampleSize, pivots.length);
+            for (int i = 0; i < pivots.length; i++) {
+                assertTrue(pivots[i] >= 0L && pivots[i] < 1000L);
+                if (i > 0) {
+                    assertTrue(pivots[i - 1] < pivots[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSamplesOf() {
+        long[] pivots = {1L, 4L, 7L};
+        assertEquals(2, PivotSampling.samplesOf(pivots, 4L));
+        assertEquals(3, PivotSampling.samplesOf(pivots, 5L));
+    }
+
+    @Test
+    public void testSampleSize() {
+        // ln(1000) / 0.1² = 690.8
+        assertEquals(691, PivotSampling.sampleSize(1000L, 0.1));
+        // a smaller error needs more pivots
+        assertTrue(PivotSampling.sampleSize(1000L, 0.05) > PivotSampling.sampleSize(1000L, 0.1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEpsilon() {
+        PivotSampling.sampleSize(1000L, 0.0);
+    }
+
+    @Test
+    public void testFullSampleContainsAllNodes() {
+        long[] pivots = PivotSampling.sample(64L, 64);
+        long[] expected = new long[64];
+        Arrays.setAll(expected, i -> i);
+        assertTrue(Arrays.equals(expected, pivots));
+    }
+}
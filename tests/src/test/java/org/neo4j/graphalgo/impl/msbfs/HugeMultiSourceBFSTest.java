@@ -280,6 +280,43 @@ public final class HugeMultiSourceBFSTest {
         }
     }
 
+    @Test
+    public void testWideOmega() {
+        final int nodeCount = 2048;
+        final int sourceCount = 1000;
+
+        HugeRelationshipIterator iter = (nodeId, direction, consumer) -> {
+            consumer.accept(nodeId, (nodeId + 1) % nodeCount);
+        };
+
+        final long[] sources = new long[sourceCount];
+        Arrays.setAll(sources, i -> i * 2);
+        final int[][] depths = new int[nodeCount][sourceCount];
+        HugeMultiSourceBFS msbfs = new HugeMultiSourceBFS(
+                new HugeDirectIdMapping(nodeCount),
+                iter,
+                Direction.OUTGOING,
+                (nodeId, depth, sourceNodeIds) -> {
+                    int size = 0;
+                    while (sourceNodeIds.hasNext()) {
+                        depths[(int) nodeId][(int) sourceNodeIds.next() / 2] = depth;
+                        size++;
+                    }
+                    assertEquals(size, sourceNodeIds.size());
+                },
+                AllocationTracker.EMPTY,
+                sources).withOmega(HugeMultiSourceBFS.MAX_OMEGA);
+        // 1000 sources fit into two runs
+        msbfs.run(1, null);
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < sourceCount; j++) {
+                int expected = (i - 2 * j + nodeCount) % nodeCount;
+                assertEquals(expected, depths[i][j]);
+            }
+        }
+    }
+
     private static void withGraph(
             String cypher,
             Consumer<? super HugeGraph> block) {
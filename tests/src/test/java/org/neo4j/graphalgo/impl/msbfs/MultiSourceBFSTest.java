@@ -276,6 +276,51 @@ public final class MultiSourceBFSTest {
         }
     }
 
+    @Test
+    public void testWideOmega() {
+        final int nodeCount = 2048;
+        final int sourceCount = 1000;
+
+        RelationshipIterator iter = (nodeId, direction, consumer) -> {
+            consumer.accept(nodeId, (nodeId + 1) % nodeCount, -1L);
+        };
+
+        final int[] sources = new int[sourceCount];
+        Arrays.setAll(sources, i -> i * 2);
+        final int[][] depths = new int[nodeCount][sourceCount];
+        MultiSourceBFS msbfs = new MultiSourceBFS(
+                new DirectIdMapping(nodeCount),
+                iter,
+                Direction.OUTGOING,
+                (nodeId, depth, sourceNodeIds) -> {
+                    int size = 0;
+                    while (sourceNodeIds.hasNext()) {
+                        depths[nodeId][sourceNodeIds.next() / 2] = depth;
+                        size++;
+                    }
+                    assertEquals(size, sourceNodeIds.size());
+                },
+                sources).withOmega(MultiSourceBFS.MAX_OMEGA);
+        // 1000 sources fit into two runs
+        msbfs.run(1, null);
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < sourceCount; j++) {
+                int expected = (i - 2 * j + nodeCount) % nodeCount;
+                assertEquals(expected, depths[i][j]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOmega() {
+        new MultiSourceBFS(
+                new DirectIdMapping(8),
+                (nodeId, direction, consumer) -> {},
+                Direction.OUTGOING,
+                (nodeId, depth, sourceNodeIds) -> {}).withOmega(96);
+    }
+
     private void withGraph(
             String cypher,
             Consumer<? super Graph> block) {